@@ -138,6 +138,18 @@ public @interface Options {
    */
   String resultSets() default "";
 
+  /**
+   * Returns the batch group of an insert.
+   * <p>
+   * Inserts of the same batch group are declared independent of each other: with batch grouping enabled, an insert
+   * may join the batch of an earlier execution of the same insert across the other inserts of the group.
+   * </p>
+   *
+   * @return the batch group, or an empty string if the insert is ordered with all other statements
+   * @since 3.5.7
+   */
+  String batchGroup() default "";
+
   /**
    * @return A database id that correspond this options
    * @since 3.5.5
@@ -0,0 +1,184 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * The arguments of a mapper method call, exposed under their parameter names without being copied into a map.
+ * <p>
+ * The names (including the generic {@code param1, param2, ...} names) are resolved once per mapper method into a
+ * shared {@link Layout}. The positions of the arguments referenced by a statement's parameter mappings are compiled
+ * on first use as well, so binding a static statement reads the arguments by index instead of going through a
+ * {@link org.apache.ibatis.reflection.MetaObject}.
+ * <p>
+ * Like {@link MapperMethod.ParamMap}, looking up an unknown name throws a {@link BindingException}. Values put under
+ * new names are kept in a separate map.
+ *
+ * @since 3.5.7
+ */
+public class ArgumentMap extends AbstractMap<String, Object> {
+
+  private final Layout layout;
+  private final Object[] args;
+  private Map<String, Object> extraParams;
+
+  public ArgumentMap(Layout layout, Object[] args) {
+    this.layout = layout;
+    this.args = args;
+  }
+
+  /**
+   * Returns the value bound to a parameter mapping of a statement.
+   *
+   * @param configuration
+   *          the configuration
+   * @param parameterMappings
+   *          the parameter mappings of the bound sql
+   * @param position
+   *          the position of the parameter mapping
+   * @return the value to bind
+   */
+  public Object getParameterValue(Configuration configuration, List<ParameterMapping> parameterMappings, int position) {
+    Binding binding = layout.binding;
+    if (binding == null || binding.parameterMappings != parameterMappings) {
+      binding = new Binding(layout, parameterMappings);
+      layout.binding = binding;
+    }
+    int index = binding.indexes[position];
+    if (index < 0 || (extraParams != null && !extraParams.isEmpty())) {
+      return configuration.newMetaObject(this).getValue(parameterMappings.get(position).getProperty());
+    }
+    Object value = args[index];
+    String path = binding.paths[position];
+    if (path == null || value == null) {
+      return value;
+    }
+    return configuration.newMetaObject(value).getValue(path);
+  }
+
+  @Override
+  public Object get(Object key) {
+    Integer index = layout.indexes.get(key);
+    if (index != null) {
+      return args[index];
+    }
+    if (extraParams == null || !extraParams.containsKey(key)) {
+      throw new BindingException("Parameter '" + key + "' not found. Available parameters are " + keySet());
+    }
+    return extraParams.get(key);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return layout.indexes.containsKey(key) || (extraParams != null && extraParams.containsKey(key));
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    Integer index = layout.indexes.get(key);
+    if (index != null) {
+      Object previous = args[index];
+      args[index] = value;
+      return previous;
+    }
+    if (extraParams == null) {
+      extraParams = new HashMap<>();
+    }
+    return extraParams.put(key, value);
+  }
+
+  @Override
+  public int size() {
+    return layout.indexes.size() + (extraParams == null ? 0 : extraParams.size());
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return new AbstractSet<Entry<String, Object>>() {
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        Set<Entry<String, Object>> entries = new LinkedHashSet<>();
+        for (Entry<String, Integer> entry : layout.indexes.entrySet()) {
+          entries.add(new SimpleImmutableEntry<>(entry.getKey(), args[entry.getValue()]));
+        }
+        if (extraParams != null) {
+          entries.addAll(extraParams.entrySet());
+        }
+        return Collections.unmodifiableSet(entries).iterator();
+      }
+
+      @Override
+      public int size() {
+        return ArgumentMap.this.size();
+      }
+    };
+  }
+
+  /**
+   * The parameter names of a mapper method and the argument index each of them refers to.
+   */
+  public static class Layout {
+
+    private final Map<String, Integer> indexes;
+    private volatile Binding binding;
+
+    public Layout(Map<String, Integer> indexes) {
+      this.indexes = Collections.unmodifiableMap(indexes);
+    }
+
+    public Map<String, Integer> getIndexes() {
+      return indexes;
+    }
+  }
+
+  /**
+   * The argument index and remaining property path of each parameter mapping of a statement. An index of -1 means the
+   * property is resolved through a meta object.
+   */
+  private static class Binding {
+
+    private final List<ParameterMapping> parameterMappings;
+    private final int[] indexes;
+    private final String[] paths;
+
+    Binding(Layout layout, List<ParameterMapping> parameterMappings) {
+      this.parameterMappings = parameterMappings;
+      this.indexes = new int[parameterMappings.size()];
+      this.paths = new String[parameterMappings.size()];
+      for (int i = 0; i < indexes.length; i++) {
+        String property = parameterMappings.get(i).getProperty();
+        int dot = property.indexOf('.');
+        String name = dot < 0 ? property : property.substring(0, dot);
+        Integer index = name.indexOf('[') < 0 ? layout.indexes.get(name) : null;
+        indexes[i] = index == null ? -1 : index;
+        paths[i] = dot < 0 ? null : property.substring(dot + 1);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,232 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.binding;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.binding.MapperMethod.MethodSignature;
+import org.apache.ibatis.binding.MapperMethod.SqlCommand;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+
+/**
+ * Generates a concrete implementation of a mapper interface with Javassist.
+ * <p>
+ * Each abstract mapper method is compiled into code that calls the {@link SqlSession} directly with the statement id
+ * and the parameter names resolved up front. Single parameter methods bind their argument without building a
+ * parameter map, and inserts, updates, deletes and plain selects skip the {@link MapperMethod} dispatch entirely.
+ * Methods that need result conversion (cursors, maps, optionals, arrays, row bounds, result handlers, flushes) are
+ * delegated to a precomputed {@link MapperMethod}. Default methods are inherited from the interface.
+ *
+ * @param <T>
+ *          the mapper type
+ * @since 3.5.7
+ */
+class GeneratedMapperFactory<T> {
+
+  static final String CLASS_NAME_SUFFIX = "$$MyBatisMapper";
+
+  // the same interface may be bound by several configurations sharing a class loader
+  private static final AtomicInteger classCounter = new AtomicInteger();
+
+  private final Constructor<? extends T> constructor;
+  private final MapperMethod[] methods;
+  private final MethodSignature[] signatures;
+
+  GeneratedMapperFactory(Configuration configuration, Class<T> mapperInterface) throws Exception {
+    List<Method> abstractMethods = getAbstractMethods(mapperInterface);
+    this.methods = new MapperMethod[abstractMethods.size()];
+    this.signatures = new MethodSignature[abstractMethods.size()];
+    for (int i = 0; i < methods.length; i++) {
+      methods[i] = new MapperMethod(mapperInterface, abstractMethods.get(i), configuration);
+      signatures[i] = methods[i].getMethodSignature();
+    }
+    Class<? extends T> type = generate(configuration, mapperInterface, abstractMethods);
+    this.constructor = type.getConstructor(SqlSession.class, MapperMethod[].class, MethodSignature[].class);
+  }
+
+  T newInstance(SqlSession sqlSession) throws Exception {
+    return constructor.newInstance(sqlSession, methods, signatures);
+  }
+
+  private static List<Method> getAbstractMethods(Class<?> mapperInterface) {
+    List<Method> result = new ArrayList<>();
+    Set<String> signatures = new HashSet<>();
+    for (Method method : mapperInterface.getMethods()) {
+      if (method.isDefault() || method.isBridge() || method.isSynthetic()
+          || Modifier.isStatic(method.getModifiers())) {
+        continue;
+      }
+      StringBuilder signature = new StringBuilder(method.getName());
+      for (Class<?> parameterType : method.getParameterTypes()) {
+        signature.append(',').append(parameterType.getName());
+      }
+      if (!signatures.add(signature.toString())) {
+        // covariant redeclarations cannot be implemented by a single source level method
+        throw new BindingException("Mapper method '" + method + "' is declared more than once.");
+      }
+      result.add(method);
+    }
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Class<? extends T> generate(Configuration configuration, Class<T> mapperInterface,
+      List<Method> abstractMethods) throws Exception {
+    ClassPool pool = new ClassPool(true);
+    pool.appendClassPath(new ClassClassPath(SqlSession.class));
+    if (mapperInterface.getClassLoader() != null) {
+      pool.appendClassPath(new LoaderClassPath(mapperInterface.getClassLoader()));
+    }
+    CtClass ctClass = pool.makeClass(mapperInterface.getName() + CLASS_NAME_SUFFIX + classCounter.getAndIncrement());
+    try {
+      ctClass.addInterface(pool.get(mapperInterface.getName()));
+      CtClass[] fieldTypes = { pool.get(SqlSession.class.getName()), pool.get(MapperMethod.class.getName() + "[]"),
+          pool.get(MethodSignature.class.getName() + "[]") };
+      String[] fieldNames = { "sqlSession", "methods", "signatures" };
+      for (int i = 0; i < fieldTypes.length; i++) {
+        CtField field = new CtField(fieldTypes[i], fieldNames[i], ctClass);
+        field.setModifiers(Modifier.PRIVATE | Modifier.FINAL);
+        ctClass.addField(field);
+      }
+      ctClass.addConstructor(CtNewConstructor.make(fieldTypes, new CtClass[0],
+          "{ this.sqlSession = $1; this.methods = $2; this.signatures = $3; }", ctClass));
+      for (int i = 0; i < abstractMethods.size(); i++) {
+        Method method = abstractMethods.get(i);
+        CtClass[] parameterTypes = new CtClass[method.getParameterCount()];
+        for (int j = 0; j < parameterTypes.length; j++) {
+          parameterTypes[j] = pool.get(method.getParameterTypes()[j].getTypeName());
+        }
+        ctClass.addMethod(CtNewMethod.make(Modifier.PUBLIC, pool.get(method.getReturnType().getTypeName()),
+            method.getName(), parameterTypes, new CtClass[0], methodBody(configuration, method, i), ctClass));
+      }
+      return (Class<? extends T>) ctClass.toClass(mapperInterface);
+    } finally {
+      ctClass.detach();
+    }
+  }
+
+  private String methodBody(Configuration configuration, Method method, int index) {
+    SqlCommand command = methods[index].getCommand();
+    MethodSignature signature = signatures[index];
+    Class<?> returnType = method.getReturnType();
+    String statement = command.getName() == null ? null : literal(command.getName());
+    if (!signature.hasRowBounds() && !signature.hasResultHandler()) {
+      String parameter = parameterExpression(configuration, method, index);
+      SqlCommandType type = command.getType();
+      if (type == SqlCommandType.INSERT || type == SqlCommandType.UPDATE || type == SqlCommandType.DELETE) {
+        String rowCount = "this.sqlSession." + type.name().toLowerCase(Locale.ENGLISH) + "(" + statement + ", " + parameter + ")";
+        String body = rowCountBody(returnType, rowCount);
+        if (body != null) {
+          return body;
+        }
+      } else if (type == SqlCommandType.SELECT && !signature.returnsVoid() && !signature.returnsMap()
+          && !signature.returnsCursor() && !signature.returnsOptional()) {
+        if (signature.returnsMany()) {
+          if (returnType.isAssignableFrom(List.class)) {
+            return "{ return this.sqlSession.selectList(" + statement + ", " + parameter + "); }";
+          }
+        } else if (!returnType.isPrimitive()) {
+          return "{ return ($r) this.sqlSession.selectOne(" + statement + ", " + parameter + "); }";
+        }
+      }
+    }
+    String invocation = "this.methods[" + index + "].execute(this.sqlSession, $args)";
+    return void.class.equals(returnType) ? "{ " + invocation + "; }" : "{ return ($r) " + invocation + "; }";
+  }
+
+  private static String rowCountBody(Class<?> returnType, String rowCount) {
+    if (void.class.equals(returnType)) {
+      return "{ " + rowCount + "; }";
+    } else if (int.class.equals(returnType)) {
+      return "{ return " + rowCount + "; }";
+    } else if (Integer.class.equals(returnType)) {
+      return "{ return ($w) " + rowCount + "; }";
+    } else if (long.class.equals(returnType)) {
+      return "{ return (long) " + rowCount + "; }";
+    } else if (Long.class.equals(returnType)) {
+      return "{ return ($w) (long) " + rowCount + "; }";
+    } else if (boolean.class.equals(returnType)) {
+      return "{ return " + rowCount + " > 0; }";
+    } else if (Boolean.class.equals(returnType)) {
+      return "{ return ($w) (" + rowCount + " > 0); }";
+    }
+    // let MapperMethod report the unsupported return type
+    return null;
+  }
+
+  private String parameterExpression(Configuration configuration, Method method, int index) {
+    Class<?>[] parameterTypes = method.getParameterTypes();
+    if (parameterTypes.length == 0) {
+      return "null";
+    }
+    if (parameterTypes.length == 1 && !RowBounds.class.isAssignableFrom(parameterTypes[0])
+        && !ResultHandler.class.isAssignableFrom(parameterTypes[0]) && !hasParamAnnotation(method)) {
+      String name = configuration.isUseActualParamName()
+          ? literal(new ParamNameResolver(configuration, method).getNames()[0]) : "null";
+      return ParamNameResolver.class.getName() + ".wrapToMapIfCollection(($w) $1, " + name + ")";
+    }
+    return "this.signatures[" + index + "].convertArgsToSqlCommandParam($args)";
+  }
+
+  private static boolean hasParamAnnotation(Method method) {
+    for (Annotation[] annotations : method.getParameterAnnotations()) {
+      for (Annotation annotation : annotations) {
+        if (annotation instanceof Param) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static String literal(String value) {
+    StringBuilder builder = new StringBuilder("\"");
+    for (char c : value.toCharArray()) {
+      if (c == '"' || c == '\\') {
+        builder.append('\\').append(c);
+      } else if (c < 0x20 || c > 0x7e) {
+        throw new BindingException("Cannot generate a mapper method for '" + value + "'.");
+      } else {
+        builder.append(c);
+      }
+    }
+    return builder.append('"').toString();
+  }
+
+}
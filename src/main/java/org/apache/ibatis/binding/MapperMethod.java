@@ -26,13 +26,16 @@ import java.util.Optional;
 
 import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.MapKey;
+import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.ParamNameResolver;
 import org.apache.ibatis.reflection.TypeParameterResolver;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -51,7 +54,29 @@ public class MapperMethod {
 
   public MapperMethod(Class<?> mapperInterface, Method method, Configuration config) {
     this.command = new SqlCommand(config, mapperInterface, method);
-    this.method = new MethodSignature(config, mapperInterface, method);
+    this.method = new MethodSignature(config, mapperInterface, method, canBindArguments(config, command));
+  }
+
+  /**
+   * Arguments can be bound in place when the statement's parameter mappings do not depend on the parameter object
+   * and nothing writes back into it.
+   */
+  private static boolean canBindArguments(Configuration config, SqlCommand command) {
+    if (!config.isArgumentBindingEnabled() || command.getName() == null) {
+      return false;
+    }
+    MappedStatement ms = config.getMappedStatement(command.getName());
+    return (ms.getSqlSource() instanceof RawSqlSource || ms.getSqlSource() instanceof StaticSqlSource)
+        && ms.getKeyGenerator() instanceof NoKeyGenerator
+        && ms.getStatementType() != StatementType.CALLABLE;
+  }
+
+  SqlCommand getCommand() {
+    return command;
+  }
+
+  MethodSignature getMethodSignature() {
+    return method;
   }
 
   public Object execute(SqlSession sqlSession, Object[] args) {
@@ -284,8 +309,13 @@ public class MapperMethod {
     private final Integer resultHandlerIndex;
     private final Integer rowBoundsIndex;
     private final ParamNameResolver paramNameResolver;
+    private final boolean bindArguments;
 
     public MethodSignature(Configuration configuration, Class<?> mapperInterface, Method method) {
+      this(configuration, mapperInterface, method, false);
+    }
+
+    MethodSignature(Configuration configuration, Class<?> mapperInterface, Method method, boolean bindArguments) {
       Type resolvedReturnType = TypeParameterResolver.resolveReturnType(method, mapperInterface);
       if (resolvedReturnType instanceof Class<?>) {
         this.returnType = (Class<?>) resolvedReturnType;
@@ -303,10 +333,11 @@ public class MapperMethod {
       this.rowBoundsIndex = getUniqueParamIndex(method, RowBounds.class);
       this.resultHandlerIndex = getUniqueParamIndex(method, ResultHandler.class);
       this.paramNameResolver = new ParamNameResolver(configuration, method);
+      this.bindArguments = bindArguments;
     }
 
     public Object convertArgsToSqlCommandParam(Object[] args) {
-      return paramNameResolver.getNamedParams(args);
+      return bindArguments ? paramNameResolver.getArgumentParams(args) : paramNameResolver.getNamedParams(args);
     }
 
     public boolean hasRowBounds() {
@@ -19,8 +19,12 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.ibatis.binding.MapperProxy.MapperMethodInvoker;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
 
 /**
@@ -28,8 +32,13 @@ import org.apache.ibatis.session.SqlSession;
  */
 public class MapperProxyFactory<T> {
 
+  private static final Log log = LogFactory.getLog(MapperProxyFactory.class);
+
   private final Class<T> mapperInterface;
   private final Map<Method, MapperMethodInvoker> methodCache = new ConcurrentHashMap<>();
+  private final ReentrantLock generatedMapperLock = new ReentrantLock();
+  private volatile GeneratedMapperFactory<T> generatedMapperFactory;
+  private volatile boolean generatedMapperFailed;
 
   public MapperProxyFactory(Class<T> mapperInterface) {
     this.mapperInterface = mapperInterface;
@@ -49,8 +58,46 @@ public class MapperProxyFactory<T> {
   }
 
   public T newInstance(SqlSession sqlSession) {
+    if (sqlSession.getConfiguration().isUseGeneratedMappers()) {
+      GeneratedMapperFactory<T> factory = getGeneratedMapperFactory(sqlSession.getConfiguration());
+      if (factory != null) {
+        try {
+          return factory.newInstance(sqlSession);
+        } catch (Exception e) {
+          throw new BindingException("Error creating mapper instance for " + mapperInterface.getName() + ".  Cause: " + e, e);
+        }
+      }
+    }
     final MapperProxy<T> mapperProxy = new MapperProxy<>(sqlSession, mapperInterface, methodCache);
     return newInstance(mapperProxy);
   }
 
+  /**
+   * Returns the factory of the generated mapper class, generating it on first use. When the class cannot be generated
+   * (e.g. Javassist is not on the classpath) the mapper falls back to a JDK proxy for the lifetime of this factory.
+   */
+  private GeneratedMapperFactory<T> getGeneratedMapperFactory(Configuration configuration) {
+    GeneratedMapperFactory<T> factory = generatedMapperFactory;
+    if (factory != null || generatedMapperFailed) {
+      return factory;
+    }
+    generatedMapperLock.lock();
+    try {
+      if (generatedMapperFactory == null && !generatedMapperFailed) {
+        try {
+          generatedMapperFactory = new GeneratedMapperFactory<>(configuration, mapperInterface);
+        } catch (Exception | LinkageError e) {
+          generatedMapperFailed = true;
+          if (log.isDebugEnabled()) {
+            log.debug("Could not generate a mapper class for " + mapperInterface.getName()
+                + ", falling back to a proxy.  Cause: " + e);
+          }
+        }
+      }
+      return generatedMapperFactory;
+    } finally {
+      generatedMapperLock.unlock();
+    }
+  }
+
 }
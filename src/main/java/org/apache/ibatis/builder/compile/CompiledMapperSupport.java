@@ -0,0 +1,177 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.compile;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+/**
+ * Helpers called by the code generated by the {@link MapperCompiler}.
+ *
+ * @since 3.5.7
+ */
+public final class CompiledMapperSupport {
+
+  private static final Map<String, Class<?>> PRIMITIVE_TYPES = new HashMap<>();
+
+  static {
+    for (Class<?> type : new Class<?>[] { boolean.class, byte.class, char.class, short.class, int.class, long.class,
+        float.class, double.class, void.class }) {
+      PRIMITIVE_TYPES.put(type.getName(), type);
+    }
+  }
+
+  private CompiledMapperSupport() {
+    // Prevent Instantiation of Static Class
+  }
+
+  /**
+   * Returns the fingerprint of a mapper file, as stored in {@link CompiledMappers#getResources()}: the SHA-256 hash of
+   * its content and of the settings the compiled statements and result maps were built with. These are the database
+   * id, the default result set type, the use of generated keys, the default scripting language, lazy loading, and the
+   * default statement timeout and fetch size.
+   *
+   * @param content
+   *          the file content
+   * @param configuration
+   *          the configuration the file is registered into
+   * @return the hash as lower case hex
+   */
+  public static String fingerprint(byte[] content, Configuration configuration) {
+    String settings = "\ndatabaseId=" + configuration.getDatabaseId()
+        + "\ndefaultResultSetType=" + configuration.getDefaultResultSetType()
+        + "\nuseGeneratedKeys=" + configuration.isUseGeneratedKeys()
+        + "\ndefaultScriptingLanguage=" + configuration.getLanguageRegistry().getDefaultDriverClass().getName()
+        + "\nlazyLoadingEnabled=" + configuration.isLazyLoadingEnabled()
+        + "\ndefaultStatementTimeout=" + configuration.getDefaultStatementTimeout()
+        + "\ndefaultFetchSize=" + configuration.getDefaultFetchSize();
+    byte[] hash;
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(content);
+      hash = digest.digest(settings.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available.", e);
+    }
+    StringBuilder hex = new StringBuilder(hash.length * 2);
+    for (byte b : hash) {
+      hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+    }
+    return hex.toString();
+  }
+
+  /**
+   * Resolves a class by its binary name. Classes are referenced by name so that the generated code does not depend
+   * on their visibility.
+   *
+   * @param name
+   *          the binary name, or the name of a primitive type
+   * @return the class
+   */
+  public static Class<?> type(String name) {
+    Class<?> type = PRIMITIVE_TYPES.get(name);
+    if (type != null) {
+      return type;
+    }
+    try {
+      return Resources.classForName(name);
+    } catch (ClassNotFoundException e) {
+      throw new BuilderException("Error resolving class of a compiled mapper.  Cause: " + e, e);
+    }
+  }
+
+  /**
+   * Returns the type handler of a mapping, resolved the way {@code MapperBuilderAssistant} resolves a
+   * {@code typeHandler} attribute.
+   */
+  public static TypeHandler<?> typeHandler(Configuration configuration, Class<?> javaType, String handlerType) {
+    @SuppressWarnings("unchecked")
+    Class<? extends TypeHandler<?>> handlerClass = (Class<? extends TypeHandler<?>>) type(handlerType);
+    TypeHandlerRegistry registry = configuration.getTypeHandlerRegistry();
+    TypeHandler<?> handler = registry.getMappingTypeHandler(handlerClass);
+    return handler != null ? handler : registry.getInstance(javaType, handlerClass);
+  }
+
+  /**
+   * Binds the mapper interface of a namespace, as the XML mapper builder does after parsing a file, and marks the
+   * resource as loaded.
+   */
+  public static void bindNamespace(Configuration configuration, String resource, String namespace) {
+    configuration.addLoadedResource(resource);
+    Class<?> boundType = null;
+    try {
+      boundType = Resources.classForName(namespace);
+    } catch (ClassNotFoundException e) {
+      // ignore, bound type is not required
+    }
+    if (boundType != null && !configuration.hasMapper(boundType)) {
+      configuration.addLoadedResource("namespace:" + namespace);
+      configuration.addMapper(boundType);
+    }
+  }
+
+  public static List<ResultFlag> flags(ResultFlag... flags) {
+    return new ArrayList<>(Arrays.asList(flags));
+  }
+
+  public static List<ResultMapping> mappings(ResultMapping... mappings) {
+    return new ArrayList<>(Arrays.asList(mappings));
+  }
+
+  public static Set<String> set(String... values) {
+    return new HashSet<>(Arrays.asList(values));
+  }
+
+  /**
+   * Returns a map of the given keys and values, which alternate.
+   */
+  public static Map<String, String> map(String... keysAndValues) {
+    Map<String, String> map = new HashMap<>();
+    for (int i = 0; i < keysAndValues.length; i += 2) {
+      map.put(keysAndValues[i], keysAndValues[i + 1]);
+    }
+    return map;
+  }
+
+  /**
+   * Returns properties of the given keys and values, which alternate.
+   */
+  public static Properties properties(String... keysAndValues) {
+    Properties properties = new Properties();
+    for (int i = 0; i < keysAndValues.length; i += 2) {
+      properties.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+    }
+    return properties;
+  }
+
+}
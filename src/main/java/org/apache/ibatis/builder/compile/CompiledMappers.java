@@ -0,0 +1,53 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.compile;
+
+import java.util.Map;
+
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Mapper XML files compiled at build time by the {@link MapperCompiler}.
+ * <p>
+ * Implementations are generated, and are found through {@link java.util.ServiceLoader} when
+ * {@link Configuration#setCompiledMappersEnabled(boolean)} is set. A resource mapper element whose file and settings
+ * have the fingerprint it was compiled under is registered with {@link #register(String, Configuration)} instead of
+ * being parsed.
+ *
+ * @since 3.5.7
+ */
+public interface CompiledMappers {
+
+  /**
+   * Returns the compiled resources.
+   *
+   * @return the fingerprint of each compiled resource, keyed by resource
+   * @see CompiledMapperSupport#fingerprint(byte[], Configuration)
+   */
+  Map<String, String> getResources();
+
+  /**
+   * Registers the cache, result maps and statements of a compiled resource, and binds the mapper interface of its
+   * namespace.
+   *
+   * @param resource
+   *          a key of {@link #getResources()}
+   * @param configuration
+   *          the configuration to register into
+   */
+  void register(String resource, Configuration configuration);
+
+}
@@ -0,0 +1,658 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.compile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.builder.xml.XMLConfigBuilder;
+import org.apache.ibatis.builder.xml.XMLMapperEntityResolver;
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Discriminator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeAliasRegistry;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+/**
+ * Compiles the resource mapper XML files of a configuration into a Java source file, run as part of the build.
+ * <p>
+ * The configuration is built once at compile time, which validates every mapper file. For each file the compiler then
+ * generates code that registers the same cache, result maps and statements through the mapping builders, so that no
+ * XML is read, validated or parsed at startup. The generated class implements {@link CompiledMappers} and is listed
+ * in a {@code META-INF/services} file; enable it with the {@code compiledMappersEnabled} setting.
+ * <p>
+ * Only files whose statements are static are compiled. A file is left to be parsed at runtime when it uses dynamic
+ * sql, {@code ${}} placeholders, {@code databaseId}, {@code selectKey}, {@code cache-ref} or {@code parameterMap}
+ * elements, includes sql fragments of another namespace, or declares sql fragments included by another mapper file.
+ * The reasons are reported by {@link #getSkippedResources()}.
+ * <p>
+ * From Maven, run the {@link #main(String[])} method with the {@code exec-maven-plugin} in the
+ * {@code process-classes} phase and add the output directory as a source root of a later compilation.
+ *
+ * @since 3.5.7
+ */
+public class MapperCompiler {
+
+  private static final String SUPPORT = CompiledMapperSupport.class.getName();
+  private static final String DEFAULT_PARAMETER_MAP = "defaultParameterMap";
+
+  private final Configuration configuration;
+  private final Map<String, Unit> units = new LinkedHashMap<>();
+  private final Map<String, String> skippedResources = new LinkedHashMap<>();
+
+  /**
+   * Builds the configuration and selects the mapper files to compile.
+   *
+   * @param configResource
+   *          the configuration resource
+   * @param properties
+   *          the properties passed to the configuration builder, may be null
+   * @throws IOException
+   *           if a file cannot be read
+   */
+  public MapperCompiler(String configResource, Properties properties) throws IOException {
+    try (Reader reader = Resources.getResourceAsReader(configResource)) {
+      configuration = new XMLConfigBuilder(reader, null, properties).parse();
+    }
+    // builds pending and lazily built statements, failing on unresolved references
+    configuration.getMappedStatements();
+
+    Map<String, XNode> mappers = new LinkedHashMap<>();
+    Map<String, byte[]> contents = new LinkedHashMap<>();
+    try (Reader reader = Resources.getResourceAsReader(configResource)) {
+      XPathParser parser = new XPathParser(reader, true, configuration.getVariables(), new XMLMapperEntityResolver());
+      for (XNode mapper : parser.evalNodes("/configuration/mappers/mapper")) {
+        String resource = mapper.getStringAttribute("resource");
+        if (resource != null) {
+          byte[] content = readContent(resource);
+          contents.put(resource, content);
+          mappers.put(resource, new XPathParser(new String(content, StandardCharsets.UTF_8), true, null,
+              new XMLMapperEntityResolver()).evalNode("/mapper"));
+        }
+      }
+    }
+    Set<String> includedNamespaces = new HashSet<>();
+    for (XNode mapper : mappers.values()) {
+      String namespace = mapper.getStringAttribute("namespace");
+      for (XNode include : mapper.evalNodes("//include")) {
+        String refid = include.getStringAttribute("refid");
+        int dot = refid.lastIndexOf('.');
+        if (dot > 0 && !refid.substring(0, dot).equals(namespace)) {
+          includedNamespaces.add(refid.substring(0, dot));
+        }
+      }
+    }
+    for (Map.Entry<String, XNode> entry : mappers.entrySet()) {
+      String resource = entry.getKey();
+      byte[] content = contents.get(resource);
+      String reason = new String(content, StandardCharsets.UTF_8).contains("${") ? "uses ${} placeholders"
+          : check(entry.getValue(), includedNamespaces);
+      if (reason == null) {
+        Unit unit = new Unit(resource, CompiledMapperSupport.fingerprint(content, configuration), entry.getValue());
+        reason = unit.collect();
+        if (reason == null) {
+          units.put(resource, unit);
+        }
+      }
+      if (reason != null) {
+        skippedResources.put(resource, reason);
+      }
+    }
+  }
+
+  /**
+   * Compiles the mapper files of a configuration. The arguments are the configuration resource, the directory to write
+   * the Java source to, the directory to write the {@code META-INF/services} file to, and the fully qualified name of
+   * the class to generate.
+   *
+   * @param args
+   *          the arguments
+   * @throws IOException
+   *           if a file cannot be read or written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 4) {
+      throw new IllegalArgumentException(
+          "Usage: MapperCompiler <config resource> <source directory> <resource directory> <class name>");
+    }
+    MapperCompiler compiler = new MapperCompiler(args[0], System.getProperties());
+    compiler.write(Paths.get(args[1]), Paths.get(args[2]), args[3]);
+    System.out.println("Compiled " + compiler.getCompiledResources().size() + " mapper files into " + args[3]);
+    for (Map.Entry<String, String> skipped : compiler.getSkippedResources().entrySet()) {
+      System.out.println("Skipped " + skipped.getKey() + ": " + skipped.getValue());
+    }
+  }
+
+  public Configuration getConfiguration() {
+    return configuration;
+  }
+
+  public Set<String> getCompiledResources() {
+    return Collections.unmodifiableSet(units.keySet());
+  }
+
+  /**
+   * Returns the mapper files that are left to be parsed at runtime.
+   *
+   * @return the reason each file is not compiled, keyed by resource
+   */
+  public Map<String, String> getSkippedResources() {
+    return Collections.unmodifiableMap(skippedResources);
+  }
+
+  /**
+   * Writes the generated class and the service file listing it.
+   *
+   * @param sourceDirectory
+   *          the root directory of the Java source
+   * @param resourceDirectory
+   *          the root directory of the service file
+   * @param className
+   *          the fully qualified name of the generated class
+   * @throws IOException
+   *           if a file cannot be written
+   */
+  public void write(Path sourceDirectory, Path resourceDirectory, String className) throws IOException {
+    Path source = sourceDirectory.resolve(className.replace('.', '/') + ".java");
+    Files.createDirectories(source.getParent());
+    try (Writer writer = Files.newBufferedWriter(source, StandardCharsets.UTF_8)) {
+      writer.write(generate(className));
+    }
+    Path services = resourceDirectory.resolve("META-INF/services/" + CompiledMappers.class.getName());
+    Files.createDirectories(services.getParent());
+    Files.write(services, (className + "\n").getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Generates the Java source of the compiled mapper files.
+   *
+   * @param className
+   *          the fully qualified name of the generated class
+   * @return the source
+   */
+  public String generate(String className) {
+    int dot = className.lastIndexOf('.');
+    StringBuilder out = new StringBuilder();
+    if (dot > 0) {
+      out.append("package ").append(className, 0, dot).append(";\n\n");
+    }
+    out.append("import java.util.ArrayList;\n")
+        .append("import java.util.Collections;\n")
+        .append("import java.util.LinkedHashMap;\n")
+        .append("import java.util.List;\n")
+        .append("import java.util.Map;\n\n")
+        .append("import org.apache.ibatis.builder.MapperBuilderAssistant;\n")
+        .append("import org.apache.ibatis.builder.StaticSqlSource;\n")
+        .append("import org.apache.ibatis.builder.compile.CompiledMappers;\n")
+        .append("import org.apache.ibatis.cache.Cache;\n")
+        .append("import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;\n")
+        .append("import org.apache.ibatis.executor.keygen.NoKeyGenerator;\n")
+        .append("import org.apache.ibatis.mapping.Discriminator;\n")
+        .append("import org.apache.ibatis.mapping.MappedStatement;\n")
+        .append("import org.apache.ibatis.mapping.ParameterMap;\n")
+        .append("import org.apache.ibatis.mapping.ParameterMapping;\n")
+        .append("import org.apache.ibatis.mapping.ResultMap;\n")
+        .append("import org.apache.ibatis.mapping.ResultMapping;\n")
+        .append("import org.apache.ibatis.session.Configuration;\n\n")
+        .append("import static ").append(SUPPORT).append(".*;\n\n")
+        .append("/**\n * Generated by ").append(MapperCompiler.class.getName()).append(". Do not edit.\n */\n")
+        .append("@SuppressWarnings({ \"unchecked\", \"rawtypes\" })\n")
+        .append("public class ").append(className.substring(dot + 1)).append(" implements CompiledMappers {\n\n")
+        .append("  private static final Map<String, String> RESOURCES = new LinkedHashMap<>();\n\n")
+        .append("  static {\n");
+    for (Unit unit : units.values()) {
+      out.append("    RESOURCES.put(").append(literal(unit.resource)).append(", ").append(literal(unit.hash))
+          .append(");\n");
+    }
+    out.append("  }\n\n")
+        .append("  @Override\n")
+        .append("  public Map<String, String> getResources() {\n")
+        .append("    return Collections.unmodifiableMap(RESOURCES);\n")
+        .append("  }\n\n")
+        .append("  @Override\n")
+        .append("  public void register(String resource, Configuration configuration) {\n")
+        .append("    switch (resource) {\n");
+    int index = 0;
+    for (Unit unit : units.values()) {
+      out.append("      case ").append(literal(unit.resource)).append(":\n")
+          .append("        Mapper").append(index++).append(".register(configuration);\n")
+          .append("        break;\n");
+    }
+    out.append("      default:\n")
+        .append("        throw new IllegalArgumentException(\"Mapper resource \" + resource + \" is not compiled.\");\n")
+        .append("    }\n")
+        .append("  }\n");
+    index = 0;
+    for (Unit unit : units.values()) {
+      // one class per file keeps each class within the constant pool limits
+      out.append('\n');
+      unit.generate(out, "Mapper" + index++);
+    }
+    out.append("}\n");
+    return out.toString();
+  }
+
+  private String check(XNode mapper, Set<String> includedNamespaces) {
+    String namespace = mapper.getStringAttribute("namespace");
+    if (namespace == null || namespace.isEmpty()) {
+      return "has no namespace";
+    }
+    if (!mapper.evalNodes("cache-ref").isEmpty()) {
+      return "uses cache-ref";
+    }
+    if (!mapper.evalNodes("parameterMap").isEmpty()) {
+      return "uses parameterMap";
+    }
+    if (!mapper.evalNodes("//selectKey").isEmpty()) {
+      return "uses selectKey";
+    }
+    if (!mapper.evalNodes("//*[@databaseId]").isEmpty()) {
+      return "uses databaseId";
+    }
+    for (XNode include : mapper.evalNodes("//include")) {
+      String refid = include.getStringAttribute("refid");
+      if (refid.indexOf('.') > 0 && !refid.startsWith(namespace + ".")) {
+        return "includes sql fragment " + refid;
+      }
+    }
+    if (includedNamespaces.contains(namespace)) {
+      return "declares sql fragments included by another mapper";
+    }
+    return null;
+  }
+
+  private static byte[] readContent(String resource) throws IOException {
+    try (InputStream in = Resources.getResourceAsStream(resource)) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        out.write(buffer, 0, n);
+      }
+      return out.toByteArray();
+    }
+  }
+
+  /**
+   * A mapper file to compile.
+   */
+  private class Unit {
+
+    private final String resource;
+    private final String hash;
+    private final XNode mapper;
+    private final String namespace;
+    private final List<ResultMap> resultMaps = new ArrayList<>();
+    private final List<MappedStatement> statements = new ArrayList<>();
+
+    Unit(String resource, String hash, XNode mapper) {
+      this.resource = resource;
+      this.hash = hash;
+      this.mapper = mapper;
+      this.namespace = mapper.getStringAttribute("namespace");
+    }
+
+    /**
+     * Collects the result maps and statements built from the file.
+     *
+     * @return the reason the file cannot be compiled, or null
+     */
+    String collect() {
+      // result maps of the interface are registered by binding it again, only those of the file are compiled
+      Set<String> resultMapIds = new TreeSet<>();
+      Set<String> declared = new HashSet<>();
+      for (XNode resultMap : mapper.evalNodes("resultMap")) {
+        declared.add(resultMap.getStringAttribute("id"));
+      }
+      for (String name : configuration.getResultMapNames()) {
+        if (name.startsWith(namespace + ".")) {
+          String localName = name.substring(namespace.length() + 1);
+          if (declared.contains(localName) || localName.startsWith("mapper_")) {
+            resultMapIds.add(name);
+          }
+        }
+      }
+      for (String id : resultMapIds) {
+        resultMaps.add(configuration.getResultMap(id));
+      }
+      for (XNode context : mapper.evalNodes("select|insert|update|delete")) {
+        String id = namespace + "." + context.getStringAttribute("id");
+        MappedStatement statement = configuration.getMappedStatement(id);
+        if (!resource.equals(statement.getResource())) {
+          return "statement " + id + " is declared twice";
+        }
+        if (!(statement.getSqlSource() instanceof RawSqlSource || statement.getSqlSource() instanceof StaticSqlSource)) {
+          return "statement " + id + " uses dynamic sql";
+        }
+        if (statement.getKeyGenerator() != NoKeyGenerator.INSTANCE
+            && statement.getKeyGenerator() != Jdbc3KeyGenerator.INSTANCE) {
+          return "statement " + id + " uses a custom key generator";
+        }
+        String parameterMapId = statement.getParameterMap().getId();
+        if (!parameterMapId.endsWith("-Inline") && !DEFAULT_PARAMETER_MAP.equals(parameterMapId)) {
+          return "statement " + id + " uses a parameter map";
+        }
+        for (ResultMap resultMap : statement.getResultMaps()) {
+          if (!resultMap.getId().endsWith("-Inline") && !resultMapIds.contains(resultMap.getId())) {
+            return "statement " + id + " uses result map " + resultMap.getId();
+          }
+        }
+        statements.add(statement);
+      }
+      return null;
+    }
+
+    void generate(StringBuilder out, String className) {
+      out.append("  static final class ").append(className).append(" {\n\n")
+          .append("    private static final String RESOURCE = ").append(literal(resource)).append(";\n")
+          .append("    private static final String NAMESPACE = ").append(literal(namespace)).append(";\n\n")
+          .append("    static void register(Configuration configuration) {\n")
+          .append("      MapperBuilderAssistant assistant = new MapperBuilderAssistant(configuration, RESOURCE);\n")
+          .append("      assistant.setCurrentNamespace(NAMESPACE);\n")
+          .append("      Cache cache = ").append(cache()).append(";\n");
+      for (int i = 0; i < resultMaps.size(); i++) {
+        out.append("      resultMap").append(i).append("(configuration);\n");
+      }
+      for (int i = 0; i < statements.size(); i++) {
+        out.append("      statement").append(i).append("(configuration, cache);\n");
+      }
+      out.append("      bindNamespace(configuration, RESOURCE, NAMESPACE);\n")
+          .append("    }\n");
+      for (int i = 0; i < resultMaps.size(); i++) {
+        out.append('\n');
+        generateResultMap(out, "resultMap" + i, resultMaps.get(i));
+      }
+      for (int i = 0; i < statements.size(); i++) {
+        out.append('\n');
+        generateStatement(out, "statement" + i, statements.get(i));
+      }
+      out.append("  }\n");
+    }
+
+    private String cache() {
+      XNode cache = mapper.evalNode("cache");
+      if (cache == null) {
+        return "null";
+      }
+      TypeAliasRegistry aliases = configuration.getTypeAliasRegistry();
+      StringBuilder properties = new StringBuilder();
+      for (Map.Entry<Object, Object> property : cache.getChildrenAsProperties().entrySet()) {
+        properties.append(properties.length() == 0 ? "" : ", ").append(literal((String) property.getKey()))
+            .append(", ").append(literal((String) property.getValue()));
+      }
+      Long flushInterval = cache.getLongAttribute("flushInterval");
+      Integer size = cache.getIntAttribute("size");
+      return "assistant.useNewCache(" + cacheClass(aliases.resolveAlias(cache.getStringAttribute("type", "PERPETUAL")))
+          + ", " + cacheClass(aliases.resolveAlias(cache.getStringAttribute("eviction", "LRU")))
+          + ", " + (flushInterval == null ? "null" : flushInterval + "L")
+          + ", " + size
+          + ", " + !cache.getBooleanAttribute("readOnly", false)
+          + ", " + cache.getBooleanAttribute("blocking", false)
+          + ", properties(" + properties + "))";
+    }
+
+    private String cacheClass(Class<?> type) {
+      return "(Class<? extends Cache>) " + classRef(type);
+    }
+
+    private void generateResultMap(StringBuilder out, String methodName, ResultMap resultMap) {
+      boolean nested = false;
+      List<String> mappings = new ArrayList<>();
+      for (ResultMapping mapping : resultMap.getResultMappings()) {
+        mappings.add(resultMapping(mapping));
+        nested |= mapping.getNestedResultMapId() != null && mapping.getResultSet() == null;
+      }
+      out.append("    private static void ").append(methodName).append("(Configuration configuration) {\n")
+          .append("      ResultMap resultMap = new ResultMap.Builder(configuration, ").append(literal(resultMap.getId()))
+          .append(", ").append(classRef(resultMap.getType())).append(", mappings(\n          ")
+          .append(String.join(",\n          ", mappings)).append("), ")
+          .append(resultMap.getAutoMapping()).append(')');
+      Discriminator discriminator = resultMap.getDiscriminator();
+      if (discriminator != null) {
+        StringBuilder cases = new StringBuilder();
+        for (Map.Entry<String, String> entry : discriminator.getDiscriminatorMap().entrySet()) {
+          cases.append(cases.length() == 0 ? "" : ", ").append(literal(entry.getKey())).append(", ")
+              .append(literal(entry.getValue()));
+        }
+        out.append("\n          .discriminator(new Discriminator.Builder(configuration, ")
+            .append(resultMapping(discriminator.getResultMapping())).append(", map(").append(cases).append(")).build())");
+      }
+      out.append("\n          .build();\n");
+      if (resultMap.hasNestedResultMaps() && !nested) {
+        // forced by a discriminator case with nested result maps
+        out.append("      resultMap.forceNestedResultMaps();\n");
+      }
+      out.append("      configuration.addResultMap(resultMap);\n")
+          .append("    }\n");
+    }
+
+    private String resultMapping(ResultMapping mapping) {
+      StringBuilder code = new StringBuilder("new ResultMapping.Builder(configuration, ")
+          .append(literal(mapping.getProperty())).append(')');
+      code.append(".column(").append(literal(mapping.getColumn())).append(')');
+      if (mapping.getJavaType() != null) {
+        code.append(".javaType(").append(classRef(mapping.getJavaType())).append(')');
+      }
+      if (mapping.getJdbcType() != null) {
+        code.append(".jdbcType(org.apache.ibatis.type.JdbcType.").append(mapping.getJdbcType().name()).append(')');
+      }
+      appendString(code, "nestedResultMapId", mapping.getNestedResultMapId());
+      appendString(code, "nestedQueryId", mapping.getNestedQueryId());
+      appendString(code, "resultSet", mapping.getResultSet());
+      appendString(code, "foreignColumn", mapping.getForeignColumn());
+      appendString(code, "columnPrefix", mapping.getColumnPrefix());
+      if (mapping.getNotNullColumns() != null) {
+        code.append(".notNullColumns(set(").append(literals(mapping.getNotNullColumns())).append("))");
+      }
+      if (!mapping.getFlags().isEmpty()) {
+        StringBuilder flags = new StringBuilder();
+        for (ResultFlag flag : mapping.getFlags()) {
+          flags.append(flags.length() == 0 ? "" : ", ").append("org.apache.ibatis.mapping.ResultFlag.").append(flag.name());
+        }
+        code.append(".flags(flags(").append(flags).append("))");
+      }
+      if (!mapping.getComposites().isEmpty()) {
+        StringBuilder composites = new StringBuilder();
+        for (ResultMapping composite : mapping.getComposites()) {
+          composites.append(composites.length() == 0 ? "" : ", ").append(resultMapping(composite));
+        }
+        code.append(".composites(mappings(").append(composites).append("))");
+      }
+      code.append(".lazy(").append(mapping.isLazy()).append(')');
+      appendTypeHandler(code, mapping.getTypeHandler(), mapping.getJavaType(), mapping.getJdbcType());
+      return code.append(".build()").toString();
+    }
+
+    private void generateStatement(StringBuilder out, String methodName, MappedStatement statement) {
+      BoundSql boundSql = statement.getSqlSource().getBoundSql(null);
+      out.append("    private static void ").append(methodName).append("(Configuration configuration, Cache cache) {\n")
+          .append("      List<ParameterMapping> parameterMappings = new ArrayList<>();\n");
+      for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+        out.append("      parameterMappings.add(").append(parameterMapping(mapping)).append(");\n");
+      }
+      out.append("      List<ResultMap> resultMaps = new ArrayList<>();\n");
+      for (ResultMap resultMap : statement.getResultMaps()) {
+        if (resultMap.getId().endsWith("-Inline")) {
+          out.append("      resultMaps.add(new ResultMap.Builder(configuration, ").append(literal(resultMap.getId()))
+              .append(", ").append(classRef(resultMap.getType())).append(", new ArrayList<>(), null).build());\n");
+        } else {
+          out.append("      resultMaps.add(configuration.getResultMap(").append(literal(resultMap.getId())).append("));\n");
+        }
+      }
+      out.append("      configuration.addMappedStatement(new MappedStatement.Builder(configuration, ")
+          .append(literal(statement.getId())).append(",\n          new StaticSqlSource(configuration, ")
+          .append(literal(boundSql.getSql())).append(", parameterMappings),\n")
+          .append("          org.apache.ibatis.mapping.SqlCommandType.").append(statement.getSqlCommandType().name())
+          .append(")\n")
+          .append("          .resource(RESOURCE)\n");
+      if (!DEFAULT_PARAMETER_MAP.equals(statement.getParameterMap().getId())) {
+        out.append("          .parameterMap(new ParameterMap.Builder(configuration, ")
+            .append(literal(statement.getParameterMap().getId())).append(", ")
+            .append(classRef(statement.getParameterMap().getType())).append(", new ArrayList<>()).build())\n");
+      }
+      out
+          .append("          .fetchSize(").append(statement.getFetchSize()).append(")\n")
+          .append("          .timeout(").append(statement.getTimeout()).append(")\n")
+          .append("          .statementType(org.apache.ibatis.mapping.StatementType.")
+          .append(statement.getStatementType().name()).append(")\n")
+          .append("          .resultSetType(org.apache.ibatis.mapping.ResultSetType.")
+          .append(statement.getResultSetType().name()).append(")\n")
+          .append("          .resultMaps(resultMaps)\n")
+          .append("          .flushCacheRequired(").append(statement.isFlushCacheRequired()).append(")\n")
+          .append("          .useCache(").append(statement.isUseCache()).append(")\n")
+          .append("          .cache(").append(statement.getCache() == null ? "null" : "cache").append(")\n")
+          .append("          .resultOrdered(").append(statement.isResultOrdered()).append(")\n")
+          .append("          .keyGenerator(").append(statement.getKeyGenerator() == NoKeyGenerator.INSTANCE
+              ? "NoKeyGenerator.INSTANCE" : "Jdbc3KeyGenerator.INSTANCE").append(")\n")
+          .append("          .keyProperty(").append(literal(join(statement.getKeyProperties()))).append(")\n")
+          .append("          .keyColumn(").append(literal(join(statement.getKeyColumns()))).append(")\n")
+          .append("          .lang(configuration.getLanguageDriver((Class) ")
+          .append(classRef(statement.getLang().getClass())).append("))\n")
+          .append("          .resultSets(").append(literal(join(statement.getResultSets()))).append(")\n")
+          .append("          .batchGroup(").append(literal(statement.getBatchGroup())).append(")\n")
+          .append("          .build());\n")
+          .append("    }\n");
+    }
+
+    private String parameterMapping(ParameterMapping mapping) {
+      StringBuilder code = new StringBuilder("new ParameterMapping.Builder(configuration, ")
+          .append(literal(mapping.getProperty())).append(", (Class<?>) ").append(classRef(mapping.getJavaType()))
+          .append(')');
+      code.append(".mode(org.apache.ibatis.mapping.ParameterMode.").append(mapping.getMode().name()).append(')');
+      if (mapping.getJdbcType() != null) {
+        code.append(".jdbcType(org.apache.ibatis.type.JdbcType.").append(mapping.getJdbcType().name()).append(')');
+      }
+      if (mapping.getNumericScale() != null) {
+        code.append(".numericScale(").append(mapping.getNumericScale()).append(')');
+      }
+      appendString(code, "resultMapId", mapping.getResultMapId());
+      appendString(code, "jdbcTypeName", mapping.getJdbcTypeName());
+      appendString(code, "expression", mapping.getExpression());
+      appendTypeHandler(code, mapping.getTypeHandler(), mapping.getJavaType(), mapping.getJdbcType());
+      return code.append(".build()").toString();
+    }
+
+    /**
+     * Appends the type handler of a mapping unless the builder resolves the same one from the java and jdbc types.
+     */
+    private void appendTypeHandler(StringBuilder code, TypeHandler<?> typeHandler, Class<?> javaType,
+        org.apache.ibatis.type.JdbcType jdbcType) {
+      TypeHandlerRegistry registry = configuration.getTypeHandlerRegistry();
+      if (typeHandler == null || (javaType != null && typeHandler == registry.getTypeHandler(javaType, jdbcType))) {
+        return;
+      }
+      if (typeHandler == registry.getUnknownTypeHandler()) {
+        code.append(".typeHandler(configuration.getTypeHandlerRegistry().getUnknownTypeHandler())");
+      } else {
+        code.append(".typeHandler(typeHandler(configuration, ").append(classRef(javaType)).append(", ")
+            .append(literal(typeHandler.getClass().getName())).append("))");
+      }
+    }
+
+    private void appendString(StringBuilder code, String method, String value) {
+      if (value != null) {
+        code.append('.').append(method).append('(').append(literal(value)).append(')');
+      }
+    }
+  }
+
+  private static String classRef(Class<?> type) {
+    if (type == null) {
+      return "null";
+    }
+    if (type.isAnonymousClass() || type.isLocalClass() || type.isSynthetic()) {
+      throw new BuilderException("Cannot reference " + type + " from compiled mappers.");
+    }
+    return "type(" + literal(type.getName()) + ")";
+  }
+
+  private static String join(String[] values) {
+    return values == null ? null : String.join(",", values);
+  }
+
+  private static String literals(Set<String> values) {
+    StringBuilder code = new StringBuilder();
+    for (String value : new TreeSet<>(values)) {
+      code.append(code.length() == 0 ? "" : ", ").append(literal(value));
+    }
+    return code.toString();
+  }
+
+  static String literal(String value) {
+    if (value == null) {
+      return "null";
+    }
+    StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          literal.append("\\\"");
+          break;
+        case '\\':
+          literal.append("\\\\");
+          break;
+        case '\n':
+          literal.append("\\n");
+          break;
+        case '\r':
+          literal.append("\\r");
+          break;
+        case '\t':
+          literal.append("\\t");
+          break;
+        default:
+          if (c < 0x20 || c > 0x7e) {
+            literal.append(String.format("\\u%04x", (int) c));
+          } else {
+            literal.append(c);
+          }
+      }
+    }
+    return literal.append('"').toString();
+  }
+
+}
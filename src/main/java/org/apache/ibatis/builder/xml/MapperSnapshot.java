@@ -0,0 +1,370 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder.xml;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.parsing.StaxDocumentBuilder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * A binary snapshot of parsed mapper XML documents, reused across restarts to skip reading and validating mapper
+ * files that did not change.
+ * <p>
+ * Each document is stored with the SHA-256 hash of the file it was parsed from. A document is only served from the
+ * snapshot when the current content of its resource has the same hash, so a changed mapper file is parsed again and
+ * replaces its entry. Documents are stored as parsed, before property placeholders are replaced, so the snapshot does
+ * not depend on the configuration variables. Statements, result maps and sql nodes are still built from the
+ * documents on every start.
+ *
+ * @since 3.5.7
+ * @see org.apache.ibatis.session.Configuration#setMapperSnapshot(MapperSnapshot)
+ */
+public class MapperSnapshot {
+
+  private static final Log log = LogFactory.getLog(MapperSnapshot.class);
+
+  private static final int MAGIC = 0x4d42534e;
+  private static final int VERSION = 1;
+
+  private static final byte ELEMENT = 1;
+  private static final byte TEXT = 2;
+  private static final byte CDATA = 3;
+
+  private final Path file;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final Set<String> used = ConcurrentHashMap.newKeySet();
+  private volatile boolean modified;
+
+  private MapperSnapshot(Path file) {
+    this.file = file;
+  }
+
+  /**
+   * Loads the snapshot stored in a file. A missing, unreadable or incompatible file results in an empty snapshot.
+   *
+   * @param file
+   *          the snapshot file
+   * @return the snapshot
+   */
+  public static MapperSnapshot load(Path file) {
+    MapperSnapshot snapshot = new MapperSnapshot(file);
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        log.debug("Ignoring mapper snapshot " + file + " written by another version.");
+        return snapshot;
+      }
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        String resource = in.readUTF();
+        byte[] hash = new byte[in.readInt()];
+        in.readFully(hash);
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        snapshot.entries.put(resource, new Entry(hash, data));
+      }
+    } catch (NoSuchFileException e) {
+      // first start
+    } catch (IOException e) {
+      log.debug("Ignoring unreadable mapper snapshot " + file + ". Cause: " + e);
+      snapshot.entries.clear();
+    }
+    return snapshot;
+  }
+
+  public Path getFile() {
+    return file;
+  }
+
+  /**
+   * Returns the document parsed from a resource, if it was parsed from the same content before.
+   *
+   * @param resource
+   *          the mapper resource
+   * @param content
+   *          the current content of the resource
+   * @return the document, or null if the resource is not in the snapshot or has changed
+   */
+  public Document getDocument(String resource, byte[] content) {
+    Entry entry = entries.get(resource);
+    if (entry == null || !Arrays.equals(entry.hash, hash(content))) {
+      return null;
+    }
+    try {
+      Document document = decode(entry.data);
+      used.add(resource);
+      return document;
+    } catch (IOException | ParserConfigurationException | RuntimeException e) {
+      log.debug("Ignoring unreadable mapper snapshot entry " + resource + ". Cause: " + e);
+      return null;
+    }
+  }
+
+  /**
+   * Stores the document parsed from a resource, replacing the entry of an earlier content.
+   *
+   * @param resource
+   *          the mapper resource
+   * @param content
+   *          the content the document was parsed from
+   * @param document
+   *          the parsed document
+   */
+  public void putDocument(String resource, byte[] content, Document document) {
+    entries.put(resource, new Entry(hash(content), encode(document)));
+    used.add(resource);
+    modified = true;
+  }
+
+  /**
+   * Returns whether the file needs to be written: a resource was added or changed, or a resource of the file was not
+   * used since it was loaded.
+   *
+   * @return true if the snapshot differs from its file
+   */
+  public boolean isModified() {
+    return modified || used.size() != entries.size();
+  }
+
+  /**
+   * Writes the entries of the resources used since the snapshot was loaded to its file. The file is replaced
+   * atomically where the file system supports it.
+   *
+   * @throws IOException
+   *           if the file cannot be written
+   */
+  public void save() throws IOException {
+    Path directory = file.toAbsolutePath().getParent();
+    if (directory != null) {
+      Files.createDirectories(directory);
+    }
+    Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        List<Map.Entry<String, Entry>> saved = new ArrayList<>();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+          if (used.contains(entry.getKey())) {
+            saved.add(entry);
+          }
+        }
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(saved.size());
+        for (Map.Entry<String, Entry> entry : saved) {
+          out.writeUTF(entry.getKey());
+          out.writeInt(entry.getValue().hash.length);
+          out.write(entry.getValue().hash);
+          out.writeInt(entry.getValue().data.length);
+          out.write(entry.getValue().data);
+        }
+      }
+      try {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    entries.keySet().retainAll(used);
+    modified = false;
+  }
+
+  /**
+   * Reads the remaining content of a stream, to hash it and parse it.
+   *
+   * @param inputStream
+   *          the stream to read, closed afterwards
+   * @return the content
+   */
+  static byte[] readContent(InputStream inputStream) {
+    try (InputStream in = inputStream) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        out.write(buffer, 0, n);
+      }
+      return out.toByteArray();
+    } catch (IOException e) {
+      throw new BuilderException("Error reading mapper resource.  Cause: " + e, e);
+    }
+  }
+
+  private static byte[] hash(byte[] content) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(content);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available.", e);
+    }
+  }
+
+  private static byte[] encode(Document document) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      encodeNode(out, document.getDocumentElement(), new HashMap<>());
+    } catch (IOException e) {
+      // not thrown by an in-memory stream
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void encodeNode(DataOutputStream out, Node node, Map<String, Integer> names) throws IOException {
+    switch (node.getNodeType()) {
+      case Node.ELEMENT_NODE:
+        out.writeByte(ELEMENT);
+        writeName(out, node.getNodeName(), names);
+        NamedNodeMap attributes = node.getAttributes();
+        out.writeInt(attributes.getLength());
+        for (int i = 0; i < attributes.getLength(); i++) {
+          Node attribute = attributes.item(i);
+          writeName(out, attribute.getNodeName(), names);
+          writeString(out, attribute.getNodeValue());
+        }
+        List<Node> children = new ArrayList<>();
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+          short type = child.getNodeType();
+          if (type == Node.ELEMENT_NODE || type == Node.TEXT_NODE || type == Node.CDATA_SECTION_NODE) {
+            children.add(child);
+          }
+        }
+        out.writeInt(children.size());
+        for (Node child : children) {
+          encodeNode(out, child, names);
+        }
+        break;
+      case Node.CDATA_SECTION_NODE:
+        out.writeByte(CDATA);
+        writeString(out, node.getNodeValue());
+        break;
+      default:
+        out.writeByte(TEXT);
+        writeString(out, node.getNodeValue());
+        break;
+    }
+  }
+
+  private static Document decode(byte[] data) throws IOException, ParserConfigurationException {
+    Document document = StaxDocumentBuilder.newDocument();
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+      document.appendChild(decodeNode(in, document, new ArrayList<>()));
+    }
+    return document;
+  }
+
+  private static Node decodeNode(DataInputStream in, Document document, List<String> names) throws IOException {
+    byte type = in.readByte();
+    switch (type) {
+      case ELEMENT:
+        Element element = document.createElement(readName(in, names));
+        int attributes = in.readInt();
+        for (int i = 0; i < attributes; i++) {
+          element.setAttribute(readName(in, names), readString(in));
+        }
+        int children = in.readInt();
+        for (int i = 0; i < children; i++) {
+          element.appendChild(decodeNode(in, document, names));
+        }
+        return element;
+      case TEXT:
+        return document.createTextNode(readString(in));
+      case CDATA:
+        return document.createCDATASection(readString(in));
+      default:
+        throw new IOException("Unknown node type " + type);
+    }
+  }
+
+  private static void writeName(DataOutputStream out, String name, Map<String, Integer> names) throws IOException {
+    Integer index = names.get(name);
+    if (index != null) {
+      out.writeInt(index);
+    } else {
+      out.writeInt(-1);
+      writeString(out, name);
+      names.put(name, names.size());
+    }
+  }
+
+  private static String readName(DataInputStream in, List<String> names) throws IOException {
+    int index = in.readInt();
+    if (index >= 0) {
+      return names.get(index);
+    }
+    String name = readString(in);
+    names.add(name);
+    return name;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > in.available()) {
+      throw new IOException("Invalid string length " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static class Entry {
+
+    private final byte[] hash;
+    private final byte[] data;
+
+    Entry(byte[] hash, byte[] data) {
+      this.hash = hash;
+      this.data = data;
+    }
+  }
+
+}
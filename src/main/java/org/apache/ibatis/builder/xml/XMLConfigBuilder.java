@@ -15,22 +15,39 @@
  */
 package org.apache.ibatis.builder.xml;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import javax.sql.DataSource;
 
 import org.apache.ibatis.builder.BaseBuilder;
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.compile.CompiledMapperSupport;
+import org.apache.ibatis.builder.compile.CompiledMappers;
 import org.apache.ibatis.datasource.DataSourceFactory;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.mapping.DatabaseIdProvider;
 import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.metrics.MetricsCollector;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.parsing.XPathParser;
 import org.apache.ibatis.plugin.Interceptor;
@@ -97,9 +114,24 @@ public class XMLConfigBuilder extends BaseBuilder {
     }
     parsed = true;
     parseConfiguration(parser.evalNode("/configuration"));
+    saveMapperSnapshot();
+    if (configuration.isCompactConfigurationEnabled()) {
+      configuration.compact();
+    }
     return configuration;
   }
 
+  private void saveMapperSnapshot() {
+    MapperSnapshot snapshot = configuration.getMapperSnapshot();
+    if (snapshot != null && snapshot.isModified()) {
+      try {
+        snapshot.save();
+      } catch (IOException e) {
+        LogFactory.getLog(XMLConfigBuilder.class).warn("Could not save the mapper snapshot to " + snapshot.getFile() + ". Cause: " + e);
+      }
+    }
+  }
+
   private void parseConfiguration(XNode root) {
     try {
       // issue #117 read properties first
@@ -254,6 +286,32 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setDefaultExecutorType(ExecutorType.valueOf(props.getProperty("defaultExecutorType", "SIMPLE")));
     configuration.setDefaultStatementTimeout(integerValueOf(props.getProperty("defaultStatementTimeout"), null));
     configuration.setDefaultFetchSize(integerValueOf(props.getProperty("defaultFetchSize"), null));
+    configuration.setAdaptiveFetchSizeEnabled(booleanValueOf(props.getProperty("adaptiveFetchSizeEnabled"), false));
+    configuration.setAdaptiveFetchSizeLimit(integerValueOf(props.getProperty("adaptiveFetchSizeLimit"), 1000));
+    configuration.setMultiRowInsertEnabled(booleanValueOf(props.getProperty("multiRowInsertEnabled"), false));
+    configuration.setMultiRowInsertMaxRows(integerValueOf(props.getProperty("multiRowInsertMaxRows"), 1000));
+    configuration.setBatchFlushRowsPerStatement(integerValueOf(props.getProperty("batchFlushRowsPerStatement"), null));
+    configuration.setBatchFlushRows(integerValueOf(props.getProperty("batchFlushRows"), null));
+    configuration.setBatchFlushBytes(integerValueOf(props.getProperty("batchFlushBytes"), null));
+    configuration.setBatchRetainParameterObjects(booleanValueOf(props.getProperty("batchRetainParameterObjects"), true));
+    configuration.setBatchGroupingEnabled(booleanValueOf(props.getProperty("batchGroupingEnabled"), false));
+    configuration.setBatchPipelineDepth(integerValueOf(props.getProperty("batchPipelineDepth"), null));
+    configuration.setUseGeneratedMappers(booleanValueOf(props.getProperty("useGeneratedMappers"), false));
+    configuration.setArgumentBindingEnabled(booleanValueOf(props.getProperty("argumentBindingEnabled"), false));
+    configuration.setPluginPipelineEnabled(booleanValueOf(props.getProperty("pluginPipelineEnabled"), false));
+    configuration.setMetricsCollector((MetricsCollector) createInstance(props.getProperty("metricsCollector")));
+    configuration.setSlowStatementThreshold(integerValueOf(props.getProperty("slowStatementThreshold"), null));
+    configuration.setAsyncSqlLogEnabled(booleanValueOf(props.getProperty("asyncSqlLogEnabled"), false));
+    configuration.setAsyncSqlLogCapacity(integerValueOf(props.getProperty("asyncSqlLogCapacity"), 1024));
+    configuration.setAsyncSqlLogSampleInterval(integerValueOf(props.getProperty("asyncSqlLogSampleInterval"), 1));
+    configuration.setParallelMapperParsingEnabled(booleanValueOf(props.getProperty("parallelMapperParsingEnabled"), false));
+    configuration.setStaxMapperParsingEnabled(booleanValueOf(props.getProperty("staxMapperParsingEnabled"), false));
+    configuration.setLazyStatementBuildingEnabled(booleanValueOf(props.getProperty("lazyStatementBuildingEnabled"), false));
+    configuration.setCompiledMappersEnabled(booleanValueOf(props.getProperty("compiledMappersEnabled"), false));
+    configuration.setCompactConfigurationEnabled(booleanValueOf(props.getProperty("compactConfigurationEnabled"), false));
+    configuration.setPrimitiveResultMappingEnabled(booleanValueOf(props.getProperty("primitiveResultMappingEnabled"), false));
+    String mapperSnapshot = props.getProperty("mapperSnapshot");
+    configuration.setMapperSnapshot(mapperSnapshot == null ? null : MapperSnapshot.load(Paths.get(mapperSnapshot)));
     configuration.setDefaultResultSetType(resolveResultSetType(props.getProperty("defaultResultSetType")));
     configuration.setMapUnderscoreToCamelCase(booleanValueOf(props.getProperty("mapUnderscoreToCamelCase"), false));
     configuration.setSafeRowBoundsEnabled(booleanValueOf(props.getProperty("safeRowBoundsEnabled"), false));
@@ -270,6 +328,7 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setConfigurationFactory(resolveClass(props.getProperty("configurationFactory")));
     configuration.setShrinkWhitespacesInSql(booleanValueOf(props.getProperty("shrinkWhitespacesInSql"), false));
     configuration.setDefaultSqlProviderType(resolveClass(props.getProperty("defaultSqlProviderType")));
+    configuration.setUseDialectPagination(booleanValueOf(props.getProperty("useDialectPagination"), false));
   }
 
   private void environmentsElement(XNode context) throws Exception {
@@ -362,32 +421,153 @@ public class XMLConfigBuilder extends BaseBuilder {
 
   private void mapperElement(XNode parent) throws Exception {
     if (parent != null) {
-      for (XNode child : parent.getChildren()) {
-        if ("package".equals(child.getName())) {
-          String mapperPackage = child.getStringAttribute("name");
-          configuration.addMappers(mapperPackage);
-        } else {
-          String resource = child.getStringAttribute("resource");
-          String url = child.getStringAttribute("url");
-          String mapperClass = child.getStringAttribute("class");
-          if (resource != null && url == null && mapperClass == null) {
-            ErrorContext.instance().resource(resource);
-            InputStream inputStream = Resources.getResourceAsStream(resource);
-            XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments());
-            mapperParser.parse();
-          } else if (resource == null && url != null && mapperClass == null) {
-            ErrorContext.instance().resource(url);
-            InputStream inputStream = Resources.getUrlAsStream(url);
-            XMLMapperBuilder mapperParser = new XMLMapperBuilder(inputStream, configuration, url, configuration.getSqlFragments());
-            mapperParser.parse();
-          } else if (resource == null && url == null && mapperClass != null) {
-            Class<?> mapperInterface = Resources.classForName(mapperClass);
-            configuration.addMapper(mapperInterface);
+      List<XNode> children = parent.getChildren();
+      Map<String, CompiledMappers> compiledMappers = findCompiledMappers(children);
+      ForkJoinPool pool = null;
+      List<Future<XPathParser>> documents = null;
+      if (configuration.isParallelMapperParsingEnabled()) {
+        pool = new ForkJoinPool();
+        documents = parseMapperDocuments(pool, children, compiledMappers.keySet());
+      }
+      try {
+        for (int i = 0; i < children.size(); i++) {
+          XNode child = children.get(i);
+          if ("package".equals(child.getName())) {
+            String mapperPackage = child.getStringAttribute("name");
+            configuration.addMappers(mapperPackage);
           } else {
-            throw new BuilderException("A mapper element may only specify a url, resource or class, but not more than one.");
+            String resource = child.getStringAttribute("resource");
+            String url = child.getStringAttribute("url");
+            String mapperClass = child.getStringAttribute("class");
+            if (resource != null && url == null && mapperClass == null) {
+              ErrorContext.instance().resource(resource);
+              CompiledMappers compiled = compiledMappers.get(resource);
+              if (compiled != null) {
+                if (!configuration.isResourceLoaded(resource)) {
+                  compiled.register(resource, configuration);
+                }
+                continue;
+              }
+              XMLMapperBuilder mapperParser;
+              if (documents != null) {
+                mapperParser = new XMLMapperBuilder(getMapperDocument(documents.get(i)), configuration, resource, configuration.getSqlFragments());
+              } else {
+                InputStream inputStream = Resources.getResourceAsStream(resource);
+                mapperParser = new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments());
+              }
+              mapperParser.parse();
+            } else if (resource == null && url != null && mapperClass == null) {
+              ErrorContext.instance().resource(url);
+              XMLMapperBuilder mapperParser;
+              if (documents != null) {
+                mapperParser = new XMLMapperBuilder(getMapperDocument(documents.get(i)), configuration, url, configuration.getSqlFragments());
+              } else {
+                InputStream inputStream = Resources.getUrlAsStream(url);
+                mapperParser = new XMLMapperBuilder(inputStream, configuration, url, configuration.getSqlFragments());
+              }
+              mapperParser.parse();
+            } else if (resource == null && url == null && mapperClass != null) {
+              Class<?> mapperInterface = Resources.classForName(mapperClass);
+              configuration.addMapper(mapperInterface);
+            } else {
+              throw new BuilderException("A mapper element may only specify a url, resource or class, but not more than one.");
+            }
           }
         }
+      } finally {
+        if (pool != null) {
+          pool.shutdownNow();
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads and parses the XML documents of the resource and url mapper elements concurrently. Only the documents are
+   * built on the pool: they are registered into the configuration afterwards, one by one in declaration order, so
+   * statements, result maps and cache refs are resolved exactly as when parsing sequentially.
+   *
+   * @return the parsed document of each child, or null for package, class and compiled resource elements
+   */
+  private List<Future<XPathParser>> parseMapperDocuments(ForkJoinPool pool, List<XNode> children, Set<String> compiledResources) {
+    // resources and entities are loaded with the class loader of the building thread, not of the pool threads
+    ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    List<Future<XPathParser>> documents = new ArrayList<>(children.size());
+    for (XNode child : children) {
+      String resource = child.getStringAttribute("resource");
+      String url = child.getStringAttribute("url");
+      String mapperClass = child.getStringAttribute("class");
+      if ("package".equals(child.getName()) || mapperClass != null || (resource == null) == (url == null)
+          || compiledResources.contains(resource)) {
+        documents.add(null);
+        continue;
+      }
+      documents.add(pool.submit(() -> {
+        Thread thread = Thread.currentThread();
+        ClassLoader poolClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(contextClassLoader);
+        try {
+          InputStream inputStream = resource != null ? Resources.getResourceAsStream(resource) : Resources.getUrlAsStream(url);
+          return XMLMapperBuilder.createParser(inputStream, resource != null ? resource : url, configuration);
+        } finally {
+          thread.setContextClassLoader(poolClassLoader);
+        }
+      }));
+    }
+    return documents;
+  }
+
+  /**
+   * Finds the compiled mappers of the resource mapper elements whose content did not change since they were compiled.
+   *
+   * @return the compiled mappers keyed by resource, empty if compiled mappers are not enabled
+   */
+  private Map<String, CompiledMappers> findCompiledMappers(List<XNode> children) {
+    if (!configuration.isCompiledMappersEnabled()) {
+      return Collections.emptyMap();
+    }
+    Set<String> resources = new HashSet<>();
+    for (XNode child : children) {
+      String resource = child.getStringAttribute("resource");
+      if (resource != null) {
+        resources.add(resource);
+      }
+    }
+    Map<String, CompiledMappers> compiledMappers = new HashMap<>();
+    for (CompiledMappers compiled : ServiceLoader.load(CompiledMappers.class)) {
+      for (Map.Entry<String, String> entry : compiled.getResources().entrySet()) {
+        String resource = entry.getKey();
+        if (!resources.contains(resource) || compiledMappers.containsKey(resource)) {
+          continue;
+        }
+        String hash;
+        try {
+          hash = CompiledMapperSupport.fingerprint(MapperSnapshot.readContent(Resources.getResourceAsStream(resource)),
+              configuration);
+        } catch (IOException e) {
+          // parsed as usual, which reports the error
+          continue;
+        }
+        if (hash.equals(entry.getValue())) {
+          compiledMappers.put(resource, compiled);
+        } else {
+          LogFactory.getLog(XMLConfigBuilder.class).debug("Mapper resource " + resource
+              + " or the settings it depends on changed since it was compiled, parsing it.");
+        }
+      }
+    }
+    return compiledMappers;
+  }
+
+  private XPathParser getMapperDocument(Future<XPathParser> document) throws Exception {
+    try {
+      return document.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
       }
+      throw (Error) cause;
     }
   }
 
@@ -15,6 +15,7 @@
  */
 package org.apache.ibatis.builder.xml;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.Reader;
 import java.util.ArrayList;
@@ -42,12 +43,15 @@ import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.ResultFlag;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.parsing.StaxDocumentBuilder;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.parsing.XPathParser;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
 /**
  * @author Clinton Begin
@@ -78,11 +82,10 @@ public class XMLMapperBuilder extends BaseBuilder {
   }
 
   public XMLMapperBuilder(InputStream inputStream, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
-    this(new XPathParser(inputStream, true, configuration.getVariables(), new XMLMapperEntityResolver()),
-        configuration, resource, sqlFragments);
+    this(createParser(inputStream, resource, configuration), configuration, resource, sqlFragments);
   }
 
-  private XMLMapperBuilder(XPathParser parser, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
+  XMLMapperBuilder(XPathParser parser, Configuration configuration, String resource, Map<String, XNode> sqlFragments) {
     super(configuration);
     this.builderAssistant = new MapperBuilderAssistant(configuration, resource);
     this.parser = parser;
@@ -90,6 +93,35 @@ public class XMLMapperBuilder extends BaseBuilder {
     this.resource = resource;
   }
 
+  /**
+   * Parses a mapper document, with the StAX front-end if enabled in the configuration, or takes it from the mapper
+   * snapshot if the resource did not change.
+   */
+  static XPathParser createParser(InputStream inputStream, String resource, Configuration configuration) {
+    MapperSnapshot snapshot = configuration.getMapperSnapshot();
+    if (snapshot == null || resource == null) {
+      return parseDocument(inputStream, configuration);
+    }
+    byte[] content = MapperSnapshot.readContent(inputStream);
+    Document document = snapshot.getDocument(resource, content);
+    if (document != null) {
+      return new XPathParser(document, false, configuration.getVariables());
+    }
+    XPathParser parser = parseDocument(new ByteArrayInputStream(content), configuration);
+    XNode mapper = parser.evalNode("/mapper");
+    if (mapper != null) {
+      snapshot.putDocument(resource, content, mapper.getNode().getOwnerDocument());
+    }
+    return parser;
+  }
+
+  private static XPathParser parseDocument(InputStream inputStream, Configuration configuration) {
+    if (configuration.isStaxMapperParsingEnabled()) {
+      return new XPathParser(StaxDocumentBuilder.parse(inputStream), false, configuration.getVariables());
+    }
+    return new XPathParser(inputStream, true, configuration.getVariables(), new XMLMapperEntityResolver());
+  }
+
   public void parse() {
     if (!configuration.isResourceLoaded(resource)) {
       configurationElement(parser.evalNode("/mapper"));
@@ -125,6 +157,9 @@ public class XMLMapperBuilder extends BaseBuilder {
   }
 
   private void buildStatementFromContext(List<XNode> list) {
+    if (configuration.isLazyStatementBuildingEnabled()) {
+      list = detachStatements(list);
+    }
     if (configuration.getDatabaseId() != null) {
       buildStatementFromContext(list, configuration.getDatabaseId());
     }
@@ -134,6 +169,11 @@ public class XMLMapperBuilder extends BaseBuilder {
   private void buildStatementFromContext(List<XNode> list, String requiredDatabaseId) {
     for (XNode context : list) {
       final XMLStatementBuilder statementParser = new XMLStatementBuilder(configuration, builderAssistant, context, requiredDatabaseId);
+      String id = context.getStringAttribute("id");
+      if (configuration.isLazyStatementBuildingEnabled() && id != null) {
+        configuration.addPendingStatement(builderAssistant.applyCurrentNamespace(id, false), statementParser);
+        continue;
+      }
       try {
         statementParser.parseStatementNode();
       } catch (IncompleteElementException e) {
@@ -142,6 +182,27 @@ public class XMLMapperBuilder extends BaseBuilder {
     }
   }
 
+  /**
+   * Copies the statement nodes into a document of their own, so that statements built on first use do not keep the
+   * result maps and the rest of the mapper document.
+   */
+  private List<XNode> detachStatements(List<XNode> list) {
+    if (list.isEmpty()) {
+      return list;
+    }
+    Element mapper = (Element) list.get(0).getParent().getNode();
+    Document document = mapper.getOwnerDocument().getImplementation().createDocument(null, mapper.getNodeName(), null);
+    Element root = document.getDocumentElement();
+    root.setAttribute("namespace", mapper.getAttribute("namespace"));
+    XPathParser statementParser = new XPathParser(document, false, configuration.getVariables());
+    List<XNode> statements = new ArrayList<>(list.size());
+    for (XNode node : list) {
+      statements.add(new XNode(statementParser, root.appendChild(document.importNode(node.getNode(), true)),
+          configuration.getVariables()));
+    }
+    return statements;
+  }
+
   private void parsePendingResultMaps() {
     Collection<ResultMapResolver> incompleteResultMaps = configuration.getIncompleteResultMaps();
     synchronized (incompleteResultMaps) {
@@ -0,0 +1,276 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.bulk;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.ibatis.builder.annotation.ProviderSqlSource;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.MetaClass;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeException;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * An insert statement of the form {@code INSERT INTO table (column, ...) VALUES (?, ...)} that is bulk loaded.
+ * <p>
+ * The values of a row are resolved from its parameter object through the parameter mappings of the statement, the
+ * same way they are bound when the statement is executed. For statements without dynamic SQL, the getters of the
+ * mapped properties are resolved once for the class of the first parameter object and invoked directly for every row
+ * of that class; other rows go through the bound SQL of the statement.
+ *
+ * @since 3.5.7
+ */
+public class BulkInsert {
+
+  private static final Pattern INSERT_PATTERN = Pattern.compile(
+      "\\s*insert\\s+into\\s+([^\\s(]+)\\s*(?:\\(([^)]*)\\))?\\s*values\\s*(\\([\\s?,]*\\))\\s*",
+      Pattern.CASE_INSENSITIVE);
+  private static final Object[] NO_ARGUMENTS = new Object[0];
+
+  private final MappedStatement mappedStatement;
+  private final String sql;
+  private final String table;
+  private final List<String> columns;
+  private final String row;
+  private final List<ParameterMapping> parameterMappings;
+  private final Class<?> parameterType;
+  private final ValueGetter[] getters;
+
+  private BulkInsert(MappedStatement mappedStatement, String sql, String table, List<String> columns, String row,
+      List<ParameterMapping> parameterMappings, Class<?> parameterType, ValueGetter[] getters) {
+    this.mappedStatement = mappedStatement;
+    this.sql = sql;
+    this.table = table;
+    this.columns = columns;
+    this.row = row;
+    this.parameterMappings = parameterMappings;
+    this.parameterType = parameterType;
+    this.getters = getters;
+  }
+
+  /**
+   * Creates a bulk insert from the SQL a statement produces for a parameter object.
+   *
+   * @param mappedStatement
+   *          an insert statement
+   * @param parameter
+   *          the parameter object of the first row
+   * @return the bulk insert
+   * @throws ExecutorException
+   *           if the statement is not a plain single row insert
+   */
+  public static BulkInsert newInstance(MappedStatement mappedStatement, Object parameter) {
+    BoundSql boundSql = mappedStatement.getBoundSql(parameter);
+    String sql = boundSql.getSql();
+    Matcher matcher = INSERT_PATTERN.matcher(sql);
+    if (mappedStatement.getSqlCommandType() != SqlCommandType.INSERT || !matcher.matches()) {
+      throw new ExecutorException("Statement '" + mappedStatement.getId()
+          + "' cannot be bulk loaded. Only INSERT INTO table (columns) VALUES (?, ...) is supported but was: " + sql);
+    }
+    List<String> columns = new ArrayList<>();
+    if (matcher.group(2) != null) {
+      for (String column : matcher.group(2).split(",")) {
+        columns.add(column.trim());
+      }
+    }
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    if (!columns.isEmpty() && columns.size() != parameterMappings.size()) {
+      throw new ExecutorException("Statement '" + mappedStatement.getId()
+          + "' cannot be bulk loaded. It has " + columns.size() + " columns but " + parameterMappings.size()
+          + " parameters.");
+    }
+    ValueGetter[] getters = resolveGetters(mappedStatement, boundSql, parameter);
+    return new BulkInsert(mappedStatement, sql, matcher.group(1), Collections.unmodifiableList(columns),
+        matcher.group(3), parameterMappings, getters == null ? null : parameter.getClass(), getters);
+  }
+
+  /**
+   * Resolves how to read each parameter mapping from a parameter object of the class of the first row.
+   *
+   * @return the getters, or null if the values must be resolved through the bound SQL of each row
+   */
+  private static ValueGetter[] resolveGetters(MappedStatement mappedStatement, BoundSql boundSql, Object parameter) {
+    SqlSource sqlSource = mappedStatement.getSqlSource();
+    if (parameter == null || sqlSource instanceof DynamicSqlSource || sqlSource instanceof ProviderSqlSource) {
+      return null;
+    }
+    Configuration configuration = mappedStatement.getConfiguration();
+    boolean simple = configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass());
+    MetaClass metaClass = simple || parameter instanceof Map ? null
+        : MetaClass.forClass(parameter.getClass(), configuration.getReflectorFactory());
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    ValueGetter[] getters = new ValueGetter[parameterMappings.size()];
+    for (int i = 0; i < getters.length; i++) {
+      String property = parameterMappings.get(i).getProperty();
+      if (boundSql.hasAdditionalParameter(property)) {
+        return null;
+      } else if (simple) {
+        getters[i] = value -> value;
+      } else if (property.indexOf('.') >= 0 || property.indexOf('[') >= 0) {
+        getters[i] = value -> configuration.newMetaObject(value).getValue(property);
+      } else if (metaClass == null) {
+        getters[i] = value -> ((Map<?, ?>) value).get(property);
+      } else if (metaClass.hasGetter(property)) {
+        Invoker invoker = metaClass.getGetInvoker(property);
+        getters[i] = value -> invoker.invoke(value, NO_ARGUMENTS);
+      } else {
+        return null;
+      }
+    }
+    return getters;
+  }
+
+  /**
+   * Resolves the values of a row.
+   *
+   * @param parameter
+   *          the parameter object of the row
+   * @return the values, in the order of the parameter mappings
+   */
+  public Object[] getValues(Object parameter) {
+    if (getters == null || parameter == null || parameter.getClass() != parameterType) {
+      return getBoundValues(parameter);
+    }
+    Object[] values = new Object[getters.length];
+    for (int i = 0; i < values.length; i++) {
+      try {
+        values[i] = getters[i].getValue(parameter);
+      } catch (ReflectiveOperationException e) {
+        Throwable t = ExceptionUtil.unwrapThrowable(e);
+        throw new ReflectionException("Could not get property '" + parameterMappings.get(i).getProperty() + "' from "
+            + parameterType + ".  Cause: " + t, t);
+      }
+    }
+    return values;
+  }
+
+  private Object[] getBoundValues(Object parameter) {
+    BoundSql boundSql = mappedStatement.getBoundSql(parameter);
+    if (!sql.equals(boundSql.getSql())) {
+      throw new ExecutorException("Statement '" + mappedStatement.getId()
+          + "' cannot be bulk loaded. It must produce the same SQL for every row.");
+    }
+    DefaultParameterHandler parameterHandler = new DefaultParameterHandler(mappedStatement, parameter, boundSql);
+    Object[] values = new Object[parameterMappings.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = parameterHandler.getParameterValue(parameterMappings.get(i));
+    }
+    return values;
+  }
+
+  /**
+   * Binds the values of a row with the type handlers and JDBC types of the parameter mappings.
+   *
+   * @param ps
+   *          the statement to bind the values to
+   * @param index
+   *          the index of the first parameter to set
+   * @param values
+   *          the values of the row, as returned by {@link #getValues(Object)}
+   * @return the index of the parameter after the row
+   */
+  public int setValues(PreparedStatement ps, int index, Object[] values) {
+    for (int i = 0; i < values.length; i++) {
+      setValue(ps, index++, i, values[i]);
+    }
+    return index;
+  }
+
+  /**
+   * Binds the value of a column with the type handler and JDBC type of its parameter mapping.
+   *
+   * @param ps
+   *          the statement to bind the value to
+   * @param index
+   *          the index of the parameter to set
+   * @param column
+   *          the index of the parameter mapping
+   * @param value
+   *          the value to bind
+   */
+  public void setValue(PreparedStatement ps, int index, int column, Object value) {
+    ParameterMapping parameterMapping = parameterMappings.get(column);
+    @SuppressWarnings("unchecked")
+    TypeHandler<Object> typeHandler = (TypeHandler<Object>) parameterMapping.getTypeHandler();
+    JdbcType jdbcType = parameterMapping.getJdbcType();
+    if (value == null && jdbcType == null) {
+      jdbcType = mappedStatement.getConfiguration().getJdbcTypeForNull();
+    }
+    try {
+      typeHandler.setParameter(ps, index, value, jdbcType);
+    } catch (TypeException | SQLException e) {
+      throw new TypeException("Could not set parameters for mapping: " + parameterMapping + ". Cause: " + e, e);
+    }
+  }
+
+  public MappedStatement getMappedStatement() {
+    return mappedStatement;
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  public String getTable() {
+    return table;
+  }
+
+  /**
+   * Returns the columns of the insert.
+   *
+   * @return the columns, empty if the insert does not list them
+   */
+  public List<String> getColumns() {
+    return columns;
+  }
+
+  /**
+   * Returns the values row of the insert, such as {@code (?, ?)}.
+   *
+   * @return the values row
+   */
+  public String getRow() {
+    return row;
+  }
+
+  public List<ParameterMapping> getParameterMappings() {
+    return parameterMappings;
+  }
+
+  private interface ValueGetter {
+    Object getValue(Object parameter) throws ReflectiveOperationException;
+  }
+
+}
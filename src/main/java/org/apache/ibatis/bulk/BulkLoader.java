@@ -0,0 +1,105 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.bulk;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.logging.jdbc.AsyncSqlLogger;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Loads the rows of an insert statement through the first {@link BulkSink} of the configuration that supports the
+ * connection.
+ *
+ * @since 3.5.7
+ */
+public class BulkLoader {
+
+  private final Configuration configuration;
+
+  public BulkLoader(Configuration configuration) {
+    this.configuration = configuration;
+  }
+
+  /**
+   * Loads rows with an insert statement.
+   *
+   * @param connection
+   *          the connection to load the rows with
+   * @param ms
+   *          an insert statement
+   * @param parameters
+   *          the parameter object of each row
+   * @return the number of rows loaded
+   * @throws SQLException
+   *           if the rows cannot be loaded
+   */
+  public long load(Connection connection, MappedStatement ms, Iterable<?> parameters) throws SQLException {
+    final Iterator<?> iterator = parameters.iterator();
+    if (!iterator.hasNext()) {
+      return 0;
+    }
+    final Object first = wrap(iterator.next());
+    final BulkInsert insert = BulkInsert.newInstance(ms, first);
+    ErrorContext.instance().sql(insert.getSql());
+    final AsyncSqlLogger sqlLogger = AsyncSqlLogger.forExecution(ms);
+    if (sqlLogger != null) {
+      // the rows are streamed to the sink, so only the statement and the number of rows loaded are logged
+      sqlLogger.log(ms.getStatementLog(), insert.getSql(), null);
+    }
+    for (BulkSink sink : configuration.getBulkSinks()) {
+      if (sink.supports(connection)) {
+        long rows = sink.load(connection, insert, new Iterator<Object>() {
+          private boolean firstReturned;
+
+          @Override
+          public boolean hasNext() {
+            return !firstReturned || iterator.hasNext();
+          }
+
+          @Override
+          public Object next() {
+            if (!firstReturned) {
+              firstReturned = true;
+              return first;
+            }
+            if (!iterator.hasNext()) {
+              throw new NoSuchElementException();
+            }
+            return wrap(iterator.next());
+          }
+        });
+        if (sqlLogger != null) {
+          sqlLogger.logResult(ms.getStatementLog(), rows, false);
+        }
+        return rows;
+      }
+    }
+    throw new ExecutorException("No bulk sink supports the connection of statement '" + ms.getId() + "'.");
+  }
+
+  private static Object wrap(Object parameter) {
+    return ParamNameResolver.wrapToMapIfCollection(parameter, null);
+  }
+
+}
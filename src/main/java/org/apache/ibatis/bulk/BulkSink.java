@@ -0,0 +1,56 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.bulk;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+
+/**
+ * Writes the rows of a bulk load to the database.
+ *
+ * @since 3.5.7
+ * @see org.apache.ibatis.session.Configuration#getBulkSinks()
+ */
+public interface BulkSink {
+
+  /**
+   * Returns whether this sink can load rows through the given connection.
+   *
+   * @param connection
+   *          the connection of the session
+   * @return true if this sink supports the connection
+   * @throws SQLException
+   *           if the connection cannot be inspected
+   */
+  boolean supports(Connection connection) throws SQLException;
+
+  /**
+   * Loads rows into the table of an insert statement.
+   *
+   * @param connection
+   *          the connection of the session
+   * @param insert
+   *          the insert statement
+   * @param parameters
+   *          the parameter object of each row
+   * @return the number of rows loaded
+   * @throws SQLException
+   *           if the rows cannot be loaded
+   */
+  long load(Connection connection, BulkInsert insert, Iterator<?> parameters) throws SQLException;
+
+}
@@ -0,0 +1,272 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.bulk;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.type.BigDecimalTypeHandler;
+import org.apache.ibatis.type.BigIntegerTypeHandler;
+import org.apache.ibatis.type.BooleanTypeHandler;
+import org.apache.ibatis.type.ByteArrayTypeHandler;
+import org.apache.ibatis.type.ByteTypeHandler;
+import org.apache.ibatis.type.CharacterTypeHandler;
+import org.apache.ibatis.type.DateTypeHandler;
+import org.apache.ibatis.type.DoubleTypeHandler;
+import org.apache.ibatis.type.EnumTypeHandler;
+import org.apache.ibatis.type.FloatTypeHandler;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.LongTypeHandler;
+import org.apache.ibatis.type.ShortTypeHandler;
+import org.apache.ibatis.type.SqlDateTypeHandler;
+import org.apache.ibatis.type.SqlTimeTypeHandler;
+import org.apache.ibatis.type.SqlTimestampTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
+
+/**
+ * Streams the rows of a bulk insert as CSV, encoding one row at a time as it is read.
+ * <p>
+ * Values of columns mapped with the built-in type handlers of JDK types are encoded directly. The values of other
+ * columns are bound with the type handler and JDBC type of their parameter mapping, as when the insert is executed,
+ * and the value the type handler sets is encoded. Strings are always quoted so that an empty string differs from
+ * null, which is written as an empty unquoted field. Byte arrays are written in the hexadecimal {@code \x} format and
+ * dates as JDBC escape timestamps.
+ *
+ * @since 3.5.7
+ */
+public class CsvRowReader extends Reader {
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  private static final Set<Class<?>> DIRECT_TYPE_HANDLERS = new HashSet<>(Arrays.asList(
+      StringTypeHandler.class, CharacterTypeHandler.class, BooleanTypeHandler.class, ByteTypeHandler.class,
+      ShortTypeHandler.class, IntegerTypeHandler.class, LongTypeHandler.class, FloatTypeHandler.class,
+      DoubleTypeHandler.class, BigDecimalTypeHandler.class, BigIntegerTypeHandler.class, ByteArrayTypeHandler.class,
+      DateTypeHandler.class, SqlDateTypeHandler.class, SqlTimeTypeHandler.class, SqlTimestampTypeHandler.class,
+      EnumTypeHandler.class));
+
+  private final BulkInsert insert;
+  private final Iterator<?> parameters;
+  private final boolean[] captured;
+  private final ValueCapture capture;
+  private final PreparedStatement captureStatement;
+  private final StringBuilder line = new StringBuilder();
+  private int position;
+  private long rowCount;
+
+  /**
+   * Creates a reader of the rows of a bulk insert.
+   *
+   * @param connection
+   *          the connection of the session, available to the type handlers
+   * @param insert
+   *          the insert statement
+   * @param parameters
+   *          the parameter object of each row
+   */
+  public CsvRowReader(Connection connection, BulkInsert insert, Iterator<?> parameters) {
+    this.insert = insert;
+    this.parameters = parameters;
+    List<ParameterMapping> parameterMappings = insert.getParameterMappings();
+    this.captured = new boolean[parameterMappings.size()];
+    boolean capturing = false;
+    for (int i = 0; i < captured.length; i++) {
+      captured[i] = !DIRECT_TYPE_HANDLERS.contains(parameterMappings.get(i).getTypeHandler().getClass());
+      capturing |= captured[i];
+    }
+    this.capture = capturing ? new ValueCapture(connection, captured.length) : null;
+    this.captureStatement = capturing ? (PreparedStatement) Proxy.newProxyInstance(
+        PreparedStatement.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, capture) : null;
+  }
+
+  @Override
+  public int read(char[] buffer, int offset, int length) {
+    if (length == 0) {
+      return 0;
+    }
+    int read = 0;
+    while (read < length) {
+      if (position == line.length() && !nextLine()) {
+        break;
+      }
+      int count = Math.min(length - read, line.length() - position);
+      line.getChars(position, position + count, buffer, offset + read);
+      position += count;
+      read += count;
+    }
+    return read == 0 ? -1 : read;
+  }
+
+  /**
+   * Returns the number of rows encoded so far.
+   *
+   * @return the number of rows
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  @Override
+  public void close() {
+    line.setLength(0);
+    position = 0;
+  }
+
+  private boolean nextLine() {
+    line.setLength(0);
+    position = 0;
+    if (!parameters.hasNext()) {
+      return false;
+    }
+    Object[] values = insert.getValues(parameters.next());
+    for (int i = 0; i < values.length; i++) {
+      if (captured[i]) {
+        insert.setValue(captureStatement, i + 1, i, values[i]);
+        values[i] = capture.values[i];
+      }
+    }
+    appendRow(line, values);
+    rowCount++;
+    return true;
+  }
+
+  static void appendRow(StringBuilder builder, Object[] values) {
+    for (int i = 0; i < values.length; i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      appendValue(builder, values[i]);
+    }
+    builder.append('\n');
+  }
+
+  static void appendValue(StringBuilder builder, Object value) {
+    if (value == null) {
+      return;
+    }
+    if (value instanceof Number || value instanceof Boolean) {
+      builder.append(value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString());
+    } else if (value instanceof byte[]) {
+      builder.append("\\x");
+      for (byte b : (byte[]) value) {
+        builder.append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+      }
+    } else if (value instanceof Date) {
+      Date date = (Date) value;
+      builder.append(date.getClass() == Date.class ? new Timestamp(date.getTime()) : date);
+    } else {
+      String text = value instanceof Enum ? ((Enum<?>) value).name() : value.toString();
+      builder.append('"');
+      for (int i = 0; i < text.length(); i++) {
+        char c = text.charAt(i);
+        if (c == '"') {
+          builder.append('"');
+        }
+        builder.append(c);
+      }
+      builder.append('"');
+    }
+  }
+
+  /**
+   * Records the values type handlers set on a statement, in place of a statement of the database.
+   */
+  private static class ValueCapture implements InvocationHandler {
+
+    private final Connection connection;
+    private final Object[] values;
+
+    ValueCapture(Connection connection, int parameterCount) {
+      this.connection = connection;
+      this.values = new Object[parameterCount];
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] params) throws Throwable {
+      if (Object.class.equals(method.getDeclaringClass())) {
+        try {
+          return method.invoke(this, params);
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      }
+      String name = method.getName();
+      if ("getConnection".equals(name)) {
+        return connection;
+      }
+      if (name.startsWith("set") && params != null && params.length >= 2 && params[0] instanceof Integer) {
+        values[(Integer) params[0] - 1] = "setNull".equals(name) ? null : toValue(name, params[1]);
+        return null;
+      }
+      throw new SQLFeatureNotSupportedException("Bulk loading as CSV does not support PreparedStatement." + name);
+    }
+
+    private static Object toValue(String method, Object value) throws SQLException {
+      try {
+        if (value instanceof Reader) {
+          StringBuilder text = new StringBuilder();
+          char[] buffer = new char[4096];
+          int read;
+          while ((read = ((Reader) value).read(buffer)) != -1) {
+            text.append(buffer, 0, read);
+          }
+          return text.toString();
+        } else if (value instanceof InputStream) {
+          ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+          byte[] buffer = new byte[4096];
+          int read;
+          while ((read = ((InputStream) value).read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+          }
+          return "setAsciiStream".equals(method) ? new String(bytes.toByteArray(), StandardCharsets.US_ASCII)
+              : bytes.toByteArray();
+        } else if (value instanceof Clob) {
+          Clob clob = (Clob) value;
+          return clob.getSubString(1, (int) clob.length());
+        } else if (value instanceof Blob) {
+          Blob blob = (Blob) value;
+          return blob.getBytes(1, (int) blob.length());
+        }
+        return value;
+      } catch (IOException e) {
+        throw new SQLException("Error reading the value of a bulk loaded row.  Cause: " + e, e);
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,106 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.bulk;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.ibatis.dialect.Dialect;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Loads rows with multi-row inserts {@code INSERT ... VALUES (...), (...)}, binding values with the type handlers of
+ * the parameter mappings. Supports any database that accepts multi-row inserts.
+ * <p>
+ * A statement holds at most {@link Configuration#getMultiRowInsertMaxRows()} rows and no more bind parameters than
+ * {@link Dialect#getMaxParameters()} allows for the current database.
+ *
+ * @since 3.5.7
+ */
+public class MultiRowInsertSink implements BulkSink {
+
+  @Override
+  public boolean supports(Connection connection) {
+    return true;
+  }
+
+  @Override
+  public long load(Connection connection, BulkInsert insert, Iterator<?> parameters) throws SQLException {
+    final Configuration configuration = insert.getMappedStatement().getConfiguration();
+    final int rowsPerStatement = getRowsPerStatement(configuration, insert.getParameterMappings().size());
+    final List<Object[]> rows = new ArrayList<>(rowsPerStatement);
+    long count = 0;
+    PreparedStatement stmt = null;
+    try {
+      while (parameters.hasNext()) {
+        rows.add(insert.getValues(parameters.next()));
+        if (rows.size() == rowsPerStatement) {
+          if (stmt == null) {
+            stmt = connection.prepareStatement(getSql(insert, rowsPerStatement));
+          }
+          count += execute(stmt, insert, rows);
+        }
+      }
+    } finally {
+      if (stmt != null) {
+        stmt.close();
+      }
+    }
+    if (!rows.isEmpty()) {
+      try (PreparedStatement lastStmt = connection.prepareStatement(getSql(insert, rows.size()))) {
+        count += execute(lastStmt, insert, rows);
+      }
+    }
+    return count;
+  }
+
+  private int execute(PreparedStatement stmt, BulkInsert insert, List<Object[]> rows) throws SQLException {
+    int index = 1;
+    for (Object[] values : rows) {
+      index = insert.setValues(stmt, index, values);
+    }
+    rows.clear();
+    return stmt.executeUpdate();
+  }
+
+  private int getRowsPerStatement(Configuration configuration, int parameterCount) {
+    int rows = Math.max(1, configuration.getMultiRowInsertMaxRows());
+    Dialect dialect = configuration.getDialect();
+    if (dialect != null && parameterCount > 0) {
+      rows = Math.min(rows, Math.max(1, dialect.getMaxParameters() / parameterCount));
+    }
+    return rows;
+  }
+
+  private String getSql(BulkInsert insert, int rows) {
+    String sql = insert.getSql();
+    String row = insert.getRow();
+    StringBuilder builder = new StringBuilder(sql.length() + (row.length() + 2) * rows)
+        .append(sql, 0, sql.lastIndexOf(row));
+    for (int i = 0; i < rows; i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(row);
+    }
+    return builder.toString();
+  }
+
+}
@@ -0,0 +1,85 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.bulk;
+
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+
+import org.apache.ibatis.io.Resources;
+
+/**
+ * Loads rows with the PostgreSQL {@code COPY ... FROM STDIN} command.
+ * <p>
+ * The PostgreSQL JDBC driver is accessed reflectively, so it is only needed on the class path when this sink is used.
+ *
+ * @since 3.5.7
+ */
+public class PostgresCopySink implements BulkSink {
+
+  private static final String PG_CONNECTION = "org.postgresql.PGConnection";
+
+  private final Class<?> pgConnectionType;
+
+  public PostgresCopySink() {
+    Class<?> type;
+    try {
+      type = Resources.classForName(PG_CONNECTION);
+    } catch (ClassNotFoundException e) {
+      type = null;
+    }
+    this.pgConnectionType = type;
+  }
+
+  @Override
+  public boolean supports(Connection connection) throws SQLException {
+    return pgConnectionType != null && connection.isWrapperFor(pgConnectionType);
+  }
+
+  @Override
+  public long load(Connection connection, BulkInsert insert, Iterator<?> parameters) throws SQLException {
+    Object pgConnection = connection.unwrap(pgConnectionType);
+    try {
+      Object copyManager = pgConnectionType.getMethod("getCopyAPI").invoke(pgConnection);
+      Method copyIn = copyManager.getClass().getMethod("copyIn", String.class, Reader.class);
+      try (CsvRowReader reader = new CsvRowReader(connection, insert, parameters)) {
+        return (Long) copyIn.invoke(copyManager, getCopySql(insert), reader);
+      }
+    } catch (InvocationTargetException e) {
+      Throwable cause = e.getTargetException();
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new SQLException("Error copying rows into " + insert.getTable() + ".  Cause: " + cause, cause);
+    } catch (ReflectiveOperationException e) {
+      throw new SQLException("Error copying rows into " + insert.getTable() + ".  Cause: " + e, e);
+    }
+  }
+
+  protected String getCopySql(BulkInsert insert) {
+    StringBuilder sql = new StringBuilder("COPY ").append(insert.getTable());
+    if (!insert.getColumns().isEmpty()) {
+      sql.append(" (").append(String.join(", ", insert.getColumns())).append(')');
+    }
+    return sql.append(" FROM STDIN WITH (FORMAT csv)").toString();
+  }
+
+}
@@ -16,6 +16,10 @@
 package org.apache.ibatis.cursor;
 
 import java.io.Closeable;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.ibatis.cursor.defaults.ChunkedCursorSpliterator;
 
 /**
  * Cursor contract to handle fetching items lazily using an Iterator.
@@ -44,4 +48,38 @@ public interface Cursor<T> extends Closeable, Iterable<T> {
    * @return -1 if the first cursor item has not been retrieved. The index of the current item retrieved.
    */
   int getCurrentIndex();
+
+  /**
+   * Returns a parallel stream over this cursor.
+   * <p>
+   * A single reader thread maps rows into chunks of {@code chunkSize} objects and buffers up to
+   * {@code maxBufferedChunks} of them, while downstream operations run on the common fork-join pool. Chunks are handed
+   * to the workers as they are read, and the reader waits whenever {@code maxBufferedChunks} chunks are still queued.
+   * The session that opened this cursor must stay open and must not be used by other threads until
+   * the stream is consumed or closed. Closing the stream closes the cursor.
+   *
+   * @param chunkSize
+   *          the number of objects handed to a worker at once
+   * @param maxBufferedChunks
+   *          the number of chunks the reader may read ahead
+   * @return a parallel stream of the cursor items
+   * @since 3.5.7
+   */
+  default Stream<T> parallelStream(int chunkSize, int maxBufferedChunks) {
+    ChunkedCursorSpliterator<T> spliterator = new ChunkedCursorSpliterator<>(this, chunkSize, maxBufferedChunks);
+    return StreamSupport.stream(spliterator, true).onClose(spliterator::close);
+  }
+
+  /**
+   * Returns a parallel stream over this cursor that reads ahead up to 16 chunks.
+   *
+   * @param chunkSize
+   *          the number of objects handed to a worker at once
+   * @return a parallel stream of the cursor items
+   * @see #parallelStream(int, int)
+   * @since 3.5.7
+   */
+  default Stream<T> parallelStream(int chunkSize) {
+    return parallelStream(chunkSize, 16);
+  }
 }
@@ -0,0 +1,270 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+
+/**
+ * A splittable {@link Spliterator} over a {@link Cursor}.
+ * <p>
+ * A single reader thread iterates the cursor and hands fixed-size chunks of mapped objects to consumers through a
+ * bounded queue. Every call to {@link #trySplit()} takes the next chunk, so a parallel stream keeps handing rows to
+ * the fork-join pool for as long as the result set is being read. The reader blocks once {@code maxBufferedChunks}
+ * chunks are waiting in the queue, so it never reads further ahead of the splits than that. The cursor itself is only
+ * ever touched by the reader thread.
+ * <p>
+ * The reader stops and closes the cursor when the spliterator is closed, and also once it has become unreachable, for
+ * streams that were short-circuited without being closed.
+ *
+ * @param <T>
+ *          the element type
+ * @since 3.5.7
+ */
+public class ChunkedCursorSpliterator<T> implements Spliterator<T> {
+
+  private static final Object[] END_OF_CURSOR = new Object[0];
+  private static final long POLL_MILLIS = 100;
+
+  private final Reader<T> reader;
+  private boolean exhausted;
+
+  private Object[] chunk;
+  private int index;
+
+  public ChunkedCursorSpliterator(Cursor<T> cursor, int chunkSize, int maxBufferedChunks) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("chunkSize must be greater than zero.");
+    }
+    if (maxBufferedChunks < 1) {
+      throw new IllegalArgumentException("maxBufferedChunks must be greater than zero.");
+    }
+    this.reader = new Reader<>(this, cursor, chunkSize, maxBufferedChunks);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super T> action) {
+    if (chunk == null || index == chunk.length) {
+      chunk = nextChunk();
+      index = 0;
+      if (chunk == null) {
+        return false;
+      }
+    }
+    action.accept(elementAt(chunk, index++));
+    return true;
+  }
+
+  @Override
+  public Spliterator<T> trySplit() {
+    Object[] prefix;
+    if (chunk != null && index < chunk.length) {
+      // The rest of the current chunk precedes anything still in the queue
+      prefix = index == 0 ? chunk : Arrays.copyOfRange(chunk, index, chunk.length);
+      chunk = null;
+    } else {
+      prefix = nextChunk();
+    }
+    if (prefix == null) {
+      return null;
+    }
+    return Spliterators.spliterator(prefix, Spliterator.ORDERED);
+  }
+
+  /**
+   * Returns {@link Long#MAX_VALUE} while the reader is still reading, as the number of rows left in the cursor is
+   * unknown, and the number of rows not yet handed out once it has read them all.
+   */
+  @Override
+  public long estimateSize() {
+    if (exhausted) {
+      return 0;
+    }
+    if (!reader.finished) {
+      return Long.MAX_VALUE;
+    }
+    return reader.bufferedRows.get() + (chunk == null ? 0 : chunk.length - index);
+  }
+
+  @Override
+  public int characteristics() {
+    return Spliterator.ORDERED;
+  }
+
+  /**
+   * Stops the reader thread and closes the underlying cursor.
+   */
+  public void close() {
+    reader.close();
+  }
+
+  private Object[] nextChunk() {
+    if (exhausted) {
+      return null;
+    }
+    Object[] next = reader.take();
+    if (next == END_OF_CURSOR) {
+      exhausted = true;
+      Throwable t = reader.failure;
+      if (t instanceof RuntimeException) {
+        throw (RuntimeException) t;
+      } else if (t != null) {
+        throw new PersistenceException("Error reading the cursor.  Cause: " + t, t);
+      }
+      return null;
+    }
+    return next;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T elementAt(Object[] elements, int i) {
+    return (T) elements[i];
+  }
+
+  /**
+   * The reader thread, which only holds its spliterator weakly so that an abandoned stream does not keep it alive.
+   */
+  private static final class Reader<T> implements Runnable {
+
+    private final WeakReference<ChunkedCursorSpliterator<T>> owner;
+    private final Cursor<T> cursor;
+    private final int chunkSize;
+    private final BlockingQueue<Object[]> queue;
+    private final AtomicLong bufferedRows = new AtomicLong();
+
+    private volatile Thread thread;
+    private volatile boolean finished;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    Reader(ChunkedCursorSpliterator<T> owner, Cursor<T> cursor, int chunkSize, int maxBufferedChunks) {
+      this.owner = new WeakReference<>(owner);
+      this.cursor = cursor;
+      this.chunkSize = chunkSize;
+      this.queue = new ArrayBlockingQueue<>(maxBufferedChunks);
+    }
+
+    Object[] take() {
+      start();
+      try {
+        Object[] next;
+        while ((next = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+          if (closed && thread == null) {
+            return END_OF_CURSOR;
+          }
+        }
+        bufferedRows.addAndGet(-next.length);
+        return next;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new PersistenceException("Interrupted while waiting for the cursor reader.", e);
+      }
+    }
+
+    synchronized void close() {
+      closed = true;
+      if (thread == null) {
+        closeCursor();
+      }
+    }
+
+    private synchronized void start() {
+      if (thread == null && !closed) {
+        thread = new Thread(this, "mybatis-cursor-reader");
+        thread.setDaemon(true);
+        thread.start();
+      }
+    }
+
+    @Override
+    public void run() {
+      try {
+        Iterator<T> iterator = cursor.iterator();
+        Object[] buffer = new Object[chunkSize];
+        int size = 0;
+        while (!isAbandoned() && iterator.hasNext()) {
+          buffer[size++] = iterator.next();
+          if (size == chunkSize) {
+            put(buffer);
+            buffer = new Object[chunkSize];
+            size = 0;
+          }
+        }
+        if (size > 0) {
+          put(Arrays.copyOf(buffer, size));
+        }
+      } catch (Throwable t) {
+        failure = t;
+      } finally {
+        finished = true;
+        closeCursor();
+        end();
+      }
+    }
+
+    private boolean isAbandoned() {
+      return closed || owner.get() == null;
+    }
+
+    private void put(Object[] chunk) throws InterruptedException {
+      while (!isAbandoned()) {
+        if (queue.offer(chunk, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+          bufferedRows.addAndGet(chunk.length);
+          return;
+        }
+      }
+    }
+
+    /**
+     * Enqueues the end of the cursor, dropping the chunks nobody will take once the spliterator has been closed.
+     */
+    private void end() {
+      while (!queue.offer(END_OF_CURSOR)) {
+        if (isAbandoned()) {
+          queue.clear();
+        } else {
+          try {
+            if (queue.offer(END_OF_CURSOR, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+              return;
+            }
+          } catch (InterruptedException e) {
+            queue.clear();
+          }
+        }
+      }
+    }
+
+    private void closeCursor() {
+      try {
+        cursor.close();
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+  }
+}
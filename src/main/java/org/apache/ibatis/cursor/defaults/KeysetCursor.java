@@ -0,0 +1,249 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.dialect.Dialect;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.RewrittenBoundSql;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.TransactionFactory;
+import org.apache.ibatis.transaction.managed.ManagedTransactionFactory;
+
+/**
+ * A cursor that reads a select statement page by page using keyset pagination.
+ * <p>
+ * The statement SQL is wrapped so that each page is fetched with {@code WHERE keyColumn > ?} and
+ * {@code ORDER BY keyColumn}, where the bound value is read from the {@code keyProperty} of the last object of the
+ * previous page. Every page runs in its own transaction on a connection obtained from the environment data source,
+ * so no connection is held between pages and no rows are skipped on the client side. The page size is applied in the
+ * SQL by the {@link Dialect} of the current database id, or through {@link Statement#setMaxRows(int)} on the page's own
+ * statement when none is registered.
+ * <p>
+ * The key column must be unique and exposed by the statement's select list, and the statement must not be ordered
+ * itself. This implementation is not thread safe.
+ *
+ * @param <T>
+ *          the element type
+ * @since 3.5.7
+ */
+public class KeysetCursor<T> implements Cursor<T> {
+
+  private static final String LAST_KEY_PARAMETER = "_keysetLastKey";
+
+  private final Configuration configuration;
+  private final MappedStatement mappedStatement;
+  private final Object parameter;
+  private final String keyColumn;
+  private final String keyProperty;
+  private final int pageSize;
+
+  private final KeysetIterator iterator = new KeysetIterator();
+  private boolean iteratorRetrieved;
+  private boolean open;
+  private boolean closed;
+  private boolean consumed;
+
+  public KeysetCursor(Configuration configuration, String statement, Object parameter, String keyColumn,
+      String keyProperty, int pageSize) {
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("pageSize must be greater than zero.");
+    }
+    this.configuration = configuration;
+    this.mappedStatement = configuration.getMappedStatement(statement);
+    this.parameter = ParamNameResolver.wrapToMapIfCollection(parameter, null);
+    this.keyColumn = keyColumn;
+    this.keyProperty = keyProperty;
+    this.pageSize = pageSize;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return open;
+  }
+
+  @Override
+  public boolean isConsumed() {
+    return consumed;
+  }
+
+  @Override
+  public int getCurrentIndex() {
+    return iterator.index;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    if (iteratorRetrieved) {
+      throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+    }
+    if (closed || consumed) {
+      throw new IllegalStateException("A Cursor is already closed.");
+    }
+    iteratorRetrieved = true;
+    return iterator;
+  }
+
+  @Override
+  public void close() {
+    open = false;
+    closed = true;
+  }
+
+  protected List<T> fetchPage(Object lastKey) {
+    BoundSql boundSql = pageBoundSql(lastKey);
+    Transaction tx = null;
+    Executor executor = null;
+    try {
+      final Environment environment = configuration.getEnvironment();
+      final TransactionFactory transactionFactory = environment == null || environment.getTransactionFactory() == null
+          ? new ManagedTransactionFactory() : environment.getTransactionFactory();
+      tx = transactionFactory.newTransaction(environment == null ? null : environment.getDataSource(), null, false);
+      executor = configuration.newExecutor(tx, ExecutorType.SIMPLE);
+      if (configuration.getDialect() == null) {
+        return queryPage(executor, tx, boundSql);
+      }
+      // the page SQL is already limited by the dialect
+      return executor.query(mappedStatement, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER,
+          executor.createCacheKey(mappedStatement, parameter, RowBounds.DEFAULT, boundSql), boundSql);
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+    } finally {
+      if (executor != null) {
+        executor.close(true);
+      } else if (tx != null) {
+        try {
+          tx.close();
+        } catch (Exception e) {
+          // ignore
+        }
+      }
+      ErrorContext.instance().reset();
+    }
+  }
+
+  /**
+   * Runs a page without a dialect on a statement of its own, capped with {@link Statement#setMaxRows(int)} so the
+   * driver stops after the page. The statement is never handed to an executor, so the cap cannot leak into a reused
+   * statement.
+   */
+  private List<T> queryPage(Executor executor, Transaction tx, BoundSql boundSql) throws SQLException {
+    StatementHandler handler = configuration.newStatementHandler(executor, mappedStatement, parameter,
+        new RowBounds(0, pageSize), Executor.NO_RESULT_HANDLER, boundSql);
+    Statement stmt = handler.prepare(tx.getConnection(), tx.getTimeout());
+    try {
+      stmt.setMaxRows(pageSize);
+      handler.parameterize(stmt);
+      return handler.query(stmt, Executor.NO_RESULT_HANDLER);
+    } finally {
+      stmt.close();
+    }
+  }
+
+  protected BoundSql pageBoundSql(Object lastKey) {
+    BoundSql original = mappedStatement.getBoundSql(parameter);
+    List<ParameterMapping> parameterMappings = new ArrayList<>(original.getParameterMappings());
+    StringBuilder sql = new StringBuilder("SELECT * FROM (").append(original.getSql()).append(") keyset_page");
+    if (lastKey != null) {
+      sql.append(" WHERE ").append(keyColumn).append(" > ?");
+      parameterMappings.add(new ParameterMapping.Builder(configuration, LAST_KEY_PARAMETER, lastKey.getClass()).build());
+    }
+    sql.append(" ORDER BY ").append(keyColumn);
+    String pageSql = sql.toString();
+    Dialect dialect = configuration.getDialect();
+    if (dialect != null) {
+      pageSql = dialect.getLimitSql(pageSql, RowBounds.NO_ROW_OFFSET, pageSize);
+    }
+    BoundSql boundSql = new RewrittenBoundSql(configuration, pageSql, parameterMappings, original);
+    if (lastKey != null) {
+      boundSql.setAdditionalParameter(LAST_KEY_PARAMETER, lastKey);
+    }
+    return boundSql;
+  }
+
+  protected class KeysetIterator implements Iterator<T> {
+
+    private List<T> page = Collections.emptyList();
+    private int pageIndex;
+    private Object lastKey;
+    int index = -1;
+
+    @Override
+    public boolean hasNext() {
+      if (pageIndex < page.size()) {
+        return true;
+      }
+      if (closed || consumed || (index >= 0 && page.size() < pageSize)) {
+        finish();
+        return false;
+      }
+      open = true;
+      page = fetchPage(lastKey);
+      pageIndex = 0;
+      if (page.isEmpty()) {
+        finish();
+        return false;
+      }
+      lastKey = configuration.newMetaObject(page.get(page.size() - 1)).getValue(keyProperty);
+      if (lastKey == null && page.size() == pageSize) {
+        throw new ExecutorException("Keyset property '" + keyProperty + "' of the last row in a page must not be null.");
+      }
+      return true;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      index++;
+      return page.get(pageIndex++);
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Cannot remove element from Cursor");
+    }
+
+    private void finish() {
+      if (!closed) {
+        consumed = true;
+      }
+      open = false;
+      page = Collections.emptyList();
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.RewrittenBoundSql;
+import org.apache.ibatis.mapping.SqlSource;
+
+/**
+ * Counts the rows returned by another select statement.
+ * <p>
+ * When dialect pagination is enabled, the count statement of a select is available as
+ * {@code <statement id>}{@value #COUNT_SUFFIX}.
+ *
+ * @since 3.5.7
+ */
+public class CountSqlSource implements SqlSource {
+
+  public static final String COUNT_SUFFIX = "!count";
+
+  private final MappedStatement mappedStatement;
+  private final Dialect dialect;
+
+  public CountSqlSource(MappedStatement mappedStatement, Dialect dialect) {
+    this.mappedStatement = mappedStatement;
+    this.dialect = dialect;
+  }
+
+  @Override
+  public BoundSql getBoundSql(Object parameterObject) {
+    BoundSql boundSql = mappedStatement.getBoundSql(parameterObject);
+    return new RewrittenBoundSql(mappedStatement.getConfiguration(), dialect.getCountSql(boundSql.getSql()), boundSql);
+  }
+
+}
@@ -0,0 +1,62 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+/**
+ * Generates database specific SQL for paginated and count queries.
+ * <p>
+ * Implementations are looked up by database id in the {@link DialectRegistry}.
+ *
+ * @since 3.5.7
+ */
+public interface Dialect {
+
+  /**
+   * Returns the given select statement restricted to the requested rows.
+   *
+   * @param sql
+   *          the select statement
+   * @param offset
+   *          the number of rows to skip, {@link org.apache.ibatis.session.RowBounds#NO_ROW_OFFSET} for none
+   * @param limit
+   *          the maximum number of rows to return, {@link org.apache.ibatis.session.RowBounds#NO_ROW_LIMIT} for no
+   *          limit
+   * @return the restricted statement
+   */
+  String getLimitSql(String sql, int offset, int limit);
+
+  /**
+   * Returns a statement that counts the rows returned by the given select statement.
+   *
+   * @param sql
+   *          the select statement
+   * @return the count statement
+   */
+  default String getCountSql(String sql) {
+    return "SELECT COUNT(*) FROM (" + sql + ") count_source";
+  }
+
+  /**
+   * Returns the largest number of bind parameters a single statement may use.
+   * Multi-row inserts are split so that no statement exceeds this number.
+   *
+   * @return the maximum number of bind parameters
+   */
+  default int getMaxParameters() {
+    return 32767;
+  }
+
+}
@@ -0,0 +1,61 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the {@link Dialect}s keyed by database id.
+ * <p>
+ * Dialects are registered for the database ids commonly used with the
+ * {@link org.apache.ibatis.mapping.VendorDatabaseIdProvider}: {@code h2}, {@code hsqldb}, {@code postgresql},
+ * {@code mysql}, {@code mariadb} and {@code derby}.
+ *
+ * @since 3.5.7
+ */
+public class DialectRegistry {
+
+  private final Map<String, Dialect> dialects = new ConcurrentHashMap<>();
+
+  public DialectRegistry() {
+    Dialect limitOffset = new LimitOffsetDialect();
+    register("h2", limitOffset);
+    register("hsqldb", limitOffset);
+    register("postgresql", limitOffset);
+    Dialect mySql = new MySqlDialect();
+    register("mysql", mySql);
+    register("mariadb", mySql);
+    register("derby", new FetchFirstDialect());
+  }
+
+  public void register(String databaseId, Dialect dialect) {
+    dialects.put(databaseId.toLowerCase(Locale.ENGLISH), dialect);
+  }
+
+  /**
+   * Gets the dialect registered for a database id.
+   *
+   * @param databaseId
+   *          the database id, may be null
+   * @return the dialect or null if none is registered
+   */
+  public Dialect getDialect(String databaseId) {
+    return databaseId == null ? null : dialects.get(databaseId.toLowerCase(Locale.ENGLISH));
+  }
+
+}
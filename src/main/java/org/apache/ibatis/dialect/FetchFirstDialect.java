@@ -0,0 +1,39 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Dialect using the SQL:2008 {@code OFFSET m ROWS FETCH NEXT n ROWS ONLY} syntax, e.g. for Apache Derby.
+ *
+ * @since 3.5.7
+ */
+public class FetchFirstDialect implements Dialect {
+
+  @Override
+  public String getLimitSql(String sql, int offset, int limit) {
+    StringBuilder builder = new StringBuilder(sql.length() + 48).append(sql);
+    if (offset > RowBounds.NO_ROW_OFFSET) {
+      builder.append(" OFFSET ").append(offset).append(" ROWS");
+    }
+    if (limit != RowBounds.NO_ROW_LIMIT) {
+      builder.append(" FETCH NEXT ").append(limit).append(" ROWS ONLY");
+    }
+    return builder.toString();
+  }
+
+}
@@ -0,0 +1,42 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Dialect for databases supporting {@code LIMIT n OFFSET m}, e.g. H2, HSQLDB and PostgreSQL.
+ *
+ * @since 3.5.7
+ */
+public class LimitOffsetDialect implements Dialect {
+
+  @Override
+  public String getLimitSql(String sql, int offset, int limit) {
+    StringBuilder builder = new StringBuilder(sql.length() + 32).append(sql);
+    if (limit != RowBounds.NO_ROW_LIMIT) {
+      builder.append(" LIMIT ").append(limit);
+    }
+    if (offset > RowBounds.NO_ROW_OFFSET) {
+      builder.append(" OFFSET ").append(offset);
+      if (limit == RowBounds.NO_ROW_LIMIT) {
+        builder.append(" ROWS");
+      }
+    }
+    return builder.toString();
+  }
+
+}
@@ -23,6 +23,8 @@ import java.sql.Statement;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.apache.ibatis.binding.ArgumentMap;
+import org.apache.ibatis.bulk.BulkLoader;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.cursor.Cursor;
@@ -117,6 +119,16 @@ public abstract class BaseExecutor implements Executor {
     return doUpdate(ms, parameter);
   }
 
+  @Override
+  public long bulkLoad(MappedStatement ms, Iterable<?> parameters) throws SQLException {
+    ErrorContext.instance().resource(ms.getResource()).activity("bulk loading").object(ms.getId());
+    if (closed) {
+      throw new ExecutorException("Executor was closed.");
+    }
+    clearLocalCache();
+    return doBulkLoad(ms, parameters);
+  }
+
   @Override
   public List<BatchResult> flushStatements() throws SQLException {
     return flushStatements(false);
@@ -152,6 +164,9 @@ public abstract class BaseExecutor implements Executor {
       list = resultHandler == null ? (List<E>) localCache.getObject(key) : null;
       if (list != null) {
         handleLocallyCachedOutputParameters(ms, key, parameter, boundSql);
+        if (configuration.getMetricsCollector() != null) {
+          configuration.getMetricsCollector().cacheHit(ms);
+        }
       } else {
         list = queryFromDatabase(ms, parameter, rowBounds, resultHandler, key, boundSql);
       }
@@ -204,7 +219,8 @@ public abstract class BaseExecutor implements Executor {
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     TypeHandlerRegistry typeHandlerRegistry = ms.getConfiguration().getTypeHandlerRegistry();
     // mimic DefaultParameterHandler logic
-    for (ParameterMapping parameterMapping : parameterMappings) {
+    for (int i = 0; i < parameterMappings.size(); i++) {
+      ParameterMapping parameterMapping = parameterMappings.get(i);
       if (parameterMapping.getMode() != ParameterMode.OUT) {
         Object value;
         String propertyName = parameterMapping.getProperty();
@@ -212,6 +228,8 @@ public abstract class BaseExecutor implements Executor {
           value = boundSql.getAdditionalParameter(propertyName);
         } else if (parameterObject == null) {
           value = null;
+        } else if (parameterObject instanceof ArgumentMap) {
+          value = ((ArgumentMap) parameterObject).getParameterValue(configuration, parameterMappings, i);
         } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
           value = parameterObject;
         } else {
@@ -277,6 +295,10 @@ public abstract class BaseExecutor implements Executor {
   protected abstract <E> Cursor<E> doQueryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds, BoundSql boundSql)
       throws SQLException;
 
+  protected long doBulkLoad(MappedStatement ms, Iterable<?> parameters) throws SQLException {
+    return new BulkLoader(configuration).load(getConnection(ms.getStatementLog()), ms, parameters);
+  }
+
   protected void closeStatement(Statement statement) {
     if (statement != null) {
       try {
@@ -335,7 +357,7 @@ public abstract class BaseExecutor implements Executor {
 
   protected Connection getConnection(Log statementLog) throws SQLException {
     Connection connection = transaction.getConnection();
-    if (statementLog.isDebugEnabled()) {
+    if (statementLog.isDebugEnabled() && !configuration.isAsyncSqlLogEnabled()) {
       return ConnectionLogger.newInstance(connection, statementLog, queryStack);
     } else {
       return connection;
@@ -21,7 +21,10 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
@@ -30,6 +33,11 @@ import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.metrics.MetricsCollector;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -42,10 +50,20 @@ public class BatchExecutor extends BaseExecutor {
 
   public static final int BATCH_UPDATE_RETURN_VALUE = Integer.MIN_VALUE + 1002;
 
+  private static final int ESTIMATED_VALUE_BYTES = 16;
+
   private final List<Statement> statementList = new ArrayList<>();
   private final List<BatchResult> batchResultList = new ArrayList<>();
+  private final Map<BatchResult, MultiRowInsert> multiRowInserts = new IdentityHashMap<>();
+  private final Map<String, Integer> groupedBatches = new HashMap<>();
+  private final List<BatchResult> flushedResults = new ArrayList<>();
+  private final Map<BatchResult, List<StatementHandler>> deferredRows = new IdentityHashMap<>();
+  private int batchedRows;
+  private long batchedBytes;
   private String currentSql;
   private MappedStatement currentStatement;
+  private String currentBatchGroup;
+  private BatchPipeline pipeline;
 
   public BatchExecutor(Configuration configuration, Transaction transaction) {
     super(configuration, transaction);
@@ -54,30 +72,132 @@ public class BatchExecutor extends BaseExecutor {
   @Override
   public int doUpdate(MappedStatement ms, Object parameterObject) throws SQLException {
     final Configuration configuration = ms.getConfiguration();
+    if (configuration.getBatchPipelineDepth() != null && pipeline == null) {
+      pipeline = new BatchPipeline(configuration.getBatchPipelineDepth());
+    }
+    if (pipeline != null && usesConnectionBeforeExecution(ms)) {
+      pipeline.awaitIdle();
+    }
     final StatementHandler handler = configuration.newStatementHandler(this, ms, parameterObject, RowBounds.DEFAULT, null, null);
     final BoundSql boundSql = handler.getBoundSql();
     final String sql = boundSql.getSql();
-    final Statement stmt;
-    if (sql.equals(currentSql) && ms.equals(currentStatement)) {
-      int last = statementList.size() - 1;
-      stmt = statementList.get(last);
+    final int index = indexOfBatch(ms, sql);
+    BatchResult batchResult = index < 0 ? null : batchResultList.get(index);
+    MultiRowInsert multiRowInsert = batchResult == null ? null : multiRowInserts.get(batchResult);
+    if (multiRowInsert != null) {
+      multiRowInsert.addRow(parameterObject, boundSql);
+      batchResult.addParameterObject(parameterObject);
+    } else if (batchResult != null && pipeline != null) {
+      deferredRows.get(batchResult).add(handler);
+      batchResult.addParameterObject(parameterObject);
+    } else if (batchResult != null) {
+      Statement stmt = statementList.get(index);
       applyTransactionTimeout(stmt);
       handler.parameterize(stmt);// fix Issues 322
-      BatchResult batchResult = batchResultList.get(last);
       batchResult.addParameterObject(parameterObject);
+      handler.batch(stmt);
     } else {
-      Connection connection = getConnection(ms.getStatementLog());
-      stmt = handler.prepare(connection, transaction.getTimeout());
-      handler.parameterize(stmt);    // fix Issues 322
+      batchResult = new BatchResult(ms, sql, parameterObject);
+      if (configuration.isMultiRowInsertEnabled() && ms.getSqlCommandType() == SqlCommandType.INSERT
+          && ms.getStatementType() == StatementType.PREPARED) {
+        multiRowInsert = MultiRowInsert.newInstance(ms, boundSql);
+      }
+      if (multiRowInsert != null) {
+        multiRowInsert.addRow(parameterObject, boundSql);
+        multiRowInserts.put(batchResult, multiRowInsert);
+        statementList.add(null);
+      } else if (pipeline != null) {
+        // the statement is prepared by the flusher thread, which owns the connection
+        List<StatementHandler> rows = new ArrayList<>();
+        rows.add(handler);
+        deferredRows.put(batchResult, rows);
+        statementList.add(null);
+      } else {
+        Connection connection = getConnection(ms.getStatementLog());
+        Statement stmt = handler.prepare(connection, transaction.getTimeout());
+        handler.parameterize(stmt);    // fix Issues 322
+        handler.batch(stmt);
+        statementList.add(stmt);
+      }
+      batchResultList.add(batchResult);
       currentSql = sql;
       currentStatement = ms;
-      statementList.add(stmt);
-      batchResultList.add(new BatchResult(ms, sql, parameterObject));
+      if (currentBatchGroup != null) {
+        groupedBatches.put(sql, batchResultList.size() - 1);
+      }
     }
-    handler.batch(stmt);
+    flushIfFull(batchResult, parameterObject, boundSql);
     return BATCH_UPDATE_RETURN_VALUE;
   }
 
+  /**
+   * Returns the index of the batch a statement execution is added to, or -1 if a new batch is needed.
+   * <p>
+   * Consecutive executions of a statement always share a batch. With batch grouping enabled, an insert that declares a
+   * batch group is also added to the batch of an earlier execution of the same insert, as long as only inserts of the
+   * same batch group have been batched since. Any other statement ends the grouping of the batches before it, so that
+   * an insert is never moved ahead of a statement it may depend on.
+   */
+  private int indexOfBatch(MappedStatement ms, String sql) {
+    if (sql.equals(currentSql) && ms.equals(currentStatement)) {
+      return statementList.size() - 1;
+    }
+    if (!configuration.isBatchGroupingEnabled()) {
+      return -1;
+    }
+    String batchGroup = ms.getSqlCommandType() == SqlCommandType.INSERT ? ms.getBatchGroup() : null;
+    if (batchGroup == null || !batchGroup.equals(currentBatchGroup)) {
+      groupedBatches.clear();
+      currentBatchGroup = batchGroup;
+      return -1;
+    }
+    Integer index = groupedBatches.get(sql);
+    return index != null && ms.equals(batchResultList.get(index).getMappedStatement()) ? index : -1;
+  }
+
+  /**
+   * Flushes the statements once one of the batch flush thresholds is reached, or hands them to the flusher thread if
+   * batch pipelining is enabled. The results are kept until the next call to {@link #flushStatements()}, unless parameter objects are
+   * not retained either: a failed flush has already been reported by then, so they are released to keep memory flat.
+   */
+  private void flushIfFull(BatchResult batchResult, Object parameterObject, BoundSql boundSql) throws SQLException {
+    final Integer flushRowsPerStatement = configuration.getBatchFlushRowsPerStatement();
+    final Integer flushRows = configuration.getBatchFlushRows();
+    final Integer flushBytes = configuration.getBatchFlushBytes();
+    batchedRows++;
+    if (flushBytes != null) {
+      batchedBytes += estimateSize(batchResult.getMappedStatement(), parameterObject, boundSql);
+    }
+    if ((flushRowsPerStatement != null && batchResult.getParameterObjects().size() >= flushRowsPerStatement)
+        || (flushRows != null && batchedRows >= flushRows)
+        || (flushBytes != null && batchedBytes >= flushBytes)) {
+      if (pipeline != null) {
+        submitBatches(configuration.isBatchRetainParameterObjects());
+        return;
+      }
+      List<BatchResult> results = doFlushStatements(false);
+      if (configuration.isBatchRetainParameterObjects()) {
+        flushedResults.addAll(results);
+      }
+    }
+  }
+
+  private long estimateSize(MappedStatement ms, Object parameterObject, BoundSql boundSql) {
+    DefaultParameterHandler parameterHandler = new DefaultParameterHandler(ms, parameterObject, boundSql);
+    long size = 0;
+    for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+      Object value = parameterHandler.getParameterValue(parameterMapping);
+      if (value instanceof CharSequence) {
+        size += 2L * ((CharSequence) value).length();
+      } else if (value instanceof byte[]) {
+        size += ((byte[]) value).length;
+      } else {
+        size += ESTIMATED_VALUE_BYTES;
+      }
+    }
+    return size;
+  }
+
   @Override
   public <E> List<E> doQuery(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql)
       throws SQLException {
@@ -108,56 +228,182 @@ public class BatchExecutor extends BaseExecutor {
     return cursor;
   }
 
+  @Override
+  protected long doBulkLoad(MappedStatement ms, Iterable<?> parameters) throws SQLException {
+    flushStatements();
+    return super.doBulkLoad(ms, parameters);
+  }
+
   @Override
   public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
     try {
-      List<BatchResult> results = new ArrayList<>();
+      List<BatchResult> results = new ArrayList<>(flushedResults);
+      if (pipeline != null) {
+        if (!isRollback) {
+          submitBatches(true);
+        }
+        results.addAll(pipeline.await(isRollback));
+      }
       if (isRollback) {
         return Collections.emptyList();
       }
-      for (int i = 0, n = statementList.size(); i < n; i++) {
-        Statement stmt = statementList.get(i);
-        applyTransactionTimeout(stmt);
-        BatchResult batchResult = batchResultList.get(i);
-        try {
-          batchResult.setUpdateCounts(stmt.executeBatch());
-          MappedStatement ms = batchResult.getMappedStatement();
-          List<Object> parameterObjects = batchResult.getParameterObjects();
-          KeyGenerator keyGenerator = ms.getKeyGenerator();
-          if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
-            Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
-            jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
-          } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
-            for (Object parameter : parameterObjects) {
-              keyGenerator.processAfter(this, ms, stmt, parameter);
-            }
-          }
-          // Close statement to close cursor #1109
+      executeBatches(results, statementList, batchResultList, multiRowInserts);
+      return results;
+    } finally {
+      for (Statement stmt : statementList) {
+        closeStatement(stmt);
+      }
+      clearBatches();
+      flushedResults.clear();
+    }
+  }
+
+  /**
+   * Hands the batches built so far to the flusher thread. Only the rows' parameter objects and bound SQL have been
+   * built on the calling thread; the flusher prepares, parameterizes and executes the statements, so it is the only
+   * thread that uses the connection until the pipeline is awaited.
+   */
+  private void submitBatches(boolean keepResults) {
+    if (batchResultList.isEmpty()) {
+      return;
+    }
+    final List<BatchResult> batchResults = new ArrayList<>(batchResultList);
+    final Map<BatchResult, MultiRowInsert> inserts = new IdentityHashMap<>(multiRowInserts);
+    final Map<BatchResult, List<StatementHandler>> rows = new IdentityHashMap<>(deferredRows);
+    clearBatches();
+    pipeline.submit(results -> {
+      List<Statement> statements = new ArrayList<>();
+      try {
+        for (BatchResult batchResult : batchResults) {
+          statements.add(prepareBatch(batchResult, rows.get(batchResult)));
+        }
+        executeBatches(keepResults ? results : new ArrayList<>(), statements, batchResults, inserts);
+      } finally {
+        for (Statement stmt : statements) {
           closeStatement(stmt);
-        } catch (BatchUpdateException e) {
-          StringBuilder message = new StringBuilder();
-          message.append(batchResult.getMappedStatement().getId())
-              .append(" (batch index #")
-              .append(i + 1)
-              .append(")")
-              .append(" failed.");
-          if (i > 0) {
-            message.append(" ")
-                .append(i)
-                .append(" prior sub executor(s) completed successfully, but will be rolled back.");
+        }
+      }
+    });
+  }
+
+  private Statement prepareBatch(BatchResult batchResult, List<StatementHandler> rows) throws SQLException {
+    if (rows == null) {
+      return null;
+    }
+    Connection connection = getConnection(batchResult.getMappedStatement().getStatementLog());
+    Statement stmt = rows.get(0).prepare(connection, transaction.getTimeout());
+    try {
+      for (StatementHandler handler : rows) {
+        handler.parameterize(stmt);
+        handler.batch(stmt);
+      }
+    } catch (SQLException | RuntimeException e) {
+      closeStatement(stmt);
+      throw e;
+    }
+    return stmt;
+  }
+
+  private void executeBatches(List<BatchResult> results, List<Statement> statements, List<BatchResult> batchResults,
+      Map<BatchResult, MultiRowInsert> inserts) throws SQLException {
+    final MetricsCollector metricsCollector = configuration.getMetricsCollector();
+    for (int i = 0, n = statements.size(); i < n; i++) {
+      Statement stmt = statements.get(i);
+      BatchResult batchResult = batchResults.get(i);
+      MultiRowInsert multiRowInsert = inserts.get(batchResult);
+      try {
+        MappedStatement ms = batchResult.getMappedStatement();
+        List<Object> parameterObjects = batchResult.getParameterObjects();
+        if (multiRowInsert != null) {
+          batchResult.setUpdateCounts(multiRowInsert.execute(this, getConnection(ms.getStatementLog()),
+              transaction.getTimeout(), parameterObjects));
+          releaseParameterObjects(batchResult);
+          results.add(batchResult);
+          continue;
+        }
+        applyTransactionTimeout(stmt);
+        long start = metricsCollector == null ? 0 : System.nanoTime();
+        batchResult.setUpdateCounts(stmt.executeBatch());
+        long executeNanos = metricsCollector == null ? 0 : System.nanoTime() - start;
+        start = metricsCollector == null ? 0 : System.nanoTime();
+        KeyGenerator keyGenerator = ms.getKeyGenerator();
+        if (Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
+          Jdbc3KeyGenerator jdbc3KeyGenerator = (Jdbc3KeyGenerator) keyGenerator;
+          jdbc3KeyGenerator.processBatch(ms, stmt, parameterObjects);
+        } else if (!NoKeyGenerator.class.equals(keyGenerator.getClass())) { //issue #141
+          for (Object parameter : parameterObjects) {
+            keyGenerator.processAfter(this, ms, stmt, parameter);
           }
-          throw new BatchExecutorException(message.toString(), e, results, batchResult);
         }
-        results.add(batchResult);
+        if (metricsCollector != null) {
+          metricsCollector.statementExecuted(ms, 0, executeNanos, System.nanoTime() - start,
+              countRows(batchResult.getUpdateCounts()));
+        }
+        // Close statement to close cursor #1109
+        closeStatement(stmt);
+        releaseParameterObjects(batchResult);
+      } catch (BatchUpdateException e) {
+        StringBuilder message = new StringBuilder();
+        message.append(batchResult.getMappedStatement().getId())
+            .append(" (batch index #")
+            .append(i + 1)
+            .append(")")
+            .append(" failed.");
+        if (i > 0) {
+          message.append(" ")
+              .append(i)
+              .append(" prior sub executor(s) completed successfully, but will be rolled back.");
+        }
+        throw new BatchExecutorException(message.toString(), e, results, batchResult);
       }
-      return results;
+      results.add(batchResult);
+    }
+  }
+
+  /**
+   * Returns whether building a row of the statement may use the connection, because its key generator runs before the
+   * statement is executed.
+   */
+  private static boolean usesConnectionBeforeExecution(MappedStatement ms) {
+    Class<?> keyGeneratorClass = ms.getKeyGenerator().getClass();
+    return !NoKeyGenerator.class.equals(keyGeneratorClass) && !Jdbc3KeyGenerator.class.equals(keyGeneratorClass);
+  }
+
+  @Override
+  public void close(boolean forceRollback) {
+    try {
+      super.close(forceRollback);
     } finally {
-      for (Statement stmt : statementList) {
-        closeStatement(stmt);
+      if (pipeline != null) {
+        pipeline.close();
+        pipeline = null;
       }
-      currentSql = null;
-      statementList.clear();
-      batchResultList.clear();
+    }
+  }
+
+  private static int countRows(int[] updateCounts) {
+    int rows = 0;
+    for (int updateCount : updateCounts) {
+      rows += Math.max(updateCount, 0);
+    }
+    return rows;
+  }
+
+  private void clearBatches() {
+    currentSql = null;
+    currentBatchGroup = null;
+    statementList.clear();
+    batchResultList.clear();
+    multiRowInserts.clear();
+    deferredRows.clear();
+    groupedBatches.clear();
+    batchedRows = 0;
+    batchedBytes = 0;
+  }
+
+  private void releaseParameterObjects(BatchResult batchResult) {
+    if (!configuration.isBatchRetainParameterObjects()) {
+      batchResult.getParameterObjects().clear();
     }
   }
 
@@ -0,0 +1,129 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executes the batches handed off by a {@link BatchExecutor} on a background thread, in the order they were submitted.
+ * <p>
+ * At most {@code depth} flushes are pending at a time; submitting another one blocks until the oldest has completed.
+ * Once a flush fails, the flushes submitted after it are skipped. Results and the failure are kept until
+ * {@link #await(boolean)} reports them, so that they surface at the next flush or commit of the session.
+ *
+ * @since 3.5.7
+ */
+class BatchPipeline {
+
+  interface Flush {
+    void execute(List<BatchResult> results) throws SQLException;
+  }
+
+  private final ExecutorService flusher = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "mybatis-batch-flusher");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final Semaphore permits;
+  private final List<Future<?>> pending = new ArrayList<>();
+  private List<BatchResult> results = new ArrayList<>();
+  private volatile Throwable failure;
+
+  BatchPipeline(int depth) {
+    this.permits = new Semaphore(Math.max(1, depth));
+  }
+
+  void submit(Flush flush) {
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ExecutorException("Interrupted while waiting for a pending batch flush.", e);
+    }
+    try {
+      pending.add(flusher.submit(() -> {
+        try {
+          if (failure == null) {
+            flush.execute(results);
+          }
+        } catch (Throwable t) {
+          failure = t;
+        } finally {
+          ErrorContext.instance().reset();
+          permits.release();
+        }
+      }));
+    } catch (RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Waits until the flusher is idle, so that the calling thread may use the connection. Results and failures are kept
+   * for {@link #await(boolean)}.
+   */
+  void awaitIdle() {
+    try {
+      for (Future<?> future : pending) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ExecutorException("Interrupted while waiting for a pending batch flush.", e);
+    } catch (ExecutionException e) {
+      // failures are recorded by the flush itself
+    }
+    pending.clear();
+  }
+
+  /**
+   * Waits for all pending flushes to complete and reports them.
+   *
+   * @param discard
+   *          true to ignore a failed flush
+   * @return the results of the completed flushes
+   */
+  List<BatchResult> await(boolean discard) throws SQLException {
+    awaitIdle();
+    List<BatchResult> completed = results;
+    Throwable t = failure;
+    results = new ArrayList<>();
+    failure = null;
+    if (t == null || discard) {
+      return completed;
+    } else if (t instanceof SQLException) {
+      throw (SQLException) t;
+    } else if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    } else if (t instanceof Error) {
+      throw (Error) t;
+    }
+    throw new ExecutorException("Error flushing batch.  Cause: " + t, t);
+  }
+
+  void close() {
+    flusher.shutdown();
+  }
+
+}
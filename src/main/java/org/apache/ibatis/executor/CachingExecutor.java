@@ -76,6 +76,12 @@ public class CachingExecutor implements Executor {
     return delegate.update(ms, parameterObject);
   }
 
+  @Override
+  public long bulkLoad(MappedStatement ms, Iterable<?> parameters) throws SQLException {
+    flushCacheIfRequired(ms);
+    return delegate.bulkLoad(ms, parameters);
+  }
+
   @Override
   public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
     flushCacheIfRequired(ms);
@@ -102,6 +108,8 @@ public class CachingExecutor implements Executor {
         if (list == null) {
           list = delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
           tcm.putObject(cache, key, list); // issue #578 and #116
+        } else if (ms.getConfiguration().getMetricsCollector() != null) {
+          ms.getConfiguration().getMetricsCollector().cacheHit(ms);
         }
         return list;
       }
@@ -36,6 +36,21 @@ public interface Executor {
 
   int update(MappedStatement ms, Object parameter) throws SQLException;
 
+  /**
+   * Loads rows with an insert statement through the first bulk sink of the configuration that supports the
+   * connection. The caches are flushed as for an update.
+   *
+   * @param ms
+   *          an insert statement
+   * @param parameters
+   *          the parameter object of each row
+   * @return the number of rows loaded
+   * @throws SQLException
+   *           if the rows cannot be loaded
+   * @since 3.5.7
+   */
+  long bulkLoad(MappedStatement ms, Iterable<?> parameters) throws SQLException;
+
   <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey cacheKey, BoundSql boundSql) throws SQLException;
 
   <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException;
@@ -0,0 +1,263 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.dialect.Dialect;
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * Rows of consecutive executions of an {@code INSERT ... VALUES (...)} statement that are sent to the database as
+ * multi-row inserts {@code INSERT ... VALUES (...), (...)}.
+ * <p>
+ * The values of each row are resolved when the row is added, as a batched prepared statement would bind them. A
+ * statement holds at most {@link Configuration#getMultiRowInsertMaxRows()} rows and no more bind parameters than
+ * {@link Dialect#getMaxParameters()} allows for the current database.
+ *
+ * @since 3.5.7
+ */
+class MultiRowInsert {
+
+  private static final String ROW_PARAMETER_PREFIX = "__row_";
+
+  private final MappedStatement mappedStatement;
+  private final String prefix;
+  private final String row;
+  private final String suffix;
+  private final List<ParameterMapping> parameterMappings;
+  private final List<Object[]> rowValues = new ArrayList<>();
+
+  private MultiRowInsert(MappedStatement mappedStatement, String prefix, String row, String suffix,
+      List<ParameterMapping> parameterMappings) {
+    this.mappedStatement = mappedStatement;
+    this.prefix = prefix;
+    this.row = row;
+    this.suffix = suffix;
+    this.parameterMappings = parameterMappings;
+  }
+
+  /**
+   * Creates a multi-row insert for a statement whose first {@code VALUES} clause is a single row holding all of its
+   * bind parameters. A clause following the row, such as {@code ON DUPLICATE KEY UPDATE} or {@code ON CONFLICT}, is
+   * kept after the last row.
+   * <p>
+   * Statements with a key generator other than {@link Jdbc3KeyGenerator} are not rewritten, as their keys cannot be
+   * told apart once the rows are inserted by a single statement.
+   *
+   * @return the multi-row insert, or null if the statement cannot be rewritten
+   */
+  static MultiRowInsert newInstance(MappedStatement mappedStatement, BoundSql boundSql) {
+    KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
+    if (!(keyGenerator instanceof NoKeyGenerator) && !Jdbc3KeyGenerator.class.equals(keyGenerator.getClass())) {
+      return null;
+    }
+    for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+      if (parameterMapping.getMode() != ParameterMode.IN) {
+        return null;
+      }
+    }
+    String sql = boundSql.getSql();
+    int valuesIndex = -1;
+    int depth = 0;
+    for (int i = 0; i < sql.length() && valuesIndex < 0; i++) {
+      char c = sql.charAt(i);
+      if (c == '\'' || c == '"') {
+        i = skipQuoted(sql, i);
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (depth == 0 && isKeyword(sql, i, "values")) {
+        valuesIndex = i;
+      }
+    }
+    if (valuesIndex < 0) {
+      return null;
+    }
+    int start = valuesIndex + "values".length();
+    while (start < sql.length() && Character.isWhitespace(sql.charAt(start))) {
+      start++;
+    }
+    if (start == sql.length() || sql.charAt(start) != '(') {
+      return null;
+    }
+    int end = findClosingParenthesis(sql, start);
+    if (end < 0 || hasPlaceholder(sql, 0, start) || hasPlaceholder(sql, end + 1, sql.length())) {
+      return null;
+    }
+    return new MultiRowInsert(mappedStatement, sql.substring(0, start), sql.substring(start, end + 1),
+        sql.substring(end + 1), boundSql.getParameterMappings());
+  }
+
+  void addRow(Object parameterObject, BoundSql boundSql) {
+    DefaultParameterHandler parameterHandler = new DefaultParameterHandler(mappedStatement, parameterObject, boundSql);
+    Object[] values = new Object[parameterMappings.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = parameterHandler.getParameterValue(parameterMappings.get(i));
+    }
+    rowValues.add(values);
+  }
+
+  int size() {
+    return rowValues.size();
+  }
+
+  /**
+   * Executes the rows through statement handlers and assigns generated keys to their parameter objects.
+   *
+   * @return the update count of each row, {@link Statement#SUCCESS_NO_INFO} if the database reported a different
+   *         number of rows for a statement than it held
+   */
+  int[] execute(Executor executor, Connection connection, Integer transactionTimeout, List<Object> parameterObjects)
+      throws SQLException {
+    final Configuration configuration = mappedStatement.getConfiguration();
+    final int rowsPerStatement = getRowsPerStatement(configuration);
+    final int[] updateCounts = new int[rowValues.size()];
+    Statement stmt = null;
+    int preparedRows = 0;
+    int start = 0;
+    try {
+      for (; start < rowValues.size(); start += rowsPerStatement) {
+        int end = Math.min(rowValues.size(), start + rowsPerStatement);
+        // the rows of the statement are its parameter object, generated keys are assigned to them in order
+        List<Object> rowParameterObjects = new ArrayList<>(parameterObjects.subList(start, end));
+        StatementHandler handler = configuration.newStatementHandler(executor, mappedStatement,
+            rowParameterObjects, RowBounds.DEFAULT, null, getBoundSql(configuration, start, end, rowParameterObjects));
+        if (stmt == null || end - start != preparedRows) {
+          closeStatement(stmt);
+          stmt = handler.prepare(connection, transactionTimeout);
+          preparedRows = end - start;
+        }
+        handler.parameterize(stmt);
+        int rows = handler.update(stmt);
+        Arrays.fill(updateCounts, start, end, rows == end - start ? 1 : Statement.SUCCESS_NO_INFO);
+      }
+      return updateCounts;
+    } catch (BatchUpdateException e) {
+      throw e;
+    } catch (SQLException e) {
+      throw new BatchUpdateException(e.getMessage(), e.getSQLState(), e.getErrorCode(),
+          Arrays.copyOf(updateCounts, start), e);
+    } finally {
+      closeStatement(stmt);
+    }
+  }
+
+  private int getRowsPerStatement(Configuration configuration) {
+    int rows = Math.max(1, configuration.getMultiRowInsertMaxRows());
+    Dialect dialect = configuration.getDialect();
+    if (dialect != null && !parameterMappings.isEmpty()) {
+      rows = Math.min(rows, Math.max(1, dialect.getMaxParameters() / parameterMappings.size()));
+    }
+    return rows;
+  }
+
+  BoundSql getBoundSql(Configuration configuration, int start, int end, Object parameterObject) {
+    StringBuilder sql = new StringBuilder(prefix.length() + (row.length() + 2) * (end - start)).append(prefix);
+    List<ParameterMapping> mappings = new ArrayList<>(parameterMappings.size() * (end - start));
+    List<Object> values = new ArrayList<>(parameterMappings.size() * (end - start));
+    for (int i = start; i < end; i++) {
+      if (i > start) {
+        sql.append(", ");
+      }
+      sql.append(row);
+      Object[] rowValue = rowValues.get(i);
+      for (int j = 0; j < rowValue.length; j++) {
+        ParameterMapping parameterMapping = parameterMappings.get(j);
+        mappings.add(new ParameterMapping.Builder(configuration, ROW_PARAMETER_PREFIX + mappings.size(),
+            parameterMapping.getTypeHandler())
+            .javaType(parameterMapping.getJavaType())
+            .jdbcType(parameterMapping.getJdbcType())
+            .numericScale(parameterMapping.getNumericScale())
+            .build());
+        values.add(rowValue[j]);
+      }
+    }
+    sql.append(suffix);
+    BoundSql boundSql = new BoundSql(configuration, sql.toString(), mappings, parameterObject);
+    for (int i = 0; i < values.size(); i++) {
+      boundSql.setAdditionalParameter(ROW_PARAMETER_PREFIX + i, values.get(i));
+    }
+    return boundSql;
+  }
+
+  private static boolean isKeyword(String sql, int index, String keyword) {
+    return sql.regionMatches(true, index, keyword, 0, keyword.length())
+        && (index == 0 || !Character.isLetterOrDigit(sql.charAt(index - 1)) && sql.charAt(index - 1) != '_')
+        && (index + keyword.length() == sql.length() || !Character.isLetterOrDigit(sql.charAt(index + keyword.length()))
+            && sql.charAt(index + keyword.length()) != '_');
+  }
+
+  private static boolean hasPlaceholder(String sql, int start, int end) {
+    for (int i = start; i < end; i++) {
+      char c = sql.charAt(i);
+      if (c == '\'' || c == '"') {
+        i = skipQuoted(sql, i);
+      } else if (c == '?') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int skipQuoted(String sql, int start) {
+    int end = sql.indexOf(sql.charAt(start), start + 1);
+    return end < 0 ? sql.length() : end;
+  }
+
+  private static int findClosingParenthesis(String sql, int start) {
+    int depth = 0;
+    for (int i = start; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (c == '\'' || c == '"') {
+        i = skipQuoted(sql, i);
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')' && --depth == 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static void closeStatement(Statement statement) {
+    if (statement != null) {
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        // ignore
+      }
+    }
+  }
+
+}
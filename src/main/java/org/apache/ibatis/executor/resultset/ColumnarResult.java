@@ -0,0 +1,175 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The rows of a result set stored column by column, one array per column.
+ * <p>
+ * A statement whose result type is {@code ColumnarResult} (alias {@code columnar}) returns a single instance holding
+ * all the columns of its result set, read through type handlers without creating an object per row. Integer columns
+ * are stored in an {@code int[]}, {@code BIGINT} columns in a {@code long[]}, floating point columns in a
+ * {@code double[]}, boolean columns in a {@code boolean[]}, character columns in a {@code String[]} and other columns
+ * in an {@code Object[]}. A SQL NULL in a primitive column is stored as zero or false and reported by
+ * {@link #isNull(String, int)}.
+ * <p>
+ * The arrays are returned as is, without copying them, and their length is the row count.
+ *
+ * @since 3.5.7
+ */
+public final class ColumnarResult {
+
+  private final List<String> columnNames;
+  private final Object[] columns;
+  private final BitSet[] nulls;
+  private final int rowCount;
+  private final Map<String, Integer> columnIndexes = new HashMap<>();
+
+  ColumnarResult(List<String> columnNames, Object[] columns, BitSet[] nulls, int rowCount) {
+    this.columnNames = Collections.unmodifiableList(columnNames);
+    this.columns = columns;
+    this.nulls = nulls;
+    this.rowCount = rowCount;
+    for (int i = columnNames.size() - 1; i >= 0; i--) {
+      // the first of duplicate labels wins, as with ResultSet#findColumn
+      columnIndexes.put(columnNames.get(i).toUpperCase(Locale.ENGLISH), i);
+    }
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public int getColumnCount() {
+    return columns.length;
+  }
+
+  public List<String> getColumnNames() {
+    return columnNames;
+  }
+
+  /**
+   * Returns the position of a column, ignoring case.
+   *
+   * @param columnName
+   *          the column label, or name if column labels are not used
+   * @return the zero-based position
+   * @throws IllegalArgumentException
+   *           if the result set has no such column
+   */
+  public int getColumnIndex(String columnName) {
+    Integer index = columnIndexes.get(columnName.toUpperCase(Locale.ENGLISH));
+    if (index == null) {
+      throw new IllegalArgumentException("There is no column named '" + columnName + "' in " + columnNames);
+    }
+    return index;
+  }
+
+  /**
+   * Returns the type of the values of a column: {@code int.class}, {@code long.class}, {@code double.class},
+   * {@code boolean.class}, {@code String.class} or {@code Object.class}.
+   *
+   * @param columnName
+   *          the column name
+   * @return the component type of the array of the column
+   */
+  public Class<?> getColumnType(String columnName) {
+    return getColumn(columnName).getClass().getComponentType();
+  }
+
+  /**
+   * Returns the array holding the values of a column.
+   *
+   * @param columnName
+   *          the column name
+   * @return the array, of the type returned by {@link #getColumnType(String)}
+   */
+  public Object getColumn(String columnName) {
+    return columns[getColumnIndex(columnName)];
+  }
+
+  public int[] getInts(String columnName) {
+    return getColumn(columnName, int[].class);
+  }
+
+  public long[] getLongs(String columnName) {
+    return getColumn(columnName, long[].class);
+  }
+
+  public double[] getDoubles(String columnName) {
+    return getColumn(columnName, double[].class);
+  }
+
+  public boolean[] getBooleans(String columnName) {
+    return getColumn(columnName, boolean[].class);
+  }
+
+  public String[] getStrings(String columnName) {
+    return getColumn(columnName, String[].class);
+  }
+
+  /**
+   * Returns the values of a column of strings or objects.
+   *
+   * @param columnName
+   *          the column name
+   * @return the values
+   */
+  public Object[] getObjects(String columnName) {
+    return getColumn(columnName, Object[].class);
+  }
+
+  /**
+   * Returns whether the value of a column is SQL NULL in a row.
+   *
+   * @param columnName
+   *          the column name
+   * @param row
+   *          the zero-based row
+   * @return true if the value is null
+   */
+  public boolean isNull(String columnName, int row) {
+    if (row < 0 || row >= rowCount) {
+      throw new IndexOutOfBoundsException("Row " + row + " is out of range, the result has " + rowCount + " rows.");
+    }
+    int index = getColumnIndex(columnName);
+    if (nulls[index] != null) {
+      return nulls[index].get(row);
+    }
+    return ((Object[]) columns[index])[row] == null;
+  }
+
+  private <T> T getColumn(String columnName, Class<T> arrayType) {
+    Object column = getColumn(columnName);
+    if (!arrayType.isInstance(column)) {
+      throw new IllegalArgumentException("Column '" + columnName + "' holds " + column.getClass().getComponentType()
+          + " values, not " + arrayType.getComponentType() + " values.");
+    }
+    return arrayType.cast(column);
+  }
+
+  @Override
+  public String toString() {
+    return "ColumnarResult" + columnNames + " with " + rowCount + " rows";
+  }
+
+}
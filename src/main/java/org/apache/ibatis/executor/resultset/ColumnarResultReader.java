@@ -0,0 +1,305 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.apache.ibatis.type.BooleanResultHandler;
+import org.apache.ibatis.type.DoubleResultHandler;
+import org.apache.ibatis.type.IntResultHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.LongResultHandler;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+/**
+ * Reads the rows of a result set into the arrays of a {@link ColumnarResult}, growing them as rows are read.
+ *
+ * @since 3.5.7
+ */
+final class ColumnarResultReader {
+
+  private final ResultSet resultSet;
+  private final List<String> columnNames;
+  private final Column[] columns;
+  private int capacity;
+  private int rows;
+
+  ColumnarResultReader(ResultSetWrapper rsw, TypeHandlerRegistry typeHandlerRegistry, int initialCapacity) {
+    this.resultSet = rsw.getResultSet();
+    this.columnNames = rsw.getColumnNames();
+    this.capacity = Math.max(initialCapacity, 1);
+    List<JdbcType> jdbcTypes = rsw.getJdbcTypes();
+    this.columns = new Column[columnNames.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = newColumn(rsw, typeHandlerRegistry, columnNames.get(i), jdbcTypes.get(i), capacity);
+    }
+  }
+
+  /**
+   * Reads the current row of the result set.
+   */
+  void readRow() throws SQLException {
+    if (rows == capacity) {
+      capacity = capacity > Integer.MAX_VALUE / 3 * 2 ? Integer.MAX_VALUE - 8 : capacity + (capacity >> 1) + 1;
+      for (Column column : columns) {
+        column.resize(capacity);
+      }
+    }
+    for (int i = 0; i < columns.length; i++) {
+      columns[i].read(resultSet, i + 1, rows);
+    }
+    rows++;
+  }
+
+  /**
+   * Returns the rows read so far, in arrays trimmed to the row count.
+   */
+  ColumnarResult getResult() {
+    Object[] values = new Object[columns.length];
+    BitSet[] nulls = new BitSet[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      values[i] = columns[i].getValues(rows);
+      nulls[i] = columns[i].nulls;
+    }
+    return new ColumnarResult(new ArrayList<>(columnNames), values, nulls, rows);
+  }
+
+  private static Column newColumn(ResultSetWrapper rsw, TypeHandlerRegistry typeHandlerRegistry, String columnName,
+      JdbcType jdbcType, int capacity) {
+    Class<?> primitiveType = null;
+    if (jdbcType != null) {
+      switch (jdbcType) {
+        case BIT:
+        case BOOLEAN:
+          primitiveType = boolean.class;
+          break;
+        case TINYINT:
+        case SMALLINT:
+        case INTEGER:
+          primitiveType = int.class;
+          break;
+        case BIGINT:
+          primitiveType = long.class;
+          break;
+        case REAL:
+        case FLOAT:
+        case DOUBLE:
+          primitiveType = double.class;
+          break;
+        case CHAR:
+        case VARCHAR:
+        case LONGVARCHAR:
+        case NCHAR:
+        case NVARCHAR:
+        case LONGNVARCHAR:
+          return new ObjectColumn(typeHandlerRegistry.getTypeHandler(String.class, jdbcType), new String[capacity]);
+        default:
+          break;
+      }
+    }
+    if (primitiveType != null) {
+      TypeHandler<?> typeHandler = typeHandlerRegistry.getTypeHandler(primitiveType, jdbcType);
+      if (PrimitivePropertyMapping.readsWithoutBoxing(typeHandler, primitiveType)) {
+        if (primitiveType == boolean.class) {
+          return new BooleanColumn((BooleanResultHandler) typeHandler, capacity);
+        } else if (primitiveType == int.class) {
+          return new IntColumn((IntResultHandler) typeHandler, capacity);
+        } else if (primitiveType == long.class) {
+          return new LongColumn((LongResultHandler) typeHandler, capacity);
+        } else {
+          return new DoubleColumn((DoubleResultHandler) typeHandler, capacity);
+        }
+      }
+    }
+    // custom handler of a primitive type, or another type: stored as returned by the handler of the column
+    return new ObjectColumn(rsw.getTypeHandler(Object.class, columnName), new Object[capacity]);
+  }
+
+  private abstract static class Column {
+
+    /**
+     * The rows holding SQL NULL, for primitive columns only.
+     */
+    BitSet nulls;
+
+    abstract void read(ResultSet rs, int columnIndex, int row) throws SQLException;
+
+    abstract void resize(int capacity);
+
+    abstract Object getValues(int rows);
+  }
+
+  private static final class ObjectColumn extends Column {
+
+    private final TypeHandler<?> typeHandler;
+    private Object[] values;
+
+    ObjectColumn(TypeHandler<?> typeHandler, Object[] values) {
+      this.typeHandler = typeHandler;
+      this.values = values;
+    }
+
+    @Override
+    void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      values[row] = typeHandler.getResult(rs, columnIndex);
+    }
+
+    @Override
+    void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    Object getValues(int rows) {
+      return values.length == rows ? values : Arrays.copyOf(values, rows);
+    }
+  }
+
+  private static final class BooleanColumn extends Column {
+
+    private final BooleanResultHandler typeHandler;
+    private boolean[] values;
+
+    BooleanColumn(BooleanResultHandler typeHandler, int capacity) {
+      this.typeHandler = typeHandler;
+      this.values = new boolean[capacity];
+      this.nulls = new BitSet();
+    }
+
+    @Override
+    void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      boolean value = typeHandler.getBooleanResult(rs, columnIndex);
+      if (!value && rs.wasNull()) {
+        nulls.set(row);
+      } else {
+        values[row] = value;
+      }
+    }
+
+    @Override
+    void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    Object getValues(int rows) {
+      return values.length == rows ? values : Arrays.copyOf(values, rows);
+    }
+  }
+
+  private static final class IntColumn extends Column {
+
+    private final IntResultHandler typeHandler;
+    private int[] values;
+
+    IntColumn(IntResultHandler typeHandler, int capacity) {
+      this.typeHandler = typeHandler;
+      this.values = new int[capacity];
+      this.nulls = new BitSet();
+    }
+
+    @Override
+    void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      int value = typeHandler.getIntResult(rs, columnIndex);
+      if (value == 0 && rs.wasNull()) {
+        nulls.set(row);
+      } else {
+        values[row] = value;
+      }
+    }
+
+    @Override
+    void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    Object getValues(int rows) {
+      return values.length == rows ? values : Arrays.copyOf(values, rows);
+    }
+  }
+
+  private static final class LongColumn extends Column {
+
+    private final LongResultHandler typeHandler;
+    private long[] values;
+
+    LongColumn(LongResultHandler typeHandler, int capacity) {
+      this.typeHandler = typeHandler;
+      this.values = new long[capacity];
+      this.nulls = new BitSet();
+    }
+
+    @Override
+    void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      long value = typeHandler.getLongResult(rs, columnIndex);
+      if (value == 0 && rs.wasNull()) {
+        nulls.set(row);
+      } else {
+        values[row] = value;
+      }
+    }
+
+    @Override
+    void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    Object getValues(int rows) {
+      return values.length == rows ? values : Arrays.copyOf(values, rows);
+    }
+  }
+
+  private static final class DoubleColumn extends Column {
+
+    private final DoubleResultHandler typeHandler;
+    private double[] values;
+
+    DoubleColumn(DoubleResultHandler typeHandler, int capacity) {
+      this.typeHandler = typeHandler;
+      this.values = new double[capacity];
+      this.nulls = new BitSet();
+    }
+
+    @Override
+    void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+      double value = typeHandler.getDoubleResult(rs, columnIndex);
+      if (value == 0 && rs.wasNull()) {
+        nulls.set(row);
+      } else {
+        values[row] = value;
+      }
+    }
+
+    @Override
+    void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    Object getValues(int rows) {
+      return values.length == rows ? values : Arrays.copyOf(values, rows);
+    }
+  }
+
+}
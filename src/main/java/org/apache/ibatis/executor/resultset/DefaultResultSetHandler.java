@@ -23,6 +23,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -61,6 +62,7 @@ import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.apache.ibatis.type.UnknownTypeHandler;
 
 /**
  * @author Clinton Begin
@@ -71,6 +73,7 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
 public class DefaultResultSetHandler implements ResultSetHandler {
 
   private static final Object DEFERRED = new Object();
+  private static final int DEFAULT_COLUMNAR_CAPACITY = 64;
 
   private final Executor executor;
   private final Configuration configuration;
@@ -94,10 +97,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   // Cached Automappings
   private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<>();
+  // Primitive property mappings, by result mapping
+  private final Map<ResultMapping, PrimitivePropertyMapping> primitivePropertyMappings = new IdentityHashMap<>();
 
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
 
+  // rows read by handleResultSets, recorded into the statement's row count histogram
+  private int rowCount;
+
   private static class PendingRelation {
     public MetaObject metaObject;
     public ResultMapping propertyMapping;
@@ -108,6 +116,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     private final String property;
     private final TypeHandler<?> typeHandler;
     private final boolean primitive;
+    private PrimitivePropertyMapping primitiveMapping;
 
     public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive) {
       this.column = column;
@@ -212,9 +221,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       }
     }
 
+    mappedStatement.getRowCountHistogram().record(rowCount);
     return collapseSingleResultList(multipleResults);
   }
 
+  @Override
+  public int getRowCount() {
+    return rowCount;
+  }
+
   @Override
   public <E> Cursor<E> handleCursorResultSets(Statement stmt) throws SQLException {
     ErrorContext.instance().activity("handling cursor results").object(mappedStatement.getId());
@@ -320,7 +335,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   public void handleRowValues(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping) throws SQLException {
-    if (resultMap.hasNestedResultMaps()) {
+    if (resultMap.getType() == ColumnarResult.class) {
+      handleColumnarRowValues(rsw, resultHandler, rowBounds, parentMapping);
+    } else if (resultMap.hasNestedResultMaps()) {
       ensureNoRowBounds();
       checkResultHandler();
       handleRowValuesForNestedResultMap(rsw, resultMap, resultHandler, rowBounds, parentMapping);
@@ -350,12 +367,51 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     ResultSet resultSet = rsw.getResultSet();
     skipRows(resultSet, rowBounds);
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
+      rowCount++;
       ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
       Object rowValue = getRowValue(rsw, discriminatedResultMap, null);
       storeObject(resultHandler, resultContext, rowValue, parentMapping, resultSet);
     }
   }
 
+  //
+  // HANDLE ROWS FOR COLUMNAR RESULT
+  //
+
+  private void handleColumnarRowValues(ResultSetWrapper rsw, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping)
+      throws SQLException {
+    if (parentMapping != null) {
+      throw new ExecutorException("A columnar result cannot be mapped to the property '" + parentMapping.getProperty()
+          + "' of a nested result set.");
+    }
+    ResultSet resultSet = rsw.getResultSet();
+    skipRows(resultSet, rowBounds);
+    ColumnarResultReader reader = new ColumnarResultReader(rsw, typeHandlerRegistry, getColumnarCapacity(rowBounds));
+    int rows = 0;
+    while (rows < rowBounds.getLimit() && !resultSet.isClosed() && resultSet.next()) {
+      reader.readRow();
+      rows++;
+    }
+    rowCount += rows;
+    storeObject(resultHandler, new DefaultResultContext<>(), reader.getResult(), null, resultSet);
+  }
+
+  /**
+   * Returns the number of rows to size the columns of a columnar result for: the 90th percentile of the rows read by
+   * previous executions of the statement, or its fetch size until it has been executed.
+   */
+  private int getColumnarCapacity(RowBounds rowBounds) {
+    long capacity = DEFAULT_COLUMNAR_CAPACITY;
+    if (mappedStatement.getRowCountHistogram().getCount() > 0) {
+      capacity = mappedStatement.getRowCountHistogram().getPercentile(0.9);
+    } else if (mappedStatement.getFetchSize() != null && mappedStatement.getFetchSize() > 0) {
+      capacity = mappedStatement.getFetchSize();
+    } else if (configuration.getDefaultFetchSize() != null && configuration.getDefaultFetchSize() > 0) {
+      capacity = configuration.getDefaultFetchSize();
+    }
+    return (int) Math.max(1, Math.min(capacity, Math.min(rowBounds.getLimit(), Integer.MAX_VALUE - 8)));
+  }
+
   private void storeObject(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object rowValue, ResultMapping parentMapping, ResultSet rs) throws SQLException {
     if (parentMapping != null) {
       linkToParents(rs, parentMapping, rowValue);
@@ -477,7 +533,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (propertyMapping.isCompositeResult()
           || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
           || propertyMapping.getResultSet() != null) {
-        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
+        PrimitivePropertyMapping primitiveMapping = getPrimitivePropertyMapping(propertyMapping, metaObject);
+        if (primitiveMapping != null) {
+          foundValues = primitiveMapping.apply(rsw.getResultSet(), column, metaObject.getOriginalObject()) || foundValues;
+          continue;
+        }
+        Object value = getPropertyMappingValue(rsw, metaObject, propertyMapping, lazyLoader, columnPrefix);
         // issue #541 make property optional
         final String property = propertyMapping.getProperty();
         if (property == null) {
@@ -498,18 +559,44 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
-  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
+  /**
+   * Returns the mapping that sets the property of a result mapping without boxing the column value, or null if the
+   * value must be set through the meta object.
+   */
+  private PrimitivePropertyMapping getPrimitivePropertyMapping(ResultMapping propertyMapping, MetaObject metaObject) {
+    if (!configuration.isPrimitiveResultMappingEnabled() || propertyMapping.getNestedQueryId() != null
+        || propertyMapping.getNestedResultMapId() != null || propertyMapping.getResultSet() != null
+        || propertyMapping.isCompositeResult()) {
+      return null;
+    }
+    PrimitivePropertyMapping mapping = primitivePropertyMappings.get(propertyMapping);
+    if (mapping == null || !mapping.isFor(metaObject)) {
+      mapping = PrimitivePropertyMapping.of(metaObject, propertyMapping.getProperty(), propertyMapping.getTypeHandler(),
+          reflectorFactory);
+      primitivePropertyMappings.put(propertyMapping, mapping);
+    }
+    return mapping.isUsable() ? mapping : null;
+  }
+
+  private Object getPropertyMappingValue(ResultSetWrapper rsw, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
+    final ResultSet rs = rsw.getResultSet();
     if (propertyMapping.getNestedQueryId() != null) {
       return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
     } else if (propertyMapping.getResultSet() != null) {
       addPendingChildRelation(rs, metaResultObject, propertyMapping);   // TODO is that OK?
       return DEFERRED;
     } else {
-      final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
-      final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      return typeHandler.getResult(rs, column);
+      return getColumnValue(rsw, propertyMapping.getTypeHandler(), prependPrefix(propertyMapping.getColumn(), columnPrefix));
+    }
+  }
+
+  private Object getColumnValue(ResultSetWrapper rsw, TypeHandler<?> typeHandler, String column) throws SQLException {
+    if (typeHandler.getClass() == UnknownTypeHandler.class) {
+      // resolved once for the result set rather than from its metadata on every row
+      typeHandler = rsw.getUnknownTypeHandler((UnknownTypeHandler) typeHandler, column);
     }
+    return typeHandler.getResult(rsw.getResultSet(), column);
   }
 
   private List<UnMappedColumnAutoMapping> createAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
@@ -537,7 +624,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           final Class<?> propertyType = metaObject.getSetterType(property);
           if (typeHandlerRegistry.hasTypeHandler(propertyType, rsw.getJdbcType(columnName))) {
             final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
-            autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
+            UnMappedColumnAutoMapping mapping = new UnMappedColumnAutoMapping(columnName, property, typeHandler,
+                propertyType.isPrimitive());
+            if (mapping.primitive && configuration.isPrimitiveResultMappingEnabled()) {
+              mapping.primitiveMapping = PrimitivePropertyMapping.of(metaObject, property, typeHandler, reflectorFactory);
+            }
+            autoMapping.add(mapping);
           } else {
             configuration.getAutoMappingUnknownColumnBehavior()
                 .doAction(mappedStatement, columnName, property, propertyType);
@@ -557,6 +649,12 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     boolean foundValues = false;
     if (!autoMapping.isEmpty()) {
       for (UnMappedColumnAutoMapping mapping : autoMapping) {
+        if (mapping.primitiveMapping != null && mapping.primitiveMapping.isUsable()
+            && mapping.primitiveMapping.isFor(metaObject)) {
+          foundValues = mapping.primitiveMapping.apply(rsw.getResultSet(), mapping.column,
+              metaObject.getOriginalObject()) || foundValues;
+          continue;
+        }
         final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
         if (value != null) {
           foundValues = true;
@@ -673,8 +771,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           final ResultMap resultMap = configuration.getResultMap(constructorMapping.getNestedResultMapId());
           value = getRowValue(rsw, resultMap, getColumnPrefix(columnPrefix, constructorMapping));
         } else {
-          final TypeHandler<?> typeHandler = constructorMapping.getTypeHandler();
-          value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(column, columnPrefix));
+          value = getColumnValue(rsw, constructorMapping.getTypeHandler(), prependPrefix(column, columnPrefix));
         }
       } catch (ResultMapException | SQLException e) {
         throw new ExecutorException("Could not process result for mapping: " + constructorMapping, e);
@@ -895,6 +992,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     skipRows(resultSet, rowBounds);
     Object rowValue = previousRowValue;
     while (shouldProcessMoreRows(resultContext, rowBounds) && !resultSet.isClosed() && resultSet.next()) {
+      rowCount++;
       final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(resultSet, resultMap, null);
       final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
       Object partialObject = nestedResultObjects.get(rowKey);
@@ -0,0 +1,207 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+
+import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.invoker.PrimitiveSetter;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
+import org.apache.ibatis.type.BooleanResultHandler;
+import org.apache.ibatis.type.ByteResultHandler;
+import org.apache.ibatis.type.DoubleResultHandler;
+import org.apache.ibatis.type.FloatResultHandler;
+import org.apache.ibatis.type.IntResultHandler;
+import org.apache.ibatis.type.LongResultHandler;
+import org.apache.ibatis.type.ShortResultHandler;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Copies a column to a primitive property of a bean without boxing the value, through a type handler implementing the
+ * result handler interface of the property type, such as {@link IntResultHandler}, and a {@link PrimitiveSetter}.
+ *
+ * @since 3.5.7
+ */
+final class PrimitivePropertyMapping {
+
+  private final Class<?> targetType;
+  private final String property;
+  private final TypeHandler<?> typeHandler;
+  private final PrimitiveSetter setter;
+
+  private PrimitivePropertyMapping(Class<?> targetType, String property, TypeHandler<?> typeHandler,
+      PrimitiveSetter setter) {
+    this.targetType = targetType;
+    this.property = property;
+    this.typeHandler = typeHandler;
+    this.setter = setter;
+  }
+
+  /**
+   * Resolves the mapping of a column to a property of the object of a meta object.
+   *
+   * @return the mapping, which is not usable if the handler or the property do not support primitive values
+   */
+  static PrimitivePropertyMapping of(MetaObject metaObject, String property, TypeHandler<?> typeHandler,
+      ReflectorFactory reflectorFactory) {
+    Class<?> targetType = metaObject.getOriginalObject().getClass();
+    PrimitiveSetter setter = null;
+    if (property != null && property.indexOf('.') < 0 && metaObject.getObjectWrapper() instanceof BeanWrapper) {
+      Reflector reflector = reflectorFactory.findForClass(targetType);
+      if (reflector.hasSetter(property)) {
+        setter = reflector.getPrimitiveSetter(property);
+        if (setter != null && !readsWithoutBoxing(typeHandler, setter.getType())) {
+          setter = null;
+        }
+      }
+    }
+    return new PrimitivePropertyMapping(targetType, property, setter == null ? null : typeHandler, setter);
+  }
+
+  /**
+   * Returns whether a type handler reads values of a primitive type without boxing them. A subclass of a handler that
+   * overrides how boxed values are read, but not the primitive methods, is read through its boxed methods.
+   */
+  static boolean readsWithoutBoxing(TypeHandler<?> typeHandler, Class<?> primitiveType) {
+    Class<?> resultHandlerType = getResultHandlerType(primitiveType);
+    if (resultHandlerType == null || !resultHandlerType.isInstance(typeHandler)) {
+      return false;
+    }
+    String method = resultHandlerType.getMethods()[0].getName();
+    Class<?> type = typeHandler.getClass();
+    for (Class<?> column : new Class<?>[] { String.class, int.class }) {
+      try {
+        Class<?> reader = type.getMethod(method, ResultSet.class, column).getDeclaringClass();
+        Class<?> boxedReader = type.getMethod("getResult", ResultSet.class, column).getDeclaringClass();
+        if (!boxedReader.isAssignableFrom(reader)) {
+          return false;
+        }
+        // handlers extending BaseTypeHandler read boxed values in getNullableResult
+        Class<?> nullableReader = type.getMethod("getNullableResult", ResultSet.class, column).getDeclaringClass();
+        if (!nullableReader.isAssignableFrom(reader)) {
+          return false;
+        }
+      } catch (NoSuchMethodException e) {
+        // not a BaseTypeHandler
+      }
+    }
+    return true;
+  }
+
+  private static Class<?> getResultHandlerType(Class<?> primitiveType) {
+    if (primitiveType == boolean.class) {
+      return BooleanResultHandler.class;
+    } else if (primitiveType == byte.class) {
+      return ByteResultHandler.class;
+    } else if (primitiveType == short.class) {
+      return ShortResultHandler.class;
+    } else if (primitiveType == int.class) {
+      return IntResultHandler.class;
+    } else if (primitiveType == long.class) {
+      return LongResultHandler.class;
+    } else if (primitiveType == float.class) {
+      return FloatResultHandler.class;
+    } else if (primitiveType == double.class) {
+      return DoubleResultHandler.class;
+    }
+    return null;
+  }
+
+  boolean isFor(MetaObject metaObject) {
+    return metaObject.getOriginalObject().getClass() == targetType;
+  }
+
+  boolean isUsable() {
+    return setter != null;
+  }
+
+  /**
+   * Reads the column and sets the property unless the column is null.
+   *
+   * @return true if the column was not null
+   */
+  boolean apply(ResultSet rs, String column, Object target) {
+    Class<?> type = setter.getType();
+    boolean read = false;
+    try {
+      if (type == boolean.class) {
+        boolean value = ((BooleanResultHandler) typeHandler).getBooleanResult(rs, column);
+        if (!value && rs.wasNull()) {
+          return false;
+        }
+        read = true;
+        setter.setBoolean(target, value);
+      } else if (type == byte.class) {
+        byte value = ((ByteResultHandler) typeHandler).getByteResult(rs, column);
+        if (value == 0 && rs.wasNull()) {
+          return false;
+        }
+        read = true;
+        setter.setByte(target, value);
+      } else if (type == short.class) {
+        short value = ((ShortResultHandler) typeHandler).getShortResult(rs, column);
+        if (value == 0 && rs.wasNull()) {
+          return false;
+        }
+        read = true;
+        setter.setShort(target, value);
+      } else if (type == int.class) {
+        int value = ((IntResultHandler) typeHandler).getIntResult(rs, column);
+        if (value == 0 && rs.wasNull()) {
+          return false;
+        }
+        read = true;
+        setter.setInt(target, value);
+      } else if (type == long.class) {
+        long value = ((LongResultHandler) typeHandler).getLongResult(rs, column);
+        if (value == 0 && rs.wasNull()) {
+          return false;
+        }
+        read = true;
+        setter.setLong(target, value);
+      } else if (type == float.class) {
+        float value = ((FloatResultHandler) typeHandler).getFloatResult(rs, column);
+        if (value == 0 && rs.wasNull()) {
+          return false;
+        }
+        read = true;
+        setter.setFloat(target, value);
+      } else if (type == double.class) {
+        double value = ((DoubleResultHandler) typeHandler).getDoubleResult(rs, column);
+        if (value == 0 && rs.wasNull()) {
+          return false;
+        }
+        read = true;
+        setter.setDouble(target, value);
+      } else {
+        throw new IllegalStateException("Unsupported primitive type " + type);
+      }
+      return true;
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable t) {
+      if (!read) {
+        throw new ResultMapException("Error attempting to get column '" + column + "' from result set.  Cause: " + t, t);
+      }
+      throw new ReflectionException("Could not set property '" + property + "' of '" + target.getClass() + "' Cause: " + t, t);
+    }
+  }
+
+}
@@ -33,4 +33,14 @@ public interface ResultSetHandler {
 
   void handleOutputParameters(CallableStatement cs) throws SQLException;
 
+  /**
+   * Returns the number of rows read by {@link #handleResultSets(Statement)}, including rows passed to a result handler.
+   *
+   * @return the number of rows, or -1 if this handler does not count them
+   * @since 3.5.7
+   */
+  default int getRowCount() {
+    return -1;
+  }
+
 }
@@ -47,6 +47,7 @@ public class ResultSetWrapper {
   private final List<String> classNames = new ArrayList<>();
   private final List<JdbcType> jdbcTypes = new ArrayList<>();
   private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
+  private final Map<String, TypeHandler<?>> unknownTypeHandlerMap = new HashMap<>();
   private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
   private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
 
@@ -132,6 +133,22 @@ public class ResultSetWrapper {
     return handler;
   }
 
+  /**
+   * Gets the type handler an {@link UnknownTypeHandler} reads a column with. It is resolved from the metadata once for
+   * the result set instead of for every row.
+   *
+   * @param typeHandler
+   *          the unknown type handler of a result mapping
+   * @param columnName
+   *          the column name
+   * @return the type handler
+   * @since 3.5.7
+   */
+  public TypeHandler<?> getUnknownTypeHandler(UnknownTypeHandler typeHandler, String columnName) {
+    return unknownTypeHandlerMap.computeIfAbsent(columnName,
+        column -> typeHandler.getColumnTypeHandler(resultSet, column));
+  }
+
   private Class<?> resolveClass(String className) {
     try {
       // #699 className could be null
@@ -18,16 +18,29 @@ package org.apache.ibatis.executor.statement;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.apache.ibatis.dialect.Dialect;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.logging.jdbc.AsyncSqlLogger;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.RewrittenBoundSql;
+import org.apache.ibatis.mapping.RowCountHistogram;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.metrics.MetricsCollector;
+import org.apache.ibatis.metrics.SlowStatement;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -38,6 +51,8 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
  */
 public abstract class BaseStatementHandler implements StatementHandler {
 
+  private static final int ADAPTIVE_FETCH_SIZE_MIN_EXECUTIONS = 10;
+
   protected final Configuration configuration;
   protected final ObjectFactory objectFactory;
   protected final TypeHandlerRegistry typeHandlerRegistry;
@@ -50,26 +65,57 @@ public abstract class BaseStatementHandler implements StatementHandler {
 
   protected BoundSql boundSql;
 
+  protected final MetricsCollector metricsCollector;
+  protected final AsyncSqlLogger sqlLogger;
+  private long prepareNanos;
+  private long executeNanos;
+  private List<Object> parameterValues;
+
   protected BaseStatementHandler(Executor executor, MappedStatement mappedStatement, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) {
     this.configuration = mappedStatement.getConfiguration();
     this.executor = executor;
     this.mappedStatement = mappedStatement;
-    this.rowBounds = rowBounds;
 
     this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
     this.objectFactory = configuration.getObjectFactory();
+    this.metricsCollector = configuration.getMetricsCollector();
+    this.sqlLogger = AsyncSqlLogger.forExecution(mappedStatement);
 
     if (boundSql == null) { // issue #435, get the key before calculating the statement
       generateKeys(parameterObject);
       boundSql = mappedStatement.getBoundSql(parameterObject);
     }
 
+    Dialect dialect = getPaginationDialect(rowBounds);
+    if (dialect != null) {
+      boundSql = new RewrittenBoundSql(configuration,
+          dialect.getLimitSql(boundSql.getSql(), rowBounds.getOffset(), rowBounds.getLimit()), boundSql);
+      rowBounds = RowBounds.DEFAULT;
+    }
+
+    this.rowBounds = rowBounds;
     this.boundSql = boundSql;
 
     this.parameterHandler = configuration.newParameterHandler(mappedStatement, parameterObject, boundSql);
     this.resultSetHandler = configuration.newResultSetHandler(executor, mappedStatement, rowBounds, parameterHandler, resultHandler, boundSql);
   }
 
+  /**
+   * Returns the dialect to apply the row bounds with, or null if they are applied while reading the result set.
+   * Statements with nested result maps are excluded as their row bounds count objects rather than rows.
+   */
+  private Dialect getPaginationDialect(RowBounds rowBounds) {
+    if (!configuration.isUseDialectPagination()
+        || rowBounds == null
+        || (rowBounds.getOffset() == RowBounds.NO_ROW_OFFSET && rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT)
+        || mappedStatement.getSqlCommandType() != SqlCommandType.SELECT
+        || mappedStatement.getStatementType() == StatementType.CALLABLE
+        || mappedStatement.hasNestedResultMaps()) {
+      return null;
+    }
+    return configuration.getDialect();
+  }
+
   @Override
   public BoundSql getBoundSql() {
     return boundSql;
@@ -84,10 +130,12 @@ public abstract class BaseStatementHandler implements StatementHandler {
   public Statement prepare(Connection connection, Integer transactionTimeout) throws SQLException {
     ErrorContext.instance().sql(boundSql.getSql());
     Statement statement = null;
+    long start = startTimer();
     try {
       statement = instantiateStatement(connection);
       setStatementTimeout(statement, transactionTimeout);
       setFetchSize(statement);
+      recordPrepare(start);
       return statement;
     } catch (SQLException e) {
       closeStatement(statement);
@@ -119,12 +167,144 @@ public abstract class BaseStatementHandler implements StatementHandler {
       stmt.setFetchSize(fetchSize);
       return;
     }
+    if (configuration.isAdaptiveFetchSizeEnabled() && mappedStatement.getSqlCommandType() == SqlCommandType.SELECT) {
+      int adaptiveFetchSize = getAdaptiveFetchSize();
+      if (adaptiveFetchSize > 0) {
+        stmt.setFetchSize(adaptiveFetchSize);
+        return;
+      }
+    }
     Integer defaultFetchSize = configuration.getDefaultFetchSize();
     if (defaultFetchSize != null) {
       stmt.setFetchSize(defaultFetchSize);
     }
   }
 
+  /**
+   * Derives a fetch size from the rows read by previous executions of the statement: large enough to read 90% of the
+   * results in a single round trip, capped by the adaptive fetch size limit.
+   *
+   * @return the fetch size, or 0 if the statement has not been executed often enough yet
+   */
+  protected int getAdaptiveFetchSize() {
+    RowCountHistogram histogram = mappedStatement.getRowCountHistogram();
+    if (histogram.getCount() < ADAPTIVE_FETCH_SIZE_MIN_EXECUTIONS) {
+      return 0;
+    }
+    long expectedRows = histogram.getPercentile(0.9);
+    // one more row lets the driver detect the end of the result set without another round trip
+    return (int) Math.min(configuration.getAdaptiveFetchSizeLimit(), expectedRows + 1);
+  }
+
+  /**
+   * Returns the start time of a measured phase, or 0 if no metrics are collected.
+   */
+  protected long startTimer() {
+    return metricsCollector == null ? 0 : System.nanoTime();
+  }
+
+  /**
+   * Adds the time since {@code start} to the prepare time, which covers creating the statement and binding its
+   * parameters.
+   */
+  protected void recordPrepare(long start) {
+    if (metricsCollector != null) {
+      prepareNanos += System.nanoTime() - start;
+    }
+  }
+
+  protected void recordExecute(long start) {
+    if (metricsCollector != null) {
+      executeNanos += System.nanoTime() - start;
+    }
+  }
+
+  /**
+   * Returns the number of rows a query read, including rows passed to a result handler, which are not in the result
+   * list.
+   */
+  protected int getRowCount(List<?> resultList) {
+    if (metricsCollector == null && sqlLogger == null) {
+      return resultList.size();
+    }
+    int rows = resultSetHandler.getRowCount();
+    return rows < 0 ? resultList.size() : rows;
+  }
+
+  /**
+   * Reports the execution to the metrics collector, with the time since {@code fetchStart} as fetch time, and queues it
+   * for the asynchronous sql log.
+   *
+   * @param fetchStart
+   *          the start of the fetch phase
+   * @param rows
+   *          the number of results, the update count, or {@link AsyncSqlLogger#NO_ROW_COUNT}
+   */
+  protected void recordCompletion(long fetchStart, int rows) {
+    if (sqlLogger != null && rows != AsyncSqlLogger.NO_ROW_COUNT) {
+      sqlLogger.logResult(mappedStatement.getStatementLog(), rows,
+          mappedStatement.getSqlCommandType() == SqlCommandType.SELECT);
+    }
+    if (metricsCollector == null) {
+      return;
+    }
+    long fetchNanos = System.nanoTime() - fetchStart;
+    metricsCollector.statementExecuted(mappedStatement, prepareNanos, executeNanos, fetchNanos, Math.max(rows, 0));
+    long elapsedNanos = prepareNanos + executeNanos + fetchNanos;
+    Integer threshold = configuration.getSlowStatementThreshold();
+    if (threshold != null && elapsedNanos >= threshold * 1_000_000L) {
+      List<String> parameters = new ArrayList<>();
+      for (Object value : getParameterValues()) {
+        parameters.add(String.valueOf(value));
+      }
+      metricsCollector.slowStatement(mappedStatement, new SlowStatement(mappedStatement.getId(), boundSql.getSql(),
+          parameters, elapsedNanos, System.currentTimeMillis()));
+    }
+    prepareNanos = 0;
+    executeNanos = 0;
+  }
+
+  /**
+   * Records a statement added to a JDBC batch. The batch executor reports the execution of the batch to the metrics
+   * collector.
+   */
+  protected void recordBatched() {
+    prepareNanos = 0;
+  }
+
+  /**
+   * Queues the sql and parameter values of this execution for the asynchronous sql log. Called before the parameters
+   * are bound, so that executions that fail are logged as well.
+   */
+  protected void logStatement() {
+    if (sqlLogger != null) {
+      sqlLogger.log(mappedStatement.getStatementLog(), boundSql.getSql(), getParameterValues());
+    }
+  }
+
+  /**
+   * Resolves the bound parameter values once for the sql log and the slow statement samples.
+   */
+  private List<Object> getParameterValues() {
+    if (parameterValues != null) {
+      return parameterValues;
+    }
+    DefaultParameterHandler handler = new DefaultParameterHandler(mappedStatement, parameterHandler.getParameterObject(),
+        boundSql);
+    List<Object> values = new ArrayList<>();
+    for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+      if (parameterMapping.getMode() != ParameterMode.OUT) {
+        try {
+          values.add(handler.getParameterValue(parameterMapping));
+        } catch (RuntimeException e) {
+          values.add("?");
+        }
+      }
+    }
+    parameterValues = values;
+    return values;
+  }
+
   protected void closeStatement(Statement statement) {
     try {
       if (statement != null) {
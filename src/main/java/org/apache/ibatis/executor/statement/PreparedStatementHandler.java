@@ -26,6 +26,7 @@ import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.logging.jdbc.AsyncSqlLogger;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultSetType;
@@ -44,11 +45,15 @@ public class PreparedStatementHandler extends BaseStatementHandler {
   @Override
   public int update(Statement statement) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
+    long start = startTimer();
     ps.execute();
+    recordExecute(start);
     int rows = ps.getUpdateCount();
+    start = startTimer();
     Object parameterObject = boundSql.getParameterObject();
     KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
     keyGenerator.processAfter(executor, mappedStatement, ps, parameterObject);
+    recordCompletion(start, rows);
     return rows;
   }
 
@@ -56,20 +61,31 @@ public class PreparedStatementHandler extends BaseStatementHandler {
   public void batch(Statement statement) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
     ps.addBatch();
+    recordBatched();
   }
 
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
+    long start = startTimer();
     ps.execute();
-    return resultSetHandler.handleResultSets(ps);
+    recordExecute(start);
+    start = startTimer();
+    List<E> resultList = resultSetHandler.handleResultSets(ps);
+    recordCompletion(start, getRowCount(resultList));
+    return resultList;
   }
 
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     PreparedStatement ps = (PreparedStatement) statement;
+    long start = startTimer();
     ps.execute();
-    return resultSetHandler.handleCursorResultSets(ps);
+    recordExecute(start);
+    start = startTimer();
+    Cursor<E> cursor = resultSetHandler.handleCursorResultSets(ps);
+    recordCompletion(start, AsyncSqlLogger.NO_ROW_COUNT);
+    return cursor;
   }
 
   @Override
@@ -91,7 +107,10 @@ public class PreparedStatementHandler extends BaseStatementHandler {
 
   @Override
   public void parameterize(Statement statement) throws SQLException {
+    logStatement();
+    long start = startTimer();
     parameterHandler.setParameters((PreparedStatement) statement);
+    recordPrepare(start);
   }
 
 }
@@ -26,6 +26,7 @@ import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
+import org.apache.ibatis.logging.jdbc.AsyncSqlLogger;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultSetType;
@@ -47,18 +48,26 @@ public class SimpleStatementHandler extends BaseStatementHandler {
     Object parameterObject = boundSql.getParameterObject();
     KeyGenerator keyGenerator = mappedStatement.getKeyGenerator();
     int rows;
+    long start = startTimer();
     if (keyGenerator instanceof Jdbc3KeyGenerator) {
       statement.execute(sql, Statement.RETURN_GENERATED_KEYS);
+      recordExecute(start);
       rows = statement.getUpdateCount();
+      start = startTimer();
       keyGenerator.processAfter(executor, mappedStatement, statement, parameterObject);
     } else if (keyGenerator instanceof SelectKeyGenerator) {
       statement.execute(sql);
+      recordExecute(start);
       rows = statement.getUpdateCount();
+      start = startTimer();
       keyGenerator.processAfter(executor, mappedStatement, statement, parameterObject);
     } else {
       statement.execute(sql);
+      recordExecute(start);
       rows = statement.getUpdateCount();
+      start = startTimer();
     }
+    recordCompletion(start, rows);
     return rows;
   }
 
@@ -66,20 +75,31 @@ public class SimpleStatementHandler extends BaseStatementHandler {
   public void batch(Statement statement) throws SQLException {
     String sql = boundSql.getSql();
     statement.addBatch(sql);
+    recordBatched();
   }
 
   @Override
   public <E> List<E> query(Statement statement, ResultHandler resultHandler) throws SQLException {
     String sql = boundSql.getSql();
+    long start = startTimer();
     statement.execute(sql);
-    return resultSetHandler.handleResultSets(statement);
+    recordExecute(start);
+    start = startTimer();
+    List<E> resultList = resultSetHandler.handleResultSets(statement);
+    recordCompletion(start, getRowCount(resultList));
+    return resultList;
   }
 
   @Override
   public <E> Cursor<E> queryCursor(Statement statement) throws SQLException {
     String sql = boundSql.getSql();
+    long start = startTimer();
     statement.execute(sql);
-    return resultSetHandler.handleCursorResultSets(statement);
+    recordExecute(start);
+    start = startTimer();
+    Cursor<E> cursor = resultSetHandler.handleCursorResultSets(statement);
+    recordCompletion(start, AsyncSqlLogger.NO_ROW_COUNT);
+    return cursor;
   }
 
   @Override
@@ -93,7 +113,8 @@ public class SimpleStatementHandler extends BaseStatementHandler {
 
   @Override
   public void parameterize(Statement statement) {
-    // N/A
+    // no parameters to bind
+    logStatement();
   }
 
 }
@@ -0,0 +1,241 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The name, direct supertypes and runtime visible annotations of a class, read from its class file without loading
+ * it, or from a line of a {@link ClassIndex}.
+ *
+ * @since 3.5.7
+ */
+final class ClassFileInfo {
+
+  private static final int MAGIC = 0xCAFEBABE;
+  private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+  private final String name;
+  private final String superName;
+  private final List<String> interfaces;
+  private final List<String> annotations;
+
+  ClassFileInfo(String name, String superName, List<String> interfaces, List<String> annotations) {
+    this.name = name;
+    this.superName = superName;
+    this.interfaces = interfaces;
+    this.annotations = annotations;
+  }
+
+  /**
+   * Returns the binary name of the class.
+   */
+  String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the binary name of the superclass, or null for {@code java.lang.Object} and module descriptors.
+   */
+  String getSuperName() {
+    return superName;
+  }
+
+  List<String> getInterfaces() {
+    return interfaces;
+  }
+
+  /**
+   * Returns the binary names of the runtime visible annotations declared on the class.
+   */
+  List<String> getAnnotations() {
+    return annotations;
+  }
+
+  /**
+   * Reads the header and the class attributes of a class file.
+   *
+   * @param inputStream
+   *          the class file, closed afterwards
+   * @return the class information
+   * @throws IOException
+   *           if the stream cannot be read or is not a class file
+   */
+  static ClassFileInfo read(InputStream inputStream) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a class file.");
+      }
+      in.readUnsignedShort(); // minor version
+      in.readUnsignedShort(); // major version
+      int constantCount = in.readUnsignedShort();
+      String[] utf8 = new String[constantCount];
+      int[] classNames = new int[constantCount];
+      for (int i = 1; i < constantCount; i++) {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+          case 1: // Utf8
+            utf8[i] = in.readUTF();
+            break;
+          case 7: // Class
+            classNames[i] = in.readUnsignedShort();
+            break;
+          case 8: // String
+          case 16: // MethodType
+          case 19: // Module
+          case 20: // Package
+            in.skipBytes(2);
+            break;
+          case 15: // MethodHandle
+            in.skipBytes(3);
+            break;
+          case 3: // Integer
+          case 4: // Float
+          case 9: // Fieldref
+          case 10: // Methodref
+          case 11: // InterfaceMethodref
+          case 12: // NameAndType
+          case 17: // Dynamic
+          case 18: // InvokeDynamic
+            in.skipBytes(4);
+            break;
+          case 5: // Long
+          case 6: // Double
+            in.skipBytes(8);
+            i++;
+            break;
+          default:
+            throw new IOException("Unknown constant pool tag " + tag + ".");
+        }
+      }
+      in.readUnsignedShort(); // access flags
+      String name = className(utf8, classNames, in.readUnsignedShort());
+      String superName = className(utf8, classNames, in.readUnsignedShort());
+      int interfaceCount = in.readUnsignedShort();
+      List<String> interfaces = new ArrayList<>(interfaceCount);
+      for (int i = 0; i < interfaceCount; i++) {
+        interfaces.add(className(utf8, classNames, in.readUnsignedShort()));
+      }
+      skipMembers(in);
+      skipMembers(in);
+      List<String> annotations = new ArrayList<>();
+      int attributeCount = in.readUnsignedShort();
+      for (int i = 0; i < attributeCount; i++) {
+        String attributeName = utf8[in.readUnsignedShort()];
+        int length = in.readInt();
+        if (RUNTIME_VISIBLE_ANNOTATIONS.equals(attributeName)) {
+          int annotationCount = in.readUnsignedShort();
+          for (int j = 0; j < annotationCount; j++) {
+            annotations.add(readAnnotation(in, utf8));
+          }
+        } else {
+          skipFully(in, length);
+        }
+      }
+      return new ClassFileInfo(name, superName, Collections.unmodifiableList(interfaces),
+          Collections.unmodifiableList(annotations));
+    }
+  }
+
+  /**
+   * Parses a line written by {@link #toIndexLine()}.
+   */
+  static ClassFileInfo parse(String line) {
+    String[] fields = line.split("\t", -1);
+    if (fields.length != 4) {
+      throw new IllegalArgumentException("Invalid class index line: " + line);
+    }
+    return new ClassFileInfo(fields[0], fields[1].isEmpty() ? null : fields[1], split(fields[2]), split(fields[3]));
+  }
+
+  /**
+   * Returns the tab separated name, superclass, interfaces and annotations of the class.
+   */
+  String toIndexLine() {
+    return name + '\t' + (superName == null ? "" : superName) + '\t' + String.join(",", interfaces) + '\t'
+        + String.join(",", annotations);
+  }
+
+  private static List<String> split(String names) {
+    return names.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(names.split(",")));
+  }
+
+  private static String className(String[] utf8, int[] classNames, int index) {
+    return index == 0 ? null : utf8[classNames[index]].replace('/', '.');
+  }
+
+  private static void skipMembers(DataInputStream in) throws IOException {
+    int count = in.readUnsignedShort();
+    for (int i = 0; i < count; i++) {
+      in.skipBytes(6); // access flags, name and descriptor
+      int attributeCount = in.readUnsignedShort();
+      for (int j = 0; j < attributeCount; j++) {
+        in.skipBytes(2);
+        skipFully(in, in.readInt());
+      }
+    }
+  }
+
+  private static String readAnnotation(DataInputStream in, String[] utf8) throws IOException {
+    String descriptor = utf8[in.readUnsignedShort()];
+    int pairCount = in.readUnsignedShort();
+    for (int i = 0; i < pairCount; i++) {
+      in.skipBytes(2);
+      skipElementValue(in, utf8);
+    }
+    // Lcom/example/Annotation; to com.example.Annotation
+    return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+  }
+
+  private static void skipElementValue(DataInputStream in, String[] utf8) throws IOException {
+    int tag = in.readUnsignedByte();
+    switch (tag) {
+      case 'e':
+        in.skipBytes(4);
+        break;
+      case '@':
+        readAnnotation(in, utf8);
+        break;
+      case '[':
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+          skipElementValue(in, utf8);
+        }
+        break;
+      default:
+        in.skipBytes(2);
+    }
+  }
+
+  private static void skipFully(DataInputStream in, int length) throws IOException {
+    int remaining = length;
+    while (remaining > 0) {
+      int skipped = in.skipBytes(remaining);
+      if (skipped <= 0) {
+        throw new IOException("Unexpected end of class file.");
+      }
+      remaining -= skipped;
+    }
+  }
+
+}
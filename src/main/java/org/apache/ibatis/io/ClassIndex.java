@@ -0,0 +1,283 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * An index of the classes of some packages, generated at build time so that package registrations do not have to
+ * list the class path.
+ * <p>
+ * The index is stored in {@value #LOCATION} resources, one class per line with its direct supertypes and annotations,
+ * after a {@code #package} line for each indexed package. An index only stands for the class path entry that contains
+ * it: {@link ResolverUtil} takes the classes of an indexed package from the index instead of listing that entry, and
+ * still lists the other entries. The index must therefore be generated again whenever classes of an indexed package
+ * are added or removed. MyBatis does not do this for you: {@link #main(String[])} has to be added to the build of the
+ * indexed classes, for example with the {@code exec-maven-plugin} in the {@code process-classes} phase.
+ *
+ * @since 3.5.7
+ */
+public class ClassIndex {
+
+  public static final String LOCATION = "META-INF/mybatis.index";
+
+  private static final String PACKAGE_PREFIX = "#package ";
+
+  private static final Log log = LogFactory.getLog(ClassIndex.class);
+
+  private static final Map<ClassLoader, ClassIndex> INSTANCES = new WeakHashMap<>();
+
+  private static final ClassIndex EMPTY = new ClassIndex(new TreeMap<>());
+
+  private final NavigableMap<String, ClassFileInfo> classes;
+  // the indexed packages, keyed by the class path entry of their index, none meaning every package
+  private final Map<String, List<String>> packages;
+
+  ClassIndex(NavigableMap<String, ClassFileInfo> classes) {
+    this(classes, Collections.emptyMap());
+  }
+
+  ClassIndex(NavigableMap<String, ClassFileInfo> classes, Map<String, List<String>> packages) {
+    this.classes = classes;
+    this.packages = packages;
+  }
+
+  /**
+   * Returns the merged indexes visible to a class loader, read once per class loader.
+   *
+   * @param classLoader
+   *          the class loader
+   * @return the index, empty if there is no index resource
+   */
+  public static ClassIndex getInstance(ClassLoader classLoader) {
+    if (classLoader == null) {
+      return EMPTY;
+    }
+    synchronized (INSTANCES) {
+      return INSTANCES.computeIfAbsent(classLoader, ClassIndex::load);
+    }
+  }
+
+  private static ClassIndex load(ClassLoader classLoader) {
+    NavigableMap<String, ClassFileInfo> classes = new TreeMap<>();
+    Map<String, List<String>> packages = new LinkedHashMap<>();
+    try {
+      Enumeration<URL> resources = classLoader.getResources(LOCATION);
+      while (resources.hasMoreElements()) {
+        URL url = resources.nextElement();
+        try (InputStream in = url.openStream()) {
+          List<String> indexedPackages = new ArrayList<>();
+          read(in, classes, indexedPackages);
+          String location = url.toString();
+          packages.put(location.substring(0, location.length() - LOCATION.length()), indexedPackages);
+        } catch (IOException | IllegalArgumentException e) {
+          log.warn("Could not read class index " + url + ". Cause: " + e);
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Could not find class indexes. Cause: " + e);
+    }
+    return packages.isEmpty() ? EMPTY : new ClassIndex(classes, packages);
+  }
+
+  static void read(InputStream inputStream, Map<String, ClassFileInfo> classes, List<String> packages)
+      throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.startsWith(PACKAGE_PREFIX)) {
+        packages.add(line.substring(PACKAGE_PREFIX.length()).trim());
+      } else if (!line.isEmpty() && line.charAt(0) != '#') {
+        ClassFileInfo info = ClassFileInfo.parse(line);
+        classes.put(info.getName(), info);
+      }
+    }
+  }
+
+  /**
+   * Builds the index of packages of a class output directory.
+   *
+   * @param classesDirectory
+   *          the root directory of the class files
+   * @param packageNames
+   *          the packages to index, including their sub packages, or none to index every class
+   * @return the index
+   * @throws IOException
+   *           if a class file cannot be read
+   */
+  public static ClassIndex build(Path classesDirectory, String... packageNames) throws IOException {
+    List<Path> roots = new ArrayList<>();
+    if (packageNames.length == 0) {
+      roots.add(classesDirectory);
+    } else {
+      for (String packageName : packageNames) {
+        roots.add(classesDirectory.resolve(packageName.replace('.', '/')));
+      }
+    }
+    NavigableMap<String, ClassFileInfo> classes = new TreeMap<>();
+    for (Path root : roots) {
+      if (!Files.isDirectory(root)) {
+        continue;
+      }
+      List<Path> files;
+      try (Stream<Path> stream = Files.walk(root)) {
+        files = stream.filter(file -> file.toString().endsWith(".class")).collect(Collectors.toList());
+      }
+      for (Path file : files) {
+        ClassFileInfo info = ClassFileInfo.read(Files.newInputStream(file));
+        classes.put(info.getName(), info);
+      }
+    }
+    return new ClassIndex(classes,
+        Collections.singletonMap(classesDirectory.toUri().toString(), Arrays.asList(packageNames)));
+  }
+
+  /**
+   * Writes the index of packages of a class output directory to its {@value #LOCATION} file. The arguments are the
+   * class output directory followed by the packages to index.
+   *
+   * @param args
+   *          the arguments
+   * @throws IOException
+   *           if a file cannot be read or written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      throw new IllegalArgumentException("Usage: ClassIndex <classes directory> [package...]");
+    }
+    Path classesDirectory = Paths.get(args[0]);
+    ClassIndex index = build(classesDirectory, Arrays.copyOfRange(args, 1, args.length));
+    Path file = classesDirectory.resolve(LOCATION);
+    Files.createDirectories(file.getParent());
+    try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      index.write(writer);
+    }
+  }
+
+  /**
+   * Writes the index, one class per line.
+   *
+   * @param writer
+   *          the writer
+   * @throws IOException
+   *           if the index cannot be written
+   */
+  public void write(Writer writer) throws IOException {
+    Set<String> indexedPackages = new LinkedHashSet<>();
+    packages.values().forEach(indexedPackages::addAll);
+    for (String packageName : indexedPackages) {
+      writer.write(PACKAGE_PREFIX + packageName + '\n');
+    }
+    for (ClassFileInfo info : classes.values()) {
+      writer.write(info.toIndexLine());
+      writer.write('\n');
+    }
+  }
+
+  public boolean isEmpty() {
+    return classes.isEmpty();
+  }
+
+  /**
+   * Returns whether the classes of a package at a class path location are listed in the index of the class path entry
+   * of that location, so that the location does not have to be listed.
+   *
+   * @param url
+   *          the location of the package
+   * @param packageName
+   *          the package
+   * @return true if the index of the entry covers the package
+   */
+  public boolean isIndexed(URL url, String packageName) {
+    String location = url.toString();
+    for (Map.Entry<String, List<String>> entry : packages.entrySet()) {
+      if (location.startsWith(entry.getKey()) && covers(entry.getValue(), packageName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean covers(List<String> indexedPackages, String packageName) {
+    if (indexedPackages.isEmpty()) {
+      return true;
+    }
+    for (String indexedPackage : indexedPackages) {
+      if (packageName.equals(indexedPackage) || packageName.startsWith(indexedPackage + ".")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the indexed classes of a package and its sub packages.
+   *
+   * @param packageName
+   *          the package
+   * @return the binary names of the classes
+   */
+  public List<String> getClassNames(String packageName) {
+    List<String> names = new ArrayList<>();
+    for (ClassFileInfo info : getClasses(packageName)) {
+      names.add(info.getName());
+    }
+    return names;
+  }
+
+  List<ClassFileInfo> getClasses(String packageName) {
+    if (classes.isEmpty()) {
+      return Collections.emptyList();
+    }
+    String prefix = packageName + ".";
+    List<ClassFileInfo> matches = new ArrayList<>();
+    // the classes are sorted by name, so those of a package are contiguous
+    for (ClassFileInfo info : classes.tailMap(prefix, true).values()) {
+      if (!info.getName().startsWith(prefix)) {
+        break;
+      }
+      matches.add(info);
+    }
+    return matches;
+  }
+
+}
@@ -16,10 +16,19 @@
 package org.apache.ibatis.io;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
@@ -37,6 +46,10 @@ import org.apache.ibatis.logging.LogFactory;
  * by calling {@link #setClassLoader(ClassLoader)} prior to invoking any of the {@code find()}
  * methods.</p>
  *
+ * <p>Class path entries whose {@link ClassIndex} covers a package are not listed for that package. For the {@link IsA} and
+ * {@link AnnotatedWith} tests, the class files are read in parallel first, and classes whose supertypes or
+ * annotations show that they cannot match are not loaded.</p>
+ *
  * <p>General searches are initiated by calling the
  * {@link #find(org.apache.ibatis.io.ResolverUtil.Test, String)} ()} method and supplying
  * a package name and a Test instance. This will cause the named package <b>and all sub-packages</b>
@@ -65,6 +78,11 @@ public class ResolverUtil<T> {
    */
   private static final Log log = LogFactory.getLog(ResolverUtil.class);
 
+  /**
+   * The number of class files from which a package is read in parallel.
+   */
+  private static final int PARALLEL_SCAN_THRESHOLD = 64;
+
   /**
    * A simple interface that specifies how to test classes to determine if they
    * are to be included in the results produced by the ResolverUtil.
@@ -244,13 +262,37 @@ public class ResolverUtil<T> {
    * @return the resolver util
    */
   public ResolverUtil<T> find(Test test, String packageName) {
+    ClassLoader loader = getClassLoader();
+    ClassIndex index = ClassIndex.getInstance(loader);
     String path = getPackagePath(packageName);
 
     try {
-      List<String> children = VFS.getInstance().list(path);
-      for (String child : children) {
+      List<String> children = new ArrayList<>();
+      for (String child : listUnindexed(index, path, packageName)) {
         if (child.endsWith(".class")) {
-          addIfMatching(test, child);
+          children.add(child);
+        }
+      }
+      List<ClassFileInfo> indexed = index.getClasses(packageName);
+      List<ClassFileInfo> infos = readClassFiles(test, children, loader);
+      Map<String, ClassFileInfo> classes = new HashMap<>();
+      for (ClassFileInfo info : indexed) {
+        classes.put(info.getName(), info);
+      }
+      for (ClassFileInfo info : infos) {
+        if (info != null) {
+          classes.put(info.getName(), info);
+        }
+      }
+      for (ClassFileInfo info : indexed) {
+        if (mayMatch(test, info, classes, loader)) {
+          addIfMatching(test, info.getName().replace('.', '/') + ".class");
+        }
+      }
+      for (int i = 0; i < children.size(); i++) {
+        ClassFileInfo info = infos.get(i);
+        if (info == null || mayMatch(test, info, classes, loader)) {
+          addIfMatching(test, children.get(i));
         }
       }
     } catch (IOException ioe) {
@@ -260,6 +302,94 @@ public class ResolverUtil<T> {
     return this;
   }
 
+  /**
+   * Lists the resources of a package, except at the class path entries whose index covers the package.
+   */
+  private List<String> listUnindexed(ClassIndex index, String path, String packageName) throws IOException {
+    VFS vfs = VFS.getInstance();
+    if (index.isEmpty()) {
+      return vfs.list(path);
+    }
+    List<String> names = new ArrayList<>();
+    for (URL url : VFS.getResources(path)) {
+      if (!index.isIndexed(url, packageName)) {
+        names.addAll(vfs.list(url, path));
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Reads the class files of a package, in parallel for large packages.
+   *
+   * @return the information of each class file, null where it cannot be read or the test does not use it
+   */
+  private List<ClassFileInfo> readClassFiles(Test test, List<String> children, ClassLoader loader) {
+    if (!(test instanceof IsA || test instanceof AnnotatedWith)) {
+      return Arrays.asList(new ClassFileInfo[children.size()]);
+    }
+    Stream<String> stream = children.size() < PARALLEL_SCAN_THRESHOLD ? children.stream() : children.parallelStream();
+    return stream.map(child -> {
+      InputStream in = loader.getResourceAsStream(child);
+      if (in == null) {
+        return null;
+      }
+      try {
+        return ClassFileInfo.read(in);
+      } catch (IOException | RuntimeException e) {
+        // the class is loaded to be examined
+        return null;
+      }
+    }).collect(Collectors.toList());
+  }
+
+  /**
+   * Returns false if the class file shows that the class cannot pass the test, without loading the class.
+   */
+  private boolean mayMatch(Test test, ClassFileInfo info, Map<String, ClassFileInfo> classes, ClassLoader loader) {
+    if (test instanceof IsA) {
+      return mayBeAssignableTo(((IsA) test).parent, info, classes, loader);
+    }
+    if (test instanceof AnnotatedWith) {
+      Class<? extends Annotation> annotation = ((AnnotatedWith) test).annotation;
+      // inherited annotations are declared on a superclass
+      return annotation.isAnnotationPresent(Inherited.class) || info.getAnnotations().contains(annotation.getName());
+    }
+    return true;
+  }
+
+  private boolean mayBeAssignableTo(Class<?> parent, ClassFileInfo info, Map<String, ClassFileInfo> classes,
+      ClassLoader loader) {
+    if (parent == Object.class || parent.getName().equals(info.getName())) {
+      return true;
+    }
+    List<String> supertypes = new ArrayList<>(info.getInterfaces());
+    if (info.getSuperName() != null) {
+      supertypes.add(info.getSuperName());
+    }
+    for (String supertype : supertypes) {
+      if (parent.getName().equals(supertype)) {
+        return true;
+      }
+      ClassFileInfo supertypeInfo = classes.get(supertype);
+      if (supertypeInfo != null) {
+        if (mayBeAssignableTo(parent, supertypeInfo, classes, loader)) {
+          return true;
+        }
+      } else if (!"java.lang.Object".equals(supertype)) {
+        // a supertype outside of the scanned classes is loaded instead of the class itself
+        try {
+          if (parent.isAssignableFrom(loader.loadClass(supertype))) {
+            return true;
+          }
+        } catch (Throwable t) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   /**
    * Converts a Java package name to a path that can be looked up with a call to
    * {@link ClassLoader#getResources(String)}.
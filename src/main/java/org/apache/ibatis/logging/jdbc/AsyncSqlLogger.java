@@ -0,0 +1,284 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.logging.jdbc;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.reflection.ArrayUtil;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Logs executed statements from a background thread instead of through JDBC proxies.
+ * <p>
+ * Statement handlers hand the sql and the bound parameter values of an execution to a bounded ring buffer before it is
+ * executed, so that failing executions are logged too, and its row count once it completes. A daemon thread formats
+ * and writes them to the statement log in the format of {@link ConnectionLogger}. The thread is started when entries
+ * are queued and stops once the buffer has been empty for a second, so an idle logger holds no thread. Executions can
+ * be sampled, and entries that do not fit in the buffer are dropped rather than slowing down the caller. Parameter
+ * values are formatted when they are written, so a value mutated right after the execution may be logged with its new
+ * state.
+ *
+ * @since 3.5.7
+ * @see org.apache.ibatis.session.Configuration#setAsyncSqlLogEnabled(boolean)
+ */
+public class AsyncSqlLogger {
+
+  /**
+   * Row count of executions whose results are not counted, batched statements and cursors, which are logged without
+   * a result line.
+   */
+  public static final int NO_ROW_COUNT = -1;
+
+  private static final long DEFAULT_IDLE_MILLIS = 1000;
+
+  private final BlockingQueue<Entry> buffer;
+  private final int sampleInterval;
+  private final long idleMillis;
+  private final AtomicLong executions = new AtomicLong();
+  private final AtomicLong accepted = new AtomicLong();
+  private final AtomicLong written = new AtomicLong();
+  private final LongAdder dropped = new LongAdder();
+  private final AtomicBoolean writing = new AtomicBoolean();
+  private volatile Thread writer;
+  private volatile boolean closed;
+
+  /**
+   * Creates a logger. Its writer thread is started when the first entry is queued.
+   *
+   * @param capacity
+   *          the number of entries the buffer holds
+   * @param sampleInterval
+   *          log one execution out of this many
+   */
+  public AsyncSqlLogger(int capacity, int sampleInterval) {
+    this(capacity, sampleInterval, DEFAULT_IDLE_MILLIS);
+  }
+
+  AsyncSqlLogger(int capacity, int sampleInterval, long idleMillis) {
+    this.buffer = new ArrayBlockingQueue<>(capacity);
+    this.sampleInterval = Math.max(1, sampleInterval);
+    this.idleMillis = idleMillis;
+  }
+
+  /**
+   * Returns the asynchronous sql logger to hand an execution of a statement to.
+   *
+   * @param ms
+   *          the statement about to be executed
+   * @return the logger of the configuration, or null if asynchronous sql logging is disabled, the statement log is not
+   *         at debug level or the execution is not sampled
+   */
+  public static AsyncSqlLogger forExecution(MappedStatement ms) {
+    Configuration configuration = ms.getConfiguration();
+    if (!configuration.isAsyncSqlLogEnabled() || !ms.getStatementLog().isDebugEnabled()) {
+      return null;
+    }
+    AsyncSqlLogger logger = configuration.getAsyncSqlLogger();
+    return logger.sample() ? logger : null;
+  }
+
+  /**
+   * Decides whether the current execution is logged.
+   *
+   * @return true if the execution should be passed to {@link #log}
+   */
+  public boolean sample() {
+    return sampleInterval == 1 || executions.getAndIncrement() % sampleInterval == 0;
+  }
+
+  /**
+   * Queues the sql and parameter values of an execution for logging. Returns immediately, dropping the entry if the
+   * buffer is full.
+   *
+   * @param statementLog
+   *          the log of the statement
+   * @param sql
+   *          the sql about to be executed
+   * @param parameters
+   *          the bound parameter values, or null if they are not logged
+   */
+  public void log(Log statementLog, String sql, List<Object> parameters) {
+    queue(new Entry(statementLog, sql, parameters, NO_ROW_COUNT, false));
+  }
+
+  /**
+   * Queues the result line of an execution whose sql was queued with {@link #log(Log, String, List)}.
+   *
+   * @param statementLog
+   *          the log of the statement
+   * @param rows
+   *          the number of results of a query or the update count of an update
+   * @param query
+   *          true if the statement is a query
+   */
+  public void logResult(Log statementLog, long rows, boolean query) {
+    queue(new Entry(statementLog, null, null, rows, query));
+  }
+
+  private void queue(Entry entry) {
+    if (!closed && buffer.offer(entry)) {
+      accepted.incrementAndGet();
+      startWriter();
+    } else {
+      dropped.increment();
+    }
+  }
+
+  /**
+   * Gets the number of entries dropped because the buffer was full.
+   *
+   * @return the number of dropped entries
+   */
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  /**
+   * Waits until all entries queued so far have been written.
+   *
+   * @param timeout
+   *          the maximum time to wait
+   * @param unit
+   *          the unit of the timeout
+   * @return true if the entries were written before the timeout
+   * @throws InterruptedException
+   *           if interrupted while waiting
+   */
+  public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+    long target = accepted.get();
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (written.get() < target) {
+      if (System.nanoTime() >= deadline) {
+        return false;
+      }
+      Thread.sleep(1);
+    }
+    return true;
+  }
+
+  /**
+   * Stops the writer thread once the queued entries have been written. Later entries are dropped.
+   */
+  public void close() {
+    closed = true;
+    Thread thread = writer;
+    if (thread != null) {
+      thread.interrupt();
+    }
+  }
+
+  boolean isWriterRunning() {
+    return writing.get();
+  }
+
+  private void startWriter() {
+    if (writing.compareAndSet(false, true)) {
+      Thread thread = new Thread(this::writeEntries, "mybatis-sql-logger");
+      thread.setDaemon(true);
+      writer = thread;
+      thread.start();
+    }
+  }
+
+  private void writeEntries() {
+    while (true) {
+      Entry entry;
+      try {
+        entry = closed ? buffer.poll() : buffer.poll(idleMillis, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        entry = buffer.poll();
+      }
+      if (entry == null) {
+        writing.set(false);
+        // an entry queued after the poll timed out saw a running writer, so this one carries on
+        if (closed || buffer.isEmpty() || !writing.compareAndSet(false, true)) {
+          return;
+        }
+        continue;
+      }
+      try {
+        entry.write();
+      } catch (RuntimeException e) {
+        // a failing log must not stop the writer
+      } finally {
+        written.incrementAndGet();
+      }
+    }
+  }
+
+  private static class Entry {
+
+    private final Log statementLog;
+    private final String sql;
+    private final List<Object> parameters;
+    private final long rows;
+    private final boolean query;
+
+    Entry(Log statementLog, String sql, List<Object> parameters, long rows, boolean query) {
+      this.statementLog = statementLog;
+      this.sql = sql;
+      this.parameters = parameters;
+      this.rows = rows;
+      this.query = query;
+    }
+
+    void write() {
+      if (sql != null) {
+        statementLog.debug("==>  Preparing: " + SqlSourceBuilder.removeExtraWhitespaces(sql));
+      }
+      if (parameters != null) {
+        StringBuilder values = new StringBuilder();
+        for (Object value : parameters) {
+          if (values.length() > 0) {
+            values.append(", ");
+          }
+          if (value == null) {
+            values.append("null");
+          } else {
+            values.append(valueString(value)).append('(').append(value.getClass().getSimpleName()).append(')');
+          }
+        }
+        statementLog.debug("==> Parameters: " + values);
+      }
+      if (rows != NO_ROW_COUNT) {
+        statementLog.debug(query ? "<==      Total: " + rows : "<==    Updates: " + rows);
+      }
+    }
+
+    private static String valueString(Object value) {
+      if (value instanceof Array) {
+        try {
+          return ArrayUtil.toString(((Array) value).getArray());
+        } catch (SQLException e) {
+          return value.toString();
+        }
+      }
+      return value.toString();
+    }
+  }
+
+}
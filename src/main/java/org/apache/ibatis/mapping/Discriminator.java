@@ -49,6 +49,10 @@ public class Discriminator {
     }
   }
 
+  void compact(MappingCompactor compactor) {
+    resultMapping = compactor.compact(resultMapping);
+  }
+
   public ResultMapping getResultMapping() {
     return resultMapping;
   }
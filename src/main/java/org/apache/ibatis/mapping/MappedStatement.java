@@ -56,6 +56,8 @@ public final class MappedStatement {
   private Log statementLog;
   private LanguageDriver lang;
   private String[] resultSets;
+  private String batchGroup;
+  private final RowCountHistogram rowCountHistogram = new RowCountHistogram();
 
   MappedStatement() {
     // constructor disabled
@@ -174,6 +176,11 @@ public final class MappedStatement {
       return this;
     }
 
+    public Builder batchGroup(String batchGroup) {
+      mappedStatement.batchGroup = batchGroup;
+      return this;
+    }
+
     /**
      * Resul sets.
      *
@@ -198,6 +205,20 @@ public final class MappedStatement {
     }
   }
 
+  void compact(MappingCompactor compactor) {
+    resource = compactor.intern(resource);
+    databaseId = compactor.intern(databaseId);
+    keyProperties = compactor.intern(keyProperties);
+    keyColumns = compactor.intern(keyColumns);
+    resultSets = compactor.intern(resultSets);
+    sqlSource = compactor.compact(sqlSource, configuration);
+    parameterMap = compactor.share(parameterMap);
+    for (ResultMap resultMap : resultMaps) {
+      compactor.compact(resultMap);
+    }
+    resultMaps = compactor.share(resultMaps);
+  }
+
   public KeyGenerator getKeyGenerator() {
     return keyGenerator;
   }
@@ -286,10 +307,32 @@ public final class MappedStatement {
     return lang;
   }
 
+  /**
+   * Gets the histogram of rows read per execution of this statement.
+   *
+   * @return the row count histogram
+   * @since 3.5.7
+   */
+  public RowCountHistogram getRowCountHistogram() {
+    return rowCountHistogram;
+  }
+
   public String[] getResultSets() {
     return resultSets;
   }
 
+  /**
+   * Gets the batch group of an insert. Inserts of the same batch group are declared independent of each other, so
+   * the batch executor may add an insert to the batch of an earlier execution of the same insert across the other
+   * inserts of the group.
+   *
+   * @return the batch group, or null if the insert is ordered with all other statements
+   * @since 3.5.7
+   */
+  public String getBatchGroup() {
+    return batchGroup;
+  }
+
   /**
    * Gets the resul sets.
    *
@@ -0,0 +1,246 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Shares identical strings, mappings and collections between mapped statements, result maps and parameter maps, to
+ * reduce the memory a large configuration retains once it is built.
+ * <p>
+ * Objects are compacted in place and behave exactly as before: equal strings are replaced by a single instance,
+ * result and parameter mappings with the same attributes by a single mapping, unmodifiable lists and sets with the
+ * same elements by a single collection, and static sql sources by a {@link StaticSqlSource} holding the interned sql.
+ * An instance is not thread safe and must only be used while the configuration is not used to run statements.
+ *
+ * @since 3.5.7
+ * @see org.apache.ibatis.session.Configuration#compact()
+ */
+public final class MappingCompactor {
+
+  private final Map<List<Object>, ResultMapping> resultMappings = new HashMap<>();
+  private final Map<List<Object>, ParameterMapping> parameterMappings = new HashMap<>();
+  private final Map<List<Object>, ParameterMap> parameterMaps = new HashMap<>();
+  private final Map<List<Object>, List<?>> lists = new HashMap<>();
+  private final Map<Set<String>, Set<String>> sets = new HashMap<>();
+  private final Set<Object> compacted = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  public void compact(MappedStatement mappedStatement) {
+    if (compacted.add(mappedStatement)) {
+      mappedStatement.compact(this);
+    }
+  }
+
+  public void compact(ResultMap resultMap) {
+    if (compacted.add(resultMap)) {
+      resultMap.compact(this);
+    }
+  }
+
+  public void compact(ParameterMap parameterMap) {
+    if (compacted.add(parameterMap)) {
+      parameterMap.compact(this);
+    }
+  }
+
+  /**
+   * Returns the shared instance of a string, from the JVM string pool that the text of dynamic sql is also interned
+   * into while it is parsed.
+   *
+   * @param value
+   *          the string, may be null
+   * @return the canonical representation of the string
+   */
+  public String intern(String value) {
+    return value == null ? null : value.intern();
+  }
+
+  String[] intern(String[] values) {
+    if (values != null) {
+      for (int i = 0; i < values.length; i++) {
+        values[i] = intern(values[i]);
+      }
+    }
+    return values;
+  }
+
+  SqlSource compact(SqlSource sqlSource, Configuration configuration) {
+    if (sqlSource.getClass() != RawSqlSource.class && sqlSource.getClass() != StaticSqlSource.class) {
+      return sqlSource;
+    }
+    BoundSql boundSql = sqlSource.getBoundSql(null);
+    List<ParameterMapping> mappings = boundSql.getParameterMappings();
+    // not shared, the list of a bound sql may be modified by plugins
+    List<ParameterMapping> compactMappings = new ArrayList<>(mappings.size());
+    for (ParameterMapping mapping : mappings) {
+      compactMappings.add(compact(mapping));
+    }
+    return new StaticSqlSource(configuration, intern(boundSql.getSql()), compactMappings);
+  }
+
+  ResultMapping compact(ResultMapping mapping) {
+    if (mapping == null) {
+      return null;
+    }
+    mapping.compact(this);
+    List<Object> key = Arrays.asList(mapping.getProperty(), mapping.getColumn(), mapping.getJavaType(),
+        mapping.getJdbcType(), mapping.getTypeHandler(), mapping.getNestedResultMapId(), mapping.getNestedQueryId(),
+        mapping.getNotNullColumns(), mapping.getColumnPrefix(), new IdentityKey(mapping.getFlags()),
+        new IdentityKey(mapping.getComposites()), mapping.getResultSet(), mapping.getForeignColumn(), mapping.isLazy());
+    ResultMapping shared = resultMappings.putIfAbsent(key, mapping);
+    return shared == null ? mapping : shared;
+  }
+
+  ParameterMapping compact(ParameterMapping mapping) {
+    mapping.compact(this);
+    List<Object> key = Arrays.asList(mapping.getProperty(), mapping.getMode(), mapping.getJavaType(),
+        mapping.getJdbcType(), mapping.getNumericScale(), mapping.getTypeHandler(), mapping.getResultMapId(),
+        mapping.getJdbcTypeName(), mapping.getExpression());
+    ParameterMapping shared = parameterMappings.putIfAbsent(key, mapping);
+    return shared == null ? mapping : shared;
+  }
+
+  /**
+   * Returns the shared parameter map with the same id, type and mappings, which is the default parameter map of
+   * statements without a parameter type.
+   */
+  ParameterMap share(ParameterMap parameterMap) {
+    compact(parameterMap);
+    List<Object> key = Arrays.asList(parameterMap.getId(), parameterMap.getType(),
+        new IdentityKey(parameterMap.getParameterMappings()));
+    ParameterMap shared = parameterMaps.putIfAbsent(key, parameterMap);
+    return shared == null ? parameterMap : shared;
+  }
+
+  List<ParameterMapping> compactParameterMappings(List<ParameterMapping> mappings) {
+    List<ParameterMapping> compactMappings = new ArrayList<>(mappings.size());
+    for (ParameterMapping mapping : mappings) {
+      compactMappings.add(compact(mapping));
+    }
+    return share(compactMappings);
+  }
+
+  List<ResultMapping> compactResultMappings(List<ResultMapping> mappings) {
+    List<ResultMapping> compactMappings = new ArrayList<>(mappings.size());
+    for (ResultMapping mapping : mappings) {
+      compactMappings.add(compact(mapping));
+    }
+    return share(compactMappings);
+  }
+
+  /**
+   * Returns the shared unmodifiable list holding the same element instances.
+   */
+  @SuppressWarnings("unchecked")
+  <E> List<E> share(List<E> list) {
+    if (list == null) {
+      return null;
+    }
+    if (list.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<?> shared = lists.get(new IdentityKey(list));
+    if (shared == null) {
+      shared = Collections.unmodifiableList(new ArrayList<>(list));
+      lists.put(new IdentityKey(shared), shared);
+    }
+    return (List<E>) shared;
+  }
+
+  /**
+   * Returns the shared unmodifiable set of the interned strings of a set.
+   */
+  Set<String> share(Set<String> set) {
+    if (set == null) {
+      return null;
+    }
+    if (set.isEmpty()) {
+      return Collections.emptySet();
+    }
+    Set<String> shared = sets.get(set);
+    if (shared == null) {
+      Set<String> interned = new HashSet<>(set.size() * 4 / 3 + 1);
+      for (String value : set) {
+        interned.add(intern(value));
+      }
+      shared = Collections.unmodifiableSet(interned);
+      sets.put(shared, shared);
+    }
+    return shared;
+  }
+
+  /**
+   * A list that is equal to the lists holding the same instances, in the same order.
+   */
+  private static final class IdentityKey extends AbstractList<Object> {
+
+    private final List<?> elements;
+
+    IdentityKey(List<?> elements) {
+      this.elements = elements;
+    }
+
+    @Override
+    public Object get(int index) {
+      return elements.get(index);
+    }
+
+    @Override
+    public int size() {
+      return elements.size();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof IdentityKey)) {
+        return false;
+      }
+      List<?> other = ((IdentityKey) o).elements;
+      if (other.size() != elements.size()) {
+        return false;
+      }
+      for (int i = 0; i < elements.size(); i++) {
+        if (elements.get(i) != other.get(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = 1;
+      for (Object element : elements) {
+        hash = 31 * hash + System.identityHashCode(element);
+      }
+      return hash;
+    }
+  }
+
+}
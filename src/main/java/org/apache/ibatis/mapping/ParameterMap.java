@@ -52,6 +52,10 @@ public class ParameterMap {
     }
   }
 
+  void compact(MappingCompactor compactor) {
+    parameterMappings = compactor.compactParameterMappings(parameterMappings);
+  }
+
   public String getId() {
     return id;
   }
@@ -131,6 +131,13 @@ public class ParameterMapping {
 
   }
 
+  void compact(MappingCompactor compactor) {
+    property = compactor.intern(property);
+    resultMapId = compactor.intern(resultMapId);
+    jdbcTypeName = compactor.intern(jdbcTypeName);
+    expression = compactor.intern(expression);
+  }
+
   public String getProperty() {
     return property;
   }
@@ -206,6 +206,17 @@ public class ResultMap {
     }
   }
 
+  void compact(MappingCompactor compactor) {
+    resultMappings = compactor.compactResultMappings(resultMappings);
+    idResultMappings = compactor.compactResultMappings(idResultMappings);
+    constructorResultMappings = compactor.compactResultMappings(constructorResultMappings);
+    propertyResultMappings = compactor.compactResultMappings(propertyResultMappings);
+    mappedColumns = compactor.share(mappedColumns);
+    if (discriminator != null) {
+      discriminator.compact(compactor);
+    }
+  }
+
   public String getId() {
     return id;
   }
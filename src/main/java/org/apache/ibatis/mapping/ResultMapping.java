@@ -183,6 +183,19 @@ public class ResultMapping {
     }
   }
 
+  void compact(MappingCompactor compactor) {
+    property = compactor.intern(property);
+    column = compactor.intern(column);
+    nestedResultMapId = compactor.intern(nestedResultMapId);
+    nestedQueryId = compactor.intern(nestedQueryId);
+    notNullColumns = compactor.share(notNullColumns);
+    columnPrefix = compactor.intern(columnPrefix);
+    flags = compactor.share(flags);
+    composites = compactor.compactResultMappings(composites);
+    resultSet = compactor.intern(resultSet);
+    foreignColumn = compactor.intern(foreignColumn);
+  }
+
   public String getProperty() {
     return property;
   }
@@ -0,0 +1,61 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import java.util.List;
+
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * A {@link BoundSql} whose SQL has been rewritten from another one, e.g. to add pagination clauses.
+ * <p>
+ * Additional parameters created by the dynamic language for the original SQL (for loops, bind...) remain visible
+ * through this instance.
+ *
+ * @since 3.5.7
+ */
+public class RewrittenBoundSql extends BoundSql {
+
+  private final BoundSql original;
+
+  public RewrittenBoundSql(Configuration configuration, String sql, BoundSql original) {
+    this(configuration, sql, original.getParameterMappings(), original);
+  }
+
+  public RewrittenBoundSql(Configuration configuration, String sql, List<ParameterMapping> parameterMappings, BoundSql original) {
+    super(configuration, sql, parameterMappings, original.getParameterObject());
+    this.original = original;
+  }
+
+  public BoundSql getOriginal() {
+    return original;
+  }
+
+  @Override
+  public boolean hasAdditionalParameter(String name) {
+    return super.hasAdditionalParameter(name) || original.hasAdditionalParameter(name);
+  }
+
+  @Override
+  public Object getAdditionalParameter(String name) {
+    if (super.hasAdditionalParameter(new PropertyTokenizer(name).getName())) {
+      return super.getAdditionalParameter(name);
+    }
+    return original.getAdditionalParameter(name);
+  }
+
+}
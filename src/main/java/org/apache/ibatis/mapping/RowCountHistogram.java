@@ -0,0 +1,40 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import org.apache.ibatis.metrics.PowerOfTwoHistogram;
+
+/**
+ * Histogram of the number of rows read per execution of a {@link MappedStatement}.
+ * <p>
+ * Rows are counted in power-of-two buckets: bucket 0 holds executions returning no row, and bucket {@code i > 0}
+ * holds executions returning between {@code 2^(i-1)} and {@code 2^i - 1} rows. Recording is lock free.
+ *
+ * @since 3.5.7
+ */
+public class RowCountHistogram extends PowerOfTwoHistogram {
+
+  private static final int BUCKETS = 33;
+
+  public RowCountHistogram() {
+    super(BUCKETS);
+  }
+
+  public void record(int rows) {
+    recordValue(rows);
+  }
+
+}
@@ -0,0 +1,166 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * Keeps per statement metrics in memory, along with the most recent slow statement samples.
+ * <p>
+ * The metrics can be read through {@link #getStatementMetrics()} or exported over JMX with {@link #registerMBean(String)}.
+ *
+ * @since 3.5.7
+ */
+public class DefaultMetricsCollector implements MetricsCollector, MetricsMXBean {
+
+  private static final int DEFAULT_SLOW_STATEMENT_CAPACITY = 100;
+
+  private final Map<String, StatementMetrics> statementMetrics = new ConcurrentHashMap<>();
+  private final int slowStatementCapacity;
+  private final Deque<SlowStatement> slowStatements = new ArrayDeque<>();
+  private final ReentrantLock slowStatementsLock = new ReentrantLock();
+
+  public DefaultMetricsCollector() {
+    this(DEFAULT_SLOW_STATEMENT_CAPACITY);
+  }
+
+  /**
+   * Creates a collector.
+   *
+   * @param slowStatementCapacity
+   *          the number of slow statement samples to keep, older samples are discarded
+   */
+  public DefaultMetricsCollector(int slowStatementCapacity) {
+    this.slowStatementCapacity = slowStatementCapacity;
+  }
+
+  @Override
+  public void statementExecuted(MappedStatement ms, long prepareNanos, long executeNanos, long fetchNanos, int rows) {
+    getStatementMetrics(ms.getId()).recordExecution(prepareNanos, executeNanos, fetchNanos, rows);
+  }
+
+  @Override
+  public void cacheHit(MappedStatement ms) {
+    getStatementMetrics(ms.getId()).recordCacheHit();
+  }
+
+  @Override
+  public void slowStatement(MappedStatement ms, SlowStatement sample) {
+    getStatementMetrics(ms.getId()).recordSlowExecution();
+    slowStatementsLock.lock();
+    try {
+      if (slowStatements.size() == slowStatementCapacity) {
+        slowStatements.removeFirst();
+      }
+      slowStatements.addLast(sample);
+    } finally {
+      slowStatementsLock.unlock();
+    }
+  }
+
+  /**
+   * Gets the metrics of a statement.
+   *
+   * @param statementId
+   *          the statement id
+   * @return the metrics, empty if the statement has not been executed
+   */
+  public StatementMetrics getStatementMetrics(String statementId) {
+    return statementMetrics.computeIfAbsent(statementId, k -> new StatementMetrics());
+  }
+
+  @Override
+  public Map<String, StatementMetrics> getStatementMetrics() {
+    return Collections.unmodifiableMap(new TreeMap<>(statementMetrics));
+  }
+
+  /**
+   * Gets the most recent slow statement samples, oldest first.
+   *
+   * @return the samples
+   */
+  @Override
+  public List<SlowStatement> getSlowStatements() {
+    slowStatementsLock.lock();
+    try {
+      return new ArrayList<>(slowStatements);
+    } finally {
+      slowStatementsLock.unlock();
+    }
+  }
+
+  @Override
+  public void reset() {
+    statementMetrics.values().forEach(StatementMetrics::reset);
+    slowStatementsLock.lock();
+    try {
+      slowStatements.clear();
+    } finally {
+      slowStatementsLock.unlock();
+    }
+  }
+
+  /**
+   * Registers this collector with the platform MBean server as {@code org.apache.ibatis:type=Metrics,name=<name>}.
+   *
+   * @param name
+   *          the name distinguishing this collector, e.g. the environment id
+   * @return the object name
+   * @throws JMException
+   *           if the collector cannot be registered
+   */
+  public ObjectName registerMBean(String name) throws JMException {
+    ObjectName objectName = getObjectName(name);
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+    return objectName;
+  }
+
+  /**
+   * Unregisters a collector registered with {@link #registerMBean(String)}.
+   *
+   * @param name
+   *          the name the collector was registered with
+   * @throws JMException
+   *           if the collector cannot be unregistered
+   */
+  public void unregisterMBean(String name) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName objectName = getObjectName(name);
+    if (server.isRegistered(objectName)) {
+      server.unregisterMBean(objectName);
+    }
+  }
+
+  private static ObjectName getObjectName(String name) throws JMException {
+    return new ObjectName("org.apache.ibatis:type=Metrics,name=" + ObjectName.quote(name));
+  }
+
+}
@@ -0,0 +1,81 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations, counted in power-of-two microsecond buckets.
+ * <p>
+ * Bucket 0 holds durations under one microsecond, and bucket {@code i > 0} holds durations between {@code 2^(i-1)}
+ * and {@code 2^i - 1} microseconds. Recording is lock free.
+ *
+ * @since 3.5.7
+ * @see org.apache.ibatis.mapping.RowCountHistogram
+ */
+public class LatencyHistogram extends PowerOfTwoHistogram {
+
+  private static final int BUCKETS = 40;
+
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+  public LatencyHistogram() {
+    super(BUCKETS);
+  }
+
+  public void record(long nanos) {
+    recordValue(nanos / 1000);
+    totalNanos.add(nanos);
+    maxNanos.accumulate(nanos);
+  }
+
+  public long getTotalNanos() {
+    return totalNanos.sum();
+  }
+
+  public long getMaxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * Estimates the duration below which the given fraction of recorded durations fall.
+   *
+   * @param fraction
+   *          the fraction of durations, between 0 and 1
+   * @return the upper bound in microseconds of the bucket holding the percentile, or -1 when nothing was recorded
+   */
+  public long getPercentileMicros(double fraction) {
+    return getPercentile(fraction);
+  }
+
+  public long getMedianMicros() {
+    return getPercentileMicros(0.5);
+  }
+
+  public long getP99Micros() {
+    return getPercentileMicros(0.99);
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    totalNanos.reset();
+    maxNanos.reset();
+  }
+
+}
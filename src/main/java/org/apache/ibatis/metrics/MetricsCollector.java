@@ -0,0 +1,70 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import org.apache.ibatis.mapping.MappedStatement;
+
+/**
+ * Receives the execution metrics of mapped statements.
+ * <p>
+ * Implementations are called on the executing thread for every statement execution and must be thread safe and
+ * cheap. They are configured with {@link org.apache.ibatis.session.Configuration#setMetricsCollector(MetricsCollector)}.
+ *
+ * @since 3.5.7
+ * @see DefaultMetricsCollector
+ */
+public interface MetricsCollector {
+
+  /**
+   * Called after a statement has been executed and, for queries, its results have been mapped. Cursors are reported
+   * without fetch time. A JDBC batch is reported once when it is executed, with the time to execute the batch and to
+   * read its generated keys, and the sum of its update counts as rows; the time to bind the batched parameters is not
+   * included.
+   *
+   * @param ms
+   *          the mapped statement
+   * @param prepareNanos
+   *          the time spent creating the statement and binding its parameters
+   * @param executeNanos
+   *          the time spent in the driver executing the statement
+   * @param fetchNanos
+   *          the time spent fetching and mapping the results
+   * @param rows
+   *          the number of rows read, including rows passed to a result handler, or the update count for inserts,
+   *          updates and deletes
+   */
+  void statementExecuted(MappedStatement ms, long prepareNanos, long executeNanos, long fetchNanos, int rows);
+
+  /**
+   * Called when a query is answered by the local or second level cache.
+   *
+   * @param ms
+   *          the mapped statement
+   */
+  void cacheHit(MappedStatement ms);
+
+  /**
+   * Called after {@link #statementExecuted} when an execution took longer than the slow statement threshold.
+   *
+   * @param ms
+   *          the mapped statement
+   * @param sample
+   *          the sql, parameters and elapsed time of the execution
+   * @see org.apache.ibatis.session.Configuration#setSlowStatementThreshold(Integer)
+   */
+  void slowStatement(MappedStatement ms, SlowStatement sample);
+
+}
@@ -0,0 +1,131 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non negative values, counted in power-of-two buckets.
+ * <p>
+ * Bucket 0 holds values of 0, and bucket {@code i > 0} holds values between {@code 2^(i-1)} and {@code 2^i - 1}. Values
+ * beyond the last bucket are counted in the last bucket. Recording is lock free.
+ *
+ * @since 3.5.7
+ */
+public class PowerOfTwoHistogram {
+
+  private final AtomicLongArray buckets;
+
+  protected PowerOfTwoHistogram(int bucketCount) {
+    this.buckets = new AtomicLongArray(bucketCount);
+  }
+
+  protected void recordValue(long value) {
+    buckets.incrementAndGet(bucketOf(value));
+  }
+
+  /**
+   * Gets the number of recorded values.
+   *
+   * @return the number of recorded values
+   */
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < buckets.length(); i++) {
+      count += buckets.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * Gets a snapshot of the count of each bucket.
+   *
+   * @return the counts, indexed by bucket
+   */
+  public long[] getBucketCounts() {
+    long[] counts = new long[buckets.length()];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = buckets.get(i);
+    }
+    return counts;
+  }
+
+  /**
+   * Gets the largest value that falls into a bucket.
+   *
+   * @param bucket
+   *          the bucket index
+   * @return the bucket upper bound
+   */
+  public static long getBucketUpperBound(int bucket) {
+    return (1L << bucket) - 1;
+  }
+
+  /**
+   * Estimates the value below which the given fraction of recorded values fall.
+   *
+   * @param fraction
+   *          the fraction of values, between 0 and 1
+   * @return the upper bound of the bucket holding the percentile, or -1 when nothing was recorded
+   */
+  public long getPercentile(double fraction) {
+    long[] counts = getBucketCounts();
+    long total = 0;
+    for (long count : counts) {
+      total += count;
+    }
+    if (total == 0) {
+      return -1;
+    }
+    long threshold = (long) Math.ceil(total * fraction);
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= threshold && counts[i] > 0) {
+        return getBucketUpperBound(i);
+      }
+    }
+    return getBucketUpperBound(counts.length - 1);
+  }
+
+  public void reset() {
+    for (int i = 0; i < buckets.length(); i++) {
+      buckets.set(i, 0);
+    }
+  }
+
+  private int bucketOf(long value) {
+    return value <= 0 ? 0 : Math.min(buckets.length() - 1, 64 - Long.numberOfLeadingZeros(value));
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(getClass().getSimpleName()).append('{');
+    boolean first = true;
+    for (int i = 0; i < buckets.length(); i++) {
+      long count = buckets.get(i);
+      if (count > 0) {
+        if (!first) {
+          builder.append(", ");
+        }
+        builder.append("<=").append(getBucketUpperBound(i)).append(": ").append(count);
+        first = false;
+      }
+    }
+    return builder.append('}').toString();
+  }
+
+}
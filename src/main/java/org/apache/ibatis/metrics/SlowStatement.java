@@ -0,0 +1,78 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A sampled execution of a statement that exceeded the slow statement threshold.
+ *
+ * @since 3.5.7
+ */
+public class SlowStatement {
+
+  private final String statementId;
+  private final String sql;
+  private final List<String> parameters;
+  private final long elapsedNanos;
+  private final long timestamp;
+
+  public SlowStatement(String statementId, String sql, List<String> parameters, long elapsedNanos, long timestamp) {
+    this.statementId = statementId;
+    this.sql = sql;
+    this.parameters = Collections.unmodifiableList(parameters);
+    this.elapsedNanos = elapsedNanos;
+    this.timestamp = timestamp;
+  }
+
+  public String getStatementId() {
+    return statementId;
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  /**
+   * Gets the bound parameter values, in the order of the placeholders of the sql.
+   *
+   * @return the parameter values as strings
+   */
+  public List<String> getParameters() {
+    return parameters;
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Gets the time the execution completed.
+   *
+   * @return the time in milliseconds since the epoch
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  @Override
+  public String toString() {
+    return "SlowStatement{" + statementId + ", " + (elapsedNanos / 1_000_000) + " ms, sql=" + sql + ", parameters="
+        + parameters + "}";
+  }
+
+}
@@ -0,0 +1,109 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The execution metrics of one mapped statement.
+ *
+ * @since 3.5.7
+ */
+public class StatementMetrics {
+
+  private final LongAdder executions = new LongAdder();
+  private final LongAdder rows = new LongAdder();
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder slowExecutions = new LongAdder();
+  private final LatencyHistogram prepareLatency = new LatencyHistogram();
+  private final LatencyHistogram executeLatency = new LatencyHistogram();
+  private final LatencyHistogram fetchLatency = new LatencyHistogram();
+
+  void recordExecution(long prepareNanos, long executeNanos, long fetchNanos, int rows) {
+    executions.increment();
+    this.rows.add(rows);
+    prepareLatency.record(prepareNanos);
+    executeLatency.record(executeNanos);
+    fetchLatency.record(fetchNanos);
+  }
+
+  void recordCacheHit() {
+    cacheHits.increment();
+  }
+
+  void recordSlowExecution() {
+    slowExecutions.increment();
+  }
+
+  public long getExecutions() {
+    return executions.sum();
+  }
+
+  /**
+   * Gets the total number of rows read by queries, or of rows affected by updates.
+   *
+   * @return the number of rows
+   */
+  public long getRows() {
+    return rows.sum();
+  }
+
+  public long getCacheHits() {
+    return cacheHits.sum();
+  }
+
+  public long getSlowExecutions() {
+    return slowExecutions.sum();
+  }
+
+  /**
+   * Gets the time spent creating statements and binding their parameters.
+   *
+   * @return the prepare latency
+   */
+  public LatencyHistogram getPrepareLatency() {
+    return prepareLatency;
+  }
+
+  /**
+   * Gets the time spent in the driver executing statements.
+   *
+   * @return the execute latency
+   */
+  public LatencyHistogram getExecuteLatency() {
+    return executeLatency;
+  }
+
+  /**
+   * Gets the time spent fetching and mapping results.
+   *
+   * @return the fetch latency
+   */
+  public LatencyHistogram getFetchLatency() {
+    return fetchLatency;
+  }
+
+  public void reset() {
+    executions.reset();
+    rows.reset();
+    cacheHits.reset();
+    slowExecutions.reset();
+    prepareLatency.reset();
+    executeLatency.reset();
+    fetchLatency.reset();
+  }
+
+}
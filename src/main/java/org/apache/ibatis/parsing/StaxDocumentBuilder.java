@@ -0,0 +1,184 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.parsing;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.w3c.dom.CharacterData;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Builds a DOM document in a single pass over a StAX reader, as a faster alternative to the validating
+ * {@link javax.xml.parsers.DocumentBuilder} used by {@link XPathParser}.
+ * <p>
+ * The document type declaration is skipped rather than loaded, so documents are neither validated nor can they use
+ * entities declared in their DTD. Apart from that, the resulting tree matches the one {@link XPathParser} builds:
+ * comments are dropped, adjacent character data is merged into one text node and CDATA sections are kept.
+ *
+ * @since 3.5.7
+ */
+public final class StaxDocumentBuilder {
+
+  private static final String REPORT_CDATA = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+  // the factories are not guaranteed to be thread safe and mappers may be parsed in parallel
+  private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+  private static final DocumentBuilderFactory DOCUMENT_FACTORY = createDocumentFactory();
+  private static final ReentrantLock FACTORY_LOCK = new ReentrantLock();
+
+  private StaxDocumentBuilder() {
+    // Prevent Instantiation of Static Class
+  }
+
+  public static Document parse(InputStream inputStream) {
+    FACTORY_LOCK.lock();
+    XMLStreamReader reader;
+    try {
+      reader = INPUT_FACTORY.createXMLStreamReader(inputStream);
+    } catch (XMLStreamException e) {
+      throw new BuilderException("Error creating document instance.  Cause: " + e, e);
+    } finally {
+      FACTORY_LOCK.unlock();
+    }
+    return parse(reader);
+  }
+
+  public static Document parse(Reader reader) {
+    FACTORY_LOCK.lock();
+    XMLStreamReader streamReader;
+    try {
+      streamReader = INPUT_FACTORY.createXMLStreamReader(reader);
+    } catch (XMLStreamException e) {
+      throw new BuilderException("Error creating document instance.  Cause: " + e, e);
+    } finally {
+      FACTORY_LOCK.unlock();
+    }
+    return parse(streamReader);
+  }
+
+  /**
+   * Creates an empty document. Safe to call from several threads.
+   *
+   * @return the document
+   * @throws ParserConfigurationException
+   *           if no document builder is available
+   */
+  public static Document newDocument() throws ParserConfigurationException {
+    FACTORY_LOCK.lock();
+    try {
+      return DOCUMENT_FACTORY.newDocumentBuilder().newDocument();
+    } finally {
+      FACTORY_LOCK.unlock();
+    }
+  }
+
+  private static Document parse(XMLStreamReader reader) {
+    try {
+      Document document = newDocument();
+      Node current = document;
+      while (reader.hasNext()) {
+        switch (reader.next()) {
+          case XMLStreamConstants.START_ELEMENT:
+            Element element = document.createElement(qualifiedName(reader.getPrefix(), reader.getLocalName()));
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+              element.setAttribute(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                  reader.getAttributeValue(i));
+            }
+            current.appendChild(element);
+            current = element;
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            current = current.getParentNode();
+            break;
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.SPACE:
+            if (current != document) {
+              appendCharacters(document, current, Node.TEXT_NODE, reader.getText());
+            }
+            break;
+          case XMLStreamConstants.CDATA:
+            appendCharacters(document, current, Node.CDATA_SECTION_NODE, reader.getText());
+            break;
+          default:
+            // comments, processing instructions and the document type declaration are not part of the tree
+            break;
+        }
+      }
+      return document;
+    } catch (XMLStreamException | ParserConfigurationException e) {
+      throw new BuilderException("Error creating document instance.  Cause: " + e, e);
+    } finally {
+      try {
+        reader.close();
+      } catch (XMLStreamException e) {
+        // ignore
+      }
+    }
+  }
+
+  private static void appendCharacters(Document document, Node parent, short nodeType, String text) {
+    Node last = parent.getLastChild();
+    if (last != null && last.getNodeType() == nodeType) {
+      // the reader may split character data into several events
+      ((CharacterData) last).appendData(text);
+    } else if (nodeType == Node.CDATA_SECTION_NODE) {
+      parent.appendChild(document.createCDATASection(text));
+    } else {
+      parent.appendChild(document.createTextNode(text));
+    }
+  }
+
+  private static String qualifiedName(String prefix, String localName) {
+    return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+  }
+
+  private static XMLInputFactory createInputFactory() {
+    XMLInputFactory factory = XMLInputFactory.newFactory();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+    if (factory.isPropertySupported(REPORT_CDATA)) {
+      factory.setProperty(REPORT_CDATA, true);
+    }
+    return factory;
+  }
+
+  private static DocumentBuilderFactory createDocumentFactory() {
+    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    try {
+      factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+    } catch (ParserConfigurationException e) {
+      // the document is only built in memory
+    }
+    factory.setNamespaceAware(false);
+    return factory;
+  }
+
+}
@@ -20,7 +20,10 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
@@ -46,6 +49,16 @@ import org.xml.sax.SAXParseException;
  */
 public class XPathParser {
 
+  /**
+   * Matches element name tests that are evaluated by walking the tree instead of through XPath: a relative or
+   * absolute path of element names, or a union of element names such as {@code select|insert|update|delete}.
+   */
+  private static final Pattern SIMPLE_EXPRESSION = Pattern
+      .compile("/?[A-Za-z_][\\w.-]*(/[A-Za-z_][\\w.-]*)*|[A-Za-z_][\\w.-]*(\\|[A-Za-z_][\\w.-]*)+");
+  private static final String[][] NOT_SIMPLE = new String[0][];
+  private static final int MAX_CACHED_EXPRESSIONS = 256;
+  private static final Map<String, String[][]> SIMPLE_EXPRESSION_CACHE = new ConcurrentHashMap<>();
+
   private final Document document;
   private boolean validation;
   private EntityResolver entityResolver;
@@ -200,6 +213,13 @@ public class XPathParser {
 
   public List<XNode> evalNodes(Object root, String expression) {
     List<XNode> xnodes = new ArrayList<>();
+    String[][] steps = getSimpleExpression(expression, root);
+    if (steps != NOT_SIMPLE) {
+      for (Node node : selectElements((Node) root, steps)) {
+        xnodes.add(new XNode(this, node, variables));
+      }
+      return xnodes;
+    }
     NodeList nodes = (NodeList) evaluate(expression, root, XPathConstants.NODESET);
     for (int i = 0; i < nodes.getLength(); i++) {
       xnodes.add(new XNode(this, nodes.item(i), variables));
@@ -212,14 +232,91 @@ public class XPathParser {
   }
 
   public XNode evalNode(Object root, String expression) {
-    Node node = (Node) evaluate(expression, root, XPathConstants.NODE);
+    Node node;
+    String[][] steps = getSimpleExpression(expression, root);
+    if (steps != NOT_SIMPLE) {
+      List<Node> nodes = selectElements((Node) root, steps);
+      node = nodes.isEmpty() ? null : nodes.get(0);
+    } else {
+      node = (Node) evaluate(expression, root, XPathConstants.NODE);
+    }
     if (node == null) {
       return null;
     }
     return new XNode(this, node, variables);
   }
 
+  /**
+   * Splits a simple element name expression into steps, each step holding the names it accepts. The first step of an
+   * absolute expression is null and stands for the document.
+   */
+  private static String[][] getSimpleExpression(String expression, Object root) {
+    if (!(root instanceof Node)) {
+      return NOT_SIMPLE;
+    }
+    String[][] steps = SIMPLE_EXPRESSION_CACHE.get(expression);
+    if (steps == null) {
+      steps = parseSimpleExpression(expression);
+      if (SIMPLE_EXPRESSION_CACHE.size() < MAX_CACHED_EXPRESSIONS) {
+        SIMPLE_EXPRESSION_CACHE.put(expression, steps);
+      }
+    }
+    return steps;
+  }
+
+  private static String[][] parseSimpleExpression(String expression) {
+    if (!SIMPLE_EXPRESSION.matcher(expression).matches()) {
+      return NOT_SIMPLE;
+    }
+    if (expression.indexOf('|') >= 0) {
+      return new String[][] { expression.split("\\|") };
+    }
+    String[] names = expression.split("/");
+    String[][] steps = new String[names.length][];
+    for (int i = 0; i < names.length; i++) {
+      steps[i] = names[i].isEmpty() ? null : new String[] { names[i] };
+    }
+    return steps;
+  }
+
+  private static List<Node> selectElements(Node root, String[][] steps) {
+    List<Node> selected = new ArrayList<>();
+    selected.add(steps[0] == null ? getDocument(root) : root);
+    for (String[] names : steps) {
+      if (names == null) {
+        continue;
+      }
+      List<Node> children = new ArrayList<>();
+      for (Node parent : selected) {
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+          if (child.getNodeType() == Node.ELEMENT_NODE && child.getNamespaceURI() == null
+              && matches(names, child.getNodeName())) {
+            children.add(child);
+          }
+        }
+      }
+      selected = children;
+    }
+    return selected;
+  }
+
+  private static Node getDocument(Node node) {
+    return node.getNodeType() == Node.DOCUMENT_NODE ? node : node.getOwnerDocument();
+  }
+
+  private static boolean matches(String[] names, String name) {
+    for (String candidate : names) {
+      if (candidate.equals(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private Object evaluate(String expression, Object root, QName returnType) {
+    if (xpath == null) {
+      xpath = XPathFactory.newInstance().newXPath();
+    }
     try {
       return xpath.evaluate(expression, root, returnType);
     } catch (Exception e) {
@@ -268,8 +365,6 @@ public class XPathParser {
     this.validation = validation;
     this.entityResolver = entityResolver;
     this.variables = variables;
-    XPathFactory factory = XPathFactory.newInstance();
-    this.xpath = factory.newXPath();
   }
 
 }
@@ -18,27 +18,93 @@ package org.apache.ibatis.plugin;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
 
 /**
  * @author Clinton Begin
  */
 public class InterceptorChain {
 
+  private static final Log log = LogFactory.getLog(InterceptorChain.class);
+
   private final List<Interceptor> interceptors = new ArrayList<>();
+  private final Map<Class<?>, UnaryOperator<Object>> pipelines = new ConcurrentHashMap<>();
+  private volatile boolean pipelineEnabled;
 
   public Object pluginAll(Object target) {
+    if (pipelineEnabled && !interceptors.isEmpty()) {
+      return pipelines.computeIfAbsent(target.getClass(), this::createPipeline).apply(target);
+    }
+    return pluginEach(target);
+  }
+
+  private Object pluginEach(Object target) {
     for (Interceptor interceptor : interceptors) {
       target = interceptor.plugin(target);
     }
     return target;
   }
 
+  private UnaryOperator<Object> createPipeline(Class<?> type) {
+    for (Interceptor interceptor : interceptors) {
+      if (overridesPlugin(interceptor)) {
+        return this::pluginEach;
+      }
+    }
+    try {
+      InterceptorPipeline pipeline = InterceptorPipeline.create(type, interceptors);
+      return pipeline == null ? UnaryOperator.identity() : pipeline::wrap;
+    } catch (Exception | LinkageError e) {
+      if (log.isDebugEnabled()) {
+        log.debug("Could not generate an interceptor pipeline for " + type.getName()
+            + ", falling back to plugin proxies.  Cause: " + e);
+      }
+      return this::pluginEach;
+    }
+  }
+
+  private static boolean overridesPlugin(Interceptor interceptor) {
+    try {
+      return !Interceptor.class.equals(interceptor.getClass().getMethod("plugin", Object.class).getDeclaringClass());
+    } catch (NoSuchMethodException e) {
+      return true;
+    }
+  }
+
   public void addInterceptor(Interceptor interceptor) {
     interceptors.add(interceptor);
+    pipelines.clear();
   }
 
   public List<Interceptor> getInterceptors() {
     return Collections.unmodifiableList(interceptors);
   }
 
+  /**
+   * Gets whether interceptors are applied through generated pipelines.
+   *
+   * @return true if pipelines are generated
+   * @since 3.5.7
+   */
+  public boolean isPipelineEnabled() {
+    return pipelineEnabled;
+  }
+
+  /**
+   * Sets whether interceptors are applied through generated pipelines instead of one {@link Plugin} proxy per
+   * interceptor. Pipelines are only used when no interceptor overrides {@link Interceptor#plugin(Object)}.
+   *
+   * @param pipelineEnabled
+   *          true to generate pipelines
+   * @since 3.5.7
+   */
+  public void setPipelineEnabled(boolean pipelineEnabled) {
+    this.pipelineEnabled = pipelineEnabled;
+  }
+
 }
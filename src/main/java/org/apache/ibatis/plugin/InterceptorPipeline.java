@@ -0,0 +1,237 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.plugin;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+
+import org.apache.ibatis.reflection.ExceptionUtil;
+
+/**
+ * Applies all interceptors of a chain to targets of one class through a single generated class.
+ * <p>
+ * The intercepted methods are resolved once per target class. The generated class implements every interface that
+ * any interceptor signs for: methods no interceptor signs for call the target directly, and intercepted methods run
+ * the interceptors signing for them in the order nested {@link Plugin} proxies would, the last added interceptor
+ * first. Unlike with nested proxies, {@link Invocation#getTarget()} always returns the wrapped object itself.
+ *
+ * @since 3.5.7
+ */
+class InterceptorPipeline {
+
+  private static final String CLASS_NAME_SUFFIX = "$$MyBatisPlugin";
+  private static final AtomicInteger classCounter = new AtomicInteger();
+
+  private final Method[] methods;
+  private final Interceptor[][] interceptors;
+  private final Constructor<?> constructor;
+
+  private InterceptorPipeline(Class<?> type, Class<?>[] interfaces, List<Method> methods,
+      List<Interceptor[]> interceptors) throws Exception {
+    this.methods = methods.toArray(new Method[0]);
+    this.interceptors = interceptors.toArray(new Interceptor[0][]);
+    this.constructor = generate(type, interfaces).getConstructor(Object.class, InterceptorPipeline.class);
+  }
+
+  /**
+   * Creates the pipeline for a target class.
+   *
+   * @param type
+   *          the target class
+   * @param chain
+   *          the interceptors, in the order they were added
+   * @return the pipeline, or null if none of the interceptors applies to the class
+   * @throws Exception
+   *           if the class cannot be generated
+   */
+  static InterceptorPipeline create(Class<?> type, List<Interceptor> chain) throws Exception {
+    List<Map<Class<?>, Set<Method>>> signatureMaps = new ArrayList<>();
+    Map<Class<?>, Set<Method>> allSignatures = new HashMap<>();
+    for (Interceptor interceptor : chain) {
+      Map<Class<?>, Set<Method>> signatureMap = Plugin.getSignatureMap(interceptor);
+      signatureMaps.add(signatureMap);
+      allSignatures.putAll(signatureMap);
+    }
+    Class<?>[] interfaces = Plugin.getAllInterfaces(type, allSignatures);
+    if (interfaces.length == 0) {
+      return null;
+    }
+    List<Method> methods = new ArrayList<>();
+    List<Interceptor[]> interceptors = new ArrayList<>();
+    for (Method method : getMethods(interfaces).values()) {
+      List<Interceptor> applied = new ArrayList<>();
+      // the last interceptor added wraps all others
+      for (int i = chain.size() - 1; i >= 0; i--) {
+        Set<Method> signed = signatureMaps.get(i).get(method.getDeclaringClass());
+        if (signed != null && signed.contains(method)) {
+          applied.add(chain.get(i));
+        }
+      }
+      methods.add(method);
+      interceptors.add(applied.isEmpty() ? null : applied.toArray(new Interceptor[0]));
+    }
+    return new InterceptorPipeline(type, interfaces, methods, interceptors);
+  }
+
+  private static Map<String, Method> getMethods(Class<?>[] interfaces) {
+    Map<String, Method> methods = new LinkedHashMap<>();
+    for (Class<?> iface : interfaces) {
+      for (Method method : iface.getMethods()) {
+        if (Modifier.isStatic(method.getModifiers()) || isObjectMethod(method)) {
+          continue;
+        }
+        StringBuilder key = new StringBuilder(method.getName());
+        for (Class<?> parameterType : method.getParameterTypes()) {
+          key.append(',').append(parameterType.getName());
+        }
+        methods.putIfAbsent(key.toString(), method);
+      }
+    }
+    return methods;
+  }
+
+  private static boolean isObjectMethod(Method method) {
+    try {
+      Object.class.getMethod(method.getName(), method.getParameterTypes());
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  Object wrap(Object target) {
+    try {
+      return constructor.newInstance(target, this);
+    } catch (Exception e) {
+      throw new PluginException("Error wrapping " + target.getClass().getName() + ".  Cause: " + e, e);
+    }
+  }
+
+  /**
+   * Called by generated classes for intercepted methods.
+   */
+  Object invoke(Object target, int index, Object[] args) throws Throwable {
+    Interceptor[] chain = interceptors[index];
+    try {
+      return chain[0].intercept(new PipelineInvocation(target, methods[index], args, chain, 1));
+    } catch (Exception e) {
+      throw ExceptionUtil.unwrapThrowable(e);
+    }
+  }
+
+  private Class<?> generate(Class<?> type, Class<?>[] interfaces) throws Exception {
+    ClassPool pool = new ClassPool(true);
+    pool.appendClassPath(new ClassClassPath(InterceptorPipeline.class));
+    if (type.getClassLoader() != null) {
+      pool.appendClassPath(new LoaderClassPath(type.getClassLoader()));
+    }
+    CtClass ctClass = pool.makeClass(InterceptorPipeline.class.getPackage().getName() + "."
+        + type.getSimpleName() + CLASS_NAME_SUFFIX + classCounter.getAndIncrement());
+    try {
+      for (Class<?> iface : interfaces) {
+        ctClass.addInterface(pool.get(iface.getName()));
+      }
+      CtClass objectType = pool.get(Object.class.getName());
+      CtClass pipelineType = pool.get(InterceptorPipeline.class.getName());
+      ctClass.addField(field(objectType, "target", ctClass));
+      ctClass.addField(field(pipelineType, "pipeline", ctClass));
+      ctClass.addConstructor(CtNewConstructor.make(new CtClass[] { objectType, pipelineType }, new CtClass[0],
+          "{ this.target = $1; this.pipeline = $2; }", ctClass));
+      for (int i = 0; i < methods.length; i++) {
+        Method method = methods[i];
+        String body;
+        if (interceptors[i] == null) {
+          String call = "((" + method.getDeclaringClass().getName() + ") this.target)." + method.getName() + "($$)";
+          body = void.class.equals(method.getReturnType()) ? "{ " + call + "; }" : "{ return " + call + "; }";
+        } else {
+          String call = "this.pipeline.invoke(this.target, " + i + ", $args)";
+          body = void.class.equals(method.getReturnType()) ? "{ " + call + "; }" : "{ return ($r) " + call + "; }";
+        }
+        ctClass.addMethod(CtNewMethod.make(Modifier.PUBLIC, pool.get(method.getReturnType().getTypeName()),
+            method.getName(), types(pool, method.getParameterTypes()), types(pool, method.getExceptionTypes()), body,
+            ctClass));
+      }
+      // a proxy forwards these to its target as well, even when an interface redeclares them
+      ctClass.addMethod(CtNewMethod.make("public boolean equals(Object other) { return this.target.equals(other); }",
+          ctClass));
+      ctClass.addMethod(CtNewMethod.make("public int hashCode() { return this.target.hashCode(); }", ctClass));
+      ctClass.addMethod(CtNewMethod.make("public String toString() { return this.target.toString(); }", ctClass));
+      return ctClass.toClass(InterceptorPipeline.class);
+    } finally {
+      ctClass.detach();
+    }
+  }
+
+  private static CtField field(CtClass type, String name, CtClass declaring) throws Exception {
+    CtField field = new CtField(type, name, declaring);
+    field.setModifiers(Modifier.PRIVATE | Modifier.FINAL);
+    return field;
+  }
+
+  private static CtClass[] types(ClassPool pool, Class<?>[] classes) throws Exception {
+    CtClass[] types = new CtClass[classes.length];
+    for (int i = 0; i < classes.length; i++) {
+      types[i] = pool.get(classes[i].getTypeName());
+    }
+    return types;
+  }
+
+  /**
+   * An invocation that proceeds to the next interceptor of the pipeline, or to the target after the last one.
+   */
+  private static class PipelineInvocation extends Invocation {
+
+    private final Interceptor[] chain;
+    private final int next;
+
+    PipelineInvocation(Object target, Method method, Object[] args, Interceptor[] chain, int next) {
+      super(target, method, args);
+      this.chain = chain;
+      this.next = next;
+    }
+
+    @Override
+    public Object proceed() throws InvocationTargetException, IllegalAccessException {
+      if (next == chain.length) {
+        return super.proceed();
+      }
+      try {
+        return chain[next].intercept(new PipelineInvocation(getTarget(), getMethod(), getArgs(), chain, next + 1));
+      } catch (Throwable t) {
+        // nested proxies report whatever the inner interceptor throws through Method.invoke
+        throw new InvocationTargetException(ExceptionUtil.unwrapThrowable(t));
+      }
+    }
+  }
+
+}
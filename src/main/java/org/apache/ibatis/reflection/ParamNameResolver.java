@@ -19,6 +19,7 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -26,6 +27,7 @@ import java.util.SortedMap;
 import java.util.TreeMap;
 
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.binding.ArgumentMap;
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
@@ -54,6 +56,8 @@ public class ParamNameResolver {
 
   private boolean hasParamAnnotation;
 
+  private final ArgumentMap.Layout argumentLayout;
+
   public ParamNameResolver(Configuration config, Method method) {
     this.useActualParamName = config.isUseActualParamName();
     final Class<?>[] paramTypes = method.getParameterTypes();
@@ -88,6 +92,22 @@ public class ParamNameResolver {
       map.put(paramIndex, name);
     }
     names = Collections.unmodifiableSortedMap(map);
+    argumentLayout = new ArgumentMap.Layout(resolveArgumentIndexes());
+  }
+
+  private Map<String, Integer> resolveArgumentIndexes() {
+    final Map<String, Integer> indexes = new LinkedHashMap<>();
+    int i = 0;
+    for (Map.Entry<Integer, String> entry : names.entrySet()) {
+      indexes.put(entry.getValue(), entry.getKey());
+      // same generic names as getNamedParams
+      final String genericParamName = GENERIC_NAME_PREFIX + (i + 1);
+      if (!names.containsValue(genericParamName)) {
+        indexes.put(genericParamName, entry.getKey());
+      }
+      i++;
+    }
+    return indexes;
   }
 
   private String getActualParamName(Method method, int paramIndex) {
@@ -143,6 +163,22 @@ public class ParamNameResolver {
     }
   }
 
+  /**
+   * Same as {@link #getNamedParams(Object[])}, except that multiple parameters are returned as an {@link ArgumentMap}
+   * that reads the arguments in place instead of copying them into a {@link ParamMap}.
+   *
+   * @param args
+   *          the args
+   * @return the named params
+   * @since 3.5.7
+   */
+  public Object getArgumentParams(Object[] args) {
+    if (args == null || names.isEmpty() || (!hasParamAnnotation && names.size() == 1)) {
+      return getNamedParams(args);
+    }
+    return new ArgumentMap(argumentLayout, args);
+  }
+
   /**
    * Wrap to a {@link ParamMap} if object is {@link Collection} or array.
    *
@@ -33,11 +33,14 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.reflection.invoker.AmbiguousMethodInvoker;
 import org.apache.ibatis.reflection.invoker.GetFieldInvoker;
 import org.apache.ibatis.reflection.invoker.Invoker;
 import org.apache.ibatis.reflection.invoker.MethodInvoker;
+import org.apache.ibatis.reflection.invoker.PrimitiveSetter;
 import org.apache.ibatis.reflection.invoker.SetFieldInvoker;
 import org.apache.ibatis.reflection.property.PropertyNamer;
 
@@ -56,6 +59,7 @@ public class Reflector {
   private final Map<String, Invoker> getMethods = new HashMap<>();
   private final Map<String, Class<?>> setTypes = new HashMap<>();
   private final Map<String, Class<?>> getTypes = new HashMap<>();
+  private final Map<String, Optional<PrimitiveSetter>> primitiveSetters = new ConcurrentHashMap<>();
   private Constructor<?> defaultConstructor;
 
   private Map<String, String> caseInsensitivePropertyMap = new HashMap<>();
@@ -368,6 +372,21 @@ public class Reflector {
     return method;
   }
 
+  /**
+   * Gets the setter of a primitive property, which sets it without boxing its value.
+   *
+   * @param propertyName
+   *          the property name
+   * @return the setter, or null if the property is not primitive or cannot be set through a method handle
+   * @since 3.5.7
+   */
+  public PrimitiveSetter getPrimitiveSetter(String propertyName) {
+    return primitiveSetters.computeIfAbsent(propertyName, name -> {
+      Invoker invoker = setMethods.get(name);
+      return Optional.ofNullable(invoker == null ? null : PrimitiveSetter.of(invoker));
+    }).orElse(null);
+  }
+
   public Invoker getGetInvoker(String propertyName) {
     Invoker method = getMethods.get(propertyName);
     if (method == null) {
@@ -0,0 +1,116 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import org.apache.ibatis.reflection.Reflector;
+
+/**
+ * Sets a primitive property without boxing its value, through a method handle of its setter method or field.
+ * <p>
+ * Only the method matching {@link #getType()} may be called; the others throw
+ * {@link java.lang.invoke.WrongMethodTypeException}.
+ *
+ * @since 3.5.7
+ * @see Reflector#getPrimitiveSetter(String)
+ */
+public final class PrimitiveSetter {
+
+  private final Class<?> type;
+  private final MethodHandle handle;
+
+  private PrimitiveSetter(Class<?> type, MethodHandle handle) {
+    this.type = type;
+    this.handle = handle.asType(MethodType.methodType(void.class, Object.class, type));
+  }
+
+  /**
+   * Creates the setter of the property set by an invoker.
+   *
+   * @param invoker
+   *          the set invoker of the property
+   * @return the setter, or null if the property is not primitive or its setter cannot be accessed
+   */
+  public static PrimitiveSetter of(Invoker invoker) {
+    if (!invoker.getType().isPrimitive() || invoker instanceof AmbiguousMethodInvoker) {
+      return null;
+    }
+    try {
+      if (invoker instanceof MethodInvoker) {
+        Method method = ((MethodInvoker) invoker).getMethod();
+        makeAccessible(method);
+        return new PrimitiveSetter(invoker.getType(), MethodHandles.lookup().unreflect(method));
+      } else if (invoker instanceof SetFieldInvoker) {
+        Field field = ((SetFieldInvoker) invoker).getField();
+        makeAccessible(field);
+        return new PrimitiveSetter(invoker.getType(), MethodHandles.lookup().unreflectSetter(field));
+      }
+    } catch (IllegalAccessException | RuntimeException e) {
+      // not accessible or a final field, set through the invoker
+    }
+    return null;
+  }
+
+  private static void makeAccessible(AccessibleObject member) {
+    if (Reflector.canControlMemberAccessible()) {
+      member.setAccessible(true);
+    }
+  }
+
+  /**
+   * Returns the primitive type of the property.
+   *
+   * @return the type
+   */
+  public Class<?> getType() {
+    return type;
+  }
+
+  public void setBoolean(Object target, boolean value) throws Throwable {
+    handle.invokeExact(target, value);
+  }
+
+  public void setByte(Object target, byte value) throws Throwable {
+    handle.invokeExact(target, value);
+  }
+
+  public void setShort(Object target, short value) throws Throwable {
+    handle.invokeExact(target, value);
+  }
+
+  public void setInt(Object target, int value) throws Throwable {
+    handle.invokeExact(target, value);
+  }
+
+  public void setLong(Object target, long value) throws Throwable {
+    handle.invokeExact(target, value);
+  }
+
+  public void setFloat(Object target, float value) throws Throwable {
+    handle.invokeExact(target, value);
+  }
+
+  public void setDouble(Object target, double value) throws Throwable {
+    handle.invokeExact(target, value);
+  }
+
+}
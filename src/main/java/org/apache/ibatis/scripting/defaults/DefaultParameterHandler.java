@@ -19,6 +19,7 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.List;
 
+import org.apache.ibatis.binding.ArgumentMap;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.mapping.BoundSql;
@@ -66,18 +67,7 @@ public class DefaultParameterHandler implements ParameterHandler {
       for (int i = 0; i < parameterMappings.size(); i++) {
         ParameterMapping parameterMapping = parameterMappings.get(i);
         if (parameterMapping.getMode() != ParameterMode.OUT) {
-          Object value;
-          String propertyName = parameterMapping.getProperty();
-          if (boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params
-            value = boundSql.getAdditionalParameter(propertyName);
-          } else if (parameterObject == null) {
-            value = null;
-          } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
-            value = parameterObject;
-          } else {
-            MetaObject metaObject = configuration.newMetaObject(parameterObject);
-            value = metaObject.getValue(propertyName);
-          }
+          Object value = getParameterValue(parameterMappings, i);
           TypeHandler typeHandler = parameterMapping.getTypeHandler();
           JdbcType jdbcType = parameterMapping.getJdbcType();
           if (value == null && jdbcType == null) {
@@ -93,4 +83,34 @@ public class DefaultParameterHandler implements ParameterHandler {
     }
   }
 
+  /**
+   * Resolves the value bound for a parameter mapping of this handler's bound sql.
+   *
+   * @param parameterMapping
+   *          the parameter mapping
+   * @return the value to bind
+   * @since 3.5.7
+   */
+  public Object getParameterValue(ParameterMapping parameterMapping) {
+    String propertyName = parameterMapping.getProperty();
+    if (boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params
+      return boundSql.getAdditionalParameter(propertyName);
+    } else if (parameterObject == null) {
+      return null;
+    } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
+      return parameterObject;
+    } else {
+      MetaObject metaObject = configuration.newMetaObject(parameterObject);
+      return metaObject.getValue(propertyName);
+    }
+  }
+
+  private Object getParameterValue(List<ParameterMapping> parameterMappings, int position) {
+    ParameterMapping parameterMapping = parameterMappings.get(position);
+    if (parameterObject instanceof ArgumentMap && !boundSql.hasAdditionalParameter(parameterMapping.getProperty())) {
+      return ((ArgumentMap) parameterObject).getParameterValue(configuration, parameterMappings, position);
+    }
+    return getParameterValue(parameterMapping);
+  }
+
 }
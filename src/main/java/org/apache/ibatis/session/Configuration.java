@@ -15,16 +15,22 @@
  */
 package org.apache.ibatis.session;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiFunction;
 
 import org.apache.ibatis.binding.MapperRegistry;
@@ -32,7 +38,11 @@ import org.apache.ibatis.builder.CacheRefResolver;
 import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
+import org.apache.ibatis.builder.xml.MapperSnapshot;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
+import org.apache.ibatis.bulk.BulkSink;
+import org.apache.ibatis.bulk.MultiRowInsertSink;
+import org.apache.ibatis.bulk.PostgresCopySink;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
@@ -42,16 +52,21 @@ import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
+import org.apache.ibatis.dialect.CountSqlSource;
+import org.apache.ibatis.dialect.Dialect;
+import org.apache.ibatis.dialect.DialectRegistry;
 import org.apache.ibatis.executor.BatchExecutor;
 import org.apache.ibatis.executor.CachingExecutor;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ReuseExecutor;
 import org.apache.ibatis.executor.SimpleExecutor;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
 import org.apache.ibatis.executor.loader.ProxyFactory;
 import org.apache.ibatis.executor.loader.cglib.CglibProxyFactory;
 import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.resultset.ColumnarResult;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
@@ -60,6 +75,7 @@ import org.apache.ibatis.io.VFS;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.logging.commons.JakartaCommonsLoggingImpl;
+import org.apache.ibatis.logging.jdbc.AsyncSqlLogger;
 import org.apache.ibatis.logging.jdk14.Jdk14LoggingImpl;
 import org.apache.ibatis.logging.log4j.Log4jImpl;
 import org.apache.ibatis.logging.log4j2.Log4j2Impl;
@@ -69,10 +85,13 @@ import org.apache.ibatis.logging.stdout.StdOutImpl;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.MappingCompactor;
 import org.apache.ibatis.mapping.ParameterMap;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
+import org.apache.ibatis.metrics.MetricsCollector;
 import org.apache.ibatis.parsing.XNode;
 import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.plugin.InterceptorChain;
@@ -114,6 +133,7 @@ public class Configuration {
   protected boolean useActualParamName = true;
   protected boolean returnInstanceForEmptyRow;
   protected boolean shrinkWhitespacesInSql;
+  protected boolean useDialectPagination;
 
   protected String logPrefix;
   protected Class<? extends Log> logImpl;
@@ -124,6 +144,32 @@ public class Configuration {
   protected Set<String> lazyLoadTriggerMethods = new HashSet<>(Arrays.asList("equals", "clone", "hashCode", "toString"));
   protected Integer defaultStatementTimeout;
   protected Integer defaultFetchSize;
+  protected boolean adaptiveFetchSizeEnabled;
+  protected int adaptiveFetchSizeLimit = 1000;
+  protected boolean multiRowInsertEnabled;
+  protected int multiRowInsertMaxRows = 1000;
+  protected Integer batchFlushRowsPerStatement;
+  protected Integer batchFlushRows;
+  protected Integer batchFlushBytes;
+  protected boolean batchRetainParameterObjects = true;
+  protected boolean batchGroupingEnabled;
+  protected Integer batchPipelineDepth;
+  protected boolean useGeneratedMappers;
+  protected boolean argumentBindingEnabled;
+  protected MetricsCollector metricsCollector;
+  protected Integer slowStatementThreshold;
+  protected boolean asyncSqlLogEnabled;
+  protected int asyncSqlLogCapacity = 1024;
+  protected int asyncSqlLogSampleInterval = 1;
+  protected boolean parallelMapperParsingEnabled;
+  protected boolean staxMapperParsingEnabled;
+  protected MapperSnapshot mapperSnapshot;
+  protected boolean lazyStatementBuildingEnabled;
+  protected boolean compiledMappersEnabled;
+  protected boolean compactConfigurationEnabled;
+  protected boolean primitiveResultMappingEnabled;
+  private volatile AsyncSqlLogger asyncSqlLogger;
+  private final ReentrantLock asyncSqlLoggerLock = new ReentrantLock();
   protected ResultSetType defaultResultSetType;
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
@@ -151,6 +197,8 @@ public class Configuration {
   protected final TypeHandlerRegistry typeHandlerRegistry = new TypeHandlerRegistry(this);
   protected final TypeAliasRegistry typeAliasRegistry = new TypeAliasRegistry();
   protected final LanguageDriverRegistry languageRegistry = new LanguageDriverRegistry();
+  protected final DialectRegistry dialectRegistry = new DialectRegistry();
+  protected final List<BulkSink> bulkSinks = new CopyOnWriteArrayList<>(Arrays.asList(new PostgresCopySink(), new MultiRowInsertSink()));
 
   protected final Map<String, MappedStatement> mappedStatements = new StrictMap<MappedStatement>("Mapped Statements collection")
       .conflictMessageProducer((savedValue, targetValue) ->
@@ -159,6 +207,15 @@ public class Configuration {
   protected final Map<String, ResultMap> resultMaps = new StrictMap<>("Result Maps collection");
   protected final Map<String, ParameterMap> parameterMaps = new StrictMap<>("Parameter Maps collection");
   protected final Map<String, KeyGenerator> keyGenerators = new StrictMap<>("Key Generators collection");
+  protected final Map<String, MappedStatement> countMappedStatements = new ConcurrentHashMap<>();
+  /**
+   * Statements indexed but not built yet in lazy mode, guarded by the pending statement lock along with the mapped
+   * statements they are built into. Statements found by a lookup are published to a concurrent map, under the full or
+   * short name they were looked up by, so that lookups after the first one do not lock.
+   */
+  protected final Map<String, List<XMLStatementBuilder>> pendingStatements = new LinkedHashMap<>();
+  protected final Map<String, MappedStatement> publishedStatements = new ConcurrentHashMap<>();
+  private final ReentrantLock pendingStatementLock = new ReentrantLock();
 
   protected final Set<String> loadedResources = new HashSet<>();
   protected final Map<String, XNode> sqlFragments = new StrictMap<>("XML fragments parsed from previous mappers");
@@ -210,6 +267,8 @@ public class Configuration {
     typeAliasRegistry.registerAlias("CGLIB", CglibProxyFactory.class);
     typeAliasRegistry.registerAlias("JAVASSIST", JavassistProxyFactory.class);
 
+    typeAliasRegistry.registerAlias("columnar", ColumnarResult.class);
+
     languageRegistry.setDefaultDriverClass(XMLLanguageDriver.class);
     languageRegistry.register(RawLanguageDriver.class);
   }
@@ -297,6 +356,53 @@ public class Configuration {
     this.shrinkWhitespacesInSql = shrinkWhitespacesInSql;
   }
 
+  /**
+   * Gets whether row bounds are pushed into the SQL using the {@link Dialect} of the current database id.
+   *
+   * @return true if row bounds are applied by the database
+   * @since 3.5.7
+   */
+  public boolean isUseDialectPagination() {
+    return useDialectPagination;
+  }
+
+  /**
+   * Sets whether row bounds are pushed into the SQL using the {@link Dialect} of the current database id.
+   * When enabled, a select statement {@code id} also gets a companion count statement {@code id!count}.
+   *
+   * @param useDialectPagination
+   *          true to let the database apply row bounds
+   * @since 3.5.7
+   */
+  public void setUseDialectPagination(boolean useDialectPagination) {
+    this.useDialectPagination = useDialectPagination;
+  }
+
+  public DialectRegistry getDialectRegistry() {
+    return dialectRegistry;
+  }
+
+  /**
+   * Gets the sinks bulk loads are written with. The first sink that supports the connection of a session is used;
+   * by default PostgreSQL connections use {@code COPY} and all others use multi-row inserts.
+   *
+   * @return the modifiable list of bulk sinks
+   * @since 3.5.7
+   */
+  public List<BulkSink> getBulkSinks() {
+    return bulkSinks;
+  }
+
+  /**
+   * Gets the dialect registered for the current database id.
+   *
+   * @return the dialect or null if none is registered
+   * @since 3.5.7
+   */
+  public Dialect getDialect() {
+    return dialectRegistry.getDialect(databaseId);
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
@@ -478,6 +584,613 @@ public class Configuration {
     this.defaultFetchSize = defaultFetchSize;
   }
 
+  /**
+   * Gets whether the fetch size of select statements without an explicit fetch size is derived from the rows they
+   * returned in previous executions.
+   *
+   * @return true if adaptive fetch size is enabled
+   * @since 3.5.7
+   */
+  public boolean isAdaptiveFetchSizeEnabled() {
+    return adaptiveFetchSizeEnabled;
+  }
+
+  /**
+   * Sets whether the fetch size of select statements without an explicit fetch size is derived from the rows they
+   * returned in previous executions. The rows returned are tracked by {@link MappedStatement#getRowCountHistogram()}.
+   *
+   * @param adaptiveFetchSizeEnabled
+   *          true to enable adaptive fetch size
+   * @since 3.5.7
+   */
+  public void setAdaptiveFetchSizeEnabled(boolean adaptiveFetchSizeEnabled) {
+    this.adaptiveFetchSizeEnabled = adaptiveFetchSizeEnabled;
+  }
+
+  /**
+   * Gets the largest fetch size applied by adaptive fetch size.
+   *
+   * @return the largest adaptive fetch size
+   * @since 3.5.7
+   */
+  public int getAdaptiveFetchSizeLimit() {
+    return adaptiveFetchSizeLimit;
+  }
+
+  /**
+   * Sets the largest fetch size applied by adaptive fetch size.
+   *
+   * @param adaptiveFetchSizeLimit
+   *          the largest adaptive fetch size
+   * @since 3.5.7
+   */
+  public void setAdaptiveFetchSizeLimit(int adaptiveFetchSizeLimit) {
+    this.adaptiveFetchSizeLimit = adaptiveFetchSizeLimit;
+  }
+
+  /**
+   * Gets whether the batch executor sends consecutive executions of an insert statement as multi-row inserts.
+   *
+   * @return true if multi-row inserts are enabled
+   * @since 3.5.7
+   */
+  public boolean isMultiRowInsertEnabled() {
+    return multiRowInsertEnabled;
+  }
+
+  /**
+   * Sets whether the batch executor sends consecutive executions of an insert statement as multi-row inserts
+   * {@code INSERT ... VALUES (...), (...)} instead of JDBC batches. Only statements whose SQL ends with a single
+   * {@code VALUES} row are rewritten.
+   *
+   * @param multiRowInsertEnabled
+   *          true to enable multi-row inserts
+   * @since 3.5.7
+   */
+  public void setMultiRowInsertEnabled(boolean multiRowInsertEnabled) {
+    this.multiRowInsertEnabled = multiRowInsertEnabled;
+  }
+
+  /**
+   * Gets the largest number of rows sent in a single multi-row insert.
+   *
+   * @return the largest number of rows per multi-row insert
+   * @since 3.5.7
+   */
+  public int getMultiRowInsertMaxRows() {
+    return multiRowInsertMaxRows;
+  }
+
+  /**
+   * Sets the largest number of rows sent in a single multi-row insert. Statements are further limited to the number
+   * of bind parameters allowed by the {@link Dialect} of the current database id.
+   *
+   * @param multiRowInsertMaxRows
+   *          the largest number of rows per multi-row insert
+   * @since 3.5.7
+   */
+  public void setMultiRowInsertMaxRows(int multiRowInsertMaxRows) {
+    this.multiRowInsertMaxRows = multiRowInsertMaxRows;
+  }
+
+  /**
+   * Gets the number of rows of a single statement after which the batch executor flushes its statements.
+   *
+   * @return the number of rows, or null if there is no limit
+   * @since 3.5.7
+   */
+  public Integer getBatchFlushRowsPerStatement() {
+    return batchFlushRowsPerStatement;
+  }
+
+  /**
+   * Sets the number of rows of a single statement after which the batch executor flushes its statements.
+   *
+   * @param batchFlushRowsPerStatement
+   *          the number of rows, or null for no limit
+   * @since 3.5.7
+   */
+  public void setBatchFlushRowsPerStatement(Integer batchFlushRowsPerStatement) {
+    this.batchFlushRowsPerStatement = batchFlushRowsPerStatement;
+  }
+
+  /**
+   * Gets the number of rows of all statements after which the batch executor flushes its statements.
+   *
+   * @return the number of rows, or null if there is no limit
+   * @since 3.5.7
+   */
+  public Integer getBatchFlushRows() {
+    return batchFlushRows;
+  }
+
+  /**
+   * Sets the number of rows of all statements after which the batch executor flushes its statements.
+   *
+   * @param batchFlushRows
+   *          the number of rows, or null for no limit
+   * @since 3.5.7
+   */
+  public void setBatchFlushRows(Integer batchFlushRows) {
+    this.batchFlushRows = batchFlushRows;
+  }
+
+  /**
+   * Gets the estimated size in bytes of the bound parameters after which the batch executor flushes its statements.
+   *
+   * @return the number of bytes, or null if there is no limit
+   * @since 3.5.7
+   */
+  public Integer getBatchFlushBytes() {
+    return batchFlushBytes;
+  }
+
+  /**
+   * Sets the estimated size in bytes of the bound parameters after which the batch executor flushes its statements.
+   * Strings are estimated at two bytes per character, byte arrays at their length and other values at 16 bytes.
+   *
+   * @param batchFlushBytes
+   *          the number of bytes, or null for no limit
+   * @since 3.5.7
+   */
+  public void setBatchFlushBytes(Integer batchFlushBytes) {
+    this.batchFlushBytes = batchFlushBytes;
+  }
+
+  /**
+   * Gets whether batch results keep their parameter objects once the statements have been executed.
+   *
+   * @return true if parameter objects are kept
+   * @since 3.5.7
+   */
+  public boolean isBatchRetainParameterObjects() {
+    return batchRetainParameterObjects;
+  }
+
+  /**
+   * Sets whether batch results keep their parameter objects once the statements have been executed and generated keys
+   * have been assigned. Dropping them keeps the memory used by statements flushed automatically flat: the results of
+   * automatic flushes are released as well, instead of being returned by the next
+   * {@link org.apache.ibatis.session.SqlSession#flushStatements()}.
+   *
+   * @param batchRetainParameterObjects
+   *          false to drop parameter objects from {@link org.apache.ibatis.executor.BatchResult}
+   * @since 3.5.7
+   */
+  public void setBatchRetainParameterObjects(boolean batchRetainParameterObjects) {
+    this.batchRetainParameterObjects = batchRetainParameterObjects;
+  }
+
+  /**
+   * Gets whether the batch executor adds an insert to the batch of an earlier execution of the same insert of the same
+   * batch group.
+   *
+   * @return true if batch grouping is enabled
+   * @since 3.5.7
+   */
+  public boolean isBatchGroupingEnabled() {
+    return batchGroupingEnabled;
+  }
+
+  /**
+   * Sets whether the batch executor adds an insert to the batch of an earlier execution of the same insert, so that
+   * alternating inserts such as parent and child rows share one batch per statement. Only inserts that declare the
+   * same batch group are grouped, as grouping executes all of them at the position of their first execution; any
+   * other statement, a select or a flush ends the grouping of the batches before it.
+   *
+   * @param batchGroupingEnabled
+   *          true to enable batch grouping
+   * @since 3.5.7
+   */
+  public void setBatchGroupingEnabled(boolean batchGroupingEnabled) {
+    this.batchGroupingEnabled = batchGroupingEnabled;
+  }
+
+  /**
+   * Gets the number of batch flushes that may be pending on the background flusher.
+   *
+   * @return the number of pending flushes, or null if batches are flushed on the calling thread
+   * @since 3.5.7
+   */
+  public Integer getBatchPipelineDepth() {
+    return batchPipelineDepth;
+  }
+
+  /**
+   * Sets the number of batch flushes that may be pending on the background flusher. When set, the batch executor only
+   * builds the parameter objects and bound SQL of each row on the calling thread. Batches are handed to a single
+   * background thread once a batch flush threshold is reached, and on {@link SqlSession#flushStatements()}; it
+   * prepares and executes them in order on the session's connection while the next batch is being built. Their
+   * results and failures are reported by the next {@link SqlSession#flushStatements()} or commit.
+   *
+   * @param batchPipelineDepth
+   *          the number of pending flushes, or null to flush on the calling thread
+   * @since 3.5.7
+   */
+  public void setBatchPipelineDepth(Integer batchPipelineDepth) {
+    this.batchPipelineDepth = batchPipelineDepth;
+  }
+
+  /**
+   * Gets whether mappers are implemented by generated classes instead of JDK proxies.
+   *
+   * @return true if mapper classes are generated
+   * @since 3.5.7
+   */
+  public boolean isUseGeneratedMappers() {
+    return useGeneratedMappers;
+  }
+
+  /**
+   * Sets whether mappers are implemented by generated classes instead of JDK proxies. When enabled, a class that calls
+   * the {@link SqlSession} directly from each mapper method is generated with Javassist the first time a mapper is
+   * requested. Mappers whose class cannot be generated fall back to a proxy.
+   *
+   * @param useGeneratedMappers
+   *          true to generate mapper classes
+   * @since 3.5.7
+   */
+  public void setUseGeneratedMappers(boolean useGeneratedMappers) {
+    this.useGeneratedMappers = useGeneratedMappers;
+  }
+
+  /**
+   * Gets whether the arguments of multi-parameter mapper methods are bound in place.
+   *
+   * @return true if arguments are bound in place
+   * @since 3.5.7
+   */
+  public boolean isArgumentBindingEnabled() {
+    return argumentBindingEnabled;
+  }
+
+  /**
+   * Sets whether the arguments of multi-parameter mapper methods are bound in place. When enabled, mapper methods of
+   * statements with static SQL, no key generator and no OUT parameters pass their arguments as an
+   * {@link org.apache.ibatis.binding.ArgumentMap} instead of copying them into a parameter map, and the statement
+   * parameters are read from the arguments by position.
+   *
+   * @param argumentBindingEnabled
+   *          true to bind arguments in place
+   * @since 3.5.7
+   */
+  public void setArgumentBindingEnabled(boolean argumentBindingEnabled) {
+    this.argumentBindingEnabled = argumentBindingEnabled;
+  }
+
+  /**
+   * Gets whether interceptors are applied through generated pipelines.
+   *
+   * @return true if pipelines are generated
+   * @since 3.5.7
+   */
+  public boolean isPluginPipelineEnabled() {
+    return interceptorChain.isPipelineEnabled();
+  }
+
+  /**
+   * Sets whether interceptors are applied through generated pipelines. When enabled, executors, statement handlers,
+   * parameter handlers and result set handlers are wrapped once, in a class generated with Javassist per target
+   * class, instead of in one {@link org.apache.ibatis.plugin.Plugin} proxy per interceptor. Methods no interceptor
+   * signs for are called on the target directly.
+   *
+   * @param pluginPipelineEnabled
+   *          true to generate pipelines
+   * @since 3.5.7
+   */
+  public void setPluginPipelineEnabled(boolean pluginPipelineEnabled) {
+    interceptorChain.setPipelineEnabled(pluginPipelineEnabled);
+  }
+
+  /**
+   * Gets the collector receiving statement execution metrics.
+   *
+   * @return the metrics collector, or null if no metrics are collected
+   * @since 3.5.7
+   */
+  public MetricsCollector getMetricsCollector() {
+    return metricsCollector;
+  }
+
+  /**
+   * Sets the collector receiving statement execution metrics: prepare, execute and fetch times, rows and cache hits of
+   * each mapped statement.
+   *
+   * @param metricsCollector
+   *          the metrics collector, or null to collect no metrics
+   * @since 3.5.7
+   * @see org.apache.ibatis.metrics.DefaultMetricsCollector
+   */
+  public void setMetricsCollector(MetricsCollector metricsCollector) {
+    this.metricsCollector = metricsCollector;
+  }
+
+  /**
+   * Gets the execution time above which statements are reported to the metrics collector as slow.
+   *
+   * @return the threshold in milliseconds, or null if slow statements are not sampled
+   * @since 3.5.7
+   */
+  public Integer getSlowStatementThreshold() {
+    return slowStatementThreshold;
+  }
+
+  /**
+   * Sets the execution time above which statements are reported to the metrics collector as slow, along with their sql
+   * and parameter values.
+   *
+   * @param slowStatementThreshold
+   *          the threshold in milliseconds, or null to not sample slow statements
+   * @since 3.5.7
+   */
+  public void setSlowStatementThreshold(Integer slowStatementThreshold) {
+    this.slowStatementThreshold = slowStatementThreshold;
+  }
+
+  /**
+   * Returns whether statements are logged by a background thread instead of through JDBC proxies.
+   *
+   * @return true if asynchronous sql logging is enabled
+   * @since 3.5.7
+   */
+  public boolean isAsyncSqlLogEnabled() {
+    return asyncSqlLogEnabled;
+  }
+
+  /**
+   * Sets whether statements are logged by a background thread instead of through JDBC proxies. When enabled, the sql
+   * and parameter values of each execution are queued to a bounded buffer before it is executed, and its row count
+   * once it completes. They are written by a daemon thread that stops when the buffer stays empty, so connections,
+   * statements and result sets are no longer wrapped when debug logging is on. Result rows are not logged in this
+   * mode. Disabling it closes the logger once the queued executions have been written.
+   *
+   * @param asyncSqlLogEnabled
+   *          true to enable asynchronous sql logging
+   * @since 3.5.7
+   */
+  public void setAsyncSqlLogEnabled(boolean asyncSqlLogEnabled) {
+    this.asyncSqlLogEnabled = asyncSqlLogEnabled;
+    if (!asyncSqlLogEnabled) {
+      asyncSqlLoggerLock.lock();
+      try {
+        if (asyncSqlLogger != null) {
+          asyncSqlLogger.close();
+          asyncSqlLogger = null;
+        }
+      } finally {
+        asyncSqlLoggerLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Gets the number of executions the asynchronous sql log buffers before dropping new ones.
+   *
+   * @return the buffer capacity
+   * @since 3.5.7
+   */
+  public int getAsyncSqlLogCapacity() {
+    return asyncSqlLogCapacity;
+  }
+
+  /**
+   * Sets the number of executions the asynchronous sql log buffers before dropping new ones.
+   *
+   * @param asyncSqlLogCapacity
+   *          the buffer capacity
+   * @since 3.5.7
+   */
+  public void setAsyncSqlLogCapacity(int asyncSqlLogCapacity) {
+    this.asyncSqlLogCapacity = asyncSqlLogCapacity;
+  }
+
+  /**
+   * Gets the sampling interval of the asynchronous sql log.
+   *
+   * @return one out of how many executions is logged
+   * @since 3.5.7
+   */
+  public int getAsyncSqlLogSampleInterval() {
+    return asyncSqlLogSampleInterval;
+  }
+
+  /**
+   * Sets the sampling interval of the asynchronous sql log. With an interval of 10, one execution out of 10 is logged.
+   *
+   * @param asyncSqlLogSampleInterval
+   *          one out of how many executions is logged
+   * @since 3.5.7
+   */
+  public void setAsyncSqlLogSampleInterval(int asyncSqlLogSampleInterval) {
+    this.asyncSqlLogSampleInterval = asyncSqlLogSampleInterval;
+  }
+
+  /**
+   * Returns whether the XML documents of the mappers declared in the configuration file are parsed concurrently.
+   *
+   * @return true if mapper documents are parsed in parallel
+   * @since 3.5.7
+   */
+  public boolean isParallelMapperParsingEnabled() {
+    return parallelMapperParsingEnabled;
+  }
+
+  /**
+   * Sets whether the XML documents of the mappers declared in the configuration file are parsed concurrently. The
+   * parsed documents are still registered in declaration order, so the resulting configuration is the same as with
+   * sequential parsing.
+   *
+   * @param parallelMapperParsingEnabled
+   *          true to parse mapper documents in parallel
+   * @since 3.5.7
+   */
+  public void setParallelMapperParsingEnabled(boolean parallelMapperParsingEnabled) {
+    this.parallelMapperParsingEnabled = parallelMapperParsingEnabled;
+  }
+
+  /**
+   * Returns whether mapper XML files are parsed with a streaming StAX reader instead of a validating DOM parser.
+   *
+   * @return true if mapper files are parsed with StAX
+   * @since 3.5.7
+   */
+  public boolean isStaxMapperParsingEnabled() {
+    return staxMapperParsingEnabled;
+  }
+
+  /**
+   * Sets whether mapper XML files are parsed with a streaming StAX reader instead of a validating DOM parser. The StAX
+   * reader builds the same tree in a single pass but skips the document type declaration, so mapper files are not
+   * validated against the DTD.
+   *
+   * @param staxMapperParsingEnabled
+   *          true to parse mapper files with StAX
+   * @since 3.5.7
+   */
+  public void setStaxMapperParsingEnabled(boolean staxMapperParsingEnabled) {
+    this.staxMapperParsingEnabled = staxMapperParsingEnabled;
+  }
+
+  /**
+   * Gets the snapshot parsed mapper documents are taken from and stored to.
+   *
+   * @return the mapper snapshot, or null if mapper files are always parsed
+   * @since 3.5.7
+   */
+  public MapperSnapshot getMapperSnapshot() {
+    return mapperSnapshot;
+  }
+
+  /**
+   * Sets the snapshot parsed mapper documents are taken from and stored to. Mapper files whose content did not change
+   * since the snapshot was written are not parsed again. {@link org.apache.ibatis.builder.xml.XMLConfigBuilder} saves
+   * the snapshot when it is done building the configuration.
+   *
+   * @param mapperSnapshot
+   *          the mapper snapshot, or null to always parse mapper files
+   * @since 3.5.7
+   */
+  public void setMapperSnapshot(MapperSnapshot mapperSnapshot) {
+    this.mapperSnapshot = mapperSnapshot;
+  }
+
+  /**
+   * Returns whether statements declared in mapper XML files are built on first use instead of while parsing.
+   *
+   * @return true if statements are built lazily
+   * @since 3.5.7
+   */
+  public boolean isLazyStatementBuildingEnabled() {
+    return lazyStatementBuildingEnabled;
+  }
+
+  /**
+   * Sets whether statements declared in mapper XML files are built on first use instead of while parsing. Mapper files
+   * only index their statement ids at startup, and each statement is built by the first
+   * {@link #getMappedStatement(String)} or {@link #hasStatement(String)} call asking for it. Errors in a statement
+   * are therefore reported when it is first used.
+   *
+   * @param lazyStatementBuildingEnabled
+   *          true to build statements lazily
+   * @since 3.5.7
+   */
+  public void setLazyStatementBuildingEnabled(boolean lazyStatementBuildingEnabled) {
+    this.lazyStatementBuildingEnabled = lazyStatementBuildingEnabled;
+  }
+
+  /**
+   * Gets whether mapper XML files compiled at build time are registered instead of being parsed.
+   *
+   * @return true if compiled mappers are used
+   * @since 3.5.7
+   */
+  public boolean isCompiledMappersEnabled() {
+    return compiledMappersEnabled;
+  }
+
+  /**
+   * Sets whether mapper XML files compiled at build time by the
+   * {@link org.apache.ibatis.builder.compile.MapperCompiler} are registered instead of being parsed. The compiled
+   * mappers are loaded with {@link java.util.ServiceLoader}, and a resource whose content changed since it was
+   * compiled is parsed as usual.
+   *
+   * @param compiledMappersEnabled
+   *          true to use compiled mappers
+   * @since 3.5.7
+   */
+  public void setCompiledMappersEnabled(boolean compiledMappersEnabled) {
+    this.compiledMappersEnabled = compiledMappersEnabled;
+  }
+
+  /**
+   * Gets whether the configuration is compacted once it is parsed.
+   *
+   * @return true if the configuration is compacted
+   * @since 3.5.7
+   */
+  public boolean isCompactConfigurationEnabled() {
+    return compactConfigurationEnabled;
+  }
+
+  /**
+   * Sets whether the configuration is compacted with {@link #compact()} once the XML configuration is parsed, and
+   * whether the text of dynamic sql is interned while it is parsed.
+   *
+   * @param compactConfigurationEnabled
+   *          true to compact the configuration
+   * @since 3.5.7
+   */
+  public void setCompactConfigurationEnabled(boolean compactConfigurationEnabled) {
+    this.compactConfigurationEnabled = compactConfigurationEnabled;
+  }
+
+  /**
+   * Gets whether columns mapped to primitive properties are read and set without boxing.
+   *
+   * @return true if primitive values are not boxed
+   * @since 3.5.7
+   */
+  public boolean isPrimitiveResultMappingEnabled() {
+    return primitiveResultMappingEnabled;
+  }
+
+  /**
+   * Sets whether a column mapped to a primitive property of a bean is read through the result handler interface of
+   * its type, such as {@link org.apache.ibatis.type.IntResultHandler}, and set through a method handle, without boxing
+   * its value.
+   * Other properties, and beans wrapped by a custom object wrapper, are set as usual.
+   *
+   * @param primitiveResultMappingEnabled
+   *          true to set primitive properties without boxing
+   * @since 3.5.7
+   */
+  public void setPrimitiveResultMappingEnabled(boolean primitiveResultMappingEnabled) {
+    this.primitiveResultMappingEnabled = primitiveResultMappingEnabled;
+  }
+
+  /**
+   * Gets the asynchronous sql logger, starting it on first use with the configured capacity and sample interval.
+   *
+   * @return the asynchronous sql logger
+   * @since 3.5.7
+   */
+  public AsyncSqlLogger getAsyncSqlLogger() {
+    AsyncSqlLogger logger = asyncSqlLogger;
+    if (logger == null) {
+      asyncSqlLoggerLock.lock();
+      try {
+        logger = asyncSqlLogger;
+        if (logger == null) {
+          logger = new AsyncSqlLogger(asyncSqlLogCapacity, asyncSqlLogSampleInterval);
+          asyncSqlLogger = logger;
+        }
+      } finally {
+        asyncSqlLoggerLock.unlock();
+      }
+    }
+    return logger;
+  }
+
   /**
    * Gets the default result set type.
    *
@@ -766,16 +1479,58 @@ public class Configuration {
 
   public void addMappedStatement(MappedStatement ms) {
     mappedStatements.put(ms.getId(), ms);
+    if (lazyStatementBuildingEnabled) {
+      // the short name may have become ambiguous
+      String id = ms.getId();
+      publishedStatements.remove(id.substring(id.lastIndexOf('.') + 1));
+    }
   }
 
   public Collection<String> getMappedStatementNames() {
     buildAllStatements();
-    return mappedStatements.keySet();
+    if (!lazyStatementBuildingEnabled) {
+      return mappedStatements.keySet();
+    }
+    pendingStatementLock.lock();
+    try {
+      buildAllPendingStatements();
+      // a copy, as statements left incomplete may still be built by other threads
+      return new HashSet<>(mappedStatements.keySet());
+    } finally {
+      pendingStatementLock.unlock();
+    }
   }
 
   public Collection<MappedStatement> getMappedStatements() {
     buildAllStatements();
-    return mappedStatements.values();
+    if (!lazyStatementBuildingEnabled) {
+      return mappedStatements.values();
+    }
+    pendingStatementLock.lock();
+    try {
+      buildAllPendingStatements();
+      return new ArrayList<>(mappedStatements.values());
+    } finally {
+      pendingStatementLock.unlock();
+    }
+  }
+
+  /**
+   * Registers a statement to build on first use.
+   *
+   * @param id
+   *          the statement id, including its namespace
+   * @param statementBuilder
+   *          the builder of the statement
+   * @since 3.5.7
+   */
+  public void addPendingStatement(String id, XMLStatementBuilder statementBuilder) {
+    pendingStatementLock.lock();
+    try {
+      pendingStatements.computeIfAbsent(id, k -> new ArrayList<>()).add(statementBuilder);
+    } finally {
+      pendingStatementLock.unlock();
+    }
   }
 
   public Collection<XMLStatementBuilder> getIncompleteStatements() {
@@ -818,9 +1573,104 @@ public class Configuration {
     if (validateIncompleteStatements) {
       buildAllStatements();
     }
+    if (!lazyStatementBuildingEnabled) {
+      return findMappedStatement(id);
+    }
+    MappedStatement ms = publishedStatements.get(id);
+    if (ms != null) {
+      return ms;
+    }
+    pendingStatementLock.lock();
+    try {
+      buildPendingStatements(id, validateIncompleteStatements);
+      ms = findMappedStatement(id);
+      publishedStatements.put(id, ms);
+      return ms;
+    } finally {
+      pendingStatementLock.unlock();
+    }
+  }
+
+  private MappedStatement findMappedStatement(String id) {
+    if (useDialectPagination && id.endsWith(CountSqlSource.COUNT_SUFFIX) && !mappedStatements.containsKey(id)) {
+      return countMappedStatements.computeIfAbsent(id, this::buildCountMappedStatement);
+    }
     return mappedStatements.get(id);
   }
 
+  private MappedStatement buildCountMappedStatement(String id) {
+    MappedStatement ms = mappedStatements.get(id.substring(0, id.length() - CountSqlSource.COUNT_SUFFIX.length()));
+    Dialect dialect = getDialect();
+    if (dialect == null) {
+      throw new IllegalArgumentException("No dialect is registered for database id '" + databaseId + "', cannot build " + id);
+    }
+    if (ms.getSqlCommandType() != SqlCommandType.SELECT) {
+      throw new IllegalArgumentException("Count statements are only available for select statements, cannot build " + id);
+    }
+    ResultMap resultMap = new ResultMap.Builder(this, id + "-Inline", Long.class, new ArrayList<>(), null).build();
+    return new MappedStatement.Builder(this, id, new CountSqlSource(ms, dialect), SqlCommandType.SELECT)
+        .resource(ms.getResource())
+        .timeout(ms.getTimeout())
+        .statementType(ms.getStatementType())
+        .databaseId(ms.getDatabaseId())
+        .lang(ms.getLang())
+        .parameterMap(ms.getParameterMap())
+        .resultMaps(Collections.singletonList(resultMap))
+        .flushCacheRequired(ms.isFlushCacheRequired())
+        .useCache(ms.isUseCache())
+        .cache(ms.getCache())
+        .build();
+  }
+
+  /**
+   * Reduces the memory retained by the mapped statements, result maps and parameter maps built so far. Identical
+   * strings, mappings and collections are shared, and static sql sources keep only their sql and parameter mappings.
+   * Once no statement is left to build, the sql fragments are released along with the XML documents they hold, so
+   * mappers added afterwards cannot include fragments of the mappers loaded before.
+   * <p>
+   * Statements behave exactly as before. This method must not be called while statements are executed.
+   *
+   * @since 3.5.7
+   * @see MappingCompactor
+   */
+  public void compact() {
+    pendingStatementLock.lock();
+    try {
+      MappingCompactor compactor = new MappingCompactor();
+      for (Object value : parameterMaps.values()) {
+        if (value instanceof ParameterMap) {
+          compactor.compact((ParameterMap) value);
+        }
+      }
+      for (Object value : resultMaps.values()) {
+        if (value instanceof ResultMap) {
+          compactor.compact((ResultMap) value);
+        }
+      }
+      for (Object value : mappedStatements.values()) {
+        if (value instanceof MappedStatement) {
+          compactor.compact((MappedStatement) value);
+        }
+      }
+      if (pendingStatements.isEmpty() && incompleteStatements.isEmpty() && incompleteResultMaps.isEmpty()
+          && incompleteCacheRefs.isEmpty() && incompleteMethods.isEmpty()) {
+        sqlFragments.clear();
+      }
+    } finally {
+      pendingStatementLock.unlock();
+    }
+  }
+
+  /**
+   * Estimates the heap retained by the result maps, mapped statements and sql fragments.
+   *
+   * @return the heap report
+   * @since 3.5.7
+   */
+  public HeapReport getHeapReport() {
+    return HeapReport.of(this);
+  }
+
   public Map<String, XNode> getSqlFragments() {
     return sqlFragments;
   }
@@ -857,7 +1707,74 @@ public class Configuration {
     if (validateIncompleteStatements) {
       buildAllStatements();
     }
-    return mappedStatements.containsKey(statementName);
+    if (!lazyStatementBuildingEnabled) {
+      return mappedStatements.containsKey(statementName);
+    }
+    if (publishedStatements.containsKey(statementName)) {
+      return true;
+    }
+    pendingStatementLock.lock();
+    try {
+      buildPendingStatements(statementName, validateIncompleteStatements);
+      return mappedStatements.containsKey(statementName);
+    } finally {
+      pendingStatementLock.unlock();
+    }
+  }
+
+  /**
+   * Builds the pending statements a statement lookup may refer to: the statement itself, the statement a select key or
+   * count statement belongs to, or all statements with the same short name. Must be called with the pending statement
+   * lock held.
+   */
+  private void buildPendingStatements(String id, boolean throwIncomplete) {
+    if (pendingStatements.isEmpty()) {
+      return;
+    }
+    String statementId = id;
+    if (statementId.endsWith(SelectKeyGenerator.SELECT_KEY_SUFFIX)) {
+      statementId = statementId.substring(0, statementId.length() - SelectKeyGenerator.SELECT_KEY_SUFFIX.length());
+    } else if (statementId.endsWith(CountSqlSource.COUNT_SUFFIX)) {
+      statementId = statementId.substring(0, statementId.length() - CountSqlSource.COUNT_SUFFIX.length());
+    }
+    if (pendingStatements.containsKey(statementId)) {
+      buildPendingStatement(statementId, throwIncomplete);
+    } else if (statementId.indexOf('.') < 0) {
+      String suffix = "." + statementId;
+      for (String pendingId : new ArrayList<>(pendingStatements.keySet())) {
+        if (pendingId.endsWith(suffix)) {
+          buildPendingStatement(pendingId, throwIncomplete);
+        }
+      }
+    }
+  }
+
+  private void buildPendingStatement(String id, boolean throwIncomplete) {
+    // removed first, as building looks up the statement again to apply its database id
+    List<XMLStatementBuilder> builders = pendingStatements.remove(id);
+    for (int i = 0; i < builders.size(); i++) {
+      try {
+        builders.get(i).parseStatementNode();
+      } catch (IncompleteElementException e) {
+        // keep it for a later lookup, when the missing element may have been added
+        pendingStatements.put(id, new ArrayList<>(builders.subList(i, builders.size())));
+        if (throwIncomplete) {
+          throw e;
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Builds every pending statement. Must be called with the pending statement lock held.
+   */
+  private void buildAllPendingStatements() {
+    for (String id : new ArrayList<>(pendingStatements.keySet())) {
+      if (pendingStatements.containsKey(id)) {
+        buildPendingStatement(id, true);
+      }
+    }
   }
 
   public void addCacheRef(String namespace, String referencedNamespace) {
@@ -970,6 +1887,8 @@ public class Configuration {
   protected static class StrictMap<V> extends HashMap<String, V> {
 
     private static final long serialVersionUID = -4950446264854982944L;
+    // marks every ambiguous short name, which is reported under the name it is looked up by
+    private static final Ambiguity AMBIGUITY = new Ambiguity("short name");
     private final String name;
     private BiFunction<V, V, String> conflictMessageProducer;
 
@@ -1018,7 +1937,7 @@ public class Configuration {
         if (super.get(shortKey) == null) {
           super.put(shortKey, value);
         } else {
-          super.put(shortKey, (V) new Ambiguity(shortKey));
+          super.put(shortKey, (V) AMBIGUITY);
         }
       }
       return super.put(key, value);
@@ -1031,7 +1950,7 @@ public class Configuration {
         throw new IllegalArgumentException(name + " does not contain value for " + key);
       }
       if (value instanceof Ambiguity) {
-        throw new IllegalArgumentException(((Ambiguity) value).getSubject() + " is ambiguous in " + name
+        throw new IllegalArgumentException(key + " is ambiguous in " + name
             + " (try using the full name including the namespace, or rename one of the entries)");
       }
       return value;
@@ -0,0 +1,315 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.type.TypeHandler;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * An estimate of the heap retained by the result maps, mapped statements and sql fragments of a configuration.
+ * <p>
+ * Sizes assume a 64-bit JVM with compressed references. Objects shared with the rest of the application, like the
+ * configuration, classes, type handlers, caches and loggers, are not counted, and an object reachable from several
+ * entries is counted once, in the first entry that reaches it: result maps are measured before the statements that
+ * use them.
+ *
+ * @since 3.5.7
+ * @see Configuration#getHeapReport()
+ */
+public final class HeapReport {
+
+  private final List<Entry> entries;
+  private final long totalBytes;
+
+  private HeapReport(List<Entry> entries) {
+    entries.sort(Comparator.comparingLong(Entry::getBytes).reversed());
+    this.entries = Collections.unmodifiableList(entries);
+    long total = 0;
+    for (Entry entry : entries) {
+      total += entry.getBytes();
+    }
+    this.totalBytes = total;
+  }
+
+  /**
+   * Measures the result maps, mapped statements and sql fragments of a configuration. Statements that are not built
+   * yet are not measured.
+   *
+   * @param configuration
+   *          the configuration
+   * @return the report
+   */
+  public static HeapReport of(Configuration configuration) {
+    Estimator estimator = new Estimator();
+    List<Entry> entries = new ArrayList<>();
+    for (Object value : configuration.resultMaps.values()) {
+      if (value instanceof ResultMap && estimator.isNew(value)) {
+        ResultMap resultMap = (ResultMap) value;
+        entries.add(new Entry(resultMap.getId(), "resultMap", estimator.sizeOf(resultMap)));
+      }
+    }
+    for (Object value : configuration.mappedStatements.values()) {
+      if (value instanceof MappedStatement && estimator.isNew(value)) {
+        MappedStatement mappedStatement = (MappedStatement) value;
+        entries.add(new Entry(mappedStatement.getId(), "statement", estimator.sizeOf(mappedStatement)));
+      }
+    }
+    long fragmentBytes = 0;
+    for (Object value : configuration.sqlFragments.values()) {
+      if (value instanceof XNode) {
+        fragmentBytes += estimator.sizeOfFragment((XNode) value);
+      }
+    }
+    if (fragmentBytes > 0) {
+      entries.add(new Entry("sqlFragments", "documents", fragmentBytes));
+    }
+    return new HeapReport(entries);
+  }
+
+  /**
+   * Returns the entries, largest first.
+   *
+   * @return the entries
+   */
+  public List<Entry> getEntries() {
+    return entries;
+  }
+
+  public long getTotalBytes() {
+    return totalBytes;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("%,14d bytes in %d entries%n", totalBytes, entries.size()));
+    for (Entry entry : entries) {
+      sb.append(String.format("%,14d  %-10s %s%n", entry.getBytes(), entry.getKind(), entry.getName()));
+    }
+    return sb.toString();
+  }
+
+  public static final class Entry {
+
+    private final String name;
+    private final String kind;
+    private final long bytes;
+
+    Entry(String name, String kind, long bytes) {
+      this.name = name;
+      this.kind = kind;
+      this.bytes = bytes;
+    }
+
+    /**
+     * Returns the id of the result map or statement.
+     *
+     * @return the name
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the kind of the entry: {@code resultMap}, {@code statement} or {@code documents}.
+     *
+     * @return the kind
+     */
+    public String getKind() {
+      return kind;
+    }
+
+    public long getBytes() {
+      return bytes;
+    }
+
+    @Override
+    public String toString() {
+      return kind + " " + name + ": " + bytes + " bytes";
+    }
+  }
+
+  private static class Estimator {
+
+    private static final int HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final Class<?>[] SHARED_TYPES = { Configuration.class, Class.class, Enum.class, TypeHandler.class,
+        Log.class, LanguageDriver.class, KeyGenerator.class, Cache.class, ObjectFactory.class, Properties.class };
+
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Class<?>, List<Field>> fields = new HashMap<>();
+
+    boolean isNew(Object object) {
+      return !visited.contains(object);
+    }
+
+    long sizeOf(Object object) {
+      if (object == null || isShared(object) || !visited.add(object)) {
+        return 0;
+      }
+      if (object instanceof String) {
+        return align(HEADER + 12) + align(ARRAY_HEADER + ((String) object).length());
+      }
+      if (object instanceof Collection) {
+        Collection<?> collection = (Collection<?>) object;
+        long size = align(HEADER + 12) + align(ARRAY_HEADER + (long) REFERENCE * collection.size());
+        if (object instanceof Set) {
+          size += 32L * collection.size();
+        }
+        for (Object element : collection) {
+          size += sizeOf(element);
+        }
+        return size;
+      }
+      if (object instanceof Map) {
+        Map<?, ?> map = (Map<?, ?>) object;
+        long size = align(HEADER + 36) + align(ARRAY_HEADER + (long) REFERENCE * map.size() * 4 / 3)
+            + 32L * map.size();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+          size += sizeOf(entry.getKey()) + sizeOf(entry.getValue());
+        }
+        return size;
+      }
+      if (object instanceof AtomicLongArray) {
+        return align(HEADER + REFERENCE) + align(ARRAY_HEADER + 8L * ((AtomicLongArray) object).length());
+      }
+      Class<?> type = object.getClass();
+      if (type.isArray()) {
+        return sizeOfArray(object);
+      }
+      long size = HEADER;
+      for (Field field : getFields(type)) {
+        Class<?> fieldType = field.getType();
+        size += fieldType.isPrimitive() ? primitiveSize(fieldType) : REFERENCE;
+        if (!fieldType.isPrimitive() && isMyBatisType(field.getDeclaringClass())) {
+          try {
+            size += sizeOf(field.get(object));
+          } catch (IllegalAccessException | RuntimeException e) {
+            // not accessible, counted as a reference only
+          }
+        }
+      }
+      return align(size);
+    }
+
+    long sizeOfFragment(XNode fragment) {
+      Node document = fragment.getNode().getOwnerDocument();
+      if (document == null) {
+        document = fragment.getNode();
+      }
+      return visited.add(document) ? sizeOfNode(document) : 0;
+    }
+
+    private long sizeOfNode(Node node) {
+      long size = 64 + (node.getNodeValue() == null ? 0 : align(ARRAY_HEADER + node.getNodeValue().length()));
+      NamedNodeMap attributes = node.getAttributes();
+      if (attributes != null) {
+        for (int i = 0; i < attributes.getLength(); i++) {
+          size += sizeOfNode(attributes.item(i));
+        }
+      }
+      for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+        size += sizeOfNode(child);
+      }
+      return size;
+    }
+
+    private long sizeOfArray(Object array) {
+      Class<?> componentType = array.getClass().getComponentType();
+      int length = Array.getLength(array);
+      if (componentType.isPrimitive()) {
+        return align(ARRAY_HEADER + (long) primitiveSize(componentType) * length);
+      }
+      long size = align(ARRAY_HEADER + (long) REFERENCE * length);
+      for (Object element : (Object[]) array) {
+        size += sizeOf(element);
+      }
+      return size;
+    }
+
+    private boolean isShared(Object object) {
+      for (Class<?> type : SHARED_TYPES) {
+        if (type.isInstance(object)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private List<Field> getFields(Class<?> type) {
+      return fields.computeIfAbsent(type, k -> {
+        List<Field> list = new ArrayList<>();
+        for (Class<?> c = k; c != null && c != Object.class; c = c.getSuperclass()) {
+          for (Field field : c.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+              if (isMyBatisType(c)) {
+                field.setAccessible(true);
+              }
+              list.add(field);
+            }
+          }
+        }
+        return list;
+      });
+    }
+
+    private static boolean isMyBatisType(Class<?> type) {
+      return type.getName().startsWith("org.apache.ibatis.");
+    }
+
+    private static int primitiveSize(Class<?> type) {
+      if (type == long.class || type == double.class) {
+        return 8;
+      } else if (type == int.class || type == float.class) {
+        return 4;
+      } else if (type == short.class || type == char.class) {
+        return 2;
+      } else {
+        return 1;
+      }
+    }
+
+    private static long align(long size) {
+      return (size + 7) & ~7L;
+    }
+  }
+
+}
@@ -193,6 +193,18 @@ public interface SqlSession extends Closeable {
    */
   int insert(String statement, Object parameter);
 
+  /**
+   * Load many rows with an insert statement through the first bulk sink of the configuration that supports the
+   * connection, such as PostgreSQL {@code COPY}. The statement must be of the form
+   * {@code INSERT INTO table (columns) VALUES (?, ...)}. Pending batched statements are flushed first, the caches are
+   * flushed as for an update, and generated keys are not assigned to the parameter objects.
+   * @param statement Unique identifier matching the insert statement to load the rows with.
+   * @param parameters The parameter object of each row, such as a list or a {@link Cursor}.
+   * @return long The number of rows loaded.
+   * @since 3.5.7
+   */
+  long bulkLoad(String statement, Iterable<?> parameters);
+
   /**
    * Execute an update statement. The number of rows affected will be returned.
    * @param statement Unique identifier matching the statement to execute.
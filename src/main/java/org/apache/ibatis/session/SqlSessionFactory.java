@@ -17,6 +17,9 @@ package org.apache.ibatis.session;
 
 import java.sql.Connection;
 
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.KeysetCursor;
+
 /**
  * Creates an {@link SqlSession} out of a connection or a DataSource
  *
@@ -42,4 +45,28 @@ public interface SqlSessionFactory {
 
   Configuration getConfiguration();
 
+  /**
+   * Opens a cursor that reads the statement page by page using keyset pagination.
+   * Each page is fetched with {@code WHERE keyColumn > ?} in its own session, so no connection or transaction is
+   * held between pages.
+   *
+   * @param <T>
+   *          the returned cursor element type
+   * @param statement
+   *          Unique identifier matching the statement to use
+   * @param parameter
+   *          A parameter object to pass to the statement
+   * @param keyColumn
+   *          A unique column the pages are ordered by
+   * @param keyProperty
+   *          The property of the result objects holding the key column value
+   * @param pageSize
+   *          The maximum number of rows fetched per page
+   * @return Cursor of mapped objects
+   * @since 3.5.7
+   */
+  default <T> Cursor<T> openKeysetCursor(String statement, Object parameter, String keyColumn, String keyProperty, int pageSize) {
+    return new KeysetCursor<>(getConfiguration(), statement, parameter, keyColumn, keyProperty, pageSize);
+  }
+
 }
@@ -89,6 +89,8 @@ public class SqlSessionFactoryBuilder {
   }
 
   public SqlSessionFactory build(Configuration config) {
+    // the configuration is complete, resolve the type handlers once rather than on every lookup
+    config.getTypeHandlerRegistry().freeze();
     return new DefaultSqlSessionFactory(config);
   }
 
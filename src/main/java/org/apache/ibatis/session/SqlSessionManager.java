@@ -236,6 +236,11 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionProxy.insert(statement, parameter);
   }
 
+  @Override
+  public long bulkLoad(String statement, Iterable<?> parameters) {
+    return sqlSessionProxy.bulkLoad(statement, parameters);
+  }
+
   @Override
   public int update(String statement) {
     return sqlSessionProxy.update(statement);
@@ -184,6 +184,19 @@ public class DefaultSqlSession implements SqlSession {
     return update(statement, parameter);
   }
 
+  @Override
+  public long bulkLoad(String statement, Iterable<?> parameters) {
+    try {
+      dirty = true;
+      MappedStatement ms = configuration.getMappedStatement(statement);
+      return executor.bulkLoad(ms, parameters);
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error bulk loading.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
   @Override
   public int update(String statement) {
     return update(statement, null);
@@ -0,0 +1,35 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.type;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A type handler that can also read columns as {@code byte} values, without boxing them.
+ * <p>
+ * Like {@link ResultSet#getByte(String)}, the methods return {@code 0} for SQL NULL, which the caller detects with
+ * {@link ResultSet#wasNull()} right after the call.
+ *
+ * @since 3.5.7
+ */
+public interface ByteResultHandler extends TypeHandler<Byte> {
+
+  byte getByteResult(ResultSet rs, String columnName) throws SQLException;
+
+  byte getByteResult(ResultSet rs, int columnIndex) throws SQLException;
+
+}
@@ -33,6 +33,7 @@ import java.time.Year;
 import java.time.YearMonth;
 import java.time.ZonedDateTime;
 import java.time.chrono.JapaneseDate;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -61,6 +62,15 @@ public final class TypeHandlerRegistry {
 
   private static final Map<JdbcType, TypeHandler<?>> NULL_TYPE_HANDLER_MAP = Collections.emptyMap();
 
+  private static final JdbcType[] JDBC_TYPES = JdbcType.values();
+  private static final TypeHandler<?>[] NO_TYPE_HANDLERS = new TypeHandler<?>[JDBC_TYPES.length + 1];
+
+  /**
+   * The handlers resolved for every jdbc type by java type once the registry is frozen, indexed by the ordinal of the
+   * jdbc type plus one, with the handler for no jdbc type at index 0. A null element is a resolved negative result.
+   */
+  private volatile Map<Type, TypeHandler<?>[]> resolvedTypeHandlers;
+
   private Class<? extends TypeHandler> defaultEnumTypeHandler = EnumTypeHandler.class;
 
   /**
@@ -187,6 +197,68 @@ public final class TypeHandlerRegistry {
    */
   public void setDefaultEnumTypeHandler(Class<? extends TypeHandler> typeHandler) {
     this.defaultEnumTypeHandler = typeHandler;
+    updateResolvedTypeHandlers(null);
+  }
+
+  /**
+   * Resolves the handler of every registered java type for every jdbc type up front, so that later lookups are a
+   * single hash probe and an array access instead of a walk of the jdbc type maps, enum interfaces and superclasses.
+   * Types that are not registered are resolved for all jdbc types on their first lookup, including when no handler is
+   * found. An enum registered with the default enum handler on its first lookup only adds its own handlers.
+   * <p>
+   * Handlers may still be registered afterwards, which resolves the handlers of the registered types again.
+   *
+   * @since 3.5.7
+   */
+  public void freeze() {
+    Map<Type, TypeHandler<?>[]> resolved = new ConcurrentHashMap<>();
+    for (Type type : new ArrayList<>(typeHandlerMap.keySet())) {
+      resolved.put(type, resolveTypeHandlers(type));
+    }
+    resolvedTypeHandlers = resolved;
+  }
+
+  /**
+   * Returns whether the handlers are resolved through the table built by {@link #freeze()}.
+   *
+   * @return true if the registry is frozen
+   * @since 3.5.7
+   */
+  public boolean isFrozen() {
+    return resolvedTypeHandlers != null;
+  }
+
+  boolean isResolved(Type type) {
+    Map<Type, TypeHandler<?>[]> resolved = resolvedTypeHandlers;
+    return resolved != null && resolved.containsKey(type);
+  }
+
+  /**
+   * Keeps the resolved handlers in line with a registration, if the registry is frozen. A registration for an enum
+   * only affects the enum and the classes of its constants, whose handlers are resolved again on their next lookup.
+   * Any other registration may affect the subclasses or enums of the type, so the whole table is resolved again.
+   */
+  private void updateResolvedTypeHandlers(Type javaType) {
+    Map<Type, TypeHandler<?>[]> resolved = resolvedTypeHandlers;
+    if (resolved == null) {
+      return;
+    }
+    if (javaType instanceof Class && ((Class<?>) javaType).isEnum()) {
+      resolved.keySet().removeIf(type -> type == javaType
+          || type instanceof Class && ((Class<?>) type).getSuperclass() == javaType);
+    } else {
+      freeze();
+    }
+  }
+
+  private TypeHandler<?>[] resolveTypeHandlers(Type type) {
+    TypeHandler<?>[] handlers = new TypeHandler<?>[JDBC_TYPES.length + 1];
+    boolean found = false;
+    for (int i = 0; i < handlers.length; i++) {
+      handlers[i] = resolveTypeHandler(type, i == 0 ? null : JDBC_TYPES[i - 1]);
+      found |= handlers[i] != null;
+    }
+    return found ? handlers : NO_TYPE_HANDLERS;
   }
 
   public boolean hasTypeHandler(Class<?> javaType) {
@@ -234,6 +306,19 @@ public final class TypeHandlerRegistry {
     if (ParamMap.class.equals(type)) {
       return null;
     }
+    Map<Type, TypeHandler<?>[]> resolved = resolvedTypeHandlers;
+    if (resolved == null) {
+      return (TypeHandler<T>) resolveTypeHandler(type, jdbcType);
+    }
+    TypeHandler<?>[] handlers = resolved.get(type);
+    if (handlers == null) {
+      handlers = resolveTypeHandlers(type);
+      resolved.put(type, handlers);
+    }
+    return (TypeHandler<T>) handlers[jdbcType == null ? 0 : jdbcType.ordinal() + 1];
+  }
+
+  private TypeHandler<?> resolveTypeHandler(Type type, JdbcType jdbcType) {
     Map<JdbcType, TypeHandler<?>> jdbcHandlerMap = getJdbcHandlerMap(type);
     TypeHandler<?> handler = null;
     if (jdbcHandlerMap != null) {
@@ -246,8 +331,7 @@ public final class TypeHandlerRegistry {
         handler = pickSoleHandler(jdbcHandlerMap);
       }
     }
-    // type drives generics here
-    return (TypeHandler<T>) handler;
+    return handler;
   }
 
   private Map<JdbcType, TypeHandler<?>> getJdbcHandlerMap(Type type) {
@@ -396,6 +480,7 @@ public final class TypeHandlerRegistry {
       }
       map.put(jdbcType, handler);
       typeHandlerMap.put(javaType, map);
+      updateResolvedTypeHandlers(javaType);
     }
     allTypeHandlersMap.put(handler.getClass(), handler);
   }
@@ -90,6 +90,20 @@ public class UnknownTypeHandler extends BaseTypeHandler<Object> {
     return cs.getObject(columnIndex);
   }
 
+  /**
+   * Resolves the handler this handler reads a column of a result set with, from the metadata of the result set.
+   *
+   * @param rs
+   *          the result set
+   * @param columnName
+   *          the column name
+   * @return the handler of the column
+   * @since 3.5.7
+   */
+  public TypeHandler<?> getColumnTypeHandler(ResultSet rs, String columnName) {
+    return resolveTypeHandler(rs, columnName);
+  }
+
   private TypeHandler<?> resolveTypeHandler(Object parameter, JdbcType jdbcType) {
     TypeHandler<?> handler;
     if (parameter == null) {
@@ -0,0 +1,122 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.apache.ibatis.builder.xml.MapperSnapshot;
+import org.apache.ibatis.builder.xml.XMLConfigBuilder;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MapperSnapshotTest {
+
+  private Path directory;
+  private Path snapshotFile;
+  private Path personMapper;
+  private Path petMapper;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    directory = Files.createTempDirectory("mapper-snapshot");
+    snapshotFile = directory.resolve("mappers.snapshot");
+    personMapper = directory.resolve("PersonMapper.xml");
+    petMapper = directory.resolve("PetMapper.xml");
+    writeMapper(personMapper, "PersonMapper", "select * from person where id = #{id}");
+    writeMapper(petMapper, "PetMapper", "select * from pet where id = #{id}");
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+    }
+  }
+
+  @Test
+  void shouldReuseUnchangedMappersAndReparseChangedOnes() throws IOException {
+    Configuration first = build();
+    assertTrue(Files.exists(snapshotFile));
+    assertFalse(first.getMapperSnapshot().isModified());
+
+    Configuration second = build();
+    // every mapper was served from the snapshot, so nothing needs to be written
+    assertFalse(second.getMapperSnapshot().isModified());
+    assertEquals(sql(first, "PersonMapper.select"), sql(second, "PersonMapper.select"));
+    assertEquals("select * from pet where id = ?", sql(second, "PetMapper.select"));
+
+    writeMapper(petMapper, "PetMapper", "select * from pet where owner_id = #{id}");
+    Configuration third = build();
+    assertEquals("select * from pet where owner_id = ?", sql(third, "PetMapper.select"));
+    assertEquals("select * from person where id = ?", sql(third, "PersonMapper.select"));
+
+    MapperSnapshot snapshot = MapperSnapshot.load(snapshotFile);
+    byte[] content = Files.readAllBytes(petMapper);
+    assertTrue(snapshot.getDocument(petMapper.toUri().toURL().toString(), content) != null);
+  }
+
+  @Test
+  void shouldIgnoreACorruptSnapshot() throws IOException {
+    Files.write(snapshotFile, new byte[] { 1, 2, 3 });
+    MapperSnapshot snapshot = MapperSnapshot.load(snapshotFile);
+    assertNull(snapshot.getDocument("PersonMapper.xml", Files.readAllBytes(personMapper)));
+
+    Configuration configuration = build();
+    assertEquals("select * from person where id = ?", sql(configuration, "PersonMapper.select"));
+    assertTrue(MapperSnapshot.load(snapshotFile).getDocument(personMapper.toUri().toURL().toString(),
+        Files.readAllBytes(personMapper)) != null);
+  }
+
+  private Configuration build() throws IOException {
+    String config = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>"
+        + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">"
+        + "<configuration>"
+        + "<settings><setting name=\"mapperSnapshot\" value=\"" + snapshotFile + "\" /></settings>"
+        + "<mappers>"
+        + "<mapper url=\"" + personMapper.toUri().toURL() + "\" />"
+        + "<mapper url=\"" + petMapper.toUri().toURL() + "\" />"
+        + "</mappers>"
+        + "</configuration>";
+    return new XMLConfigBuilder(new StringReader(config)).parse();
+  }
+
+  private String sql(Configuration configuration, String statement) {
+    return configuration.getMappedStatement(statement).getBoundSql(1).getSql();
+  }
+
+  private void writeMapper(Path file, String namespace, String select) throws IOException {
+    String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+        + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+        + "<mapper namespace=\"" + namespace + "\">\n"
+        + "  <select id=\"select\" resultType=\"map\"><![CDATA[" + select + "]]></select>\n"
+        + "</mapper>\n";
+    Files.write(file, xml.getBytes(StandardCharsets.UTF_8));
+  }
+
+}
@@ -0,0 +1,103 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Measures the startup cost of parsing a generated corpus of mapper files with the DOM and the StAX front-ends.
+ * <p>
+ * This is not a unit test and is not run by the build. Run its {@code main} method from the test class path, with the
+ * number of mappers as an optional argument (1,000 by default).
+ */
+public final class StaxMapperParsingBenchmark {
+
+  private static final int DEFAULT_MAPPERS = 1000;
+  private static final int ROUNDS = 5;
+
+  private StaxMapperParsingBenchmark() {
+  }
+
+  public static void main(String[] args) {
+    int mappers = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MAPPERS;
+    byte[][] corpus = generateCorpus(mappers);
+    // warm up both front-ends before measuring
+    build(corpus, false);
+    build(corpus, true);
+    for (int round = 1; round <= ROUNDS; round++) {
+      long start = System.nanoTime();
+      Configuration dom = build(corpus, false);
+      long domMillis = (System.nanoTime() - start) / 1_000_000;
+      start = System.nanoTime();
+      Configuration stax = build(corpus, true);
+      long staxMillis = (System.nanoTime() - start) / 1_000_000;
+      if (dom.getMappedStatementNames().size() != stax.getMappedStatementNames().size()) {
+        throw new IllegalStateException("The front-ends built different statements.");
+      }
+      System.out.println("Round " + round + ", " + mappers + " mappers: DOM " + domMillis + " ms, StAX "
+          + staxMillis + " ms");
+    }
+  }
+
+  private static Configuration build(byte[][] corpus, boolean stax) {
+    Configuration configuration = new Configuration();
+    configuration.setStaxMapperParsingEnabled(stax);
+    for (int i = 0; i < corpus.length; i++) {
+      String resource = "generated/Mapper" + i + ".xml";
+      new XMLMapperBuilder(new ByteArrayInputStream(corpus[i]), configuration, resource,
+          configuration.getSqlFragments()).parse();
+    }
+    return configuration;
+  }
+
+  private static byte[][] generateCorpus(int mappers) {
+    byte[][] corpus = new byte[mappers][];
+    for (int i = 0; i < mappers; i++) {
+      String table = "table" + i;
+      String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+          + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+          + "<mapper namespace=\"generated.Mapper" + i + "\">\n"
+          + "  <resultMap id=\"result\" type=\"map\">\n"
+          + "    <id property=\"id\" column=\"id\" />\n"
+          + "    <result property=\"name\" column=\"name\" />\n"
+          + "    <result property=\"created\" column=\"created\" />\n"
+          + "  </resultMap>\n"
+          + "  <sql id=\"columns\">id, name, created</sql>\n"
+          + "  <select id=\"select\" resultMap=\"result\">\n"
+          + "    select <include refid=\"columns\" /> from " + table + "\n"
+          + "    <where>\n"
+          + "      <if test=\"id != null\">id = #{id}</if>\n"
+          + "      <if test=\"name != null\"><![CDATA[ and name <> #{name} ]]></if>\n"
+          + "    </where>\n"
+          + "  </select>\n"
+          + "  <insert id=\"insert\">insert into " + table + " (id, name) values (#{id}, #{name})</insert>\n"
+          + "  <update id=\"update\">\n"
+          + "    update " + table + "\n"
+          + "    <set><if test=\"name != null\">name = #{name},</if></set>\n"
+          + "    where id = #{id}\n"
+          + "  </update>\n"
+          + "  <delete id=\"delete\">delete from " + table + " where id = #{id}</delete>\n"
+          + "</mapper>\n";
+      corpus[i] = xml.getBytes(StandardCharsets.UTF_8);
+    }
+    return corpus;
+  }
+
+}
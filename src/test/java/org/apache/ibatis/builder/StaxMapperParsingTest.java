@@ -0,0 +1,91 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class StaxMapperParsingTest {
+
+  private static final String MAPPER = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n"
+      + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+      + "<mapper namespace=\"stax.Mapper\">\n"
+      + "  <resultMap id=\"result\" type=\"map\">\n"
+      + "    <id property=\"id\" column=\"id\" />\n"
+      + "    <result property=\"name\" column=\"name\" />\n"
+      + "  </resultMap>\n"
+      + "  <sql id=\"columns\">id, name</sql>\n"
+      + "  <select id=\"select\" resultMap=\"result\">\n"
+      + "    select <include refid=\"columns\" /> from users\n"
+      + "    <where>\n"
+      + "      <if test=\"id != null\">id = #{id}</if>\n"
+      + "      <if test=\"name != null\"><![CDATA[ and name <> #{name} ]]></if>\n"
+      + "    </where>\n"
+      + "  </select>\n"
+      + "  <insert id=\"insert\">insert into users (id, name) values (#{id}, #{name})</insert>\n"
+      + "  <update id=\"update\">\n"
+      + "    update users\n"
+      + "    <set><if test=\"name != null\">name = #{name},</if></set>\n"
+      + "    where id = #{id}\n"
+      + "  </update>\n"
+      + "  <delete id=\"delete\">delete from users where id = #{id}</delete>\n"
+      + "</mapper>\n";
+
+  @Test
+  void shouldBuildTheSameStatementsAsTheDomParser() {
+    Configuration dom = build(false);
+    Configuration stax = build(true);
+
+    assertEquals(dom.getMappedStatementNames(), stax.getMappedStatementNames());
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("id", 1);
+    parameter.put("name", "a");
+    for (String id : new String[] { "select", "insert", "update", "delete" }) {
+      MappedStatement expected = dom.getMappedStatement("stax.Mapper." + id);
+      MappedStatement actual = stax.getMappedStatement("stax.Mapper." + id);
+      assertEquals(expected.getSqlCommandType(), actual.getSqlCommandType());
+      BoundSql expectedSql = expected.getBoundSql(parameter);
+      BoundSql actualSql = actual.getBoundSql(parameter);
+      assertEquals(expectedSql.getSql(), actualSql.getSql());
+      assertEquals(expectedSql.getParameterMappings().size(), actualSql.getParameterMappings().size());
+    }
+
+    ResultMap expected = dom.getResultMap("stax.Mapper.result");
+    ResultMap actual = stax.getResultMap("stax.Mapper.result");
+    assertEquals(expected.getMappedColumns(), actual.getMappedColumns());
+    assertEquals(expected.getMappedProperties(), actual.getMappedProperties());
+  }
+
+  private Configuration build(boolean stax) {
+    Configuration configuration = new Configuration();
+    configuration.setStaxMapperParsingEnabled(stax);
+    new XMLMapperBuilder(new ByteArrayInputStream(MAPPER.getBytes(StandardCharsets.UTF_8)), configuration,
+        "stax/Mapper.xml", configuration.getSqlFragments()).parse();
+    return configuration;
+  }
+
+}
@@ -0,0 +1,84 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.submitted.bulk_load.UpperCaseTypeHandler;
+import org.junit.jupiter.api.Test;
+
+class BulkInsertTest {
+
+  @Test
+  void shouldReadValuesOfEveryParameterClass() {
+    BulkInsert insert = BulkInsert.newInstance(newInsert(), new Author(1, "jim", null, null, "bio", Section.NEWS));
+    assertArrayEquals(new Object[] { 2, "sally", Section.VIDEOS, null },
+        insert.getValues(new Author(2, "sally", null, null, null, Section.VIDEOS)));
+
+    Map<String, Object> row = new HashMap<>();
+    row.put("id", 3);
+    row.put("username", "bob");
+    row.put("favouriteSection", Section.IMAGES);
+    row.put("bio", "bio");
+    assertArrayEquals(new Object[] { 3, "bob", Section.IMAGES, "bio" }, insert.getValues(row));
+  }
+
+  @Test
+  void shouldEncodeKnownTypesDirectlyAndOtherValuesWithTheirTypeHandler() {
+    List<Author> authors = new ArrayList<>();
+    authors.add(new Author(1, "jim", null, null, "first", Section.NEWS));
+    authors.add(new Author(2, "sally", null, null, null, Section.VIDEOS));
+    BulkInsert insert = BulkInsert.newInstance(newInsert(), authors.get(0));
+
+    StringBuilder csv = new StringBuilder();
+    try (CsvRowReader reader = new CsvRowReader(null, insert, authors.iterator())) {
+      char[] buffer = new char[5];
+      int read;
+      while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+        csv.append(buffer, 0, read);
+      }
+      assertEquals(2, reader.getRowCount());
+    }
+    assertEquals("1,\"jim\",\"NEWS\",\"FIRST\"\n2,\"sally\",\"VIDEOS\",\n", csv.toString());
+  }
+
+  private MappedStatement newInsert() {
+    Configuration configuration = new Configuration();
+    List<ParameterMapping> parameterMappings = Arrays.asList(
+        new ParameterMapping.Builder(configuration, "id", Integer.class).build(),
+        new ParameterMapping.Builder(configuration, "username", String.class).build(),
+        new ParameterMapping.Builder(configuration, "favouriteSection", Section.class).build(),
+        new ParameterMapping.Builder(configuration, "bio", new UpperCaseTypeHandler()).build());
+    StaticSqlSource sqlSource = new StaticSqlSource(configuration,
+        "insert into author (id, username, favourite_section, bio) values (?, ?, ?, ?)", parameterMappings);
+    return new MappedStatement.Builder(configuration, "insertAuthor", sqlSource, SqlCommandType.INSERT).build();
+  }
+
+}
@@ -0,0 +1,172 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.junit.jupiter.api.Test;
+
+class ChunkedCursorSpliteratorTest {
+
+  @Test
+  void shouldStreamInEncounterOrder() {
+    CountingCursor cursor = new CountingCursor(1000);
+    List<Integer> values;
+    try (Stream<Integer> stream = cursor.parallelStream(7, 3)) {
+      values = stream.map(i -> i * 2).collect(Collectors.toList());
+    }
+    assertEquals(1000, values.size());
+    for (int i = 0; i < values.size(); i++) {
+      assertEquals(Integer.valueOf(i * 2), values.get(i));
+    }
+    assertEquals(0, cursor.closed.getCount());
+  }
+
+  @Test
+  void shouldKeepSplittingWhileTheReaderProducesChunks() {
+    ChunkedCursorSpliterator<Integer> spliterator = new ChunkedCursorSpliterator<>(new CountingCursor(1000), 10, 2);
+    try {
+      assertEquals(Long.MAX_VALUE, spliterator.estimateSize());
+      List<Integer> values = new ArrayList<>();
+      int splits = 0;
+      Spliterator<Integer> prefix;
+      while ((prefix = spliterator.trySplit()) != null) {
+        assertEquals(10, prefix.estimateSize());
+        prefix.forEachRemaining(values::add);
+        splits++;
+      }
+      assertEquals(100, splits);
+      for (int i = 0; i < values.size(); i++) {
+        assertEquals(Integer.valueOf(i), values.get(i));
+      }
+      assertEquals(0, spliterator.estimateSize());
+      assertFalse(spliterator.tryAdvance(i -> {
+      }));
+    } finally {
+      spliterator.close();
+    }
+  }
+
+  @Test
+  void shouldEstimateTheBufferedRowsOnceTheReaderHasFinished() throws Exception {
+    ChunkedCursorSpliterator<Integer> spliterator = new ChunkedCursorSpliterator<>(new CountingCursor(25), 10, 3);
+    try {
+      assertTrue(spliterator.tryAdvance(i -> {
+      }));
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (spliterator.estimateSize() == Long.MAX_VALUE && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(24, spliterator.estimateSize());
+      assertNotNull(spliterator.trySplit());
+      assertEquals(15, spliterator.estimateSize());
+    } finally {
+      spliterator.close();
+    }
+  }
+
+  @Test
+  void shouldReleaseTheCursorWhenClosedWhileTheReaderIsBlocked() throws Exception {
+    CountingCursor cursor = new CountingCursor(Integer.MAX_VALUE);
+    Stream<Integer> stream = cursor.parallelStream(1, 1);
+    assertEquals(Integer.valueOf(0), stream.findFirst().get());
+    stream.close();
+    assertTrue(cursor.closed.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void shouldEndWhenClosedBeforeReading() {
+    CountingCursor cursor = new CountingCursor(10);
+    ChunkedCursorSpliterator<Integer> spliterator = new ChunkedCursorSpliterator<>(cursor, 2, 1);
+    spliterator.close();
+    assertEquals(0, cursor.closed.getCount());
+    assertFalse(spliterator.tryAdvance(i -> {
+    }));
+    assertNull(spliterator.trySplit());
+  }
+
+  @Test
+  void shouldEndForAConsumerWaitingOnAClosedSpliterator() throws Exception {
+    CountingCursor cursor = new CountingCursor(Integer.MAX_VALUE);
+    ChunkedCursorSpliterator<Integer> spliterator = new ChunkedCursorSpliterator<>(cursor, 1, 1);
+    assertNotNull(spliterator.trySplit());
+    spliterator.close();
+    List<Integer> rest = new ArrayList<>();
+    spliterator.forEachRemaining(rest::add);
+    assertTrue(cursor.closed.await(5, TimeUnit.SECONDS));
+    assertTrue(rest.size() <= 2);
+  }
+
+  private static class CountingCursor implements Cursor<Integer> {
+
+    private final int size;
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private int index = -1;
+
+    CountingCursor(int size) {
+      this.size = size;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return index >= 0 && closed.getCount() > 0;
+    }
+
+    @Override
+    public boolean isConsumed() {
+      return index == size - 1;
+    }
+
+    @Override
+    public int getCurrentIndex() {
+      return index;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+      return new Iterator<Integer>() {
+        @Override
+        public boolean hasNext() {
+          return closed.getCount() > 0 && index < size - 1;
+        }
+
+        @Override
+        public Integer next() {
+          return ++index;
+        }
+      };
+    }
+
+    @Override
+    public void close() {
+      closed.countDown();
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class KeysetCursorTest {
+
+  @Test
+  void shouldLimitPagesWithTheDialect() {
+    Configuration configuration = newConfiguration();
+    configuration.setDatabaseId("hsqldb");
+    KeysetCursor<Object> cursor = new KeysetCursor<>(configuration, "selectUsers", null, "id", "id", 10);
+
+    assertEquals("SELECT * FROM (SELECT id, name FROM users) keyset_page ORDER BY id LIMIT 10",
+        cursor.pageBoundSql(null).getSql());
+    BoundSql next = cursor.pageBoundSql(5);
+    assertEquals("SELECT * FROM (SELECT id, name FROM users) keyset_page WHERE id > ? ORDER BY id LIMIT 10",
+        next.getSql());
+    assertEquals(1, next.getParameterMappings().size());
+    assertEquals(5, next.getAdditionalParameter(next.getParameterMappings().get(0).getProperty()));
+  }
+
+  @Test
+  void shouldLeaveThePageSqlUnlimitedWithoutDialect() {
+    KeysetCursor<Object> cursor = new KeysetCursor<>(newConfiguration(), "selectUsers", null, "id", "id", 10);
+
+    String sql = cursor.pageBoundSql(5).getSql();
+    assertTrue(sql.endsWith("ORDER BY id"), sql);
+  }
+
+  private Configuration newConfiguration() {
+    Configuration configuration = new Configuration();
+    configuration.addMappedStatement(new MappedStatement.Builder(configuration, "selectUsers",
+        new StaticSqlSource(configuration, "SELECT id, name FROM users"), SqlCommandType.SELECT).build());
+    return configuration;
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.dialect;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Test;
+
+class DialectTest {
+
+  private static final String SQL = "select * from users";
+
+  @Test
+  void shouldApplyLimitAndOffset() {
+    Dialect dialect = new LimitOffsetDialect();
+    assertEquals(SQL + " LIMIT 10 OFFSET 20", dialect.getLimitSql(SQL, 20, 10));
+    assertEquals(SQL + " LIMIT 10", dialect.getLimitSql(SQL, RowBounds.NO_ROW_OFFSET, 10));
+    assertEquals(SQL + " OFFSET 20 ROWS", dialect.getLimitSql(SQL, 20, RowBounds.NO_ROW_LIMIT));
+  }
+
+  @Test
+  void shouldApplyMySqlLimit() {
+    Dialect dialect = new MySqlDialect();
+    assertEquals(SQL + " LIMIT 20, 10", dialect.getLimitSql(SQL, 20, 10));
+    assertEquals(SQL + " LIMIT 10", dialect.getLimitSql(SQL, RowBounds.NO_ROW_OFFSET, 10));
+    assertEquals(SQL + " LIMIT 20, 18446744073709551615", dialect.getLimitSql(SQL, 20, RowBounds.NO_ROW_LIMIT));
+  }
+
+  @Test
+  void shouldApplyFetchFirst() {
+    Dialect dialect = new FetchFirstDialect();
+    assertEquals(SQL + " OFFSET 20 ROWS FETCH NEXT 10 ROWS ONLY", dialect.getLimitSql(SQL, 20, 10));
+    assertEquals(SQL + " FETCH NEXT 10 ROWS ONLY", dialect.getLimitSql(SQL, RowBounds.NO_ROW_OFFSET, 10));
+    assertEquals(SQL + " OFFSET 20 ROWS", dialect.getLimitSql(SQL, 20, RowBounds.NO_ROW_LIMIT));
+  }
+
+  @Test
+  void shouldWrapCountQuery() {
+    assertEquals("SELECT COUNT(*) FROM (" + SQL + ") count_source", new LimitOffsetDialect().getCountSql(SQL));
+  }
+
+  @Test
+  void shouldResolveBuiltInDialects() {
+    DialectRegistry registry = new DialectRegistry();
+    assertTrue(registry.getDialect("h2") instanceof LimitOffsetDialect);
+    assertTrue(registry.getDialect("HSQLDB") instanceof LimitOffsetDialect);
+    assertTrue(registry.getDialect("postgresql") instanceof LimitOffsetDialect);
+    assertTrue(registry.getDialect("mysql") instanceof MySqlDialect);
+    assertTrue(registry.getDialect("derby") instanceof FetchFirstDialect);
+    assertNull(registry.getDialect("unknown"));
+    assertNull(registry.getDialect(null));
+  }
+
+}
@@ -0,0 +1,94 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BatchPipelineTest {
+
+  @Test
+  void shouldRunFlushesInOrderOnOneBackgroundThread() throws SQLException {
+    BatchPipeline pipeline = new BatchPipeline(2);
+    List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+    try {
+      for (int i = 0; i < 5; i++) {
+        String sql = "sql" + i;
+        pipeline.submit(results -> {
+          threads.add(Thread.currentThread());
+          results.add(new BatchResult(null, sql));
+        });
+      }
+      List<BatchResult> results = pipeline.await(false);
+      assertEquals(5, results.size());
+      for (int i = 0; i < results.size(); i++) {
+        assertEquals("sql" + i, results.get(i).getSql());
+      }
+      assertNotEquals(Thread.currentThread(), threads.get(0));
+      for (Thread thread : threads) {
+        assertSame(threads.get(0), thread);
+      }
+      assertTrue(pipeline.await(false).isEmpty());
+    } finally {
+      pipeline.close();
+    }
+  }
+
+  @Test
+  void shouldSkipFlushesAfterAFailureAndReportItOnAwait() throws SQLException {
+    BatchPipeline pipeline = new BatchPipeline(1);
+    SQLException failure = new SQLException("failed");
+    try {
+      pipeline.submit(results -> results.add(new BatchResult(null, "first")));
+      pipeline.submit(results -> {
+        throw failure;
+      });
+      pipeline.submit(results -> results.add(new BatchResult(null, "skipped")));
+      pipeline.awaitIdle();
+      assertSame(failure, assertThrows(SQLException.class, () -> pipeline.await(false)));
+      assertTrue(pipeline.await(false).isEmpty());
+    } finally {
+      pipeline.close();
+    }
+  }
+
+  @Test
+  void shouldDiscardTheFailureOnRollback() throws SQLException {
+    BatchPipeline pipeline = new BatchPipeline(1);
+    try {
+      pipeline.submit(results -> results.add(new BatchResult(null, "first")));
+      pipeline.submit(results -> {
+        throw new SQLException("failed");
+      });
+      List<BatchResult> results = pipeline.await(true);
+      assertEquals(1, results.size());
+      assertTrue(pipeline.await(false).isEmpty());
+    } finally {
+      pipeline.close();
+    }
+  }
+
+}
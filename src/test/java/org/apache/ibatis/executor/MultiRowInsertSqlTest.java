@@ -0,0 +1,90 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class MultiRowInsertSqlTest {
+
+  private final Configuration configuration = new Configuration();
+
+  @Test
+  void shouldRepeatTheValuesRow() {
+    assertEquals("insert into users (id, name) values (?, ?), (?, ?)",
+        rewrite("insert into users (id, name) values (?, ?)"));
+  }
+
+  @Test
+  void shouldKeepAnUpsertClauseAfterTheLastRow() {
+    assertEquals("insert into users (id, name) values (?, ?), (?, ?) on duplicate key update name = values(name)",
+        rewrite("insert into users (id, name) values (?, ?) on duplicate key update name = values(name)"));
+    assertEquals("INSERT INTO users (id, name) VALUES (?, ?), (?, ?) ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name",
+        rewrite("INSERT INTO users (id, name) VALUES (?, ?) ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name"));
+  }
+
+  @Test
+  void shouldNotRewriteWhenParametersAreBoundOutsideTheRow() {
+    assertNull(newInstance("insert into users (id, name) values (?, ?) on duplicate key update name = ?"));
+    assertNull(newInstance("insert into users (id, name) select ?, name from users where id = ?"));
+  }
+
+  @Test
+  void shouldNotRewriteStatementsWithSelectKey() {
+    MappedStatement ms = new MappedStatement.Builder(configuration, "insert",
+        new StaticSqlSource(configuration, "insert into users (name) values (?)"), SqlCommandType.INSERT)
+        .keyGenerator(new SelectKeyGenerator(null, false)).build();
+    assertNull(MultiRowInsert.newInstance(ms, ms.getBoundSql(null)));
+  }
+
+  private String rewrite(String sql) {
+    MappedStatement ms = newMappedStatement(sql);
+    BoundSql boundSql = ms.getBoundSql(null);
+    MultiRowInsert insert = MultiRowInsert.newInstance(ms, boundSql);
+    assertNotNull(insert);
+    insert.addRow(Collections.singletonMap("id", 1), boundSql);
+    insert.addRow(Collections.singletonMap("id", 2), boundSql);
+    BoundSql rows = insert.getBoundSql(configuration, 0, 2, null);
+    assertEquals(4, rows.getParameterMappings().size());
+    return rows.getSql();
+  }
+
+  private MultiRowInsert newInstance(String sql) {
+    MappedStatement ms = newMappedStatement(sql);
+    return MultiRowInsert.newInstance(ms, ms.getBoundSql(null));
+  }
+
+  private MappedStatement newMappedStatement(String sql) {
+    return new MappedStatement.Builder(configuration, "insert",
+        new StaticSqlSource(configuration, sql, Arrays.asList(
+            new ParameterMapping.Builder(configuration, "id", Object.class).build(),
+            new ParameterMapping.Builder(configuration, "name", Object.class).build())),
+        SqlCommandType.INSERT).build();
+  }
+}
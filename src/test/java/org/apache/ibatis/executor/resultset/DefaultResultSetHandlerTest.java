@@ -15,9 +15,16 @@
  */
 package org.apache.ibatis.executor.resultset;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.Connection;
@@ -28,6 +35,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -129,6 +137,130 @@ class DefaultResultSetHandlerTest {
     }
   }
 
+  @Test
+  void shouldSetPrimitivePropertiesWithoutBoxing() throws Exception {
+    final Configuration config = new Configuration();
+    config.setPrimitiveResultMappingEnabled(true);
+    final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
+    final ResultMap resultMap = new ResultMap.Builder(config, "primitiveMap", PrimitiveBean.class, Collections
+        .singletonList(new ResultMapping.Builder(config, "id", "ID", registry.getTypeHandler(int.class)).build()))
+        .build();
+    final MappedStatement ms = new MappedStatement.Builder(config, "selectPrimitives",
+        new StaticSqlSource(config, "some select statement"), SqlCommandType.SELECT)
+        .resultMaps(Collections.singletonList(resultMap)).build();
+    final DefaultResultSetHandler resultSetHandler = new DefaultResultSetHandler(null/*executor*/, ms,
+        null/*parameterHandler*/, null/*resultHandler*/, null/*boundSql*/, new RowBounds(0, 100));
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true).thenReturn(false);
+    when(rs.getInt("ID")).thenReturn(7);
+    when(rs.getLong("COUNT")).thenReturn(3L);
+    when(rs.getDouble("RATIO")).thenReturn(0d);
+    when(rs.wasNull()).thenReturn(true);
+    when(rsmd.getColumnCount()).thenReturn(3);
+    when(rsmd.getColumnLabel(1)).thenReturn("ID");
+    when(rsmd.getColumnLabel(2)).thenReturn("COUNT");
+    when(rsmd.getColumnLabel(3)).thenReturn("RATIO");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnType(2)).thenReturn(Types.BIGINT);
+    when(rsmd.getColumnType(3)).thenReturn(Types.DOUBLE);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getCanonicalName());
+    when(rsmd.getColumnClassName(2)).thenReturn(Long.class.getCanonicalName());
+    when(rsmd.getColumnClassName(3)).thenReturn(Double.class.getCanonicalName());
+    when(stmt.getConnection()).thenReturn(conn);
+    when(conn.getMetaData()).thenReturn(dbmd);
+    when(dbmd.supportsMultipleResultSets()).thenReturn(false); // for simplicity.
+
+    final List<Object> results = resultSetHandler.handleResultSets(stmt);
+    assertEquals(1, results.size());
+    final PrimitiveBean bean = (PrimitiveBean) results.get(0);
+    assertEquals(7, bean.getId());
+    assertEquals(3L, bean.getCount());
+    // null column, left unset
+    assertEquals(1.5d, bean.getRatio());
+    verify(rs, times(1)).wasNull();
+  }
+
+  @Test
+  void shouldReadColumnarResult() throws Exception {
+    final Configuration config = new Configuration();
+    final MappedStatement ms = new MappedStatement.Builder(config, "selectColumns",
+        new StaticSqlSource(config, "some select statement"), SqlCommandType.SELECT)
+        .resultMaps(Collections.singletonList(new ResultMap.Builder(config, "columnarMap",
+            config.getTypeAliasRegistry().resolveAlias("columnar"), new ArrayList<>()).build()))
+        .build();
+    final DefaultResultSetHandler resultSetHandler = new DefaultResultSetHandler(null/*executor*/, ms,
+        null/*parameterHandler*/, null/*resultHandler*/, null/*boundSql*/, new RowBounds(0, 100));
+
+    when(stmt.getResultSet()).thenReturn(rs);
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rs.getType()).thenReturn(ResultSet.TYPE_FORWARD_ONLY);
+    when(rs.next()).thenReturn(true).thenReturn(true).thenReturn(false);
+    when(rs.getInt(1)).thenReturn(1).thenReturn(2);
+    when(rs.getString(2)).thenReturn("one").thenReturn(null);
+    when(rs.getDouble(3)).thenReturn(0.5d).thenReturn(0d);
+    when(rs.wasNull()).thenReturn(true);
+    when(rsmd.getColumnCount()).thenReturn(3);
+    when(rsmd.getColumnLabel(1)).thenReturn("ID");
+    when(rsmd.getColumnLabel(2)).thenReturn("NAME");
+    when(rsmd.getColumnLabel(3)).thenReturn("AMOUNT");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnType(2)).thenReturn(Types.VARCHAR);
+    when(rsmd.getColumnType(3)).thenReturn(Types.DOUBLE);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getCanonicalName());
+    when(rsmd.getColumnClassName(2)).thenReturn(String.class.getCanonicalName());
+    when(rsmd.getColumnClassName(3)).thenReturn(Double.class.getCanonicalName());
+    when(stmt.getConnection()).thenReturn(conn);
+    when(conn.getMetaData()).thenReturn(dbmd);
+    when(dbmd.supportsMultipleResultSets()).thenReturn(false); // for simplicity.
+
+    final List<Object> results = resultSetHandler.handleResultSets(stmt);
+    assertEquals(1, results.size());
+    final ColumnarResult result = (ColumnarResult) results.get(0);
+    assertEquals(2, result.getRowCount());
+    assertEquals(Arrays.asList("ID", "NAME", "AMOUNT"), result.getColumnNames());
+    assertArrayEquals(new int[] { 1, 2 }, result.getInts("id"));
+    assertArrayEquals(new String[] { "one", null }, result.getStrings("NAME"));
+    assertArrayEquals(new double[] { 0.5d, 0d }, result.getDoubles("AMOUNT"));
+    assertFalse(result.isNull("AMOUNT", 0));
+    assertTrue(result.isNull("AMOUNT", 1));
+    assertTrue(result.isNull("NAME", 1));
+    verify(rs, times(1)).wasNull();
+    verify(rs, never()).getObject(anyInt());
+  }
+
+  public static class PrimitiveBean {
+    private int id;
+    private long count;
+    private double ratio = 1.5d;
+
+    public int getId() {
+      return id;
+    }
+
+    public void setId(int id) {
+      this.id = id;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public void setCount(long count) {
+      this.count = count;
+    }
+
+    public double getRatio() {
+      return ratio;
+    }
+
+    public void setRatio(double ratio) {
+      this.ratio = ratio;
+    }
+  }
+
   MappedStatement getMappedStatement() {
     final Configuration config = new Configuration();
     final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
@@ -0,0 +1,79 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.type.BooleanTypeHandler;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.LongTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.junit.jupiter.api.Test;
+
+class PrimitivePropertyMappingTest {
+
+  @Test
+  void shouldReadBuiltInHandlersWithoutBoxing() {
+    assertTrue(PrimitivePropertyMapping.readsWithoutBoxing(new IntegerTypeHandler(), int.class));
+    assertTrue(PrimitivePropertyMapping.readsWithoutBoxing(new LongTypeHandler(), long.class));
+    assertTrue(PrimitivePropertyMapping.readsWithoutBoxing(new BooleanTypeHandler(), boolean.class));
+  }
+
+  @Test
+  void shouldOnlyReadTheResultHandlerInterfaceOfThePropertyType() {
+    assertFalse(PrimitivePropertyMapping.readsWithoutBoxing(new IntegerTypeHandler(), long.class));
+    assertFalse(PrimitivePropertyMapping.readsWithoutBoxing(new StringTypeHandler(), int.class));
+  }
+
+  @Test
+  void shouldReadSubclassesThatOverrideBoxedReadsThroughThem() {
+    assertFalse(PrimitivePropertyMapping.readsWithoutBoxing(new OffsetIntegerTypeHandler(), int.class));
+    assertTrue(PrimitivePropertyMapping.readsWithoutBoxing(new OffsetPrimitiveIntegerTypeHandler(), int.class));
+  }
+
+  static class OffsetIntegerTypeHandler extends IntegerTypeHandler {
+
+    @Override
+    public Integer getNullableResult(ResultSet rs, String columnName) throws SQLException {
+      Integer value = super.getNullableResult(rs, columnName);
+      return value == null ? null : value + 1;
+    }
+  }
+
+  static class OffsetPrimitiveIntegerTypeHandler extends OffsetIntegerTypeHandler {
+
+    @Override
+    public Integer getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+      Integer value = super.getNullableResult(rs, columnIndex);
+      return value == null ? null : value + 1;
+    }
+
+    @Override
+    public int getIntResult(ResultSet rs, String columnName) throws SQLException {
+      return rs.getInt(columnName) + 1;
+    }
+
+    @Override
+    public int getIntResult(ResultSet rs, int columnIndex) throws SQLException {
+      return rs.getInt(columnIndex) + 1;
+    }
+  }
+
+}
@@ -26,6 +26,7 @@ import java.sql.Statement;
 
 import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.session.Configuration;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -145,4 +146,61 @@ class BaseStatementHandlerTest {
         verify(statement).setQueryTimeout(10);
     }
 
+    @Test
+    void adaptiveFetchSizeWaitsForEnoughExecutions() throws SQLException {
+        doReturn(true).when(configuration).isAdaptiveFetchSizeEnabled();
+        doReturn(50).when(configuration).getDefaultFetchSize();
+        MappedStatement mappedStatement = new MappedStatement.Builder(configuration, "id", new StaticSqlSource(configuration, "sql"), SqlCommandType.SELECT).build();
+        mappedStatement.getRowCountHistogram().record(1);
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatement, null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(50); // apply the default fetch size
+    }
+
+    @Test
+    void adaptiveFetchSizeFollowsRowCounts() throws SQLException {
+        doReturn(true).when(configuration).isAdaptiveFetchSizeEnabled();
+        MappedStatement mappedStatement = new MappedStatement.Builder(configuration, "id", new StaticSqlSource(configuration, "sql"), SqlCommandType.SELECT).build();
+        for (int i = 0; i < 10; i++) {
+            mappedStatement.getRowCountHistogram().record(1);
+        }
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatement, null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(2); // a single row plus the end of the result set
+    }
+
+    @Test
+    void adaptiveFetchSizeIsCappedByLimit() throws SQLException {
+        doReturn(true).when(configuration).isAdaptiveFetchSizeEnabled();
+        doReturn(100).when(configuration).getAdaptiveFetchSizeLimit();
+        MappedStatement mappedStatement = new MappedStatement.Builder(configuration, "id", new StaticSqlSource(configuration, "sql"), SqlCommandType.SELECT).build();
+        for (int i = 0; i < 10; i++) {
+            mappedStatement.getRowCountHistogram().record(100000);
+        }
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatement, null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(100);
+    }
+
+    @Test
+    void mappedStatementFetchSizeWinsOverAdaptiveFetchSize() throws SQLException {
+        MappedStatement mappedStatement = new MappedStatement.Builder(configuration, "id", new StaticSqlSource(configuration, "sql"), SqlCommandType.SELECT)
+            .fetchSize(30).build();
+        for (int i = 0; i < 10; i++) {
+            mappedStatement.getRowCountHistogram().record(1);
+        }
+
+        BaseStatementHandler handler = new SimpleStatementHandler(null, mappedStatement, null, null, null, null);
+        handler.setFetchSize(statement);
+
+        verify(statement).setFetchSize(30);
+        verify(configuration, never()).isAdaptiveFetchSizeEnabled();
+    }
+
 }
@@ -0,0 +1,148 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+class ClassIndexTest {
+
+  @Test
+  void shouldReadClassFileWithoutLoadingTheClass() throws IOException {
+    ClassFileInfo info = readClassFile(Fixture.class.getName());
+    assertEquals(Fixture.class.getName(), info.getName());
+    assertEquals(ArrayList.class.getName(), info.getSuperName());
+    assertEquals(Collections.singletonList(Serializable.class.getName()), info.getInterfaces());
+    assertEquals(Collections.singletonList(Deprecated.class.getName()), info.getAnnotations());
+
+    ClassFileInfo object = readClassFile(Object.class.getName());
+    assertNull(object.getSuperName());
+    assertTrue(object.getAnnotations().isEmpty());
+  }
+
+  @Test
+  void shouldParseIndexLines() throws IOException {
+    ClassFileInfo info = ClassFileInfo.parse(readClassFile(Fixture.class.getName()).toIndexLine());
+    assertEquals(Fixture.class.getName(), info.getName());
+    assertEquals(ArrayList.class.getName(), info.getSuperName());
+    assertEquals(Collections.singletonList(Serializable.class.getName()), info.getInterfaces());
+    assertEquals(Collections.singletonList(Deprecated.class.getName()), info.getAnnotations());
+  }
+
+  @Test
+  void shouldBuildIndexOfPackagesOfClassesDirectory() throws Exception {
+    Path classesDirectory = Paths.get(ClassIndexTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    ClassIndex index = ClassIndex.build(classesDirectory, "org.apache.ibatis.io");
+    List<String> names = index.getClassNames("org.apache.ibatis.io");
+    assertTrue(names.contains(ClassIndexTest.class.getName()));
+    assertTrue(names.contains(Fixture.class.getName()));
+    assertTrue(index.getClassNames("org.apache.ibatis.session").isEmpty());
+    assertTrue(index.getClassNames("org.apache.ibatis.i").isEmpty());
+  }
+
+  @Test
+  void shouldOnlyTrustTheIndexForItsOwnClassPathEntry() throws IOException {
+    Path directory = Files.createTempDirectory("class-index");
+    try {
+      TreeMap<String, ClassFileInfo> classes = new TreeMap<>();
+      classes.put(DefaultVFS.class.getName(), readClassFile(DefaultVFS.class.getName()));
+      Path file = directory.resolve(ClassIndex.LOCATION);
+      Files.createDirectories(file.getParent());
+      try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+        new ClassIndex(classes, Collections.singletonMap("", Collections.singletonList("org.apache.ibatis.io")))
+            .write(writer);
+      }
+      try (URLClassLoader loader = new URLClassLoader(new URL[] { directory.toUri().toURL() },
+          getClass().getClassLoader())) {
+        ClassIndex index = ClassIndex.getInstance(loader);
+        URL indexedEntry = directory.resolve("org/apache/ibatis/io").toUri().toURL();
+        assertTrue(index.isIndexed(indexedEntry, "org.apache.ibatis.io"));
+        assertTrue(index.isIndexed(indexedEntry, "org.apache.ibatis.io.sub"));
+        assertFalse(index.isIndexed(indexedEntry, "org.apache.ibatis.mapping"));
+        assertFalse(index.isIndexed(ClassIndexTest.class.getResource(""), "org.apache.ibatis.io"));
+
+        // the class path entries of the test classes have no index, so they are still listed
+        ResolverUtil<VFS> resolverUtil = new ResolverUtil<>();
+        resolverUtil.setClassLoader(loader);
+        resolverUtil.findImplementations(VFS.class, "org.apache.ibatis.io");
+        assertTrue(resolverUtil.getClasses().contains(DefaultVFS.class));
+        assertTrue(resolverUtil.getClasses().contains(JBoss6VFS.class));
+      }
+    } finally {
+      try (Stream<Path> files = Files.walk(directory)) {
+        files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+      }
+    }
+  }
+
+  @Test
+  void shouldFindTheSameClassesWithoutLoadingThoseThatCannotMatch() {
+    ResolverUtil<Object> resolverUtil = new ResolverUtil<>();
+    resolverUtil.findImplementations(Serializable.class, "org.apache.ibatis.io");
+    Set<Class<?>> classes = resolverUtil.getClasses();
+    assertTrue(classes.contains(Fixture.class));
+    classes.forEach(type -> assertTrue(Serializable.class.isAssignableFrom(type)));
+
+    ResolverUtil<Object> annotated = new ResolverUtil<>();
+    annotated.findAnnotated(Deprecated.class, "org.apache.ibatis.io");
+    assertTrue(annotated.getClasses().contains(Fixture.class));
+    annotated.getClasses().forEach(type -> assertTrue(type.isAnnotationPresent(Deprecated.class)));
+  }
+
+  @Test
+  void shouldWriteOneLinePerClass() throws IOException {
+    TreeMap<String, ClassFileInfo> classes = new TreeMap<>();
+    classes.put(Fixture.class.getName(), readClassFile(Fixture.class.getName()));
+    StringWriter writer = new StringWriter();
+    new ClassIndex(classes).write(writer);
+    assertEquals(Fixture.class.getName() + "\tjava.util.ArrayList\tjava.io.Serializable\tjava.lang.Deprecated\n",
+        writer.toString());
+  }
+
+  private static ClassFileInfo readClassFile(String className) throws IOException {
+    InputStream in = ClassLoader.getSystemResourceAsStream(className.replace('.', '/') + ".class");
+    return ClassFileInfo.read(in);
+  }
+
+  @Deprecated
+  static class Fixture extends ArrayList<String> implements Serializable {
+    private static final long serialVersionUID = 1L;
+  }
+
+}
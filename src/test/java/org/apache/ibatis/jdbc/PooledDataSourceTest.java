@@ -24,6 +24,9 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.ibatis.BaseDataTest;
@@ -75,6 +78,36 @@ class PooledDataSourceTest extends BaseDataTest {
     }
   }
 
+  @Test
+  void shouldServeManyConcurrentRequestsFromSmallPool() throws Exception {
+    PooledDataSource ds = new PooledDataSource("org.h2.Driver", "jdbc:h2:mem:concurrentpool;DB_CLOSE_DELAY=-1", "sa", "");
+    ds.setPoolMaximumActiveConnections(10);
+    ds.setPoolMaximumIdleConnections(10);
+    ds.setPoolTimeToWait(100);
+    ExecutorService executor = Executors.newFixedThreadPool(200);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 10000; i++) {
+        futures.add(executor.submit(() -> {
+          try (Connection con = ds.getConnection()) {
+            executeQuery(con);
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(1, TimeUnit.MINUTES);
+      }
+      assertEquals(10000, ds.getPoolState().getRequestCount());
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertTrue(ds.getPoolState().getIdleConnectionCount() <= 10);
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+  }
+
   @Test
   void shouldNotFailCallingToStringOverAnInvalidConnection() throws Exception {
     PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
@@ -0,0 +1,181 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.logging.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.logging.Log;
+import org.junit.jupiter.api.Test;
+
+class AsyncSqlLoggerTest {
+
+  @Test
+  void shouldWriteExecutionsInConnectionLoggerFormat() throws Exception {
+    RecordingLog log = new RecordingLog();
+    AsyncSqlLogger logger = new AsyncSqlLogger(16, 1);
+    try {
+      logger.log(log, "select *\n  from users where id = ?", Arrays.asList(1, null));
+      logger.logResult(log, 2, true);
+      logger.log(log, "update users set name = ? where id = ?", Arrays.asList("a", 1L));
+      logger.logResult(log, 1, false);
+      logger.log(log, "insert into users values (?)", Collections.singletonList(3));
+      logger.log(log, "insert into users select * from users_copy", null);
+      assertTrue(logger.flush(5, TimeUnit.SECONDS));
+    } finally {
+      logger.close();
+    }
+    assertEquals(Arrays.asList(
+        "==>  Preparing: select * from users where id = ?",
+        "==> Parameters: 1(Integer), null",
+        "<==      Total: 2",
+        "==>  Preparing: update users set name = ? where id = ?",
+        "==> Parameters: a(String), 1(Long)",
+        "<==    Updates: 1",
+        "==>  Preparing: insert into users values (?)",
+        "==> Parameters: 3(Integer)",
+        "==>  Preparing: insert into users select * from users_copy"), log.messages);
+  }
+
+  @Test
+  void shouldSampleOneOutOfInterval() {
+    AsyncSqlLogger logger = new AsyncSqlLogger(16, 4);
+    try {
+      int sampled = 0;
+      for (int i = 0; i < 20; i++) {
+        if (logger.sample()) {
+          sampled++;
+        }
+      }
+      assertEquals(5, sampled);
+    } finally {
+      logger.close();
+    }
+  }
+
+  @Test
+  void shouldDropEntriesWhenBufferIsFull() throws Exception {
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingLog log = new RecordingLog() {
+      @Override
+      public void debug(String s) {
+        blocked.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        super.debug(s);
+      }
+    };
+    AsyncSqlLogger logger = new AsyncSqlLogger(2, 1);
+    try {
+      logger.log(log, "select 1", Collections.emptyList());
+      assertTrue(blocked.await(5, TimeUnit.SECONDS));
+      // the writer holds the first entry, so two more fill the buffer
+      for (int i = 0; i < 5; i++) {
+        logger.log(log, "select 1", Collections.emptyList());
+      }
+      assertEquals(3, logger.getDroppedCount());
+      release.countDown();
+      assertTrue(logger.flush(5, TimeUnit.SECONDS));
+    } finally {
+      logger.close();
+    }
+    assertEquals(6, log.messages.size());
+  }
+
+  @Test
+  void shouldStopWriterWhileIdle() throws Exception {
+    RecordingLog log = new RecordingLog();
+    AsyncSqlLogger logger = new AsyncSqlLogger(16, 1, 10);
+    try {
+      assertFalse(logger.isWriterRunning());
+      logger.log(log, "select 1", Collections.emptyList());
+      assertTrue(logger.flush(5, TimeUnit.SECONDS));
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (logger.isWriterRunning() && System.nanoTime() < deadline) {
+        Thread.sleep(5);
+      }
+      assertFalse(logger.isWriterRunning());
+      logger.log(log, "select 2", Collections.emptyList());
+      assertTrue(logger.flush(5, TimeUnit.SECONDS));
+    } finally {
+      logger.close();
+    }
+    assertEquals(Arrays.asList(
+        "==>  Preparing: select 1",
+        "==> Parameters: ",
+        "==>  Preparing: select 2",
+        "==> Parameters: "), log.messages);
+  }
+
+  @Test
+  void shouldDropEntriesOnceClosed() throws Exception {
+    RecordingLog log = new RecordingLog();
+    AsyncSqlLogger logger = new AsyncSqlLogger(16, 1);
+    logger.log(log, "select 1", Collections.emptyList());
+    logger.close();
+    logger.log(log, "select 2", Collections.emptyList());
+    assertEquals(1, logger.getDroppedCount());
+  }
+
+  private static class RecordingLog implements Log {
+
+    final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public boolean isDebugEnabled() {
+      return true;
+    }
+
+    @Override
+    public boolean isTraceEnabled() {
+      return false;
+    }
+
+    @Override
+    public void error(String s, Throwable e) {
+    }
+
+    @Override
+    public void error(String s) {
+    }
+
+    @Override
+    public void debug(String s) {
+      messages.add(s);
+    }
+
+    @Override
+    public void trace(String s) {
+    }
+
+    @Override
+    public void warn(String s) {
+    }
+  }
+
+}
@@ -0,0 +1,62 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.mapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class RowCountHistogramTest {
+
+  @Test
+  void shouldCountExecutionsInPowerOfTwoBuckets() {
+    RowCountHistogram histogram = new RowCountHistogram();
+    histogram.record(0);
+    histogram.record(1);
+    histogram.record(2);
+    histogram.record(3);
+    histogram.record(1000);
+
+    long[] counts = histogram.getBucketCounts();
+    assertEquals(5, histogram.getCount());
+    assertEquals(1, counts[0]);
+    assertEquals(1, counts[1]);
+    assertEquals(2, counts[2]);
+    assertEquals(1, counts[10]);
+    assertEquals(1023, RowCountHistogram.getBucketUpperBound(10));
+  }
+
+  @Test
+  void shouldEstimatePercentiles() {
+    RowCountHistogram histogram = new RowCountHistogram();
+    assertEquals(-1, histogram.getPercentile(0.9));
+    for (int i = 0; i < 9; i++) {
+      histogram.record(5);
+    }
+    histogram.record(5000);
+    assertEquals(7, histogram.getPercentile(0.9));
+    assertEquals(8191, histogram.getPercentile(1.0));
+  }
+
+  @Test
+  void shouldReset() {
+    RowCountHistogram histogram = new RowCountHistogram();
+    histogram.record(10);
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+  }
+
+}
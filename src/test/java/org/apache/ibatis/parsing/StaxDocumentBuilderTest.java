@@ -0,0 +1,72 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.parsing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.io.StringReader;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.xml.XMLMapperEntityResolver;
+import org.apache.ibatis.io.Resources;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+class StaxDocumentBuilderTest {
+
+  @Test
+  void shouldBuildTheSameTreeAsTheValidatingParser() throws Exception {
+    String[] resources = { "org/apache/ibatis/builder/AuthorMapper.xml", "org/apache/ibatis/builder/BlogMapper.xml",
+        "org/apache/ibatis/builder/CachedAuthorMapper.xml", "org/apache/ibatis/builder/NestedBlogMapper.xml",
+        "org/apache/ibatis/builder/PostMapper.xml" };
+    for (String resource : resources) {
+      Document expected;
+      try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+        expected = new XPathParser(inputStream, true, null, new XMLMapperEntityResolver()).evalNode("/mapper").getNode()
+            .getOwnerDocument();
+      }
+      Document actual;
+      try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+        actual = StaxDocumentBuilder.parse(inputStream);
+      }
+      assertTrue(expected.getDocumentElement().isEqualNode(actual.getDocumentElement()), resource);
+    }
+  }
+
+  @Test
+  void shouldKeepCdataAndMergeText() {
+    Document document = StaxDocumentBuilder.parse(new StringReader("<?xml version=\"1.0\"?>"
+        + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">"
+        + "<mapper><select id=\"a\">select * <!-- comment -->from t where a &lt; 1<![CDATA[ and b < 2]]></select></mapper>"));
+    Node select = document.getDocumentElement().getFirstChild();
+    assertEquals("a", select.getAttributes().getNamedItem("id").getNodeValue());
+    assertEquals(2, select.getChildNodes().getLength());
+    assertEquals(Node.TEXT_NODE, select.getFirstChild().getNodeType());
+    assertEquals("select * from t where a < 1", select.getFirstChild().getNodeValue());
+    assertEquals(Node.CDATA_SECTION_NODE, select.getLastChild().getNodeType());
+    assertEquals(" and b < 2", select.getLastChild().getNodeValue());
+  }
+
+  @Test
+  void shouldReportMalformedDocuments() {
+    assertThrows(BuilderException.class, () -> StaxDocumentBuilder.parse(new StringReader("<mapper><select></mapper>")));
+  }
+
+}
@@ -21,6 +21,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.List;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -256,4 +257,26 @@ class XPathParserTest {
     assertEquals(carsNodeToStringExpect, carsNodeToString);
   }
 
+  @Test
+  void shouldSelectElementNamesLikeXPath() throws IOException {
+    try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+      XPathParser parser = new XPathParser(inputStream, false, null);
+      XNode employee = parser.evalNode("employee");
+      assertSameNodes(parser.evalNodes("./employee"), parser.evalNodes("employee"));
+      assertSameNodes(employee.evalNodes("./birth_date/month"), employee.evalNodes("birth_date/month"));
+      assertSameNodes(employee.evalNodes("/employee/height"), employee.evalNodes("./height"));
+      assertSameNodes(employee.evalNodes("./weight|./first_name|./height"), employee.evalNodes("weight|first_name|height"));
+      assertSameNodes(employee.evalNodes("./missing"), employee.evalNodes("missing"));
+      assertEquals("Smith", employee.evalNode("last_name").getStringBody());
+      assertEquals(null, employee.evalNode("birth_date/missing"));
+    }
+  }
+
+  private void assertSameNodes(List<XNode> expected, List<XNode> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getNode(), actual.get(i).getNode());
+    }
+  }
+
 }
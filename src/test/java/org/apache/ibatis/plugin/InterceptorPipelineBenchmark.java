@@ -0,0 +1,91 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.plugin;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares the cost of plugins applied through nested proxies and through a generated pipeline class, for chains of
+ * 0 to 8 plugins. Each operation wraps the target, as when a statement is executed, and makes one call the plugins do
+ * not intercept and one call they all intercept.
+ * <p>
+ * This is not a unit test and is not run by the build. Run its {@code main} method from the test class path.
+ */
+public final class InterceptorPipelineBenchmark {
+
+  private static final int WARMUP_OPERATIONS = 500_000;
+  private static final int MEASURED_OPERATIONS = 2_000_000;
+
+  private InterceptorPipelineBenchmark() {
+  }
+
+  public static void main(String[] args) {
+    System.out.println("plugins   proxies (ns/op)   pipeline (ns/op)");
+    for (int plugins : new int[] { 0, 1, 2, 4, 8 }) {
+      double proxies = measure(newChain(false, plugins));
+      double pipeline = measure(newChain(true, plugins));
+      System.out.println(String.format("%7d %17.1f %18.1f", plugins, proxies, pipeline));
+    }
+  }
+
+  private static double measure(InterceptorChain chain) {
+    run(chain, WARMUP_OPERATIONS);
+    long start = System.nanoTime();
+    long result = run(chain, MEASURED_OPERATIONS);
+    double nanos = (double) (System.nanoTime() - start) / MEASURED_OPERATIONS;
+    if (result == 0) {
+      throw new IllegalStateException("No calls were made.");
+    }
+    return nanos;
+  }
+
+  private static long run(InterceptorChain chain, int operations) {
+    Map<String, String> target = new HashMap<>();
+    target.put("key", "value");
+    long result = 0;
+    for (int i = 0; i < operations; i++) {
+      Map<String, String> map = wrap(chain, target);
+      result += map.size();
+      result += map.get("key").length();
+    }
+    return result;
+  }
+
+  private static InterceptorChain newChain(boolean pipelineEnabled, int plugins) {
+    InterceptorChain chain = new InterceptorChain();
+    chain.setPipelineEnabled(pipelineEnabled);
+    for (int i = 0; i < plugins; i++) {
+      chain.addInterceptor(new PassThroughPlugin());
+    }
+    return chain;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, String> wrap(InterceptorChain chain, Map<String, String> target) {
+    return (Map<String, String>) chain.pluginAll(target);
+  }
+
+  @Intercepts({ @Signature(type = Map.class, method = "get", args = { Object.class }) })
+  public static class PassThroughPlugin implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      return invocation.proceed();
+    }
+  }
+
+}
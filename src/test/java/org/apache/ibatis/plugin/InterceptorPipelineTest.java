@@ -0,0 +1,176 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.plugin;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class InterceptorPipelineTest {
+
+  @Test
+  void shouldWrapOnceWithGeneratedClass() {
+    InterceptorChain chain = newChain(true, new PrefixGetPlugin("a"), new PrefixGetPlugin("b"));
+    Map<String, String> map = wrap(chain, new HashMap<>());
+    assertFalse(Proxy.isProxyClass(map.getClass()));
+    assertSame(map.getClass(), wrap(chain, new HashMap<>()).getClass());
+  }
+
+  @Test
+  void shouldInterceptInSameOrderAsProxies() {
+    for (boolean pipelineEnabled : new boolean[] { false, true }) {
+      InterceptorChain chain = newChain(pipelineEnabled, new PrefixGetPlugin("a"), new PrefixGetPlugin("b"));
+      Map<String, String> map = wrap(chain, new HashMap<>());
+      map.put("key", "value");
+      assertEquals("bavalue", map.get("key"));
+    }
+  }
+
+  @Test
+  void shouldPassThroughMethodsThatAreNotIntercepted() {
+    InterceptorChain chain = newChain(true, new PrefixGetPlugin("a"));
+    Map<String, String> target = new HashMap<>();
+    Map<String, String> map = wrap(chain, target);
+    map.put("key", "value");
+    assertEquals("value", target.get("key"));
+    assertEquals(1, map.size());
+    assertTrue(map.containsKey("key"));
+    assertEquals(target.toString(), map.toString());
+    assertTrue(map.equals(target));
+  }
+
+  @Test
+  void shouldNotWrapTargetsThatAreNotIntercepted() {
+    InterceptorChain chain = newChain(true, new PrefixGetPlugin("a"));
+    List<String> list = new ArrayList<>();
+    assertSame(list, chain.pluginAll(list));
+  }
+
+  @Test
+  void shouldExposeUnwrappedTarget() {
+    Map<String, String> target = new HashMap<>();
+    TargetRecordingPlugin recorder = new TargetRecordingPlugin();
+    InterceptorChain chain = newChain(true, recorder, new PrefixGetPlugin("a"));
+    wrap(chain, target).get("key");
+    assertSame(target, recorder.target);
+  }
+
+  @Test
+  void shouldReportExceptionsLikeProxies() {
+    for (boolean pipelineEnabled : new boolean[] { false, true }) {
+      InterceptorChain chain = newChain(pipelineEnabled, new FailingPlugin(), new PrefixGetPlugin("a"));
+      Map<String, String> map = wrap(chain, new HashMap<>());
+      IllegalStateException e = assertThrows(IllegalStateException.class, () -> map.get("key"));
+      assertEquals("failed", e.getMessage());
+    }
+  }
+
+  @Test
+  void shouldFallBackToProxiesWhenPluginIsOverridden() {
+    InterceptorChain chain = newChain(true, new PrefixGetPlugin("a"), new CustomPlugin());
+    Map<String, String> map = wrap(chain, new HashMap<>());
+    assertTrue(Proxy.isProxyClass(map.getClass()));
+    map.put("key", "value");
+    assertEquals("avalue", map.get("key"));
+  }
+
+  @Test
+  void shouldStackAnyNumberOfPlugins() {
+    for (int plugins : new int[] { 0, 1, 2, 4, 8 }) {
+      Interceptor[] interceptors = new Interceptor[plugins];
+      StringBuilder prefix = new StringBuilder();
+      for (int i = 0; i < plugins; i++) {
+        interceptors[i] = new PrefixGetPlugin(String.valueOf(i));
+        prefix.insert(0, i);
+      }
+      Map<String, String> map = wrap(newChain(true, interceptors), new HashMap<>());
+      map.put("key", "value");
+      assertEquals(1, map.size());
+      assertEquals(prefix + "value", map.get("key"));
+    }
+  }
+
+  private static InterceptorChain newChain(boolean pipelineEnabled, Interceptor... interceptors) {
+    InterceptorChain chain = new InterceptorChain();
+    chain.setPipelineEnabled(pipelineEnabled);
+    for (Interceptor interceptor : interceptors) {
+      chain.addInterceptor(interceptor);
+    }
+    return chain;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, String> wrap(InterceptorChain chain, Map<String, String> target) {
+    return (Map<String, String>) chain.pluginAll(target);
+  }
+
+  @Intercepts({ @Signature(type = Map.class, method = "get", args = { Object.class }) })
+  public static class PrefixGetPlugin implements Interceptor {
+
+    private final String prefix;
+
+    PrefixGetPlugin(String prefix) {
+      this.prefix = prefix;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      return prefix + invocation.proceed();
+    }
+  }
+
+  @Intercepts({ @Signature(type = Map.class, method = "get", args = { Object.class }) })
+  public static class TargetRecordingPlugin implements Interceptor {
+
+    Object target;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      target = invocation.getTarget();
+      return invocation.proceed();
+    }
+  }
+
+  @Intercepts({ @Signature(type = Map.class, method = "get", args = { Object.class }) })
+  public static class FailingPlugin implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) {
+      throw new IllegalStateException("failed");
+    }
+  }
+
+  @Intercepts({ @Signature(type = Map.class, method = "put", args = { Object.class, Object.class }) })
+  public static class CustomPlugin implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+  }
+
+}
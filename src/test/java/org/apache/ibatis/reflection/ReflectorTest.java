@@ -24,6 +24,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.PrimitiveSetter;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -321,4 +322,34 @@ class ReflectorTest {
             "Ambiguous setters defined for property 'bool' in class '" + Bean.class.getName().replace("$", "\\$")
                 + "' with types '(java.lang.Integer|boolean)' and '(java.lang.Integer|boolean)'\\.");
   }
+
+  static class PrimitiveBean {
+    private int id;
+    private long count;
+    private Integer boxed;
+
+    public void setId(int id) {
+      this.id = id;
+    }
+  }
+
+  @Test
+  void shouldSetPrimitivePropertiesWithoutBoxing() throws Throwable {
+    ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+    Reflector reflector = reflectorFactory.findForClass(PrimitiveBean.class);
+    PrimitiveBean bean = new PrimitiveBean();
+
+    PrimitiveSetter idSetter = reflector.getPrimitiveSetter("id");
+    assertEquals(int.class, idSetter.getType());
+    idSetter.setInt(bean, 7);
+    assertEquals(7, bean.id);
+
+    PrimitiveSetter countSetter = reflector.getPrimitiveSetter("count");
+    assertEquals(long.class, countSetter.getType());
+    countSetter.setLong(bean, 3L);
+    assertEquals(3L, bean.count);
+
+    assertNull(reflector.getPrimitiveSetter("boxed"));
+    assertNull(reflector.getPrimitiveSetter("missing"));
+  }
 }
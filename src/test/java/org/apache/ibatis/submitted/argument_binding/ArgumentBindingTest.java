@@ -0,0 +1,104 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.argument_binding;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.binding.ArgumentMap;
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ArgumentBindingTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/argument_binding/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+  }
+
+  @BeforeEach
+  void createTables() throws Exception {
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/argument_binding/CreateDB.sql");
+    ParameterRecorder.parameterTypes.clear();
+  }
+
+  @Test
+  void shouldBindArgumentsOfStaticStatements() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("User1", mapper.getUser(1, "User1").getName());
+      assertNull(mapper.getUser(1, "User2"));
+      assertEquals(1, mapper.renameUser(2, "Renamed"));
+      assertEquals("Renamed", mapper.getUser(2, "Renamed").getName());
+      for (Class<?> parameterType : ParameterRecorder.parameterTypes) {
+        assertEquals(ArgumentMap.class, parameterType);
+      }
+    }
+  }
+
+  @Test
+  void shouldBindNestedProperties() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("User2", mapper.getUserLike(new User(2, null)).getName());
+      assertEquals(ArgumentMap.class, ParameterRecorder.parameterTypes.get(0));
+    }
+  }
+
+  @Test
+  void shouldKeepParamMapForDynamicSql() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.findUsers(null, "User2");
+      assertEquals(1, users.size());
+      assertEquals(ParamMap.class, ParameterRecorder.parameterTypes.get(0));
+    }
+  }
+
+  @Test
+  void shouldKeepParamMapForKeyGenerators() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(1, mapper.insertUser(new User(3, "User3"), null));
+      assertEquals(ParamMap.class, ParameterRecorder.parameterTypes.get(0));
+    }
+  }
+
+  @Test
+  void shouldCacheByArgumentValues() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user = mapper.getUser(1, "User1");
+      assertSame(user, mapper.getUser(1, "User1"));
+      assertNotSame(user, mapper.getUser(2, "User2"));
+    }
+  }
+
+}
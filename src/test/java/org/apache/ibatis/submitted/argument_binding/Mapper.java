@@ -0,0 +1,44 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.argument_binding;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+public interface Mapper {
+
+  @Select("select * from users where id = #{id} and name = #{param2}")
+  User getUser(@Param("id") int id, @Param("name") String name);
+
+  @Select("select * from users where id = #{user.id}")
+  User getUserLike(@Param("user") User user);
+
+  @Select("<script>select * from users <where><if test='name != null'>name = #{name}</if></where> order by id</script>")
+  List<User> findUsers(@Param("id") Integer id, @Param("name") String name);
+
+  @Update("update users set name = #{name} where id = #{id}")
+  int renameUser(@Param("id") int id, @Param("name") String name);
+
+  @Insert("insert into users (id, name) values (#{user.id}, #{user.name})")
+  @Options(useGeneratedKeys = true, keyProperty = "user.id")
+  int insertUser(@Param("user") User user, @Param("ignored") String ignored);
+
+}
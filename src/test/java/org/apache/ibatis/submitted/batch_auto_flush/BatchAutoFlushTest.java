@@ -0,0 +1,229 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_auto_flush;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchExecutorException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchAutoFlushTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_auto_flush/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+  }
+
+  @BeforeEach
+  void createTable() throws Exception {
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_auto_flush/CreateDB.sql");
+  }
+
+  @AfterEach
+  void resetSettings() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setBatchFlushRowsPerStatement(null);
+    configuration.setBatchFlushRows(null);
+    configuration.setBatchFlushBytes(null);
+    configuration.setBatchRetainParameterObjects(true);
+    configuration.setMultiRowInsertEnabled(false);
+    configuration.setBatchPipelineDepth(null);
+  }
+
+  @Test
+  void shouldFlushWhenStatementIsFull() {
+    sqlSessionFactory.getConfiguration().setBatchFlushRowsPerStatement(3);
+    assertBatchSizes(insertUsers(7), 3, 3, 1);
+  }
+
+  @Test
+  void shouldFlushWhenBatchIsFull() {
+    sqlSessionFactory.getConfiguration().setBatchFlushRows(4);
+    assertBatchSizes(insertUsers(10), 4, 4, 2);
+  }
+
+  @Test
+  void shouldFlushWhenEstimatedSizeIsReached() {
+    // every name is 5 characters, estimated as 10 bytes
+    sqlSessionFactory.getConfiguration().setBatchFlushBytes(25);
+    assertBatchSizes(insertUsers(5), 3, 2);
+  }
+
+  @Test
+  void shouldFlushMultiRowInsertsWhenStatementIsFull() {
+    sqlSessionFactory.getConfiguration().setMultiRowInsertEnabled(true);
+    sqlSessionFactory.getConfiguration().setBatchFlushRowsPerStatement(2);
+    assertBatchSizes(insertUsers(5), 2, 2, 1);
+  }
+
+  @Test
+  void shouldReleaseParameterObjectsAndFlushedResults() {
+    sqlSessionFactory.getConfiguration().setBatchFlushRowsPerStatement(2);
+    sqlSessionFactory.getConfiguration().setBatchRetainParameterObjects(false);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User[] users = new User[3];
+      for (int i = 0; i < users.length; i++) {
+        users[i] = newUser(i + 1);
+        mapper.insertUser(users[i]);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      // the automatically flushed result has been released
+      assertEquals(1, results.size());
+      assertTrue(results.get(0).getParameterObjects().isEmpty());
+      assertArrayEquals(new int[] { 1 }, results.get(0).getUpdateCounts());
+      for (int i = 0; i < users.length; i++) {
+        assertEquals(Integer.valueOf(i + 1), users[i].getId());
+      }
+      sqlSession.commit();
+    }
+  }
+
+  @Test
+  void shouldDiscardFlushedResultsOnRollback() {
+    sqlSessionFactory.getConfiguration().setBatchFlushRowsPerStatement(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 3; i++) {
+        mapper.insertUser(newUser(i));
+      }
+      sqlSession.rollback(true);
+      assertTrue(sqlSession.flushStatements().isEmpty());
+      assertEquals(0, mapper.countUsers());
+    }
+  }
+
+  @Test
+  void shouldReportFailedAutomaticFlush() {
+    sqlSessionFactory.getConfiguration().setBatchFlushRowsPerStatement(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int id : new int[] { 1, 2, 3 }) {
+        User user = newUser(id);
+        user.setId(id);
+        mapper.insertUserWithId(user);
+      }
+      User duplicate = newUser(3);
+      duplicate.setId(3);
+      PersistenceException e = assertThrows(PersistenceException.class, () -> mapper.insertUserWithId(duplicate));
+      BatchExecutorException cause = (BatchExecutorException) e.getCause();
+      assertEquals(1, cause.getSuccessfulBatchResults().size());
+      sqlSession.rollback(true);
+      assertEquals(0, mapper.countUsers());
+    }
+  }
+
+  @Test
+  void shouldPipelineFlushes() {
+    sqlSessionFactory.getConfiguration().setBatchFlushRowsPerStatement(3);
+    sqlSessionFactory.getConfiguration().setBatchPipelineDepth(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User[] users = new User[10];
+      for (int i = 0; i < users.length; i++) {
+        users[i] = newUser(i + 1);
+        mapper.insertUser(users[i]);
+      }
+      assertBatchSizes(sqlSession.flushStatements(), 3, 3, 3, 1);
+      for (int i = 0; i < users.length; i++) {
+        assertEquals(Integer.valueOf(i + 1), users[i].getId());
+      }
+      assertEquals(10, mapper.countUsers());
+      sqlSession.commit();
+    }
+  }
+
+  @Test
+  void shouldWaitForPipelinedFlushesBeforeSelecting() {
+    sqlSessionFactory.getConfiguration().setBatchFlushRowsPerStatement(2);
+    sqlSessionFactory.getConfiguration().setBatchPipelineDepth(1);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 5; i++) {
+        mapper.insertUser(newUser(i));
+      }
+      assertEquals(5, mapper.countUsers());
+      sqlSession.commit();
+    }
+  }
+
+  @Test
+  void shouldReportPipelinedFailureOnFlush() {
+    sqlSessionFactory.getConfiguration().setBatchFlushRowsPerStatement(2);
+    sqlSessionFactory.getConfiguration().setBatchPipelineDepth(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int id : new int[] { 1, 2, 3, 3, 4, 5 }) {
+        User user = newUser(id);
+        user.setId(id);
+        mapper.insertUserWithId(user);
+      }
+      PersistenceException e = assertThrows(PersistenceException.class, sqlSession::flushStatements);
+      BatchExecutorException cause = (BatchExecutorException) e.getCause();
+      assertEquals(1, cause.getSuccessfulBatchResults().size());
+      sqlSession.rollback(true);
+      assertEquals(0, mapper.countUsers());
+    }
+  }
+
+  private static List<BatchResult> insertUsers(int count) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= count; i++) {
+        mapper.insertUser(newUser(i));
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(count, mapper.countUsers());
+      sqlSession.commit();
+      return results;
+    }
+  }
+
+  private static void assertBatchSizes(List<BatchResult> results, int... sizes) {
+    assertEquals(sizes.length, results.size());
+    for (int i = 0; i < sizes.length; i++) {
+      assertEquals(sizes[i], results.get(i).getParameterObjects().size());
+      assertEquals(sizes[i], results.get(i).getUpdateCounts().length);
+    }
+  }
+
+  private static User newUser(int index) {
+    User user = new User();
+    user.setName("User" + index);
+    return user;
+  }
+
+}
@@ -0,0 +1,134 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_grouping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchGroupingTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_grouping/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+  }
+
+  @BeforeEach
+  void createTables() throws Exception {
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_grouping/CreateDB.sql");
+  }
+
+  @Test
+  void shouldGroupAlternatingInserts() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 3; i++) {
+        mapper.insertParent(i, "Parent" + i);
+        mapper.insertChild(i * 10, i, "Child" + i);
+        mapper.insertChild(i * 10 + 1, i, "Child" + i);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      assertTrue(results.get(0).getSql().startsWith("insert into parent"));
+      assertEquals(3, results.get(0).getParameterObjects().size());
+      assertEquals(6, results.get(1).getParameterObjects().size());
+      assertEquals(6, mapper.countChildren());
+      sqlSession.commit();
+    }
+  }
+
+  @Test
+  void shouldNotMoveInsertsAcrossUpdates() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertParent(1, "Parent1");
+      mapper.insertChild(10, 1, "Child1");
+      mapper.updateParent(1, "Renamed");
+      mapper.insertParent(2, "Parent2");
+      mapper.updateParent(2, "Renamed");
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(5, results.size());
+      assertEquals("Renamed", mapper.getParentName(2));
+      sqlSession.commit();
+    }
+  }
+
+  @Test
+  void shouldNotMoveChildInsertsAheadOfTheirParentWithoutBatchGroup() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertParent(1, "Parent1");
+      sqlSession.flushStatements();
+      mapper.insertUngroupedChild(10, 1, "Child1");
+      mapper.insertUngroupedParent(2, "Parent2");
+      mapper.insertUngroupedChild(20, 2, "Child2");
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, results.size());
+      assertTrue(results.get(1).getSql().startsWith("insert into parent"));
+      assertEquals(2, mapper.countChildren());
+      sqlSession.commit();
+    }
+  }
+
+  @Test
+  void shouldNotGroupAcrossInsertsOfAnotherBatchGroup() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertParent(1, "Parent1");
+      mapper.insertUngroupedParent(2, "Parent2");
+      mapper.insertChild(10, 2, "Child2");
+      mapper.insertParent(3, "Parent3");
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(4, results.size());
+      assertEquals(1, mapper.countChildren());
+      sqlSession.commit();
+    }
+  }
+
+  @Test
+  void shouldKeepSeparateBatchesWhenDisabled() {
+    sqlSessionFactory.getConfiguration().setBatchGroupingEnabled(false);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 2; i++) {
+        mapper.insertParent(i, "Parent" + i);
+        mapper.insertChild(i * 10, i, "Child" + i);
+      }
+      assertEquals(4, sqlSession.flushStatements().size());
+      sqlSession.commit();
+    } finally {
+      sqlSessionFactory.getConfiguration().setBatchGroupingEnabled(true);
+    }
+  }
+
+}
@@ -0,0 +1,153 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.bulk_load;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BulkLoadTest {
+
+  private static final String INSERT_USER = Mapper.class.getName() + ".insertUser";
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/bulk_load/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+  }
+
+  @BeforeEach
+  void createTables() throws Exception {
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/bulk_load/CreateDB.sql");
+  }
+
+  @Test
+  void shouldLoadWithMultiRowInserts() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(250, sqlSession.bulkLoad(INSERT_USER, newUsers(250)));
+      sqlSession.commit();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(250, sqlSession.getMapper(Mapper.class).countUsers());
+    }
+  }
+
+  @Test
+  void shouldLoadFromCursor() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.bulkLoad(INSERT_USER, newUsers(30));
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      try (Cursor<User> users = mapper.getUsers()) {
+        assertEquals(30, sqlSession.bulkLoad(Mapper.class.getName() + ".insertUserCopy", users));
+      }
+      assertEquals(30, mapper.countUserCopies());
+    }
+  }
+
+  @Test
+  void shouldEncodeRowsForFirstSupportingSink() {
+    RecordingSink sink = new RecordingSink();
+    sqlSessionFactory.getConfiguration().getBulkSinks().add(0, sink);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = newUsers(3);
+      users.get(1).setName("Say \"hi\", User2");
+      users.get(2).setName(null);
+      assertEquals(3, sqlSession.bulkLoad(INSERT_USER, users));
+      assertEquals(0, sqlSession.getMapper(Mapper.class).countUsers());
+    } finally {
+      sqlSessionFactory.getConfiguration().getBulkSinks().remove(sink);
+    }
+    assertEquals("users", sink.getInsert().getTable());
+    assertEquals(Arrays.asList("id", "name"), sink.getInsert().getColumns());
+    assertEquals("1,\"User1\"\n2,\"Say \"\"hi\"\", User2\"\n3,\n", sink.getCsv());
+  }
+
+  @Test
+  void shouldEncodeValuesWithTypeHandlers() {
+    RecordingSink sink = new RecordingSink();
+    sqlSessionFactory.getConfiguration().getBulkSinks().add(0, sink);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(2, sqlSession.bulkLoad(Mapper.class.getName() + ".insertShoutingUser", newUsers(2)));
+    } finally {
+      sqlSessionFactory.getConfiguration().getBulkSinks().remove(sink);
+    }
+    assertEquals("1,\"USER1\"\n2,\"USER2\"\n", sink.getCsv());
+  }
+
+  @Test
+  void shouldSelectLoadedRowsInSameSession() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(0, mapper.countUsers());
+      sqlSession.bulkLoad(INSERT_USER, newUsers(5));
+      assertEquals(5, mapper.countUsers());
+    }
+  }
+
+  @Test
+  void shouldFlushSecondLevelCache() {
+    sqlSessionFactory.getConfiguration().getCache(CachedMapper.class.getName()).clear();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(0, sqlSession.getMapper(CachedMapper.class).countUsers());
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.bulkLoad(CachedMapper.class.getName() + ".insertUser", newUsers(5));
+      sqlSession.commit();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(5, sqlSession.getMapper(CachedMapper.class).countUsers());
+    }
+  }
+
+  @Test
+  void shouldRejectInsertWithExpressions() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      PersistenceException e = assertThrows(PersistenceException.class,
+          () -> sqlSession.bulkLoad(Mapper.class.getName() + ".insertUpperCaseUser", newUsers(1)));
+      assertTrue(e.getMessage().contains("cannot be bulk loaded"));
+    }
+  }
+
+  private static List<User> newUsers(int count) {
+    List<User> users = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      User user = new User();
+      user.setId(i);
+      user.setName("User" + i);
+      users.add(user);
+    }
+    return users;
+  }
+
+}
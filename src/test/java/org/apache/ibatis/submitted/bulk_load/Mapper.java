@@ -0,0 +1,45 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.bulk_load;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+
+public interface Mapper {
+
+  @Insert("insert into users (id, name) values (#{id}, #{name})")
+  void insertUser(User user);
+
+  @Insert("insert into users_copy (id, name) values (#{id}, #{name})")
+  void insertUserCopy(User user);
+
+  @Insert("insert into users (id, name) values (#{id}, #{name,typeHandler=org.apache.ibatis.submitted.bulk_load.UpperCaseTypeHandler})")
+  void insertShoutingUser(User user);
+
+  @Insert("insert into users (id, name) values (#{id}, upper(#{name}))")
+  void insertUpperCaseUser(User user);
+
+  @Select("select * from users order by id")
+  Cursor<User> getUsers();
+
+  @Select("select count(*) from users")
+  int countUsers();
+
+  @Select("select count(*) from users_copy")
+  int countUserCopies();
+
+}
@@ -0,0 +1,59 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.bulk_load;
+
+import java.sql.Connection;
+import java.util.Iterator;
+
+import org.apache.ibatis.bulk.BulkInsert;
+import org.apache.ibatis.bulk.BulkSink;
+import org.apache.ibatis.bulk.CsvRowReader;
+
+/**
+ * Stands in for a database bulk loading API by recording the CSV it would receive.
+ */
+public class RecordingSink implements BulkSink {
+
+  private final StringBuilder csv = new StringBuilder();
+  private BulkInsert insert;
+
+  @Override
+  public boolean supports(Connection connection) {
+    return true;
+  }
+
+  @Override
+  public long load(Connection connection, BulkInsert insert, Iterator<?> parameters) {
+    this.insert = insert;
+    try (CsvRowReader reader = new CsvRowReader(connection, insert, parameters)) {
+      char[] buffer = new char[7];
+      int read;
+      while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+        csv.append(buffer, 0, read);
+      }
+      return reader.getRowCount();
+    }
+  }
+
+  String getCsv() {
+    return csv.toString();
+  }
+
+  BulkInsert getInsert() {
+    return insert;
+  }
+
+}
@@ -0,0 +1,221 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compiled_mappers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.apache.ibatis.builder.compile.CompiledMapperSupport;
+import org.apache.ibatis.builder.compile.CompiledMappers;
+import org.apache.ibatis.builder.compile.MapperCompiler;
+import org.apache.ibatis.builder.xml.XMLConfigBuilder;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CompiledMappersTest {
+
+  private static final String CONFIG = "org/apache/ibatis/submitted/compiled_mappers/mybatis-config.xml";
+  private static final String USER_MAPPER = "org/apache/ibatis/submitted/compiled_mappers/UserMapper.xml";
+  private static final String DYNAMIC_MAPPER = "org/apache/ibatis/submitted/compiled_mappers/DynamicMapper.xml";
+  private static final String NAMESPACE = UserMapper.class.getName();
+  private static final String DYNAMIC_NAMESPACE = "org.apache.ibatis.submitted.compiled_mappers.DynamicMapper";
+  private static final String CLASS_NAME = "org.apache.ibatis.submitted.compiled_mappers.generated.CompiledUserMappers";
+
+  private Path outputDirectory;
+  private MapperCompiler compiler;
+
+  @BeforeEach
+  void compile() throws IOException {
+    outputDirectory = Files.createTempDirectory("compiled-mappers");
+    compiler = new MapperCompiler(CONFIG, null);
+    compiler.write(outputDirectory, outputDirectory, CLASS_NAME);
+    JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+    int status = javac.run(null, null, null, "-classpath", System.getProperty("java.class.path"), "-d",
+        outputDirectory.toString(), outputDirectory.resolve(CLASS_NAME.replace('.', '/') + ".java").toString());
+    assertEquals(0, status);
+  }
+
+  @AfterEach
+  void deleteOutput() throws IOException {
+    try (Stream<Path> files = Files.walk(outputDirectory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+    }
+  }
+
+  @Test
+  void shouldSkipMappersWithDynamicSql() {
+    assertEquals(1, compiler.getCompiledResources().size());
+    assertTrue(compiler.getCompiledResources().contains(USER_MAPPER));
+    assertEquals("statement " + DYNAMIC_NAMESPACE + ".selectNames uses dynamic sql",
+        compiler.getSkippedResources().get(DYNAMIC_MAPPER));
+  }
+
+  @Test
+  void shouldRegisterTheSameMappingsAsTheMapperFile() throws Exception {
+    Configuration parsed = compiler.getConfiguration();
+    Configuration compiled = new Configuration();
+    try (URLClassLoader loader = newClassLoader()) {
+      CompiledMappers mappers = (CompiledMappers) loader.loadClass(CLASS_NAME).getDeclaredConstructor().newInstance();
+      assertTrue(mappers.getResources().containsKey(USER_MAPPER));
+      mappers.register(USER_MAPPER, compiled);
+    }
+
+    assertTrue(compiled.isResourceLoaded(USER_MAPPER));
+    assertTrue(compiled.hasMapper(UserMapper.class));
+    assertTrue(compiled.hasStatement(NAMESPACE + ".countUsers"));
+
+    Cache cache = compiled.getCache(NAMESPACE);
+    assertEquals(parsed.getCache(NAMESPACE).getClass(), cache.getClass());
+    assertEquals(NAMESPACE, cache.getId());
+
+    for (String name : parsed.getResultMapNames()) {
+      if (name.startsWith(NAMESPACE + ".")) {
+        assertSameResultMap(parsed.getResultMap(name), compiled.getResultMap(name));
+      }
+    }
+    for (String id : new String[] { "selectUser", "selectName", "insertUser" }) {
+      assertSameStatement(parsed.getMappedStatement(NAMESPACE + "." + id),
+          compiled.getMappedStatement(NAMESPACE + "." + id));
+    }
+    assertSame(cache, compiled.getMappedStatement(NAMESPACE + ".selectUser").getCache());
+  }
+
+  @Test
+  void shouldRegisterCompiledMappersInsteadOfParsingThem() throws Exception {
+    Thread thread = Thread.currentThread();
+    ClassLoader contextClassLoader = thread.getContextClassLoader();
+    try (URLClassLoader loader = newClassLoader(); Reader reader = Resources.getResourceAsReader(CONFIG)) {
+      thread.setContextClassLoader(loader);
+      Configuration configuration = new XMLConfigBuilder(reader).parse();
+      assertTrue(configuration.hasStatement(NAMESPACE + ".selectUser"));
+      assertTrue(configuration.hasStatement(DYNAMIC_NAMESPACE + ".selectNames"));
+      // sql fragments are inlined into the compiled statements
+      assertFalse(configuration.getSqlFragments().containsKey(NAMESPACE + ".columns"));
+      assertEquals("select id, name, kind, group_id, group_name from users where id = ?",
+          configuration.getMappedStatement(NAMESPACE + ".selectUser").getBoundSql(1).getSql().replaceAll("\\s+", " "));
+    } finally {
+      thread.setContextClassLoader(contextClassLoader);
+    }
+  }
+
+  @Test
+  void shouldNotMatchCompiledMappersUnderOtherSettings() throws Exception {
+    byte[] content = Files.readAllBytes(Resources.getResourceAsFile(USER_MAPPER).toPath());
+    String fingerprint;
+    try (URLClassLoader loader = newClassLoader()) {
+      CompiledMappers mappers = (CompiledMappers) loader.loadClass(CLASS_NAME).getDeclaredConstructor().newInstance();
+      fingerprint = mappers.getResources().get(USER_MAPPER);
+    }
+    assertEquals(fingerprint, CompiledMapperSupport.fingerprint(content, new Configuration()));
+
+    Configuration configuration = new Configuration();
+    configuration.setDefaultResultSetType(ResultSetType.SCROLL_INSENSITIVE);
+    assertNotEquals(fingerprint, CompiledMapperSupport.fingerprint(content, configuration));
+    configuration = new Configuration();
+    configuration.setUseGeneratedKeys(true);
+    assertNotEquals(fingerprint, CompiledMapperSupport.fingerprint(content, configuration));
+    configuration = new Configuration();
+    configuration.setDefaultScriptingLanguage(RawLanguageDriver.class);
+    assertNotEquals(fingerprint, CompiledMapperSupport.fingerprint(content, configuration));
+  }
+
+  private URLClassLoader newClassLoader() throws IOException {
+    return new URLClassLoader(new URL[] { outputDirectory.toUri().toURL() }, getClass().getClassLoader());
+  }
+
+  private static void assertSameStatement(MappedStatement expected, MappedStatement actual) {
+    assertNotNull(actual);
+    assertEquals(expected.getResource(), actual.getResource());
+    assertEquals(expected.getSqlCommandType(), actual.getSqlCommandType());
+    assertEquals(expected.getBoundSql(null).getSql(), actual.getBoundSql(null).getSql());
+    List<ParameterMapping> expectedParameters = expected.getBoundSql(null).getParameterMappings();
+    List<ParameterMapping> actualParameters = actual.getBoundSql(null).getParameterMappings();
+    assertEquals(expectedParameters.size(), actualParameters.size());
+    for (int i = 0; i < expectedParameters.size(); i++) {
+      assertEquals(expectedParameters.get(i).toString(), actualParameters.get(i).toString());
+    }
+    assertEquals(expected.getParameterMap().getId(), actual.getParameterMap().getId());
+    assertEquals(expected.getParameterMap().getType(), actual.getParameterMap().getType());
+    assertEquals(expected.getResultMaps().size(), actual.getResultMaps().size());
+    for (int i = 0; i < expected.getResultMaps().size(); i++) {
+      assertSameResultMap(expected.getResultMaps().get(i), actual.getResultMaps().get(i));
+    }
+    assertEquals(expected.getStatementType(), actual.getStatementType());
+    assertEquals(expected.getResultSetType(), actual.getResultSetType());
+    assertEquals(expected.isFlushCacheRequired(), actual.isFlushCacheRequired());
+    assertEquals(expected.isUseCache(), actual.isUseCache());
+    assertEquals(expected.getCache() == null, actual.getCache() == null);
+    assertSame(expected.getKeyGenerator(), actual.getKeyGenerator());
+    assertArrayEquals(expected.getKeyProperties(), actual.getKeyProperties());
+    assertArrayEquals(expected.getKeyColumns(), actual.getKeyColumns());
+    assertEquals(expected.getLang().getClass(), actual.getLang().getClass());
+    assertEquals(expected.hasNestedResultMaps(), actual.hasNestedResultMaps());
+  }
+
+  private static void assertSameResultMap(ResultMap expected, ResultMap actual) {
+    assertNotNull(actual);
+    assertEquals(expected.getId(), actual.getId());
+    assertEquals(expected.getType(), actual.getType());
+    assertEquals(expected.getAutoMapping(), actual.getAutoMapping());
+    assertEquals(expected.hasNestedResultMaps(), actual.hasNestedResultMaps());
+    assertEquals(expected.getMappedColumns(), actual.getMappedColumns());
+    assertEquals(expected.getResultMappings().size(), actual.getResultMappings().size());
+    for (int i = 0; i < expected.getResultMappings().size(); i++) {
+      assertSameResultMapping(expected.getResultMappings().get(i), actual.getResultMappings().get(i));
+    }
+    assertEquals(expected.getDiscriminator() == null, actual.getDiscriminator() == null);
+    if (expected.getDiscriminator() != null) {
+      assertEquals(expected.getDiscriminator().getDiscriminatorMap(), actual.getDiscriminator().getDiscriminatorMap());
+      assertSameResultMapping(expected.getDiscriminator().getResultMapping(),
+          actual.getDiscriminator().getResultMapping());
+    }
+  }
+
+  private static void assertSameResultMapping(ResultMapping expected, ResultMapping actual) {
+    assertEquals(expected.toString(), actual.toString());
+    assertEquals(expected.getTypeHandler() == null ? null : expected.getTypeHandler().getClass(),
+        actual.getTypeHandler() == null ? null : actual.getTypeHandler().getClass());
+  }
+
+}
@@ -0,0 +1,139 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.configuration_compaction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.ibatis.builder.xml.XMLConfigBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.HeapReport;
+import org.junit.jupiter.api.Test;
+
+class ConfigurationCompactionTest {
+
+  private static final String CUSTOMER = "org.apache.ibatis.submitted.configuration_compaction.CustomerMapper.";
+  private static final String ORDER = "org.apache.ibatis.submitted.configuration_compaction.OrderMapper.";
+
+  private static Configuration parse(boolean compact) throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty("compact", String.valueOf(compact));
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/configuration_compaction/mybatis-config.xml")) {
+      return new XMLConfigBuilder(reader, null, properties).parse();
+    }
+  }
+
+  @Test
+  void shouldBuildTheSameSqlOnceCompacted() throws IOException {
+    Configuration expected = parse(false);
+    Configuration compacted = parse(true);
+    assertTrue(compacted.isCompactConfigurationEnabled());
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("id", 1);
+    parameter.put("name", "n");
+    for (String id : new String[] { CUSTOMER + "selectById", CUSTOMER + "selectCustomersByName",
+        CUSTOMER + "updateCustomer", ORDER + "selectById", ORDER + "selectOrdersByName", ORDER + "updateOrder" }) {
+      BoundSql expectedSql = expected.getMappedStatement(id).getBoundSql(parameter);
+      BoundSql compactedSql = compacted.getMappedStatement(id).getBoundSql(parameter);
+      assertEquals(expectedSql.getSql(), compactedSql.getSql());
+      assertEquals(expectedSql.getParameterMappings().size(), compactedSql.getParameterMappings().size());
+      for (int i = 0; i < expectedSql.getParameterMappings().size(); i++) {
+        ParameterMapping expectedMapping = expectedSql.getParameterMappings().get(i);
+        ParameterMapping compactedMapping = compactedSql.getParameterMappings().get(i);
+        assertEquals(expectedMapping.getProperty(), compactedMapping.getProperty());
+        assertEquals(expectedMapping.getJavaType(), compactedMapping.getJavaType());
+        assertEquals(expectedMapping.getJdbcType(), compactedMapping.getJdbcType());
+        assertSame(expectedMapping.getTypeHandler().getClass(), compactedMapping.getTypeHandler().getClass());
+      }
+    }
+    ResultMap expectedResultMap = expected.getResultMap(CUSTOMER + "itemResult");
+    ResultMap compactedResultMap = compacted.getResultMap(CUSTOMER + "itemResult");
+    assertEquals(expectedResultMap.getMappedColumns(), compactedResultMap.getMappedColumns());
+    assertEquals(expectedResultMap.getMappedProperties(), compactedResultMap.getMappedProperties());
+    assertEquals(expectedResultMap.getResultMappings().size(), compactedResultMap.getResultMappings().size());
+    assertEquals(1, compactedResultMap.getIdResultMappings().size());
+    assertEquals(3, compactedResultMap.getPropertyResultMappings().size());
+  }
+
+  @Test
+  void shouldShareIdenticalMappings() throws IOException {
+    Configuration configuration = parse(true);
+    ResultMap customerResultMap = configuration.getResultMap(CUSTOMER + "itemResult");
+    ResultMap orderResultMap = configuration.getResultMap(ORDER + "itemResult");
+    assertNotSame(customerResultMap, orderResultMap);
+    assertSame(customerResultMap.getResultMappings(), orderResultMap.getResultMappings());
+    assertSame(customerResultMap.getMappedColumns(), orderResultMap.getMappedColumns());
+    ResultMapping idMapping = customerResultMap.getIdResultMappings().get(0);
+    assertSame(idMapping, customerResultMap.getResultMappings().get(0));
+    // strings are interned into the same pool as the text of dynamic sql
+    assertSame(idMapping.getColumn().intern(), idMapping.getColumn());
+
+    MappedStatement customerUpdate = configuration.getMappedStatement(CUSTOMER + "updateCustomer");
+    MappedStatement orderUpdate = configuration.getMappedStatement(ORDER + "updateOrder");
+    List<ParameterMapping> customerMappings = customerUpdate.getBoundSql(new Item()).getParameterMappings();
+    List<ParameterMapping> orderMappings = orderUpdate.getBoundSql(new Item()).getParameterMappings();
+    assertNotSame(customerMappings, orderMappings);
+    assertSame(customerMappings.get(0), orderMappings.get(0));
+    assertSame(customerMappings.get(1), orderMappings.get(1));
+    assertSame(configuration.getMappedStatement(CUSTOMER + "selectById").getParameterMap(),
+        configuration.getMappedStatement(ORDER + "selectById").getParameterMap());
+  }
+
+  @Test
+  void shouldKeepReportingAmbiguousNames() throws IOException {
+    Configuration configuration = parse(true);
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+        () -> configuration.getMappedStatement("selectById"));
+    assertTrue(e.getMessage().contains("selectById is ambiguous"));
+  }
+
+  @Test
+  void shouldReleaseSqlFragmentsAndRetainLessMemory() throws IOException {
+    Configuration configuration = parse(false);
+    assertFalse(configuration.getSqlFragments().isEmpty());
+    HeapReport before = configuration.getHeapReport();
+    assertTrue(before.getEntries().stream().anyMatch(entry -> entry.getKind().equals("documents")));
+
+    configuration.compact();
+    assertTrue(configuration.getSqlFragments().isEmpty());
+    HeapReport after = configuration.getHeapReport();
+    assertTrue(after.getTotalBytes() < before.getTotalBytes(), before + " / " + after);
+    assertFalse(after.getEntries().stream().anyMatch(entry -> entry.getKind().equals("documents")));
+    assertTrue(after.getEntries().stream().anyMatch(entry -> entry.getName().equals(ORDER + "updateOrder")));
+    for (int i = 1; i < after.getEntries().size(); i++) {
+      assertTrue(after.getEntries().get(i - 1).getBytes() >= after.getEntries().get(i).getBytes());
+    }
+  }
+
+}
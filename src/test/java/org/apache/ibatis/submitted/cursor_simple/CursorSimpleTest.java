@@ -21,10 +21,13 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.ibatis.BaseDataTest;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -468,4 +471,59 @@ class CursorSimpleTest {
       Assertions.assertTrue(cursor.isConsumed());
     }
   }
+
+  @Test
+  void shouldStreamInParallelChunks() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      Cursor<User> usersCursor = mapper.getAllUsers();
+
+      List<String> names;
+      try (Stream<User> users = usersCursor.parallelStream(2, 1)) {
+        names = users.map(User::getName).collect(Collectors.toList());
+      }
+
+      Assertions.assertEquals(5, names.size());
+      for (int i = 0; i < names.size(); i++) {
+        Assertions.assertEquals("User" + (i + 1), names.get(i));
+      }
+      Assertions.assertFalse(usersCursor.isOpen());
+      Assertions.assertTrue(usersCursor.isConsumed());
+    }
+  }
+
+  @Test
+  void shouldReadAllUsersWithKeysetCursor() throws IOException {
+    try (Cursor<User> usersCursor = sqlSessionFactory.openKeysetCursor(
+        "org.apache.ibatis.submitted.cursor_simple.Mapper.getAllUsers", null, "id", "id", 2)) {
+      Assertions.assertFalse(usersCursor.isOpen());
+      Assertions.assertEquals(-1, usersCursor.getCurrentIndex());
+
+      List<String> names = new ArrayList<>();
+      for (User user : usersCursor) {
+        Assertions.assertTrue(usersCursor.isOpen());
+        names.add(user.getName());
+      }
+
+      Assertions.assertEquals(5, names.size());
+      for (int i = 0; i < names.size(); i++) {
+        Assertions.assertEquals("User" + (i + 1), names.get(i));
+      }
+      Assertions.assertEquals(4, usersCursor.getCurrentIndex());
+      Assertions.assertFalse(usersCursor.isOpen());
+      Assertions.assertTrue(usersCursor.isConsumed());
+    }
+  }
+
+  @Test
+  void shouldNotCapReusedStatementsWithEarlierRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.REUSE)) {
+      String statement = "org.apache.ibatis.submitted.cursor_simple.Mapper.getAllUsers";
+      List<User> firstPage = sqlSession.selectList(statement, null, new RowBounds(0, 1));
+      Assertions.assertEquals(1, firstPage.size());
+
+      List<User> users = sqlSession.selectList(statement);
+      Assertions.assertEquals(5, users.size());
+    }
+  }
 }
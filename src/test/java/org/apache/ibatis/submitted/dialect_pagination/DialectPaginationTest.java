@@ -0,0 +1,93 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.dialect_pagination;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DialectPaginationTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/dialect_pagination/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/dialect_pagination/CreateDB.sql");
+  }
+
+  @BeforeEach
+  void clearRecordedStatements() {
+    SqlRecorder.statements.clear();
+  }
+
+  @Test
+  void shouldPushRowBoundsIntoSql() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.getUsers(1, new RowBounds(1, 2));
+      assertEquals(2, users.size());
+      assertEquals(Integer.valueOf(3), users.get(0).getId());
+      assertEquals(Integer.valueOf(4), users.get(1).getId());
+      assertEquals(1, SqlRecorder.statements.size());
+      assertTrue(SqlRecorder.statements.get(0).endsWith(" LIMIT 2 OFFSET 1"));
+    }
+  }
+
+  @Test
+  void shouldPushOffsetOnlyIntoSql() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.getUsers(0, new RowBounds(3, RowBounds.NO_ROW_LIMIT));
+      assertEquals(2, users.size());
+      assertEquals(Integer.valueOf(4), users.get(0).getId());
+      assertTrue(SqlRecorder.statements.get(0).endsWith(" OFFSET 3 ROWS"));
+    }
+  }
+
+  @Test
+  void shouldNotRewriteWithoutRowBounds() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(5, mapper.getUsers(0, RowBounds.DEFAULT).size());
+      assertFalse(SqlRecorder.statements.get(0).contains("LIMIT"));
+    }
+  }
+
+  @Test
+  void shouldCountWithCompanionStatement() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Long count = sqlSession.selectOne(Mapper.class.getName() + ".getUsers!count", 2);
+      assertEquals(Long.valueOf(3), count);
+    }
+  }
+
+}
@@ -0,0 +1,102 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.generated_mapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class GeneratedMapperTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/generated_mapper/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+  }
+
+  @BeforeEach
+  void createTables() throws Exception {
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/generated_mapper/CreateDB.sql");
+  }
+
+  @Test
+  void shouldGenerateMapperClass() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertFalse(Proxy.isProxyClass(mapper.getClass()));
+      assertSame(mapper.getClass(), sqlSession.getMapper(Mapper.class).getClass());
+    }
+  }
+
+  @Test
+  void shouldSelect() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("User1", mapper.getUser(1).getName());
+      assertNull(mapper.getUser(3));
+      assertEquals("User2", mapper.getUserByIdAndName(2, "User2").getName());
+      assertEquals(2, mapper.getUsers().size());
+      assertEquals(1, mapper.getUsers(new RowBounds(1, 10)).size());
+      User[] users = mapper.getUsersByIds(Arrays.asList(1, 2));
+      assertEquals(2, users.length);
+      assertEquals("User2", mapper.findUser(2).get().getName());
+      assertFalse(mapper.findUser(3).isPresent());
+      assertEquals(2, mapper.countUsers());
+    }
+  }
+
+  @Test
+  void shouldUpdate() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(1, mapper.insertUser(new User(3, "User3")));
+      assertTrue(mapper.updateUser(new User(3, "Updated")));
+      assertFalse(mapper.updateUser(new User(4, "Missing")));
+      assertEquals("Updated", mapper.getUser(3).getName());
+      assertEquals(1L, mapper.deleteUser(3));
+      mapper.removeUser(2);
+      List<User> users = mapper.getUsers();
+      assertEquals(1, users.size());
+      assertEquals("User1", users.get(0).getName());
+    }
+  }
+
+  @Test
+  void shouldInvokeDefaultMethod() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals("User1", mapper.getUserName(1));
+    }
+  }
+
+}
@@ -0,0 +1,67 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.generated_mapper;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.session.RowBounds;
+
+public interface Mapper {
+
+  @Select("select * from users where id = #{id}")
+  User getUser(Integer id);
+
+  @Select("select * from users where id = #{id} and name = #{name}")
+  User getUserByIdAndName(@Param("id") int id, @Param("name") String name);
+
+  @Select("select * from users order by id")
+  List<User> getUsers();
+
+  @Select("select * from users order by id")
+  List<User> getUsers(RowBounds rowBounds);
+
+  @Select("<script>select * from users where id in <foreach item='id' collection='list' open='(' close=')' separator=','>#{id}</foreach> order by id</script>")
+  User[] getUsersByIds(Collection<Integer> ids);
+
+  @Select("select * from users where id = #{id}")
+  Optional<User> findUser(int id);
+
+  @Select("select count(*) from users")
+  int countUsers();
+
+  @Insert("insert into users (id, name) values (#{id}, #{name})")
+  int insertUser(User user);
+
+  @Update("update users set name = #{name} where id = #{id}")
+  boolean updateUser(User user);
+
+  @Delete("delete from users where id = #{id}")
+  long deleteUser(int id);
+
+  @Delete("delete from users where id = #{id}")
+  void removeUser(int id);
+
+  default String getUserName(Integer id) {
+    return getUser(id).getName();
+  }
+}
@@ -0,0 +1,154 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.lazy_statement_building;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.ibatis.builder.IncompleteElementException;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.executor.keygen.SelectKeyGenerator;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class LazyStatementBuildingTest {
+
+  private static final String MAPPER = "org.apache.ibatis.submitted.lazy_statement_building.Mapper.";
+  private static final String GROUP_MAPPER = "org.apache.ibatis.submitted.lazy_statement_building.GroupMapper.";
+
+  @Test
+  void shouldBuildStatementsOnFirstUse() throws Exception {
+    LazyConfiguration configuration = load(null);
+    assertEquals(0, configuration.getBuiltCount());
+    assertEquals(5, configuration.getPendingCount());
+
+    MappedStatement selectUser = configuration.getMappedStatement(MAPPER + "selectUser");
+    assertEquals("select * from users where id = ?", normalize(selectUser.getBoundSql(1).getSql()));
+    assertEquals(1, configuration.getBuiltCount());
+    assertSame(selectUser, configuration.getMappedStatement(MAPPER + "selectUser"));
+
+    assertTrue(configuration.hasStatement(GROUP_MAPPER + "selectGroup"));
+    assertEquals(2, configuration.getBuiltCount());
+  }
+
+  @Test
+  void shouldBuildSelectKeyAndShortNameLookups() throws Exception {
+    LazyConfiguration configuration = load(null);
+    MappedStatement selectKey = configuration
+        .getMappedStatement(MAPPER + "insertUser" + SelectKeyGenerator.SELECT_KEY_SUFFIX);
+    assertEquals(MAPPER + "insertUser" + SelectKeyGenerator.SELECT_KEY_SUFFIX, selectKey.getId());
+    assertTrue(configuration.getMappedStatement(MAPPER + "insertUser").getKeyGenerator() instanceof SelectKeyGenerator);
+
+    assertEquals(GROUP_MAPPER + "selectGroup", configuration.getMappedStatement("selectGroup").getId());
+  }
+
+  @Test
+  void shouldPublishShortNameLookups() throws Exception {
+    LazyConfiguration configuration = load(null);
+    assertTrue(configuration.hasStatement("selectGroup"));
+    MappedStatement selectGroup = configuration.getMappedStatement("selectGroup");
+    assertTrue(configuration.isPublished("selectGroup"));
+    assertSame(selectGroup, configuration.getMappedStatement("selectGroup"));
+    assertSame(selectGroup, configuration.getMappedStatement(GROUP_MAPPER + "selectGroup"));
+    assertTrue(configuration.hasStatement("selectGroup"));
+  }
+
+  @Test
+  void shouldPreferTheStatementOfTheCurrentDatabase() throws Exception {
+    LazyConfiguration configuration = load("hsql");
+    MappedStatement selectName = configuration.getMappedStatement(MAPPER + "selectName");
+    assertEquals("hsql", selectName.getDatabaseId());
+
+    configuration = load(null);
+    selectName = configuration.getMappedStatement(MAPPER + "selectName");
+    assertEquals(null, selectName.getDatabaseId());
+  }
+
+  @Test
+  void shouldReportIncompleteStatementsOnFirstUse() throws Exception {
+    LazyConfiguration configuration = load(null);
+    assertThrows(IncompleteElementException.class, () -> configuration.getMappedStatement(MAPPER + "selectBroken"));
+    // still pending, so that a later lookup reports it again
+    assertThrows(IncompleteElementException.class, () -> configuration.getMappedStatement(MAPPER + "selectBroken"));
+    assertThrows(IncompleteElementException.class, configuration::getMappedStatementNames);
+  }
+
+  @Test
+  void shouldBuildEachStatementOnceUnderConcurrentLookups() throws Exception {
+    LazyConfiguration configuration = load(null);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Callable<MappedStatement>> lookups = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        lookups.add(() -> configuration.getMappedStatement(MAPPER + "selectUser"));
+      }
+      List<Future<MappedStatement>> results = executor.invokeAll(lookups);
+      MappedStatement expected = results.get(0).get();
+      for (Future<MappedStatement> result : results) {
+        assertSame(expected, result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(1, configuration.getBuiltCount());
+  }
+
+  private LazyConfiguration load(String databaseId) throws Exception {
+    LazyConfiguration configuration = new LazyConfiguration();
+    configuration.setLazyStatementBuildingEnabled(true);
+    configuration.setDatabaseId(databaseId);
+    for (String resource : new String[] { "org/apache/ibatis/submitted/lazy_statement_building/Mapper.xml",
+        "org/apache/ibatis/submitted/lazy_statement_building/GroupMapper.xml" }) {
+      try (InputStream inputStream = Resources.getResourceAsStream(resource)) {
+        new XMLMapperBuilder(inputStream, configuration, resource, configuration.getSqlFragments()).parse();
+      }
+    }
+    return configuration;
+  }
+
+  private String normalize(String sql) {
+    return sql.replaceAll("\\s+", " ").trim();
+  }
+
+  static class LazyConfiguration extends Configuration {
+
+    int getBuiltCount() {
+      // statements are stored under their full and their short name
+      return (int) mappedStatements.keySet().stream().filter(id -> id.contains(".")).count();
+    }
+
+    int getPendingCount() {
+      return pendingStatements.size();
+    }
+
+    boolean isPublished(String id) {
+      return publishedStatements.containsKey(id);
+    }
+  }
+
+}
@@ -0,0 +1,168 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.multirow_insert;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MultiRowInsertTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/multirow_insert/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+  }
+
+  @BeforeEach
+  void createTable() throws Exception {
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/multirow_insert/CreateDB.sql");
+    SqlRecorder.statements.clear();
+    SqlRecorder.updates = 0;
+  }
+
+  @Test
+  void shouldInsertRowsInChunksAndAssignGeneratedKeys() {
+    List<User> users = newUsers(7);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      users.forEach(mapper::insertUser);
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(1, results.size());
+      assertArrayEquals(new int[] { 1, 1, 1, 1, 1, 1, 1 }, results.get(0).getUpdateCounts());
+      assertEquals(7, results.get(0).getParameterObjects().size());
+      sqlSession.commit();
+    }
+    // a prepared statement of 3 rows is reused for the second chunk
+    assertEquals(2, SqlRecorder.statements.size());
+    // every chunk is executed through the statement handler
+    assertEquals(3, SqlRecorder.updates);
+    assertEquals("insert into users (name) values (?), (?), (?)", SqlRecorder.statements.get(0));
+    assertEquals("insert into users (name) values (?)", SqlRecorder.statements.get(1));
+    for (int i = 0; i < users.size(); i++) {
+      assertEquals(Integer.valueOf(i + 1), users.get(i).getId());
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> stored = sqlSession.getMapper(Mapper.class).getUsers();
+      assertEquals(7, stored.size());
+      assertEquals("User7", stored.get(6).getName());
+    }
+  }
+
+  @Test
+  void shouldRepeatValuesRowWithExpressions() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = newUsers(2);
+      for (int i = 0; i < users.size(); i++) {
+        users.get(i).setId(i + 1);
+        mapper.insertUserWithId(users.get(i));
+      }
+      sqlSession.commit();
+    }
+    assertEquals("insert into users (id, name) values (?, upper(?)), (?, upper(?))", SqlRecorder.statements.get(0));
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> stored = sqlSession.getMapper(Mapper.class).getUsers();
+      assertEquals("USER1", stored.get(0).getName());
+    }
+  }
+
+  @Test
+  void shouldUseJdbcBatchForInsertSelect() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = newUsers(2);
+      users.get(0).setId(1);
+      users.get(1).setId(2);
+      users.forEach(mapper::insertUserFromSelect);
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.get(0).getUpdateCounts().length);
+      sqlSession.commit();
+    }
+    assertEquals(1, SqlRecorder.statements.size());
+    assertFalse(SqlRecorder.statements.get(0).contains("), ("));
+  }
+
+  @Test
+  void shouldStoreSameRowsAsJdbcBatch() throws Exception {
+    int rows = 2000;
+    insertUsers(rows, true);
+    List<User> multiRowUsers = getUsers();
+    createTable();
+    insertUsers(rows, false);
+    List<User> jdbcBatchUsers = getUsers();
+    assertEquals(rows, multiRowUsers.size());
+    assertEquals(rows, jdbcBatchUsers.size());
+    for (int i = 0; i < rows; i++) {
+      assertEquals(jdbcBatchUsers.get(i).getId(), multiRowUsers.get(i).getId());
+      assertEquals(jdbcBatchUsers.get(i).getName(), multiRowUsers.get(i).getName());
+    }
+  }
+
+  private void insertUsers(int rows, boolean multiRowInsertEnabled) {
+    sqlSessionFactory.getConfiguration().setMultiRowInsertEnabled(multiRowInsertEnabled);
+    sqlSessionFactory.getConfiguration().setMultiRowInsertMaxRows(500);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      newUsers(rows).forEach(mapper::insertUser);
+      List<BatchResult> results = sqlSession.flushStatements();
+      sqlSession.commit();
+      int[] updateCounts = results.get(0).getUpdateCounts();
+      assertEquals(rows, updateCounts.length);
+      for (int updateCount : updateCounts) {
+        assertTrue(updateCount == 1 || updateCount == Statement.SUCCESS_NO_INFO);
+      }
+    } finally {
+      sqlSessionFactory.getConfiguration().setMultiRowInsertEnabled(true);
+      sqlSessionFactory.getConfiguration().setMultiRowInsertMaxRows(3);
+    }
+  }
+
+  private List<User> getUsers() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return sqlSession.getMapper(Mapper.class).getUsers();
+    }
+  }
+
+  private static List<User> newUsers(int count) {
+    List<User> users = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      User user = new User();
+      user.setName("User" + i);
+      users.add(user);
+    }
+    return users;
+  }
+
+}
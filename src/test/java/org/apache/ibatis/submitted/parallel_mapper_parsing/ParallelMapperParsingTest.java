@@ -0,0 +1,79 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_mapper_parsing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.xml.XMLConfigBuilder;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class ParallelMapperParsingTest {
+
+  private static final String NAMESPACE = "org.apache.ibatis.submitted.parallel_mapper_parsing.";
+
+  @Test
+  void shouldResolveForwardReferencesAcrossMappers() throws Exception {
+    Configuration configuration;
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/parallel_mapper_parsing/mybatis-config.xml")) {
+      configuration = new XMLConfigBuilder(reader).parse();
+    }
+    assertTrue(configuration.isParallelMapperParsingEnabled());
+    assertTrue(configuration.getIncompleteStatements().isEmpty());
+    assertTrue(configuration.getIncompleteResultMaps().isEmpty());
+    assertTrue(configuration.getIncompleteCacheRefs().isEmpty());
+
+    MappedStatement selectPerson = configuration.getMappedStatement(NAMESPACE + "PersonMapper.selectPerson");
+    MappedStatement selectPet = configuration.getMappedStatement(NAMESPACE + "PetMapper.selectPet");
+    assertSame(selectPet.getCache(), selectPerson.getCache());
+    BoundSql boundSql = selectPerson.getBoundSql(1);
+    assertTrue(boundSql.getSql().endsWith("where p.id = ?"));
+
+    ResultMap personResult = configuration.getResultMap(NAMESPACE + "PersonMapper.personResult");
+    assertEquals(3, personResult.getResultMappings().size());
+    assertTrue(configuration.hasStatement(NAMESPACE + "Mapper.countPersons"));
+  }
+
+  @Test
+  void shouldReportTheFirstMissingResourceInDeclarationOrder() {
+    String config = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>"
+        + "<!DOCTYPE configuration PUBLIC \"-//mybatis.org//DTD Config 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-config.dtd\">"
+        + "<configuration>"
+        + "<settings><setting name=\"parallelMapperParsingEnabled\" value=\"true\" /></settings>"
+        + "<mappers>"
+        + "<mapper resource=\"org/apache/ibatis/submitted/parallel_mapper_parsing/PetMapper.xml\" />"
+        + "<mapper resource=\"org/apache/ibatis/submitted/parallel_mapper_parsing/Missing1.xml\" />"
+        + "<mapper resource=\"org/apache/ibatis/submitted/parallel_mapper_parsing/Missing2.xml\" />"
+        + "</mappers>"
+        + "</configuration>";
+    BuilderException e = assertThrows(BuilderException.class,
+        () -> new XMLConfigBuilder(new StringReader(config)).parse());
+    assertTrue(e.getMessage().contains("Missing1.xml"), e.getMessage());
+  }
+
+}
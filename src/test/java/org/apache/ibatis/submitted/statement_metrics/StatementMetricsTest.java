@@ -0,0 +1,142 @@
+/**
+ *    Copyright 2009-2020 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.statement_metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.metrics.DefaultMetricsCollector;
+import org.apache.ibatis.metrics.SlowStatement;
+import org.apache.ibatis.metrics.StatementMetrics;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StatementMetricsTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+  private static DefaultMetricsCollector metrics;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/statement_metrics/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    metrics = (DefaultMetricsCollector) sqlSessionFactory.getConfiguration().getMetricsCollector();
+  }
+
+  @BeforeEach
+  void createTables() throws Exception {
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/statement_metrics/CreateDB.sql");
+    metrics.reset();
+  }
+
+  @Test
+  void shouldRecordExecutionsRowsAndCacheHits() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(2, mapper.getUsers().size());
+      assertEquals(2, mapper.getUsers().size());
+      assertEquals("User1", mapper.getUser(1).getName());
+    }
+    StatementMetrics users = metrics.getStatementMetrics(Mapper.class.getName() + ".getUsers");
+    assertEquals(1, users.getExecutions());
+    assertEquals(2, users.getRows());
+    assertEquals(1, users.getCacheHits());
+    assertEquals(1, users.getExecuteLatency().getCount());
+    assertEquals(1, users.getFetchLatency().getCount());
+    assertTrue(users.getExecuteLatency().getTotalNanos() > 0);
+    assertEquals(1, metrics.getStatementMetrics(Mapper.class.getName() + ".getUser").getRows());
+  }
+
+  @Test
+  void shouldCountRowsPassedToResultHandler() {
+    List<User> users = new ArrayList<>();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).scanUsers(context -> users.add(context.getResultObject()));
+    }
+    assertEquals(2, users.size());
+    StatementMetrics scan = metrics.getStatementMetrics(Mapper.class.getName() + ".scanUsers");
+    assertEquals(1, scan.getExecutions());
+    assertEquals(2, scan.getRows());
+  }
+
+  @Test
+  void shouldTimeBatchExecutions() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.renameUser(1, "Renamed1");
+      mapper.renameUser(2, "Renamed2");
+      sqlSession.flushStatements();
+      sqlSession.commit();
+    }
+    StatementMetrics rename = metrics.getStatementMetrics(Mapper.class.getName() + ".renameUser");
+    assertEquals(1, rename.getExecutions());
+    assertEquals(2, rename.getRows());
+    assertEquals(1, rename.getExecuteLatency().getCount());
+    assertTrue(rename.getExecuteLatency().getTotalNanos() > 0);
+  }
+
+  @Test
+  void shouldSampleSlowStatements() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertEquals(1, mapper.renameUser(2, "Renamed"));
+      sqlSession.commit();
+    }
+    List<SlowStatement> slowStatements = metrics.getSlowStatements();
+    assertEquals(1, slowStatements.size());
+    SlowStatement sample = slowStatements.get(0);
+    assertEquals(Mapper.class.getName() + ".renameUser", sample.getStatementId());
+    assertEquals("update users set name = ? where id = ?", sample.getSql());
+    assertEquals(Arrays.asList("Renamed", "2"), sample.getParameters());
+    StatementMetrics rename = metrics.getStatementMetrics(sample.getStatementId());
+    assertEquals(1, rename.getRows());
+    assertEquals(1, rename.getSlowExecutions());
+  }
+
+  @Test
+  void shouldExportMetricsOverJmx() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).getUsers();
+    }
+    ObjectName name = metrics.registerMBean("statement_metrics");
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      TabularData statements = (TabularData) server.getAttribute(name, "StatementMetrics");
+      assertTrue(statements.containsKey(new Object[] { Mapper.class.getName() + ".getUsers" }));
+    } finally {
+      metrics.unregisterMBean("statement_metrics");
+    }
+  }
+
+}
@@ -246,4 +246,57 @@ class TypeHandlerRegistryTest {
       executorService.shutdownNow();
     }
   }
+
+  @Test
+  void shouldResolveTheSameHandlersOnceFrozen() {
+    TypeHandlerRegistry frozen = new TypeHandlerRegistry();
+    frozen.freeze();
+    assertTrue(frozen.isFrozen());
+    assertFalse(typeHandlerRegistry.isFrozen());
+    Class<?>[] types = { String.class, Integer.class, int.class, Date.class, java.sql.Date.class, Object.class,
+        RichType.class, TestEnum.class, byte[].class };
+    for (Class<?> type : types) {
+      assertEquals(typeHandlerRegistry.hasTypeHandler(type), frozen.hasTypeHandler(type));
+      assertSameHandler(typeHandlerRegistry.getTypeHandler(type), frozen.getTypeHandler(type));
+      for (JdbcType jdbcType : JdbcType.values()) {
+        assertSameHandler(typeHandlerRegistry.getTypeHandler(type, jdbcType), frozen.getTypeHandler(type, jdbcType));
+      }
+    }
+  }
+
+  @Test
+  void shouldKeepResolvedHandlersWhenAnEnumIsRegisteredOnLookup() {
+    typeHandlerRegistry.freeze();
+    assertTrue(typeHandlerRegistry.isResolved(String.class));
+    assertFalse(typeHandlerRegistry.isResolved(TestEnum.class));
+
+    assertTrue(typeHandlerRegistry.getTypeHandler(TestEnum.class) instanceof EnumTypeHandler);
+    assertTrue(typeHandlerRegistry.isResolved(TestEnum.class));
+    assertTrue(typeHandlerRegistry.isResolved(String.class));
+  }
+
+  @Test
+  void shouldResolveHandlersAgainOnRegistration() {
+    typeHandlerRegistry.freeze();
+    assertFalse(typeHandlerRegistry.hasTypeHandler(StringBuilder.class));
+    assertFalse(typeHandlerRegistry.hasTypeHandler(StringBuilder.class, JdbcType.VARCHAR));
+
+    typeHandlerRegistry.register(StringBuilder.class, StringTypeHandler.class);
+    assertTrue(typeHandlerRegistry.isResolved(String.class));
+    assertTrue(typeHandlerRegistry.hasTypeHandler(StringBuilder.class));
+    assertSameHandler(new StringTypeHandler(), typeHandlerRegistry.getTypeHandler(StringBuilder.class, JdbcType.VARCHAR));
+
+    TypeHandler<String> clobHandler = new ClobTypeHandler();
+    typeHandlerRegistry.register(String.class, JdbcType.CLOB, clobHandler);
+    assertSame(clobHandler, typeHandlerRegistry.getTypeHandler(String.class, JdbcType.CLOB));
+    assertTrue(typeHandlerRegistry.getTypeHandler(String.class, JdbcType.VARCHAR) instanceof StringTypeHandler);
+  }
+
+  private static void assertSameHandler(TypeHandler<?> expected, TypeHandler<?> actual) {
+    if (expected == null) {
+      assertNull(actual);
+    } else {
+      assertEquals(expected.getClass(), actual.getClass());
+    }
+  }
 }
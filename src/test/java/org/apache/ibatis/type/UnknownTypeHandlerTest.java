@@ -17,11 +17,14 @@ package org.apache.ibatis.type;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 import java.sql.SQLException;
 
 import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.executor.resultset.ResultSetWrapper;
 import org.apache.ibatis.session.Configuration;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -49,6 +52,22 @@ class UnknownTypeHandlerTest extends BaseTypeHandlerTest {
     assertEquals("Hello", TYPE_HANDLER.getResult(rs, "column"));
   }
 
+  @Test
+  void shouldResolveTheHandlerOncePerResultSetWrapper() throws Exception {
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rsmd.getColumnCount()).thenReturn(1);
+    when(rsmd.getColumnLabel(1)).thenReturn("column");
+    when(rsmd.getColumnClassName(1)).thenReturn(String.class.getName());
+    when(rsmd.getColumnType(1)).thenReturn(JdbcType.VARCHAR.TYPE_CODE);
+    ResultSetWrapper rsw = new ResultSetWrapper(rs, new Configuration());
+    UnknownTypeHandler handler = new UnknownTypeHandler(new Configuration());
+    TypeHandler<?> columnHandler = rsw.getUnknownTypeHandler(handler, "column");
+    assertTrue(columnHandler instanceof StringTypeHandler);
+    assertSame(columnHandler, rsw.getUnknownTypeHandler(handler, "column"));
+    // once by the wrapper and once to resolve the handler
+    verify(rsmd, times(2)).getColumnClassName(1);
+  }
+
   @Override
   public void shouldGetResultNullFromResultSetByName() throws Exception {
     // Unnecessary